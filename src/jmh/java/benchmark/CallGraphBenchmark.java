@@ -0,0 +1,77 @@
+package benchmark;
+
+import analyser.CallGraphBuilder;
+import analyser.Parser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * CallGraphBuilder.build sur des CompilationUnit déjà parsées (avec bindings) :
+ * le parsing est fait une seule fois dans le setup.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class CallGraphBenchmark {
+
+    @Param({"100", "1000"})
+    public int classes;
+
+    @Param({"10"})
+    public int methodsPerClass;
+
+    @Param({"2.0"})
+    public double callDensity;
+
+    @Param({"3"})
+    public int packageDepth;
+
+    /** Threads de buildParallel. */
+    @Param({"4"})
+    public int workers;
+
+    private List<CompilationUnit> units;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Path projectRoot = Files.createTempDirectory("ast-bench");
+        try {
+            new SyntheticProjectGenerator(classes, methodsPerClass, callDensity, packageDepth, 42L).writeTo(projectRoot);
+            Parser parser = new Parser(projectRoot.toString());
+            parser.getScanner().quiet(true);
+            units = parser.parseProject();
+        } finally {
+            try (Stream<Path> paths = Files.walk(projectRoot)) {
+                paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+    }
+
+    @Benchmark
+    public Map<String, Set<String>> build() {
+        CallGraphBuilder builder = new CallGraphBuilder();
+        builder.build(units);
+        return builder.getCallGraph();
+    }
+
+    @Benchmark
+    public Map<String, Set<String>> buildParallel() {
+        CallGraphBuilder builder = new CallGraphBuilder();
+        builder.build(units, workers);
+        return builder.getCallGraph();
+    }
+}
@@ -0,0 +1,80 @@
+package benchmark;
+
+import analyser.CompactDendrogram;
+import analyser.CouplingGraphBuilder;
+import analyser.HierarchicalClustering;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HierarchicalClustering.cluster (et identifyModules) sur le couplage du projet généré.
+ * clusterExhaustive (version d'origine) est au moins cubique en nombre de classes : les tailles
+ * par défaut restent petites, les plus grandes se passent avec -p classes=...
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+public class ClusteringBenchmark {
+
+    @Param({"100", "250"})
+    public int classes;
+
+    @Param({"10"})
+    public int methodsPerClass;
+
+    @Param({"2.0"})
+    public double callDensity;
+
+    @Param({"3"})
+    public int packageDepth;
+
+    /** Seuil CP de identifyModules. */
+    @Param({"0.001"})
+    public double couplingThreshold;
+
+    private Map<String, Map<String, Double>> couplingGraph;
+    private HierarchicalClustering.DendrogramNode dendrogram;
+    private CompactDendrogram compactDendrogram;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CouplingGraphBuilder builder = new CouplingGraphBuilder(
+                new SyntheticProjectGenerator(classes, methodsPerClass, callDensity, packageDepth, 42L).getCallGraph());
+        builder.buildCouplingGraph();
+        couplingGraph = builder.getCouplingGraph();
+        dendrogram = new HierarchicalClustering(couplingGraph).cluster();
+        compactDendrogram = new HierarchicalClustering(couplingGraph).clusterCompact();
+    }
+
+    @Benchmark
+    public HierarchicalClustering.DendrogramNode cluster() {
+        return new HierarchicalClustering(couplingGraph).cluster();
+    }
+
+    @Benchmark
+    public CompactDendrogram clusterCompact() {
+        return new HierarchicalClustering(couplingGraph).clusterCompact();
+    }
+
+    @Benchmark
+    public HierarchicalClustering.DendrogramNode clusterExhaustive() {
+        return new HierarchicalClustering(couplingGraph).clusterExhaustive();
+    }
+
+    @Benchmark
+    public List<Set<String>> identifyModules() {
+        return new HierarchicalClustering(couplingGraph).identifyModules(dendrogram, couplingThreshold);
+    }
+
+    @Benchmark
+    public List<Set<String>> identifyModulesCompact() {
+        return new HierarchicalClustering(couplingGraph).identifyModules(compactDendrogram, couplingThreshold);
+    }
+}
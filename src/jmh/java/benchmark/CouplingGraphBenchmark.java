@@ -0,0 +1,44 @@
+package benchmark;
+
+import analyser.CouplingGraphBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/** CouplingGraphBuilder.buildCouplingGraph sur le graphe d'appel généré (sans parsing). */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class CouplingGraphBenchmark {
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int classes;
+
+    @Param({"10"})
+    public int methodsPerClass;
+
+    @Param({"2.0"})
+    public double callDensity;
+
+    @Param({"3"})
+    public int packageDepth;
+
+    private Map<String, Set<String>> callGraph;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        callGraph = new SyntheticProjectGenerator(classes, methodsPerClass, callDensity, packageDepth, 42L).getCallGraph();
+    }
+
+    @Benchmark
+    public Map<String, Map<String, Double>> buildCouplingGraph() {
+        CouplingGraphBuilder builder = new CouplingGraphBuilder(callGraph);
+        builder.buildCouplingGraph();
+        return builder.getCouplingGraph();
+    }
+}
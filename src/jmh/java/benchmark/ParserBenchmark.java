@@ -0,0 +1,83 @@
+package benchmark;
+
+import analyser.Parser;
+import analyser.facts.AnalysisMode;
+import analyser.facts.AnalysisPipeline;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Parsing d'un projet synthétique : une opération = le projet entier.
+ * Le débit en fichiers/s s'obtient en multipliant ops/s par le nombre de classes.
+ * Pour les variantes pipeline, gc.alloc.rate ne compte que le thread du benchmark (pas les
+ * workers du Parser) : se fier plutôt à gc.count / gc.time.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+public class ParserBenchmark {
+
+    @Param({"100", "1000"})
+    public int classes;
+
+    @Param({"10"})
+    public int methodsPerClass;
+
+    @Param({"2.0"})
+    public double callDensity;
+
+    @Param({"3"})
+    public int packageDepth;
+
+    private Path projectRoot;
+    private Parser parser;
+    private List<File> files;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        projectRoot = Files.createTempDirectory("ast-bench");
+        new SyntheticProjectGenerator(classes, methodsPerClass, callDensity, packageDepth, 42L).writeTo(projectRoot);
+        parser = new Parser(projectRoot.toString());
+        parser.getScanner().quiet(true);
+        files = parser.listSourceFiles();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(projectRoot)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    /** Parsing par lots avec bindings, toutes les CompilationUnit gardées en mémoire. */
+    @Benchmark
+    public void parseBatch(Blackhole blackhole) {
+        parser.setResolveBindings(true);
+        blackhole.consume(parser.parseFiles(files));
+    }
+
+    /** Pipeline parallèle en flux (extraction des faits), mode complet. */
+    @Benchmark
+    public void pipelineFull(Blackhole blackhole) {
+        blackhole.consume(new AnalysisPipeline(parser).addSink(blackhole::consume).run(files));
+    }
+
+    /** Pipeline parallèle en flux sans bindings (statistiques seules). */
+    @Benchmark
+    public void pipelineFast(Blackhole blackhole) {
+        blackhole.consume(new AnalysisPipeline(parser, AnalysisMode.FAST)
+                .addSink(blackhole::consume).run(files));
+    }
+}
@@ -0,0 +1,51 @@
+package benchmark;
+
+import analyser.StatisticsCollector;
+import analyser.facts.FileFacts;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** StatisticsCollector : agrégation des faits générés puis StatisticsCollector.generateReport. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class StatisticsBenchmark {
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int classes;
+
+    @Param({"10"})
+    public int methodsPerClass;
+
+    @Param({"2.0"})
+    public double callDensity;
+
+    @Param({"3"})
+    public int packageDepth;
+
+    private List<FileFacts> facts;
+    private StatisticsCollector collector;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        facts = new SyntheticProjectGenerator(classes, methodsPerClass, callDensity, packageDepth, 42L).getFacts();
+        collector = collect();
+    }
+
+    @Benchmark
+    public StatisticsCollector collect() {
+        StatisticsCollector stats = new StatisticsCollector();
+        facts.forEach(stats::addFacts);
+        return stats;
+    }
+
+    @Benchmark
+    public String generateReport() {
+        return collector.generateReport();
+    }
+}
@@ -0,0 +1,208 @@
+package benchmark;
+
+import analyser.CallGraphBuilder;
+import analyser.facts.FileFacts;
+import analyser.facts.FileFacts.CallEdge;
+import analyser.facts.FileFacts.ClassFacts;
+import analyser.facts.FileFacts.MethodFacts;
+import analyser.facts.FileFacts.TypeFacts;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Générateur déterministe de projets Java synthétiques pour les benchmarks.
+ * Avec la même graine et les mêmes paramètres, on obtient toujours les mêmes sources
+ * (et donc les mêmes graphes). Les classes C0..Cn-1 sont réparties dans des packages
+ * "gen.pX.pY..." de profondeur donnée ; chaque méthode appelle en moyenne callDensity
+ * méthodes d'autres classes (moitié vers des classes voisines, moitié au hasard).
+ *
+ * Le projet existe sous deux formes : les sources (writeTo) pour mesurer le parsing,
+ * et les faits correspondants (getFacts / getCallGraph) pour mesurer les étapes suivantes
+ * sans reparser.
+ */
+public class SyntheticProjectGenerator {
+
+    /** Nombre moyen de classes par package. */
+    private static final int CLASSES_PER_PACKAGE = 50;
+    private static final int FIELDS_PER_CLASS = 3;
+    /** Les appels "locaux" visent une classe à moins de LOCALITY positions. */
+    private static final int LOCALITY = 20;
+
+    private final int classCount;
+    private final int methodsPerClass;
+    private final double callDensity;
+    private final int packageDepth;
+    private final long seed;
+    private final int packageCount;
+    /** Nombre de sous-packages par niveau pour obtenir packageCount feuilles à la profondeur voulue. */
+    private final int branching;
+
+    private final List<GeneratedClass> classes = new ArrayList<>();
+
+    private record GeneratedClass(String packageName, String name, String source, ClassFacts facts, List<CallEdge> calls,
+                                  TypeFacts type, List<String> instantiated) {
+    }
+
+    public SyntheticProjectGenerator(int classCount, int methodsPerClass, double callDensity, int packageDepth, long seed) {
+        if (classCount < 1 || methodsPerClass < 1 || callDensity < 0 || packageDepth < 1) {
+            throw new IllegalArgumentException("Paramètres de génération invalides");
+        }
+        this.classCount = classCount;
+        this.methodsPerClass = methodsPerClass;
+        this.callDensity = callDensity;
+        this.packageDepth = packageDepth;
+        this.seed = seed;
+        this.packageCount = Math.max(1, (classCount + CLASSES_PER_PACKAGE - 1) / CLASSES_PER_PACKAGE);
+        this.branching = Math.max(2, (int) Math.ceil(Math.pow(packageCount, 1.0 / packageDepth)));
+        generate();
+    }
+
+    /** Écrit les sources dans projectRoot/src/main/java et renvoie projectRoot. */
+    public Path writeTo(Path projectRoot) throws IOException {
+        Path sourceRoot = projectRoot.resolve("src/main/java");
+        for (GeneratedClass clazz : classes) {
+            Path dir = sourceRoot.resolve(clazz.packageName().replace('.', '/'));
+            Files.createDirectories(dir);
+            Files.writeString(dir.resolve(clazz.name() + ".java"), clazz.source());
+        }
+        return projectRoot;
+    }
+
+    /** Faits de chaque fichier, identiques à ce que FactExtractor extrait des sources. */
+    public List<FileFacts> getFacts() {
+        List<FileFacts> facts = new ArrayList<>(classes.size());
+        for (GeneratedClass clazz : classes) {
+            facts.add(new FileFacts(clazz.packageName(), List.of(clazz.facts()), clazz.calls(),
+                    List.of(clazz.type()), clazz.instantiated()));
+        }
+        return facts;
+    }
+
+    /** Graphe d'appel du projet ("Classe.méthode" -> méthodes appelées). */
+    public Map<String, Set<String>> getCallGraph() {
+        CallGraphBuilder builder = new CallGraphBuilder();
+        getFacts().forEach(builder::addFacts);
+        return builder.getCallGraph();
+    }
+
+    public int getClassCount() {
+        return classCount;
+    }
+
+    /* ---------------------------- Génération ---------------------------- */
+
+    private void generate() {
+        Random random = new Random(seed);
+        for (int i = 0; i < classCount; i++) {
+            classes.add(generateClass(i, packageOf(i), random));
+        }
+    }
+
+    /** Package de la classe d'index donné (ne dépend que de l'index). */
+    private String packageOf(int classIndex) {
+        StringBuilder name = new StringBuilder("gen");
+        int[] digits = new int[packageDepth];
+        int value = classIndex % packageCount;
+        for (int level = packageDepth - 1; level >= 0; level--) {
+            digits[level] = value % branching;
+            value /= branching;
+        }
+        for (int digit : digits) {
+            name.append(".p").append(digit);
+        }
+        return name.toString();
+    }
+
+    private GeneratedClass generateClass(int index, String packageName, Random random) {
+        String className = "C" + index;
+        List<String> lines = new ArrayList<>();
+        lines.add("package " + packageName + ";");
+        lines.add("");
+        int classStart = lines.size() + 1;
+        lines.add("public class " + className + " {");
+        for (int f = 0; f < FIELDS_PER_CLASS; f++) {
+            lines.add("    private int f" + f + ";");
+        }
+
+        List<MethodFacts> methods = new ArrayList<>();
+        List<CallEdge> calls = new ArrayList<>();
+        List<String> methodNames = new ArrayList<>();
+        Set<String> instantiated = new LinkedHashSet<>();
+        for (int m = 0; m < methodsPerClass; m++) {
+            lines.add("");
+            int methodStart = lines.size() + 1;
+            lines.add("    public int m" + m + "(int x) {");
+            lines.add("        int r = x + f" + (m % FIELDS_PER_CLASS) + ";");
+
+            Set<String> callees = new LinkedHashSet<>();
+            int callCount = callCount(random);
+            for (int c = 0; c < callCount; c++) {
+                int target = target(index, random);
+                int targetMethod = random.nextInt(methodsPerClass);
+                lines.add("        r += new " + packageOf(target) + ".C" + target + "().m" + targetMethod + "(r);");
+                callees.add("C" + target + ".m" + targetMethod);
+                instantiated.add("C" + target);
+            }
+            lines.add("        return r;");
+            lines.add("    }");
+            int methodEnd = lines.size();
+
+            methods.add(new MethodFacts("m" + m, methodEnd - methodStart, 1));
+            methodNames.add("m" + m);
+            for (String callee : callees) {
+                calls.add(new CallEdge(className + ".m" + m, callee));
+            }
+        }
+        lines.add("}");
+        int classEnd = lines.size();
+
+        String source = String.join("\n", lines) + "\n";
+        ClassFacts facts = new ClassFacts(className, FIELDS_PER_CLASS, classEnd - classStart + 1, methods);
+        TypeFacts type = new TypeFacts(className, null, List.of(), methodNames);
+        return new GeneratedClass(packageName, className, source, facts, calls, type, new ArrayList<>(instantiated));
+    }
+
+    /** Nombre d'appels d'une méthode : partie entière de la densité + 1 avec la probabilité restante. */
+    private int callCount(Random random) {
+        int base = (int) callDensity;
+        return base + (random.nextDouble() < callDensity - base ? 1 : 0);
+    }
+
+    /** Classe appelée : une voisine la moitié du temps, sinon n'importe quelle autre classe. */
+    private int target(int caller, Random random) {
+        if (classCount == 1) return caller;
+        int target;
+        do {
+            if (random.nextBoolean()) {
+                target = Math.floorMod(caller + random.nextInt(2 * LOCALITY + 1) - LOCALITY, classCount);
+            } else {
+                target = random.nextInt(classCount);
+            }
+        } while (target == caller);
+        return target;
+    }
+
+    /**
+     * Écrit un projet synthétique sur disque (pour l'ouvrir dans l'interface ou le CLI).
+     * Usage : &lt;dossier&gt; [classes] [méthodes par classe] [densité d'appels] [profondeur] [graine]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: SyntheticProjectGenerator <dossier> [classes] [méthodes/classe] [densité] [profondeur] [graine]");
+            System.exit(1);
+        }
+        int classes = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int methods = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        double density = args.length > 3 ? Double.parseDouble(args[3]) : 2.0;
+        int depth = args.length > 4 ? Integer.parseInt(args[4]) : 3;
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : 42L;
+
+        long start = System.nanoTime();
+        Path root = new SyntheticProjectGenerator(classes, methods, density, depth, seed).writeTo(Path.of(args[0]));
+        System.out.printf("Projet synthétique de %d classes écrit dans %s en %d ms%n",
+                classes, root.toAbsolutePath(), (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,603 @@
+package analyser;
+
+import analyser.facts.FileFacts;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+
+/**
+ * Instantané binaire versionné des résultats d'une analyse : graphe d'appel, graphe de
+ * couplage et statistiques. Toutes les chaînes sont dans une table unique, les graphes sont
+ * des tableaux d'entiers (CSR). À l'ouverture, le fichier est memory-mappé et les graphes
+ * sont exposés par des vues Map en lecture seule qui lisent directement le fichier : rien
+ * n'est désérialisé, ouvrir un graphe de millions d'arcs est quasi instantané.
+ *
+ * Format (big-endian) :
+ *   MAGIC, VERSION,
+ *   nbChaînes, offsets[nbChaînes + 1], ids triés par octets[nbChaînes], octets UTF-8,
+ *   nbMéthodes, nbArcs, offsets[nbMéthodes + 1], appelés[nbArcs]  (méthode i = chaîne i),
+ *   nbClasses, nbArcs, chaîne de chaque classe[nbClasses] (croissant), offsets[nbClasses + 1],
+ *       classe appelée[nbArcs], poids (double)[nbArcs],
+ *   nbPackages, chaînes[nbPackages],
+ *   nbClasses, [nom, attributs, lignes, nbMéthodes, [nom, lignes, paramètres] * nbMéthodes] * nbClasses.
+ *
+ * Le fichier doit rester sous 2 Go (limite d'un MappedByteBuffer).
+ */
+public class AnalysisSnapshot {
+
+    private static final int MAGIC = 0x41535453; // "ASTS"
+    private static final int VERSION = 1;
+
+    private final MappedByteBuffer buffer;
+    private final int stringCount;
+    private final int stringOffsets;
+    private final int sortedIds;
+    private final int stringBytes;
+    private final int methodCount;
+    private final int callEdgeCount;
+    private final int callOffsets;
+    private final int callTargets;
+    private final int classCount;
+    private final int couplingEdgeCount;
+    private final int classStrings;
+    private final int couplingOffsets;
+    private final int couplingTargets;
+    private final int couplingWeights;
+    private final int packagesStart;
+    private final int statisticsStart;
+    private final int callerCount;
+    private final int couplingRowCount;
+
+    private AnalysisSnapshot(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC) throw new IOException("Ce fichier n'est pas un snapshot d'analyse");
+        if (buffer.getInt(4) != VERSION) throw new IOException("Version de snapshot non supportée: " + buffer.getInt(4));
+        int pos = 8;
+        stringCount = buffer.getInt(pos);
+        stringOffsets = pos + 4;
+        sortedIds = stringOffsets + (stringCount + 1) * 4;
+        stringBytes = sortedIds + stringCount * 4;
+        pos = stringBytes + buffer.getInt(stringOffsets + stringCount * 4);
+
+        methodCount = buffer.getInt(pos);
+        callEdgeCount = buffer.getInt(pos + 4);
+        callOffsets = pos + 8;
+        callTargets = callOffsets + (methodCount + 1) * 4;
+        pos = callTargets + callEdgeCount * 4;
+
+        classCount = buffer.getInt(pos);
+        couplingEdgeCount = buffer.getInt(pos + 4);
+        classStrings = pos + 8;
+        couplingOffsets = classStrings + classCount * 4;
+        couplingTargets = couplingOffsets + (classCount + 1) * 4;
+        couplingWeights = couplingTargets + couplingEdgeCount * 4;
+        packagesStart = couplingWeights + couplingEdgeCount * 8;
+        statisticsStart = packagesStart + 4 + buffer.getInt(packagesStart) * 4;
+        if (statisticsEnd() > buffer.limit()) throw new IOException("Snapshot tronqué");
+
+        int callers = 0;
+        for (int m = 0; m < methodCount; m++) {
+            if (callDegree(m) > 0) callers++;
+        }
+        callerCount = callers;
+        int rows = 0;
+        for (int c = 0; c < classCount; c++) {
+            if (couplingEnd(c) > couplingStart(c)) rows++;
+        }
+        couplingRowCount = rows;
+    }
+
+    /**
+     * Ouvre un snapshot par memory-mapping (aucune lecture des graphes à l'ouverture). Un fichier
+     * tronqué est détecté ici, quelle que soit la section coupée.
+     */
+    public static AnalysisSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new AnalysisSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IndexOutOfBoundsException e) {
+            // Un en-tête de section lu au-delà de la fin du fichier
+            throw new IOException("Snapshot tronqué: " + file, e);
+        }
+    }
+
+    /** Fin de la section des statistiques, c'est-à-dire du fichier (seule section à taille variable par élément). */
+    private int statisticsEnd() {
+        int pos = statisticsStart;
+        int count = buffer.getInt(pos);
+        pos += 4;
+        for (int c = 0; c < count; c++) {
+            pos += 16 + buffer.getInt(pos + 12) * 12;
+        }
+        return pos;
+    }
+
+    /* ---------------------------- Lecture ---------------------------- */
+
+    /** Graphe d'appel (vue en lecture seule sur le fichier). */
+    public Map<String, Set<String>> getCallGraph() {
+        return new CallGraphView();
+    }
+
+    /** Graphe de couplage (vue en lecture seule sur le fichier). */
+    public Map<String, Map<String, Double>> getCouplingGraph() {
+        return new CouplingGraphView();
+    }
+
+    /** Statistiques, reconstruites à partir du fichier (petites devant les graphes). */
+    public StatisticsCollector getStatistics() {
+        StatisticsCollector stats = new StatisticsCollector();
+        int packageCount = buffer.getInt(packagesStart);
+        for (int i = 0; i < packageCount; i++) {
+            stats.addFacts(new FileFacts(string(buffer.getInt(packagesStart + 4 + i * 4)), List.of(), List.of()));
+        }
+        int pos = statisticsStart;
+        int count = buffer.getInt(pos);
+        pos += 4;
+        for (int c = 0; c < count; c++) {
+            String name = string(buffer.getInt(pos));
+            int attributes = buffer.getInt(pos + 4);
+            int lines = buffer.getInt(pos + 8);
+            int methods = buffer.getInt(pos + 12);
+            pos += 16;
+            List<FileFacts.MethodFacts> methodFacts = new ArrayList<>(methods);
+            for (int m = 0; m < methods; m++) {
+                methodFacts.add(new FileFacts.MethodFacts(string(buffer.getInt(pos)), buffer.getInt(pos + 4), buffer.getInt(pos + 8)));
+                pos += 12;
+            }
+            stats.addFacts(new FileFacts(null, List.of(new FileFacts.ClassFacts(name, attributes, lines, methodFacts)), List.of()));
+        }
+        return stats;
+    }
+
+    public int getMethodCount() {
+        return methodCount;
+    }
+
+    public int getCallEdgeCount() {
+        return callEdgeCount;
+    }
+
+    public int getCouplingEdgeCount() {
+        return couplingEdgeCount;
+    }
+
+    private String string(int id) {
+        int start = buffer.getInt(stringOffsets + id * 4);
+        byte[] bytes = new byte[buffer.getInt(stringOffsets + id * 4 + 4) - start];
+        buffer.get(stringBytes + start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** Identifiant de la chaîne (dichotomie sur les octets UTF-8), ou -1. */
+    private int findString(Object value) {
+        if (!(value instanceof String s)) return -1;
+        byte[] key = s.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = stringCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int id = buffer.getInt(sortedIds + mid * 4);
+            int cmp = compareString(id, key);
+            if (cmp < 0) low = mid + 1;
+            else if (cmp > 0) high = mid - 1;
+            else return id;
+        }
+        return -1;
+    }
+
+    private int compareString(int id, byte[] key) {
+        int start = stringBytes + buffer.getInt(stringOffsets + id * 4);
+        int length = buffer.getInt(stringOffsets + id * 4 + 4) - buffer.getInt(stringOffsets + id * 4);
+        int n = Math.min(length, key.length);
+        for (int i = 0; i < n; i++) {
+            int cmp = Integer.compare(buffer.get(start + i) & 0xff, key[i] & 0xff);
+            if (cmp != 0) return cmp;
+        }
+        return Integer.compare(length, key.length);
+    }
+
+    private int callStart(int method) {
+        return buffer.getInt(callOffsets + method * 4);
+    }
+
+    private int callDegree(int method) {
+        return buffer.getInt(callOffsets + method * 4 + 4) - callStart(method);
+    }
+
+    private int callTarget(int index) {
+        return buffer.getInt(callTargets + index * 4);
+    }
+
+    /** Indice de la classe dont le nom est la chaîne donnée, ou -1. */
+    private int classIndex(Object name) {
+        int id = findString(name);
+        if (id < 0) return -1;
+        int low = 0;
+        int high = classCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midId = buffer.getInt(classStrings + mid * 4);
+            if (midId < id) low = mid + 1;
+            else if (midId > id) high = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    private int couplingStart(int clazz) {
+        return buffer.getInt(couplingOffsets + clazz * 4);
+    }
+
+    private int couplingEnd(int clazz) {
+        return buffer.getInt(couplingOffsets + clazz * 4 + 4);
+    }
+
+    private String className(int clazz) {
+        return string(buffer.getInt(classStrings + clazz * 4));
+    }
+
+    /* ---------------------------- Vues ---------------------------- */
+
+    private final class CallGraphView extends AbstractMap<String, Set<String>> {
+        @Override
+        public int size() {
+            return callerCount;
+        }
+
+        @Override
+        public Set<String> get(Object key) {
+            int id = findString(key);
+            return id >= 0 && id < methodCount && callDegree(id) > 0 ? new CalleeSet(id) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public Set<Entry<String, Set<String>>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public int size() {
+                    return callerCount;
+                }
+
+                @Override
+                public Iterator<Entry<String, Set<String>>> iterator() {
+                    return new RowIterator<>(methodCount, m -> callDegree(m) > 0,
+                            m -> new SimpleImmutableEntry<>(string(m), new CalleeSet(m)));
+                }
+            };
+        }
+    }
+
+    private final class CalleeSet extends AbstractSet<String> {
+        private final int method;
+
+        CalleeSet(int method) {
+            this.method = method;
+        }
+
+        @Override
+        public int size() {
+            return callDegree(method);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            int id = findString(o);
+            if (id < 0 || id >= methodCount) return false;
+            int low = callStart(method);
+            int high = low + callDegree(method) - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int target = callTarget(mid);
+                if (target < id) low = mid + 1;
+                else if (target > id) high = mid - 1;
+                else return true;
+            }
+            return false;
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            int start = callStart(method);
+            return new RowIterator<>(callDegree(method), i -> true, i -> string(callTarget(start + i)));
+        }
+    }
+
+    private final class CouplingGraphView extends AbstractMap<String, Map<String, Double>> {
+        @Override
+        public int size() {
+            return couplingRowCount;
+        }
+
+        @Override
+        public Map<String, Double> get(Object key) {
+            int clazz = classIndex(key);
+            return clazz >= 0 && couplingEnd(clazz) > couplingStart(clazz) ? new WeightMap(clazz) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public Set<Entry<String, Map<String, Double>>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public int size() {
+                    return couplingRowCount;
+                }
+
+                @Override
+                public Iterator<Entry<String, Map<String, Double>>> iterator() {
+                    return new RowIterator<>(classCount, c -> couplingEnd(c) > couplingStart(c),
+                            c -> new SimpleImmutableEntry<>(className(c), new WeightMap(c)));
+                }
+            };
+        }
+    }
+
+    private final class WeightMap extends AbstractMap<String, Double> {
+        private final int clazz;
+
+        WeightMap(int clazz) {
+            this.clazz = clazz;
+        }
+
+        @Override
+        public int size() {
+            return couplingEnd(clazz) - couplingStart(clazz);
+        }
+
+        @Override
+        public Double get(Object key) {
+            int target = classIndex(key);
+            if (target < 0) return null;
+            int low = couplingStart(clazz);
+            int high = couplingEnd(clazz) - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int value = buffer.getInt(couplingTargets + mid * 4);
+                if (value < target) low = mid + 1;
+                else if (value > target) high = mid - 1;
+                else return buffer.getDouble(couplingWeights + mid * 8);
+            }
+            return null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public Set<Entry<String, Double>> entrySet() {
+            int start = couplingStart(clazz);
+            return new AbstractSet<>() {
+                @Override
+                public int size() {
+                    return WeightMap.this.size();
+                }
+
+                @Override
+                public Iterator<Entry<String, Double>> iterator() {
+                    return new RowIterator<>(WeightMap.this.size(), i -> true, i -> new SimpleImmutableEntry<>(
+                            className(buffer.getInt(couplingTargets + (start + i) * 4)),
+                            buffer.getDouble(couplingWeights + (start + i) * 8)));
+                }
+            };
+        }
+    }
+
+    /** Parcourt les indices 0..count-1 retenus par le filtre. */
+    private static final class RowIterator<T> implements Iterator<T> {
+        private final int count;
+        private final IntPredicate filter;
+        private final IntFunction<T> mapper;
+        private int next;
+
+        RowIterator(int count, IntPredicate filter, IntFunction<T> mapper) {
+            this.count = count;
+            this.filter = filter;
+            this.mapper = mapper;
+            this.next = advance(0);
+        }
+
+        private int advance(int from) {
+            int i = from;
+            while (i < count && !filter.test(i)) i++;
+            return i;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < count;
+        }
+
+        @Override
+        public T next() {
+            if (next >= count) throw new NoSuchElementException();
+            int current = next;
+            next = advance(current + 1);
+            return mapper.apply(current);
+        }
+    }
+
+    /* ---------------------------- Écriture ---------------------------- */
+
+    /**
+     * Écrit un snapshot. Chaque partie est optionnelle (null = vide), par exemple le graphe
+     * d'appel et le couplage après une analyse en mode rapide.
+     */
+    public static void write(Path file, Map<String, Set<String>> callGraph,
+                             Map<String, Map<String, Double>> couplingGraph, StatisticsCollector stats) throws IOException {
+        Map<String, Set<String>> callMap = callGraph != null ? callGraph : Map.of();
+        CompactCallGraph calls = CompactCallGraph.unwrap(callMap);
+        if (calls == null) {
+            CallGraphBuilder builder = new CallGraphBuilder();
+            builder.merge(callMap);
+            calls = builder.getCompactGraph();
+        }
+
+        // Table des chaînes : les méthodes du graphe d'appel d'abord, dans l'ordre de leurs identifiants
+        SymbolTable strings = new SymbolTable();
+        for (int m = 0; m < calls.getNodeCount(); m++) {
+            strings.intern(calls.getSymbols().nameOf(m));
+        }
+        int methodCount = strings.size();
+
+        Map<String, Map<String, Double>> coupling = couplingGraph != null ? couplingGraph : Map.of();
+        coupling.forEach((from, targets) -> {
+            strings.intern(from);
+            targets.keySet().forEach(strings::intern);
+        });
+        // Classes du couplage triées par identifiant de chaîne (recherche par dichotomie à la lecture)
+        int[] classIndex = new int[strings.size()];
+        Arrays.fill(classIndex, -1);
+        coupling.forEach((from, targets) -> {
+            classIndex[strings.idOf(from)] = 0;
+            targets.keySet().forEach(to -> classIndex[strings.idOf(to)] = 0);
+        });
+        int[] classIds = new int[classIndex.length];
+        int classCount = 0;
+        for (int id = 0; id < classIndex.length; id++) {
+            if (classIndex[id] == 0) {
+                classIndex[id] = classCount;
+                classIds[classCount++] = id;
+            }
+        }
+        List<String> packages = new ArrayList<>();
+        List<StatisticsCollector.ClassStats> classStats = new ArrayList<>();
+        if (stats != null) {
+            packages.addAll(new TreeSet<>(stats.getPackages()));
+            packages.forEach(strings::intern);
+            classStats.addAll(stats.getClasses().values());
+            for (StatisticsCollector.ClassStats clazz : classStats) {
+                strings.intern(clazz.name);
+                clazz.methods.forEach(m -> strings.intern(m.name));
+            }
+        }
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeStrings(out, strings);
+
+            out.writeInt(methodCount);
+            out.writeInt(calls.getEdgeCount());
+            for (int m = 0; m <= methodCount; m++) {
+                out.writeInt(calls.rowStart(m));
+            }
+            for (int i = 0; i < calls.getEdgeCount(); i++) {
+                out.writeInt(calls.target(i));
+            }
+
+            int couplingEdges = coupling.values().stream().mapToInt(Map::size).sum();
+            out.writeInt(classCount);
+            out.writeInt(couplingEdges);
+            for (int i = 0; i < classCount; i++) out.writeInt(classIds[i]);
+            // Lignes triées par classe appelée : une clé (indice << 32 | position dans les poids) par arc
+            long[] rowKeys = new long[couplingEdges];
+            double[] weights = new double[couplingEdges];
+            int[] offsets = new int[classCount + 1];
+            int edge = 0;
+            for (int c = 0; c < classCount; c++) {
+                int rowStart = edge;
+                Map<String, Double> row = coupling.get(strings.nameOf(classIds[c]));
+                if (row != null) {
+                    for (Map.Entry<String, Double> target : row.entrySet()) {
+                        weights[edge] = target.getValue();
+                        rowKeys[edge] = ((long) classIndex[strings.idOf(target.getKey())] << 32) | edge;
+                        edge++;
+                    }
+                }
+                Arrays.sort(rowKeys, rowStart, edge);
+                offsets[c + 1] = edge;
+            }
+            for (int offset : offsets) out.writeInt(offset);
+            for (int i = 0; i < couplingEdges; i++) out.writeInt((int) (rowKeys[i] >>> 32));
+            for (int i = 0; i < couplingEdges; i++) out.writeDouble(weights[(int) rowKeys[i]]);
+
+            out.writeInt(packages.size());
+            for (String pkg : packages) out.writeInt(strings.idOf(pkg));
+
+            out.writeInt(classStats.size());
+            for (StatisticsCollector.ClassStats clazz : classStats) {
+                out.writeInt(strings.idOf(clazz.name));
+                out.writeInt(clazz.attributeCount);
+                out.writeInt(clazz.lineCount);
+                out.writeInt(clazz.methods.size());
+                for (StatisticsCollector.MethodStats method : clazz.methods) {
+                    out.writeInt(strings.idOf(method.name));
+                    out.writeInt(method.lineCount);
+                    out.writeInt(method.parameterCount);
+                }
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void writeStrings(DataOutputStream out, SymbolTable strings) throws IOException {
+        int count = strings.size();
+        byte[][] bytes = new byte[count][];
+        for (int id = 0; id < count; id++) {
+            bytes[id] = strings.nameOf(id).getBytes(StandardCharsets.UTF_8);
+        }
+        out.writeInt(count);
+        int offset = 0;
+        out.writeInt(0);
+        for (byte[] value : bytes) {
+            offset += value.length;
+            out.writeInt(offset);
+        }
+        int[] sorted = new int[count];
+        for (int id = 0; id < count; id++) sorted[id] = id;
+        sortByBytes(sorted, new int[count], 0, count, bytes);
+        for (int id : sorted) out.writeInt(id);
+        for (byte[] value : bytes) out.write(value);
+    }
+
+    /** Tri fusion des identifiants par octets UTF-8 (sur int[] : pas d'Integer pour des millions de chaînes). */
+    private static void sortByBytes(int[] ids, int[] tmp, int from, int to, byte[][] bytes) {
+        if (to - from < 16) {
+            for (int i = from + 1; i < to; i++) {
+                int value = ids[i];
+                int j = i - 1;
+                while (j >= from && Arrays.compareUnsigned(bytes[ids[j]], bytes[value]) > 0) {
+                    ids[j + 1] = ids[j];
+                    j--;
+                }
+                ids[j + 1] = value;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        sortByBytes(ids, tmp, from, mid, bytes);
+        sortByBytes(ids, tmp, mid, to, bytes);
+        if (Arrays.compareUnsigned(bytes[ids[mid - 1]], bytes[ids[mid]]) <= 0) return;
+        System.arraycopy(ids, from, tmp, from, to - from);
+        int i = from;
+        int j = mid;
+        int k = from;
+        while (i < mid && j < to) {
+            ids[k++] = Arrays.compareUnsigned(bytes[tmp[i]], bytes[tmp[j]]) <= 0 ? tmp[i++] : tmp[j++];
+        }
+        while (i < mid) ids[k++] = tmp[i++];
+        while (j < to) ids[k++] = tmp[j++];
+    }
+}
@@ -1,54 +1,225 @@
 package analyser;
 
-import analyser.visitors.MethodInvocationVisitor;
-import analyser.visitors.TypeDeclarationVisitor;
+import analyser.facts.FactExtractor;
+import analyser.facts.FileFacts;
 
 import org.eclipse.jdt.core.dom.*;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class CallGraphBuilder {
 
-    /** Graphe d'appel : clé = méthode appelante, valeur = méthodes appelées **/
+    /** Graphe d'appel : clé = méthode appelante, valeur = méthodes appelées.
+     *  Les arcs sont accumulés sous forme d'identifiants puis figés en CSR (CompactCallGraph). **/
 	
-    private final Map<String, Set<String>> callGraph = new HashMap<>();
+    private CompactCallGraph.Builder edges;
+    private CompactCallGraph frozen;
+    private MemoryBudget budget = MemoryBudget.UNLIMITED;
+
+    /** Hiérarchie des types vus, pour étendre les appels virtuels (CHA par défaut). **/
+    private final ClassHierarchyIndex.Builder hierarchy = new ClassHierarchyIndex.Builder();
+    private ClassHierarchyIndex.Dispatch dispatch = ClassHierarchyIndex.Dispatch.CHA;
+    private ClassHierarchyIndex hierarchyIndex;
+    private CompactCallGraph dispatched;
        
     /** Construction du graphe d’appel à partir d’une liste de CompilationUnit. **/
     
     public void build(List<CompilationUnit> units) {
         for (CompilationUnit unit : units) {
-            TypeDeclarationVisitor typeVisitor = new TypeDeclarationVisitor();
-            unit.accept(typeVisitor);
+            addFacts(FactExtractor.extractCallFacts(unit));
+        }
+    }
 
-            for (TypeDeclaration clazz : typeVisitor.getClasses()) {
-                String className = clazz.getName().toString();
+    /** Construction parallèle : les unités sont découpées en paquets consécutifs, chaque paquet
+     *  remplit son propre builder d'arcs (sans verrou), puis les builders sont fusionnés dans l'ordre
+     *  des paquets. Le graphe obtenu est identique à celui de build(units). **/
+    
+    public void build(List<CompilationUnit> units, int workers) {
+        if (workers <= 1 || units.size() < 2) {
+            build(units);
+            return;
+        }
+        // Plus de paquets que de threads pour équilibrer la charge
+        int chunkSize = Math.max(1, (units.size() + workers * 4 - 1) / (workers * 4));
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        List<Future<CallGraphBuilder>> chunks = new ArrayList<>();
+        try {
+            for (int i = 0; i < units.size(); i += chunkSize) {
+                List<CompilationUnit> chunk = units.subList(i, Math.min(i + chunkSize, units.size()));
+                chunks.add(pool.submit(() -> {
+                    CallGraphBuilder local = new CallGraphBuilder();
+                    local.setMemoryBudget(budget);
+                    for (CompilationUnit unit : chunk) {
+                        local.addFacts(FactExtractor.extractCallFacts(unit));
+                    }
+                    return local;
+                }));
+            }
+            CompactCallGraph.Builder builder = builder();
+            for (Future<CallGraphBuilder> chunk : chunks) {
+                CallGraphBuilder local = chunk.get();
+                if (local.edges != null) {
+                    builder.append(local.edges);
+                }
+                hierarchy.append(local.hierarchy);
+            }
+            hierarchyIndex = null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Construction du graphe d'appel interrompue", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Erreur lors de la construction du graphe d'appel", e.getCause());
+        } finally {
+            pool.shutdownNow();
+            closeChunks(chunks);
+        }
+    }
 
-                for (MethodDeclaration method : clazz.getMethods()) {
-                    String caller = className + "." + method.getName();
+    /** Ferme les builders des paquets terminés, fusionnés ou non : leurs fichiers temporaires sont supprimés. **/
+    
+    private static void closeChunks(List<Future<CallGraphBuilder>> chunks) {
+        for (Future<CallGraphBuilder> chunk : chunks) {
+            if (!chunk.isDone() || chunk.isCancelled()) {
+                continue;
+            }
+            try {
+                CallGraphBuilder local = chunk.get();
+                if (local.edges != null) {
+                    local.edges.close();
+                }
+            } catch (InterruptedException | ExecutionException e) {
+                // paquet en échec : aucun builder à fermer
+            }
+        }
+    }
 
-                    /* Visiteur pour trouver les appels dans cette méthode */
-                    MethodInvocationVisitor invocationVisitor = new MethodInvocationVisitor(className);
-                    method.accept(invocationVisitor);
+    /** Ajoute les arcs d'appel d'un fichier déjà extraits (AST ou cache). **/
+    
+    public void addFacts(FileFacts facts) {
+        addCalls(facts.calls());
+        if (!facts.types().isEmpty() || !facts.instantiatedTypes().isEmpty()) {
+            hierarchy.addFacts(facts);
+            hierarchyIndex = null;
+        }
+    }
 
-                    for (String callee : invocationVisitor.getCalledMethods()) {
-                        callGraph
-                            .computeIfAbsent(caller, k -> new HashSet<>())
-                            .add(callee);
-                    }
-                }
+    private void addCalls(List<FileFacts.CallEdge> calls) {
+        CompactCallGraph.Builder builder = builder();
+        for (FileFacts.CallEdge edge : calls) {
+            builder.addEdge(edge.caller(), edge.callee());
+        }
+    }
+
+    /** Fusionne un autre graphe d'appel (ex: celui d'un module) dans celui-ci. **/
+    
+    public void merge(Map<String, Set<String>> other) {
+        CompactCallGraph.Builder builder = builder();
+        CompactCallGraph compact = CompactCallGraph.unwrap(other);
+        if (compact != null) {
+            SymbolTable symbols = compact.getSymbols();
+            compact.forEachEdge((caller, callee) ->
+                builder.addEdge(symbols.nameOf(caller), symbols.nameOf(callee)));
+            return;
+        }
+        other.forEach((caller, callees) -> {
+            for (String callee : callees) {
+                builder.addEdge(caller, callee);
             }
+        });
+    }
+
+    /** Fusionne un autre builder : ses arcs et sa hiérarchie de types (appels virtuels entre modules). **/
+    
+    public void merge(CallGraphBuilder other) {
+        merge(other.getRawGraph().asMap());
+        hierarchy.append(other.hierarchy);
+        hierarchyIndex = null;
+    }
+
+    /** Budget mémoire des arcs en construction (à fixer avant d'ajouter des arcs) : au-delà, ils sont déversés sur disque. **/
+    
+    public void setMemoryBudget(MemoryBudget budget) {
+        this.budget = budget;
+    }
+
+    /** Choisit la résolution des appels virtuels (NONE, CHA ou RTA). **/
+    
+    public void setDispatch(ClassHierarchyIndex.Dispatch dispatch) {
+        this.dispatch = dispatch;
+        dispatched = null;
+    }
+
+    public ClassHierarchyIndex.Dispatch getDispatch() {
+        return dispatch;
+    }
+
+    /** Index de la hiérarchie des types vus jusqu'ici (construit une fois, puis réutilisé). **/
+    
+    public ClassHierarchyIndex getHierarchyIndex() {
+        if (hierarchyIndex == null) {
+            hierarchyIndex = hierarchy.build();
+            dispatched = null;
         }
+        return hierarchyIndex;
     }
 
-    /* Renvoie le graphe d’appel */
+    /* Renvoie le graphe d’appel (vue en lecture seule sur le graphe compact) */
     public Map<String, Set<String>> getCallGraph() {
-        return callGraph;
+        return getCompactGraph().asMap();
+    }
+
+    /** Graphe d'appel compact (identifiants entiers + CSR), appels virtuels étendus selon le mode. **/
+    
+    public CompactCallGraph getCompactGraph() {
+        CompactCallGraph raw = getRawGraph();
+        if (dispatch == ClassHierarchyIndex.Dispatch.NONE || hierarchy.isEmpty()) {
+            return raw;
+        }
+        ClassHierarchyIndex index = getHierarchyIndex();
+        if (dispatched == null) {
+            dispatched = index.expand(raw, dispatch, budget);
+        }
+        return dispatched;
+    }
+
+    /** Graphe d'appel tel que résolu par les bindings, sans extension des appels virtuels. **/
+    
+    public CompactCallGraph getRawGraph() {
+        if (frozen == null) {
+            // Le builder est fermé même si la construction échoue : ses fichiers temporaires sont supprimés
+            try (CompactCallGraph.Builder builder = builder()) {
+                frozen = builder.build();
+            } finally {
+                edges = null; // le graphe figé suffit tant qu'on n'ajoute pas d'arcs
+            }
+        }
+        return frozen;
+    }
+
+    /** Moteur de requêtes (accessibilité, récursions, méthodes mortes) sur le graphe courant. **/
+    
+    public CallGraphQuery query() {
+        return new CallGraphQuery(getCompactGraph());
+    }
+
+    /** Builder des arcs, recréé à partir du graphe figé si on ajoute des arcs après coup. **/
+    private CompactCallGraph.Builder builder() {
+        if (edges == null) {
+            edges = frozen != null ? new CompactCallGraph.Builder(frozen, budget) : new CompactCallGraph.Builder(new SymbolTable(), budget);
+        }
+        frozen = null;
+        dispatched = null;
+        return edges;
     }
 
     /* Affichage du graphe d’appel */
     
     public void printGraph() {
-        callGraph.forEach((caller, callers) -> {
+        getCallGraph().forEach((caller, callers) -> {
             System.out.println(caller + " appelle : " + callers);
         });
     }
@@ -0,0 +1,342 @@
+package analyser;
+
+import java.util.*;
+
+/**
+ * Requêtes analytiques sur un graphe d'appel compact : accessibilité ("tout ce qui est appelé,
+ * directement ou non, depuis X"), appelants transitifs, composantes fortement connexes
+ * (récursions), points d'entrée et méthodes mortes.
+ *
+ * À la construction, les composantes fortement connexes sont calculées (Tarjan itératif) et
+ * le graphe est condensé en DAG. L'ensemble des composantes accessibles depuis une composante
+ * est un BitSet calculé à la demande puis gardé en cache (LRU borné en mémoire) : une requête
+ * répétée ne coûte plus qu'une lecture de bits, et un calcul réutilise les BitSet déjà en
+ * cache de ses successeurs au lieu de refaire un parcours complet.
+ *
+ * Les composantes sont numérotées dans l'ordre où Tarjan les termine : les successeurs
+ * d'une composante ont toujours un numéro plus petit qu'elle.
+ */
+public class CallGraphQuery {
+
+    /** Budget mémoire par défaut de chaque cache de BitSet. */
+    private static final long DEFAULT_CACHE_BYTES = 64L << 20;
+
+    private final CompactCallGraph graph;
+    private final int nodeCount;
+
+    /** Composante de chaque méthode. */
+    private final int[] componentOf;
+    private final int componentCount;
+    /** Méthodes de chaque composante (CSR). */
+    private final int[] memberOffsets;
+    private final int[] members;
+    /** DAG de condensation, dans les deux sens (CSR). */
+    private final int[] dagOffsets;
+    private final int[] dagTargets;
+    private final int[] reverseOffsets;
+    private final int[] reverseTargets;
+    /** Composantes récursives : plus d'une méthode ou une méthode qui s'appelle elle-même. */
+    private final BitSet cyclic = new BitSet();
+    private final int[] inDegree;
+
+    private final ReachabilityCache forwardCache;
+    private final ReachabilityCache backwardCache;
+
+    public CallGraphQuery(CompactCallGraph graph) {
+        this(graph, DEFAULT_CACHE_BYTES);
+    }
+
+    public CallGraphQuery(CompactCallGraph graph, long cacheBytes) {
+        this.graph = graph;
+        this.nodeCount = graph.getNodeCount();
+        this.componentOf = new int[nodeCount];
+        this.componentCount = computeComponents();
+
+        memberOffsets = new int[componentCount + 1];
+        members = new int[nodeCount];
+        for (int v = 0; v < nodeCount; v++) memberOffsets[componentOf[v] + 1]++;
+        for (int c = 0; c < componentCount; c++) memberOffsets[c + 1] += memberOffsets[c];
+        int[] fill = Arrays.copyOf(memberOffsets, componentCount);
+        for (int v = 0; v < nodeCount; v++) members[fill[componentOf[v]]++] = v;
+
+        inDegree = new int[nodeCount];
+        long[] dagEdges = new long[graph.getEdgeCount()];
+        int dagEdgeCount = 0;
+        for (int v = 0; v < nodeCount; v++) {
+            for (int i = graph.rowStart(v); i < graph.rowStart(v + 1); i++) {
+                int w = graph.target(i);
+                inDegree[w]++;
+                if (componentOf[v] != componentOf[w]) {
+                    dagEdges[dagEdgeCount++] = ((long) componentOf[v] << 32) | componentOf[w];
+                } else {
+                    cyclic.set(componentOf[v]); // arc interne : boucle ou cycle
+                }
+            }
+        }
+        Arrays.sort(dagEdges, 0, dagEdgeCount);
+        int unique = 0;
+        for (int i = 0; i < dagEdgeCount; i++) {
+            if (unique == 0 || dagEdges[i] != dagEdges[unique - 1]) dagEdges[unique++] = dagEdges[i];
+        }
+        dagOffsets = new int[componentCount + 1];
+        dagTargets = new int[unique];
+        reverseOffsets = new int[componentCount + 1];
+        reverseTargets = new int[unique];
+        for (int i = 0; i < unique; i++) {
+            dagOffsets[(int) (dagEdges[i] >>> 32) + 1]++;
+            reverseOffsets[(int) dagEdges[i] + 1]++;
+            dagTargets[i] = (int) dagEdges[i];
+        }
+        for (int c = 0; c < componentCount; c++) {
+            dagOffsets[c + 1] += dagOffsets[c];
+            reverseOffsets[c + 1] += reverseOffsets[c];
+        }
+        int[] reverseFill = Arrays.copyOf(reverseOffsets, componentCount);
+        for (int i = 0; i < unique; i++) {
+            reverseTargets[reverseFill[(int) dagEdges[i]]++] = (int) (dagEdges[i] >>> 32);
+        }
+
+        forwardCache = new ReachabilityCache(dagOffsets, dagTargets, cacheBytes);
+        backwardCache = new ReachabilityCache(reverseOffsets, reverseTargets, cacheBytes);
+    }
+
+    /** Requêtes sur un graphe d'appel quelconque (la vue compacte est réutilisée telle quelle). */
+    public static CallGraphQuery of(Map<String, Set<String>> callGraph) {
+        CompactCallGraph compact = CompactCallGraph.unwrap(callGraph);
+        if (compact == null) {
+            CallGraphBuilder builder = new CallGraphBuilder();
+            builder.merge(callGraph);
+            compact = builder.getCompactGraph();
+        }
+        return new CallGraphQuery(compact);
+    }
+
+    /* ---------------------------- Requêtes ---------------------------- */
+
+    /** Méthodes appelées directement ou transitivement par la méthode (elle-même seulement si elle est récursive). */
+    public Set<String> reachableFrom(String method) {
+        int id = idOf(method);
+        return id < 0 ? Set.of() : namesOf(forwardCache.reach(componentOf[id]), id);
+    }
+
+    /** Méthodes qui appellent directement ou transitivement la méthode. */
+    public Set<String> callersOf(String method) {
+        int id = idOf(method);
+        return id < 0 ? Set.of() : namesOf(backwardCache.reach(componentOf[id]), id);
+    }
+
+    /** Vrai si from appelle, directement ou non, to. */
+    public boolean reaches(String from, String to) {
+        int source = idOf(from);
+        int target = idOf(to);
+        if (source < 0 || target < 0) return false;
+        if (source == target) return cyclic.get(componentOf[source]);
+        return forwardCache.reach(componentOf[source]).get(componentOf[target]);
+    }
+
+    /** Nombre de méthodes accessibles depuis la méthode (sans construire l'ensemble). */
+    public int countReachableFrom(String method) {
+        int id = idOf(method);
+        if (id < 0) return 0;
+        BitSet reach = forwardCache.reach(componentOf[id]);
+        int count = 0;
+        for (int c = reach.nextSetBit(0); c >= 0; c = reach.nextSetBit(c + 1)) {
+            count += memberOffsets[c + 1] - memberOffsets[c];
+        }
+        return cyclic.get(componentOf[id]) ? count : count - 1;
+    }
+
+    /** Composantes fortement connexes récursives (cycles d'appels et méthodes auto-récursives). */
+    public List<Set<String>> recursiveComponents() {
+        List<Set<String>> result = new ArrayList<>();
+        for (int c = cyclic.nextSetBit(0); c >= 0; c = cyclic.nextSetBit(c + 1)) {
+            Set<String> component = new LinkedHashSet<>();
+            for (int i = memberOffsets[c]; i < memberOffsets[c + 1]; i++) {
+                component.add(graph.getSymbols().nameOf(members[i]));
+            }
+            result.add(component);
+        }
+        return result;
+    }
+
+    /** Vrai si les deux méthodes sont dans la même composante fortement connexe. */
+    public boolean sameComponent(String methodA, String methodB) {
+        int a = idOf(methodA);
+        int b = idOf(methodB);
+        return a >= 0 && b >= 0 && componentOf[a] == componentOf[b];
+    }
+
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    /** Points d'entrée : méthodes que personne n'appelle. */
+    public List<String> entryPoints() {
+        List<String> result = new ArrayList<>();
+        for (int v = 0; v < nodeCount; v++) {
+            if (inDegree[v] == 0) result.add(graph.getSymbols().nameOf(v));
+        }
+        return result;
+    }
+
+    /**
+     * Méthodes du projet qui ne sont accessibles depuis aucune des racines (ex: les main).
+     * Une méthode est considérée du projet si sa classe déclare au moins un appelant du graphe ;
+     * les méthodes de bibliothèque, qui n'apparaissent que comme appelées, sont ignorées.
+     */
+    public Set<String> deadMethods(Collection<String> roots) {
+        BitSet alive = new BitSet(componentCount);
+        for (String root : roots) {
+            int id = idOf(root);
+            if (id >= 0) alive.or(forwardCache.reach(componentOf[id]));
+        }
+
+        SymbolTable symbols = graph.getSymbols();
+        Set<String> projectClasses = new HashSet<>();
+        for (int v = 0; v < nodeCount; v++) {
+            if (graph.outDegree(v) > 0) projectClasses.add(classOf(symbols.nameOf(v)));
+        }
+        Set<String> dead = new LinkedHashSet<>();
+        for (int v = 0; v < nodeCount; v++) {
+            String name = symbols.nameOf(v);
+            if (!alive.get(componentOf[v]) && projectClasses.contains(classOf(name))) {
+                dead.add(name);
+            }
+        }
+        return dead;
+    }
+
+    /* ---------------------------- Interne ---------------------------- */
+
+    private int idOf(String method) {
+        int id = graph.getSymbols().idOf(method);
+        return id < nodeCount ? id : -1;
+    }
+
+    private static String classOf(String method) {
+        int dot = method.indexOf('.');
+        return dot != -1 ? method.substring(0, dot) : method;
+    }
+
+    /** Méthodes des composantes du BitSet ; la méthode de départ n'y est que si elle est récursive. */
+    private Set<String> namesOf(BitSet components, int start) {
+        Set<String> result = new LinkedHashSet<>();
+        SymbolTable symbols = graph.getSymbols();
+        for (int c = components.nextSetBit(0); c >= 0; c = components.nextSetBit(c + 1)) {
+            for (int i = memberOffsets[c]; i < memberOffsets[c + 1]; i++) {
+                result.add(symbols.nameOf(members[i]));
+            }
+        }
+        if (!cyclic.get(componentOf[start])) {
+            result.remove(symbols.nameOf(start));
+        }
+        return result;
+    }
+
+    /** Tarjan itératif (pile explicite, pas de récursion) ; renvoie le nombre de composantes. */
+    private int computeComponents() {
+        int[] index = new int[nodeCount];
+        int[] low = new int[nodeCount];
+        Arrays.fill(index, -1);
+        Arrays.fill(componentOf, -1);
+        int[] stack = new int[nodeCount];
+        int[] callStack = new int[nodeCount];
+        int[] edgePosition = new int[nodeCount];
+        int stackSize = 0;
+        int counter = 0;
+        int components = 0;
+
+        for (int start = 0; start < nodeCount; start++) {
+            if (index[start] != -1) continue;
+            int depth = 0;
+            index[start] = low[start] = counter++;
+            stack[stackSize++] = start;
+            callStack[depth] = start;
+            edgePosition[depth++] = graph.rowStart(start);
+
+            while (depth > 0) {
+                int v = callStack[depth - 1];
+                if (edgePosition[depth - 1] < graph.rowStart(v + 1)) {
+                    int w = graph.target(edgePosition[depth - 1]++);
+                    if (index[w] == -1) {
+                        index[w] = low[w] = counter++;
+                        stack[stackSize++] = w;
+                        callStack[depth] = w;
+                        edgePosition[depth++] = graph.rowStart(w);
+                    } else if (componentOf[w] == -1) { // w est encore sur la pile
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                } else {
+                    depth--;
+                    if (low[v] == index[v]) {
+                        int w;
+                        do {
+                            w = stack[--stackSize];
+                            componentOf[w] = components;
+                        } while (w != v);
+                        components++;
+                    }
+                    if (depth > 0) {
+                        int parent = callStack[depth - 1];
+                        low[parent] = Math.min(low[parent], low[v]);
+                    }
+                }
+            }
+        }
+        return components;
+    }
+
+    /**
+     * Cache LRU des composantes accessibles depuis une composante, borné par la taille
+     * cumulée des BitSet. Le parcours d'une composante s'arrête sur les successeurs déjà
+     * en cache, dont il reprend directement les bits.
+     */
+    private static final class ReachabilityCache {
+        private final int[] offsets;
+        private final int[] targets;
+        private final long maxBytes;
+        private long bytes;
+        private final LinkedHashMap<Integer, BitSet> cache = new LinkedHashMap<>(16, 0.75f, true);
+        private int[] stack = new int[64];
+
+        ReachabilityCache(int[] offsets, int[] targets, long maxBytes) {
+            this.offsets = offsets;
+            this.targets = targets;
+            this.maxBytes = maxBytes;
+        }
+
+        synchronized BitSet reach(int component) {
+            BitSet cached = cache.get(component);
+            if (cached != null) return cached;
+
+            BitSet result = new BitSet();
+            result.set(component);
+            int size = 0;
+            stack[size++] = component;
+            while (size > 0) {
+                int c = stack[--size];
+                for (int i = offsets[c]; i < offsets[c + 1]; i++) {
+                    int next = targets[i];
+                    if (result.get(next)) continue;
+                    BitSet known = cache.get(next);
+                    if (known != null) {
+                        result.or(known);
+                    } else {
+                        result.set(next);
+                        if (size == stack.length) stack = Arrays.copyOf(stack, size * 2);
+                        stack[size++] = next;
+                    }
+                }
+            }
+
+            cache.put(component, result);
+            bytes += result.size() / 8;
+            Iterator<BitSet> eldest = cache.values().iterator();
+            while (bytes > maxBytes && cache.size() > 1) {
+                bytes -= eldest.next().size() / 8;
+                eldest.remove();
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,371 @@
+package analyser;
+
+import analyser.facts.FileFacts;
+import analyser.facts.FileFacts.TypeFacts;
+
+import java.util.*;
+
+/**
+ * Index de la hiérarchie des classes du projet, construit une fois par analyse à partir des
+ * supertypes déclarés (FileFacts.TypeFacts). Il sert à étendre les appels virtuels :
+ * un appel résolu vers "T.m" (classe qui déclare m) peut exécuter la redéfinition de m
+ * dans un sous-type de T, que le binding ne voit pas (appel à travers une interface...).
+ *
+ * Tout est en tableaux d'entiers (types et noms de méthodes internés dans des SymbolTable) :
+ *   - sous-types transitifs de chaque type, triés, en CSR ;
+ *   - table des redéfinitions : pour chaque nom de méthode, les types qui la déclarent avec un corps, triés, en CSR ;
+ *   - superclasse directe et types instanciés (new X()) pour RTA.
+ * Les cibles d'un appel sont alors une intersection de deux listes triées.
+ */
+public class ClassHierarchyIndex {
+
+    /** Résolution des appels virtuels. */
+    public enum Dispatch {
+        /** Appels tels que résolus par les bindings (classe déclarante seulement). */
+        NONE,
+        /** Class Hierarchy Analysis : toutes les redéfinitions dans les sous-types. */
+        CHA,
+        /** Rapid Type Analysis : seulement les méthodes qu'exécute un type instancié dans le projet. */
+        RTA
+    }
+
+    private static final int[] NO_TARGETS = new int[0];
+
+    private final SymbolTable types;
+    private final int[] superclass;
+    private final int[] subtypeOffsets;
+    private final int[] subtypes;
+    private final SymbolTable methodNames;
+    private final int[] declarerOffsets;
+    private final int[] declarers;
+    private final BitSet instantiated;
+
+    private ClassHierarchyIndex(SymbolTable types, int[] superclass, int[] subtypeOffsets, int[] subtypes,
+                                SymbolTable methodNames, int[] declarerOffsets, int[] declarers, BitSet instantiated) {
+        this.types = types;
+        this.superclass = superclass;
+        this.subtypeOffsets = subtypeOffsets;
+        this.subtypes = subtypes;
+        this.methodNames = methodNames;
+        this.declarerOffsets = declarerOffsets;
+        this.declarers = declarers;
+        this.instantiated = instantiated;
+    }
+
+    /** Index construit à partir des faits de tous les fichiers du projet. */
+    public static ClassHierarchyIndex of(Collection<FileFacts> facts) {
+        Builder builder = new Builder();
+        facts.forEach(builder::addFacts);
+        return builder.build();
+    }
+
+    /**
+     * Même hiérarchie (types, sous-types, superclasses, types instanciés), table des redéfinitions
+     * recalculée à partir des faits : pour des méthodes ajoutées ou retirées sans changement de
+     * supertypes, sans refaire la fermeture transitive. Les types absents de l'index sont ignorés
+     * (aucun appel ne peut les atteindre).
+     */
+    public ClassHierarchyIndex withDeclarations(Collection<FileFacts> facts) {
+        SymbolTable names = new SymbolTable();
+        long[] declarations = new long[16];
+        int declarationCount = 0;
+        for (FileFacts file : facts) {
+            for (TypeFacts type : file.types()) {
+                int id = types.idOf(type.name());
+                if (id < 0) continue;
+                for (String method : type.methods()) {
+                    if (declarationCount == declarations.length) declarations = Arrays.copyOf(declarations, declarationCount * 2);
+                    declarations[declarationCount++] = ((long) names.intern(method) << 32) | id;
+                }
+            }
+        }
+        int[][] declared = Builder.toCsr(declarations, declarationCount, names.size());
+        return new ClassHierarchyIndex(types, superclass, subtypeOffsets, subtypes,
+                names, declared[0], declared[1], instantiated);
+    }
+
+    /** Nombre de types connus (déclarés dans le projet ou cités comme supertype / instanciés). */
+    public int getTypeCount() {
+        return types.size();
+    }
+
+    /** Sous-types directs et indirects du type (noms simples). */
+    public List<String> subtypesOf(String type) {
+        int id = types.idOf(type);
+        if (id < 0) return List.of();
+        List<String> result = new ArrayList<>(subtypeOffsets[id + 1] - subtypeOffsets[id]);
+        for (int i = subtypeOffsets[id]; i < subtypeOffsets[id + 1]; i++) {
+            result.add(types.nameOf(subtypes[i]));
+        }
+        return result;
+    }
+
+    /** Vrai si sub est un sous-type strict (direct ou indirect) de type. */
+    public boolean isSubtype(String sub, String type) {
+        int subId = types.idOf(sub);
+        int id = types.idOf(type);
+        return subId >= 0 && id >= 0 && Arrays.binarySearch(subtypes, subtypeOffsets[id], subtypeOffsets[id + 1], subId) >= 0;
+    }
+
+    /** Cibles supplémentaires d'un appel "Classe.méthode" selon le mode (sans l'appel lui-même). */
+    public List<String> dispatchTargets(String callee, Dispatch mode) {
+        int dot = callee.lastIndexOf('.');
+        if (dot < 0 || mode == Dispatch.NONE) return List.of();
+        String method = callee.substring(dot + 1);
+        List<String> result = new ArrayList<>();
+        for (int declaration : targetDeclarations(callee.substring(0, dot), method, mode)) {
+            result.add(types.nameOf(declarers[declaration]) + "." + method);
+        }
+        return result;
+    }
+
+    /**
+     * Graphe d'appel étendu : chaque appel "T.m" reçoit en plus un arc vers les redéfinitions
+     * de m retenues par le mode. Les arcs d'origine sont conservés. Les cibles sont calculées
+     * une fois par méthode appelée, pas une fois par arc.
+     */
+    public CompactCallGraph expand(CompactCallGraph graph, Dispatch mode) {
+        return expand(graph, mode, MemoryBudget.UNLIMITED);
+    }
+
+    /** Idem, les arcs du graphe étendu étant construits dans le budget mémoire donné. */
+    public CompactCallGraph expand(CompactCallGraph graph, Dispatch mode, MemoryBudget budget) {
+        if (mode == Dispatch.NONE || types.size() == 0) return graph;
+        SymbolTable symbols = graph.getSymbols();
+        int nodeCount = graph.getNodeCount();
+        int[][] targetsOf = new int[nodeCount][];
+        // Symbole de chaque déclaration (type, méthode), interné à la première utilisation
+        int[] declarationSymbols = new int[declarers.length];
+        Arrays.fill(declarationSymbols, -1);
+        CompactCallGraph.Builder builder = null;
+        for (int caller = 0; caller < nodeCount; caller++) {
+            for (int i = graph.rowStart(caller); i < graph.rowStart(caller + 1); i++) {
+                int callee = graph.target(i);
+                if (targetsOf[callee] == null) {
+                    targetsOf[callee] = targetSymbols(symbols, declarationSymbols, symbols.nameOf(callee), mode);
+                }
+                if (targetsOf[callee].length == 0) continue;
+                if (builder == null) {
+                    builder = new CompactCallGraph.Builder(graph, budget);
+                }
+                for (int target : targetsOf[callee]) {
+                    builder.addEdge(caller, target);
+                }
+            }
+        }
+        if (builder == null) return graph;
+        try (CompactCallGraph.Builder expanded = builder) {
+            return expanded.build();
+        }
+    }
+
+    /** Comme expand(CompactCallGraph, Dispatch) pour un graphe sous forme de Map (vue en lecture seule). */
+    public Map<String, Set<String>> expand(Map<String, Set<String>> graph, Dispatch mode) {
+        CompactCallGraph compact = CompactCallGraph.unwrap(graph);
+        if (compact == null) {
+            CompactCallGraph.Builder builder = new CompactCallGraph.Builder();
+            graph.forEach((caller, callees) -> callees.forEach(callee -> builder.addEdge(caller, callee)));
+            compact = builder.build();
+        }
+        return expand(compact, mode).asMap();
+    }
+
+    /* ---------------------------- Résolution ---------------------------- */
+
+    private int[] targetSymbols(SymbolTable symbols, int[] declarationSymbols, String callee, Dispatch mode) {
+        int dot = callee.lastIndexOf('.');
+        if (dot < 0) return NO_TARGETS;
+        String method = callee.substring(dot + 1);
+        int[] targets = targetDeclarations(callee.substring(0, dot), method, mode);
+        for (int i = 0; i < targets.length; i++) {
+            int declaration = targets[i];
+            if (declarationSymbols[declaration] < 0) {
+                declarationSymbols[declaration] = symbols.intern(types.nameOf(declarers[declaration]) + "." + method);
+            }
+            targets[i] = declarationSymbols[declaration];
+        }
+        return targets;
+    }
+
+    /**
+     * Déclarations (positions dans declarers) dont la méthode peut être exécutée par un appel
+     * à className.method, hors className lui-même.
+     */
+    private int[] targetDeclarations(String className, String method, Dispatch mode) {
+        int generic = className.indexOf('<');
+        int type = types.idOf(generic < 0 ? className : className.substring(0, generic));
+        int methodId = methodNames.idOf(method);
+        if (type < 0 || methodId < 0 || subtypeOffsets[type + 1] == subtypeOffsets[type]) return NO_TARGETS;
+        return mode == Dispatch.RTA ? rtaTargets(type, methodId) : chaTargets(type, methodId);
+    }
+
+    /** CHA : sous-types de T qui déclarent m (intersection des deux listes triées, triée). */
+    private int[] chaTargets(int type, int methodId) {
+        int subFrom = subtypeOffsets[type];
+        int subTo = subtypeOffsets[type + 1];
+        int declFrom = declarerOffsets[methodId];
+        int declTo = declarerOffsets[methodId + 1];
+        int[] result = new int[Math.min(subTo - subFrom, declTo - declFrom)];
+        int count = 0;
+        // On parcourt la liste la plus courte et on cherche dans l'autre
+        if (subTo - subFrom <= declTo - declFrom) {
+            for (int i = subFrom; i < subTo; i++) {
+                int declaration = Arrays.binarySearch(declarers, declFrom, declTo, subtypes[i]);
+                if (declaration >= 0) result[count++] = declaration;
+            }
+        } else {
+            for (int i = declFrom; i < declTo; i++) {
+                if (Arrays.binarySearch(subtypes, subFrom, subTo, declarers[i]) >= 0) result[count++] = i;
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    /**
+     * RTA : pour chaque type instancié C sous-type de T, la méthode exécutée est la première
+     * déclaration de m en remontant les superclasses de C (éventuellement hors des sous-types de T,
+     * ex: héritée d'une superclasse qui n'implémente pas l'interface).
+     */
+    private int[] rtaTargets(int type, int methodId) {
+        int declFrom = declarerOffsets[methodId];
+        int declTo = declarerOffsets[methodId + 1];
+        int[] result = new int[8];
+        int count = 0;
+        for (int i = subtypeOffsets[type]; i < subtypeOffsets[type + 1]; i++) {
+            int candidate = subtypes[i];
+            if (!instantiated.get(candidate)) continue;
+            // Borne sur la remontée : protège d'un cycle de superclasses dans un code qui ne compile pas
+            for (int depth = 0; candidate >= 0 && candidate != type && depth < superclass.length; depth++) {
+                int declaration = Arrays.binarySearch(declarers, declFrom, declTo, candidate);
+                if (declaration >= 0) {
+                    if (count == result.length) result = Arrays.copyOf(result, count * 2);
+                    result[count++] = declaration;
+                    break;
+                }
+                candidate = superclass[candidate];
+            }
+        }
+        if (count == 0) return NO_TARGETS;
+        // Plusieurs types instanciés peuvent hériter de la même déclaration
+        Arrays.sort(result, 0, count);
+        int unique = 1;
+        for (int i = 1; i < count; i++) {
+            if (result[i] != result[unique - 1]) result[unique++] = result[i];
+        }
+        return Arrays.copyOf(result, unique);
+    }
+
+    /* ---------------------------- Construction ---------------------------- */
+
+    /** Accumule les faits de hiérarchie des fichiers ; build() construit l'index. Non thread-safe. */
+    public static class Builder {
+        private final List<TypeFacts> typeFacts = new ArrayList<>();
+        private final List<String> instantiatedTypes = new ArrayList<>();
+
+        public void addFacts(FileFacts facts) {
+            typeFacts.addAll(facts.types());
+            instantiatedTypes.addAll(facts.instantiatedTypes());
+        }
+
+        /** Ajoute les faits accumulés par un autre builder (ex: celui d'un paquet ou d'un module). */
+        public void append(Builder other) {
+            typeFacts.addAll(other.typeFacts);
+            instantiatedTypes.addAll(other.instantiatedTypes);
+        }
+
+        public boolean isEmpty() {
+            return typeFacts.isEmpty();
+        }
+
+        public ClassHierarchyIndex build() {
+            SymbolTable types = new SymbolTable();
+            SymbolTable methodNames = new SymbolTable();
+            long[] supertypeEdges = new long[16];
+            int supertypeEdgeCount = 0;
+            long[] declarations = new long[16];
+            int declarationCount = 0;
+            for (TypeFacts type : typeFacts) {
+                int id = types.intern(type.name());
+                List<String> supertypes = new ArrayList<>(type.interfaces());
+                if (type.superclass() != null) supertypes.add(type.superclass());
+                for (String supertype : supertypes) {
+                    if (supertypeEdgeCount == supertypeEdges.length) supertypeEdges = Arrays.copyOf(supertypeEdges, supertypeEdgeCount * 2);
+                    // Arc supertype -> sous-type direct
+                    supertypeEdges[supertypeEdgeCount++] = ((long) types.intern(supertype) << 32) | id;
+                }
+                for (String method : type.methods()) {
+                    if (declarationCount == declarations.length) declarations = Arrays.copyOf(declarations, declarationCount * 2);
+                    declarations[declarationCount++] = ((long) methodNames.intern(method) << 32) | id;
+                }
+            }
+            BitSet instantiated = new BitSet();
+            for (String name : instantiatedTypes) {
+                instantiated.set(types.intern(name));
+            }
+
+            int typeCount = types.size();
+            int[] superclass = new int[typeCount];
+            Arrays.fill(superclass, -1);
+            for (TypeFacts type : typeFacts) {
+                if (type.superclass() != null) {
+                    superclass[types.idOf(type.name())] = types.idOf(type.superclass());
+                }
+            }
+
+            int[][] direct = toCsr(supertypeEdges, supertypeEdgeCount, typeCount);
+            int[][] closure = transitiveClosure(direct[0], direct[1], typeCount);
+            int[][] declared = toCsr(declarations, declarationCount, methodNames.size());
+            return new ClassHierarchyIndex(types, superclass, closure[0], closure[1],
+                    methodNames, declared[0], declared[1], instantiated);
+        }
+
+        /** Paires (ligne << 32 | valeur) -> CSR {offsets, valeurs} triées et sans doublon. */
+        private static int[][] toCsr(long[] pairs, int count, int rows) {
+            Arrays.sort(pairs, 0, count);
+            int[] offsets = new int[rows + 1];
+            int[] values = new int[count];
+            int unique = 0;
+            for (int i = 0; i < count; i++) {
+                if (unique > 0 && pairs[i] == pairs[i - 1]) continue;
+                offsets[(int) (pairs[i] >>> 32) + 1]++;
+                values[unique++] = (int) pairs[i];
+            }
+            for (int row = 0; row < rows; row++) {
+                offsets[row + 1] += offsets[row];
+            }
+            return new int[][]{offsets, Arrays.copyOf(values, unique)};
+        }
+
+        /** Sous-types transitifs de chaque type (parcours en profondeur depuis ses sous-types directs). */
+        private static int[][] transitiveClosure(int[] offsets, int[] direct, int typeCount) {
+            int[] closureOffsets = new int[typeCount + 1];
+            int[] closure = new int[Math.max(16, direct.length)];
+            int size = 0;
+            int[] visited = new int[typeCount];
+            int[] stack = new int[Math.max(16, typeCount)];
+            for (int type = 0; type < typeCount; type++) {
+                closureOffsets[type] = size;
+                if (offsets[type + 1] == offsets[type]) continue;
+                int mark = type + 1;
+                visited[type] = mark;
+                int top = 0;
+                stack[top++] = type;
+                while (top > 0) {
+                    int current = stack[--top];
+                    for (int i = offsets[current]; i < offsets[current + 1]; i++) {
+                        int sub = direct[i];
+                        if (visited[sub] == mark) continue;
+                        visited[sub] = mark;
+                        if (size == closure.length) closure = Arrays.copyOf(closure, size * 2);
+                        closure[size++] = sub;
+                        if (top == stack.length) stack = Arrays.copyOf(stack, top * 2);
+                        stack[top++] = sub;
+                    }
+                }
+                Arrays.sort(closure, closureOffsets[type], size);
+            }
+            closureOffsets[typeCount] = size;
+            return new int[][]{closureOffsets, Arrays.copyOf(closure, size)};
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package analyser;
+
+import analyser.facts.FileFacts;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Package de déclaration de chaque classe, par nom simple (celui du graphe d'appel).
+ * Alimenté par les faits des fichiers (sink du pipeline, ou fichier par fichier en mode
+ * surveillance via addFacts / removeFacts). Si deux fichiers déclarent une classe du même nom,
+ * la première déclaration rencontrée est retenue et les autres sont gardées pour la remplacer
+ * quand elle disparaît.
+ *
+ * Le graphe d'appel ne distingue pas deux classes de même nom simple : si elles sont dans des
+ * packages différents, tous leurs appels sont rattachés au package retenu. Ces noms ambigus sont
+ * signalés par getAmbiguousClasses, pour que le couplage par package soit lu en connaissance de
+ * cause. Non thread-safe.
+ */
+public class ClassPackageIndex {
+
+    /** Nom affiché pour le package par défaut (fichiers sans déclaration de package). */
+    public static final String DEFAULT_PACKAGE = "(défaut)";
+
+    private final Map<String, String> packageOfClass = new HashMap<>();
+    /** Packages des déclarations suivantes d'un même nom, dans l'ordre d'ajout. */
+    private final Map<String, List<String>> otherDeclarations = new HashMap<>();
+
+    public static ClassPackageIndex of(Collection<FileFacts> facts) {
+        ClassPackageIndex index = new ClassPackageIndex();
+        facts.forEach(index::addFacts);
+        return index;
+    }
+
+    public void addFacts(FileFacts facts) {
+        String packageName = packageNameOf(facts);
+        for (String className : declaredNames(facts)) {
+            if (packageOfClass.putIfAbsent(className, packageName) != null) {
+                otherDeclarations.computeIfAbsent(className, k -> new ArrayList<>()).add(packageName);
+            }
+        }
+    }
+
+    /** Retire les déclarations d'un fichier ajouté auparavant : coût proportionnel au fichier. */
+    public void removeFacts(FileFacts facts) {
+        String packageName = packageNameOf(facts);
+        for (String className : declaredNames(facts)) {
+            List<String> others = otherDeclarations.get(className);
+            if (others == null) {
+                packageOfClass.remove(className, packageName);
+                continue;
+            }
+            // Déclaration retenue retirée : la suivante prend sa place
+            if (!others.remove(packageName) && packageName.equals(packageOfClass.get(className))) {
+                packageOfClass.put(className, others.remove(0));
+            }
+            if (others.isEmpty()) {
+                otherDeclarations.remove(className);
+            }
+        }
+    }
+
+    /** Copie indépendante, pour la lire pendant que l'original continue d'évoluer. */
+    public ClassPackageIndex copy() {
+        ClassPackageIndex copy = new ClassPackageIndex();
+        copy.packageOfClass.putAll(packageOfClass);
+        otherDeclarations.forEach((className, others) -> copy.otherDeclarations.put(className, new ArrayList<>(others)));
+        return copy;
+    }
+
+    /** Package de la classe, ou null si elle n'est pas déclarée dans le projet (ex: Object). */
+    public String packageOf(String className) {
+        return packageOfClass.get(className);
+    }
+
+    public int size() {
+        return packageOfClass.size();
+    }
+
+    /** Noms simples déclarés dans plusieurs packages, avec ces packages (triés). */
+    public Map<String, Set<String>> getAmbiguousClasses() {
+        Map<String, Set<String>> ambiguous = new TreeMap<>();
+        otherDeclarations.forEach((className, others) -> {
+            Set<String> declaringPackages = new TreeSet<>(others);
+            declaringPackages.add(packageOfClass.get(className));
+            if (declaringPackages.size() > 1) {
+                ambiguous.put(className, declaringPackages);
+            }
+        });
+        return ambiguous;
+    }
+
+    /**
+     * Avertissement sur les noms ambigus (au plus maxNames cités), ou chaîne vide s'il n'y en a pas.
+     */
+    public String describeAmbiguousClasses(int maxNames) {
+        Map<String, Set<String>> ambiguous = getAmbiguousClasses();
+        if (ambiguous.isEmpty()) return "";
+        StringBuilder sb = new StringBuilder("Attention: ").append(ambiguous.size())
+                .append(" nom(s) de classe déclaré(s) dans plusieurs packages, rattaché(s) au premier rencontré :");
+        int listed = 0;
+        for (Map.Entry<String, Set<String>> entry : ambiguous.entrySet()) {
+            if (listed++ == maxNames) {
+                sb.append(" ...");
+                break;
+            }
+            sb.append(' ').append(entry.getKey()).append(' ').append(entry.getValue());
+        }
+        return sb.toString();
+    }
+
+    private static String packageNameOf(FileFacts facts) {
+        return facts.packageName() == null || facts.packageName().isEmpty()
+                ? DEFAULT_PACKAGE : facts.packageName();
+    }
+
+    /** Noms déclarés par le fichier, chacun une fois (une classe est à la fois ClassFacts et TypeFacts). */
+    private static Set<String> declaredNames(FileFacts facts) {
+        Set<String> names = new LinkedHashSet<>();
+        for (FileFacts.ClassFacts classFacts : facts.classes()) {
+            names.add(classFacts.name());
+        }
+        for (FileFacts.TypeFacts type : facts.types()) {
+            names.add(type.name());
+        }
+        return names;
+    }
+}
@@ -0,0 +1,476 @@
+package analyser;
+
+import analyser.facts.AnalysisCache;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Index du classpath des dépendances : nom qualifié de type -> jar qui le contient.
+ * L'index est construit une seule fois (lecture des entrées de chaque jar), écrit dans
+ * ".ast-cache/classpath.idx" puis relu par memory-mapping sans désérialisation : les recherches
+ * se font par dichotomie directement dans le fichier mappé.
+ *
+ * Le Parser s'en sert pour ne donner à JDT que les jars dont les sources du projet peuvent avoir
+ * besoin au lieu de tout le classpath : jars des types importés, des noms qualifiés écrits sans
+ * import et des packages des fichiers, puis, par fermeture, les jars dont ceux-ci dépendent.
+ * L'ensemble est calculé sur toutes les sources (et non paquet par paquet) : un type d'un jar
+ * atteint à travers une autre source du projet (B importe Logger, A appelle b.logger().info())
+ * est résolu quel que soit le découpage en paquets. Les dépendances entre jars sont relevées à la construction dans
+ * le pool de constantes des .class (super-types, types des signatures et du code) : un
+ * super-type ou un type de signature fourni par un autre jar est donc toujours présent.
+ *
+ * Format (big-endian) :
+ *   MAGIC, VERSION, nbJars, [longueur + chemin UTF-8, taille, date] * nbJars,
+ *   [nbDépendances, [id du jar] * nbDépendances] * nbJars,
+ *   nbTypes, [offset du nom, id du jar] * nbTypes (triés par nom), longueur de la zone des noms, noms UTF-8.
+ */
+public class ClasspathIndex {
+
+    public static final String INDEX_FILE = "classpath.idx";
+    private static final int MAGIC = 0x43504958; // "CPIX"
+    private static final int VERSION = 2;
+    private static final Pattern IMPORT = Pattern.compile("^\\s*import\\s+(?:static\\s+)?([\\w.]+?)(\\.\\*)?\\s*;", Pattern.MULTILINE);
+    private static final Pattern PACKAGE = Pattern.compile("^\\s*package\\s+([\\w.]+)\\s*;", Pattern.MULTILINE);
+    /** Nom qualifié écrit dans le code (ex: "org.slf4j.Logger"), avec ou sans membre derrière. */
+    private static final Pattern QUALIFIED_NAME = Pattern.compile("\\b(?:[a-z_][\\w$]*\\.)+[A-Z][\\w$]*");
+    /** Type dans un descripteur ou une signature de .class ("Lorg/slf4j/Logger;"). */
+    private static final Pattern DESCRIPTOR_TYPE = Pattern.compile("L([\\w/$]+)[;<]");
+
+    private final List<String> jars;
+    /** Par jar : jars dont ses classes utilisent des types. */
+    private final int[][] jarDependencies;
+    private final String fingerprint;
+    private final MappedByteBuffer buffer;
+    private final int typeCount;
+    private final int entriesStart;
+    private final int namesStart;
+
+    private ClasspathIndex(List<String> jars, int[][] jarDependencies, String fingerprint,
+                           MappedByteBuffer buffer, int typeCount, int entriesStart, int namesStart) {
+        this.jars = jars;
+        this.jarDependencies = jarDependencies;
+        this.fingerprint = fingerprint;
+        this.buffer = buffer;
+        this.typeCount = typeCount;
+        this.entriesStart = entriesStart;
+        this.namesStart = namesStart;
+    }
+
+    /**
+     * Ouvre l'index des jars donnés pour le projet, en le reconstruisant si la liste
+     * des jars (chemin, taille, date) a changé depuis sa création.
+     */
+    public static ClasspathIndex open(Path projectRoot, List<Path> jarPaths) throws IOException {
+        Path indexFile = projectRoot.resolve(AnalysisCache.CACHE_DIR).resolve(INDEX_FILE);
+        List<JarStamp> stamps = new ArrayList<>();
+        for (Path jar : jarPaths) {
+            Path absolute = jar.toAbsolutePath().normalize();
+            if (Files.isRegularFile(absolute)) {
+                stamps.add(new JarStamp(absolute.toString(), Files.size(absolute), Files.getLastModifiedTime(absolute).toMillis()));
+            } else {
+                System.err.println("Jar introuvable ignoré: " + absolute);
+            }
+        }
+
+        ClasspathIndex index = Files.isRegularFile(indexFile) ? map(indexFile, stamps) : null;
+        if (index == null) {
+            long start = System.nanoTime();
+            write(indexFile, stamps);
+            index = map(indexFile, stamps);
+            System.out.printf("Index du classpath construit (%d jars, %d types) en %d ms%n",
+                    stamps.size(), index.typeCount, (System.nanoTime() - start) / 1_000_000);
+        }
+        return index;
+    }
+
+    /** Tous les jars indexés, dans l'ordre du classpath. */
+    public String[] allJars() {
+        return jars.toArray(new String[0]);
+    }
+
+    public int getTypeCount() {
+        return typeCount;
+    }
+
+    /**
+     * Empreinte des jars indexés (chemins, tailles, dates) : change dès qu'un jar est ajouté,
+     * retiré ou modifié. Les faits mis en cache la retiennent (voir AnalysisCache).
+     */
+    public String fingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Jar qui fournit le type (nom qualifié, ex: "org.slf4j.Logger"), ou null.
+     * Un type imbriqué ("a.B.C") est résolu par son type englobant.
+     */
+    public String jarOfType(String qualifiedName) {
+        int jarId = jarIdOfType(qualifiedName);
+        return jarId < 0 ? null : jars.get(jarId);
+    }
+
+    /** Jars qui contiennent au moins un type du package (import "pkg.*"). */
+    public Set<String> jarsOfPackage(String packageName) {
+        BitSet ids = new BitSet();
+        addJarsOfPackage(packageName, ids);
+        Set<String> result = new LinkedHashSet<>();
+        ids.stream().forEach(id -> result.add(jars.get(id)));
+        return result;
+    }
+
+    /** Jars dont les classes du jar utilisent des types (sans la fermeture). */
+    public Set<String> dependenciesOf(String jar) {
+        int jarId = jars.indexOf(jar);
+        Set<String> result = new LinkedHashSet<>();
+        if (jarId >= 0) {
+            for (int dependency : jarDependencies[jarId]) result.add(jars.get(dependency));
+        }
+        return result;
+    }
+
+    /**
+     * Classpath pour parser les fichiers donnés, dans l'ordre du classpath d'origine : les jars
+     * de leurs imports, des noms qualifiés écrits sans import et de leurs packages, plus tous les
+     * jars dont ceux-ci dépendent (super-types et types des signatures des bibliothèques).
+     */
+    public String[] classpathFor(List<File> sources) {
+        BitSet needed = new BitSet(jars.size());
+        addNeededJars(sources, needed);
+        return classpathOf(needed);
+    }
+
+    /**
+     * Ajoute à needed les jars nommés par les sources et leur fermeture sur les dépendances entre
+     * jars. Un ensemble déjà fermé le reste : on peut l'étendre source par source.
+     */
+    void addNeededJars(List<File> sources, BitSet needed) {
+        BitSet added = new BitSet(jars.size());
+        for (File source : sources) {
+            String content;
+            try {
+                content = Files.readString(source.toPath());
+            } catch (IOException e) {
+                continue;
+            }
+            Matcher matcher = IMPORT.matcher(content);
+            while (matcher.find()) {
+                if (matcher.group(2) != null) {
+                    addJarsOfPackage(matcher.group(1), added);
+                }
+                addJarOfType(matcher.group(1), added); // import a.B, import static a.B.* ou import a.B.*
+            }
+            matcher = PACKAGE.matcher(content);
+            if (matcher.find()) {
+                addJarsOfPackage(matcher.group(1), added); // types du même package fournis par un jar
+            }
+            matcher = QUALIFIED_NAME.matcher(content);
+            while (matcher.find()) {
+                addJarOfType(matcher.group(), added);
+            }
+        }
+
+        // Fermeture sur les dépendances entre jars (ceux déjà dans needed sont déjà fermés)
+        added.andNot(needed);
+        needed.or(added);
+        Deque<Integer> pending = new ArrayDeque<>();
+        added.stream().forEach(pending::add);
+        while (!pending.isEmpty()) {
+            for (int dependency : jarDependencies[pending.poll()]) {
+                if (!needed.get(dependency)) {
+                    needed.set(dependency);
+                    pending.add(dependency);
+                }
+            }
+        }
+    }
+
+    /** Jars de l'ensemble, dans l'ordre du classpath d'origine. */
+    String[] classpathOf(BitSet needed) {
+        String[] classpath = new String[needed.cardinality()];
+        int i = 0;
+        for (int jarId = needed.nextSetBit(0); jarId >= 0; jarId = needed.nextSetBit(jarId + 1)) {
+            classpath[i++] = jars.get(jarId);
+        }
+        return classpath;
+    }
+
+    private void addJarOfType(String qualifiedName, BitSet needed) {
+        int jarId = jarIdOfType(qualifiedName);
+        if (jarId >= 0) needed.set(jarId);
+    }
+
+    private int jarIdOfType(String qualifiedName) {
+        String name = qualifiedName;
+        while (true) {
+            int pos = find(name.getBytes(StandardCharsets.UTF_8));
+            if (pos >= 0) return jarIdAt(pos);
+            int dot = name.lastIndexOf('.');
+            if (dot < 0) return -1;
+            name = name.substring(0, dot);
+        }
+    }
+
+    private void addJarsOfPackage(String packageName, BitSet needed) {
+        byte[] prefix = (packageName + ".").getBytes(StandardCharsets.UTF_8);
+        int pos = lowerBound(prefix);
+        while (pos < typeCount && startsWith(pos, prefix)) {
+            if (!containsDotAfter(pos, prefix.length)) {
+                needed.set(jarIdAt(pos));
+            }
+            pos++;
+        }
+    }
+
+    /* ---------------------------- Lecture du fichier mappé ---------------------------- */
+
+    private int nameOffsetAt(int pos) {
+        return buffer.getInt(entriesStart + pos * 8);
+    }
+
+    private int jarIdAt(int pos) {
+        return buffer.getInt(entriesStart + pos * 8 + 4);
+    }
+
+    private int nameLengthAt(int pos) {
+        int end = pos + 1 < typeCount ? nameOffsetAt(pos + 1) : buffer.getInt(namesStart - 4);
+        return end - nameOffsetAt(pos);
+    }
+
+    /** Compare le nom à la position pos avec key (ordre des octets non signés). */
+    private int compareAt(int pos, byte[] key) {
+        int offset = namesStart + nameOffsetAt(pos);
+        int length = nameLengthAt(pos);
+        int n = Math.min(length, key.length);
+        for (int i = 0; i < n; i++) {
+            int cmp = Integer.compare(buffer.get(offset + i) & 0xff, key[i] & 0xff);
+            if (cmp != 0) return cmp;
+        }
+        return Integer.compare(length, key.length);
+    }
+
+    private int find(byte[] key) {
+        int pos = lowerBound(key);
+        return pos < typeCount && compareAt(pos, key) == 0 ? pos : -1;
+    }
+
+    private int lowerBound(byte[] key) {
+        int low = 0;
+        int high = typeCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareAt(mid, key) < 0) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private boolean startsWith(int pos, byte[] prefix) {
+        if (nameLengthAt(pos) < prefix.length) return false;
+        int offset = namesStart + nameOffsetAt(pos);
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer.get(offset + i) != prefix[i]) return false;
+        }
+        return true;
+    }
+
+    private boolean containsDotAfter(int pos, int from) {
+        int offset = namesStart + nameOffsetAt(pos);
+        int length = nameLengthAt(pos);
+        for (int i = from; i < length; i++) {
+            if (buffer.get(offset + i) == '.') return true;
+        }
+        return false;
+    }
+
+    /* ---------------------------- Construction / mapping ---------------------------- */
+
+    private record JarStamp(String path, long size, long lastModified) {
+    }
+
+    /** Mappe l'index existant ; renvoie null s'il est invalide ou construit pour d'autres jars. */
+    private static ClasspathIndex map(Path indexFile, List<JarStamp> expected) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) return null;
+            int jarCount = buffer.getInt();
+            if (jarCount != expected.size()) return null;
+            List<String> jars = new ArrayList<>(jarCount);
+            for (int i = 0; i < jarCount; i++) {
+                byte[] path = new byte[buffer.getInt()];
+                buffer.get(path);
+                JarStamp stamp = new JarStamp(new String(path, StandardCharsets.UTF_8), buffer.getLong(), buffer.getLong());
+                if (!stamp.equals(expected.get(i))) return null;
+                jars.add(stamp.path());
+            }
+            int[][] jarDependencies = new int[jarCount][];
+            for (int i = 0; i < jarCount; i++) {
+                jarDependencies[i] = new int[buffer.getInt()];
+                for (int d = 0; d < jarDependencies[i].length; d++) {
+                    jarDependencies[i][d] = buffer.getInt();
+                }
+            }
+            int typeCount = buffer.getInt();
+            int entriesStart = buffer.position();
+            int namesStart = entriesStart + typeCount * 8 + 4;
+            return new ClasspathIndex(jars, jarDependencies, fingerprintOf(expected), buffer, typeCount, entriesStart, namesStart);
+        } catch (RuntimeException e) {
+            return null; // fichier tronqué ou corrompu : il sera reconstruit
+        }
+    }
+
+    private static void write(Path indexFile, List<JarStamp> stamps) throws IOException {
+        // Premier jar du classpath prioritaire, comme pour la JVM
+        TreeMap<byte[], Integer> types = new TreeMap<>(Arrays::compareUnsigned);
+        for (int jarId = 0; jarId < stamps.size(); jarId++) {
+            try (ZipFile zip = new ZipFile(stamps.get(jarId).path())) {
+                Enumeration<? extends ZipEntry> entries = zip.entries();
+                while (entries.hasMoreElements()) {
+                    String name = entries.nextElement().getName();
+                    if (!name.endsWith(".class") || name.contains("$") || name.startsWith("META-INF/")
+                            || name.endsWith("module-info.class") || name.endsWith("package-info.class")) {
+                        continue;
+                    }
+                    String typeName = name.substring(0, name.length() - ".class".length()).replace('/', '.');
+                    types.putIfAbsent(typeName.getBytes(StandardCharsets.UTF_8), jarId);
+                }
+            } catch (IOException e) {
+                System.err.println("Jar illisible ignoré: " + stamps.get(jarId).path() + " (" + e.getMessage() + ")");
+            }
+        }
+        List<SortedSet<Integer>> dependencies = jarDependencies(stamps, types);
+
+        Files.createDirectories(indexFile.getParent());
+        Path tmp = indexFile.resolveSibling(INDEX_FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(stamps.size());
+            for (JarStamp stamp : stamps) {
+                byte[] path = stamp.path().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(path.length);
+                out.write(path);
+                out.writeLong(stamp.size());
+                out.writeLong(stamp.lastModified());
+            }
+            for (SortedSet<Integer> jarDependencies : dependencies) {
+                out.writeInt(jarDependencies.size());
+                for (int dependency : jarDependencies) {
+                    out.writeInt(dependency);
+                }
+            }
+            out.writeInt(types.size());
+            int offset = 0;
+            for (Map.Entry<byte[], Integer> type : types.entrySet()) {
+                out.writeInt(offset);
+                out.writeInt(type.getValue());
+                offset += type.getKey().length;
+            }
+            out.writeInt(offset);
+            for (byte[] name : types.keySet()) {
+                out.write(name);
+            }
+        }
+        Files.move(tmp, indexFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Dépendances entre jars : un jar dépend d'un autre si une de ses classes (imbriquées comprises)
+     * nomme dans son pool de constantes un type que l'autre fournit.
+     */
+    private static List<SortedSet<Integer>> jarDependencies(List<JarStamp> stamps, TreeMap<byte[], Integer> types) {
+        List<SortedSet<Integer>> dependencies = new ArrayList<>(stamps.size());
+        for (int jarId = 0; jarId < stamps.size(); jarId++) {
+            SortedSet<Integer> jarDependencies = new TreeSet<>();
+            dependencies.add(jarDependencies);
+            try (ZipFile zip = new ZipFile(stamps.get(jarId).path())) {
+                Enumeration<? extends ZipEntry> entries = zip.entries();
+                while (entries.hasMoreElements()) {
+                    ZipEntry entry = entries.nextElement();
+                    if (!entry.getName().endsWith(".class") || entry.getName().startsWith("META-INF/")) continue;
+                    try (DataInputStream in = new DataInputStream(new BufferedInputStream(zip.getInputStream(entry)))) {
+                        for (String internalName : referencedTypes(in)) {
+                            String typeName = internalName.replace('/', '.');
+                            int nested = typeName.indexOf('$');
+                            if (nested > 0) typeName = typeName.substring(0, nested);
+                            Integer provider = types.get(typeName.getBytes(StandardCharsets.UTF_8));
+                            if (provider != null && provider != jarId) jarDependencies.add(provider);
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        // .class illisible : ses dépendances sont ignorées
+                    }
+                }
+            } catch (IOException e) {
+                // Déjà signalé à la lecture des types
+            }
+        }
+        return dependencies;
+    }
+
+    /** Types nommés (forme interne "a/b/C") dans le pool de constantes d'un .class. */
+    private static Set<String> referencedTypes(DataInputStream in) throws IOException {
+        if (in.readInt() != 0xCAFEBABE) return Collections.emptySet();
+        in.readUnsignedShort(); // version mineure
+        in.readUnsignedShort(); // version majeure
+        int count = in.readUnsignedShort();
+        String[] utf8 = new String[count];
+        int[] classNames = new int[count];
+        int classCount = 0;
+        for (int i = 1; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 1 -> utf8[i] = in.readUTF();
+                case 7 -> classNames[classCount++] = in.readUnsignedShort();
+                case 8, 16, 19, 20 -> in.skipNBytes(2);
+                case 15 -> in.skipNBytes(3);
+                case 3, 4, 9, 10, 11, 12, 17, 18 -> in.skipNBytes(4);
+                case 5, 6 -> {
+                    in.skipNBytes(8);
+                    i++; // occupe deux entrées
+                }
+                default -> throw new IOException("Constante inconnue: " + tag);
+            }
+        }
+        Set<String> types = new HashSet<>();
+        for (int c = 0; c < classCount; c++) {
+            String name = utf8[classNames[c]];
+            if (name != null && !name.startsWith("[")) types.add(name);
+        }
+        for (String value : utf8) {
+            if (value == null || value.indexOf(';') < 0) continue; // descripteurs, signatures génériques, tableaux
+            Matcher matcher = DESCRIPTOR_TYPE.matcher(value);
+            while (matcher.find()) {
+                types.add(matcher.group(1));
+            }
+        }
+        return types;
+    }
+
+    private static String fingerprintOf(List<JarStamp> stamps) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (JarStamp stamp : stamps) {
+                digest.update((stamp.path() + '\0' + stamp.size() + '\0' + stamp.lastModified() + '\n').getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package analyser;
+
+import java.util.*;
+
+/**
+ * Graphe d'appel compact et immuable : les méthodes sont des identifiants entiers
+ * (SymbolTable) et les arcs sont rangés en CSR (compressed sparse row) :
+ * les appelés de la méthode i sont targets[offsets[i] .. offsets[i+1]), triés et sans doublon.
+ * Soit 4 octets par arc au lieu d'une entrée de HashSet et d'une String par arc.
+ *
+ * asMap() en donne une vue Map&lt;String, Set&lt;String&gt;&gt; en lecture seule pour les
+ * consommateurs existants (interface, couplage, export...).
+ */
+public class CompactCallGraph {
+
+    /** Reçoit un arc (appelant, appelé) sous forme d'identifiants. */
+    public interface EdgeConsumer {
+        void accept(int caller, int callee);
+    }
+
+    private final SymbolTable symbols;
+    private final int nodeCount;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int callerCount;
+    private final MapView mapView = new MapView();
+
+    private CompactCallGraph(SymbolTable symbols, int nodeCount, int[] offsets, int[] targets) {
+        this.symbols = symbols;
+        this.nodeCount = nodeCount;
+        this.offsets = offsets;
+        this.targets = targets;
+        int callers = 0;
+        for (int id = 0; id < nodeCount; id++) {
+            if (offsets[id + 1] > offsets[id]) callers++;
+        }
+        this.callerCount = callers;
+    }
+
+    /** Table des symboles (partagée avec le Builder qui a construit le graphe). */
+    public SymbolTable getSymbols() {
+        return symbols;
+    }
+
+    /** Nombre de méthodes connues lors de la construction (appelants et appelés). */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public int getEdgeCount() {
+        return targets.length;
+    }
+
+    /** Nombre de méthodes qui ont au moins un appel sortant. */
+    public int getCallerCount() {
+        return callerCount;
+    }
+
+    public int outDegree(int caller) {
+        return caller < nodeCount ? offsets[caller + 1] - offsets[caller] : 0;
+    }
+
+    /** Début de la ligne de l'appelant dans targets() (fin = rowStart(caller + 1)). */
+    public int rowStart(int caller) {
+        return offsets[Math.min(caller, nodeCount)];
+    }
+
+    /** i-ème appelé dans le tableau CSR. */
+    public int target(int index) {
+        return targets[index];
+    }
+
+    public boolean hasEdge(int caller, int callee) {
+        if (caller < 0 || caller >= nodeCount) return false;
+        return Arrays.binarySearch(targets, offsets[caller], offsets[caller + 1], callee) >= 0;
+    }
+
+    public void forEachEdge(EdgeConsumer consumer) {
+        for (int caller = 0; caller < nodeCount; caller++) {
+            for (int i = offsets[caller]; i < offsets[caller + 1]; i++) {
+                consumer.accept(caller, targets[i]);
+            }
+        }
+    }
+
+    /** Vue en lecture seule : appelant -> appelés (seuls les appelants sont des clés). */
+    public Map<String, Set<String>> asMap() {
+        return mapView;
+    }
+
+    /** Graphe compact derrière une vue obtenue par asMap(), ou null pour une autre Map. */
+    public static CompactCallGraph unwrap(Map<?, ?> map) {
+        return map instanceof MapView view ? view.graph() : null;
+    }
+
+    /* ---------------------------- Vues Map / Set ---------------------------- */
+
+    private int idOf(Object name) {
+        if (!(name instanceof String s)) return -1;
+        int id = symbols.idOf(s);
+        return id < nodeCount ? id : -1;
+    }
+
+    private final class MapView extends AbstractMap<String, Set<String>> {
+
+        CompactCallGraph graph() {
+            return CompactCallGraph.this;
+        }
+
+        @Override
+        public int size() {
+            return callerCount;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            int id = idOf(key);
+            return id >= 0 && outDegree(id) > 0;
+        }
+
+        @Override
+        public Set<String> get(Object key) {
+            int id = idOf(key);
+            return id >= 0 && outDegree(id) > 0 ? new RowSet(id) : null;
+        }
+
+        @Override
+        public Set<Entry<String, Set<String>>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public int size() {
+                    return callerCount;
+                }
+
+                @Override
+                public Iterator<Entry<String, Set<String>>> iterator() {
+                    return new Iterator<>() {
+                        private int next = advance(0);
+
+                        private int advance(int from) {
+                            int id = from;
+                            while (id < nodeCount && offsets[id + 1] == offsets[id]) id++;
+                            return id;
+                        }
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < nodeCount;
+                        }
+
+                        @Override
+                        public Entry<String, Set<String>> next() {
+                            if (next >= nodeCount) throw new NoSuchElementException();
+                            int id = next;
+                            next = advance(id + 1);
+                            return new SimpleImmutableEntry<>(symbols.nameOf(id), new RowSet(id));
+                        }
+                    };
+                }
+            };
+        }
+    }
+
+    /** Appelés d'une méthode, lus directement dans le tableau CSR. */
+    private final class RowSet extends AbstractSet<String> {
+        private final int caller;
+
+        RowSet(int caller) {
+            this.caller = caller;
+        }
+
+        @Override
+        public int size() {
+            return offsets[caller + 1] - offsets[caller];
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            int id = idOf(o);
+            return id >= 0 && hasEdge(caller, id);
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return new Iterator<>() {
+                private int index = offsets[caller];
+
+                @Override
+                public boolean hasNext() {
+                    return index < offsets[caller + 1];
+                }
+
+                @Override
+                public String next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    return symbols.nameOf(targets[index++]);
+                }
+            };
+        }
+    }
+
+    /* ---------------------------- Construction ---------------------------- */
+
+    /**
+     * Accumule les arcs (un long par arc : appelant << 32 | appelé) puis les trie et
+     * les dédoublonne pour produire le CSR. Avec un MemoryBudget limité, les arcs au-delà
+     * du budget sont triés et déversés sur disque, puis fusionnés par build().
+     * close() supprime les fichiers temporaires. Non thread-safe.
+     */
+    public static class Builder implements AutoCloseable {
+        private final SymbolTable symbols;
+        private final ExternalLongSorter edges;
+
+        public Builder() {
+            this(new SymbolTable());
+        }
+
+        public Builder(SymbolTable symbols) {
+            this(symbols, MemoryBudget.UNLIMITED);
+        }
+
+        public Builder(SymbolTable symbols, MemoryBudget budget) {
+            this(symbols, budget, 1024);
+        }
+
+        /** Reprend les arcs d'un graphe existant pour en ajouter d'autres. */
+        public Builder(CompactCallGraph graph) {
+            this(graph, MemoryBudget.UNLIMITED);
+        }
+
+        public Builder(CompactCallGraph graph, MemoryBudget budget) {
+            this(graph.symbols, budget, Math.max(1024, graph.getEdgeCount()));
+            graph.forEachEdge(this::addEdge);
+        }
+
+        private Builder(SymbolTable symbols, MemoryBudget budget, int expectedEdges) {
+            this.symbols = symbols;
+            this.edges = new ExternalLongSorter(budget, true, expectedEdges);
+        }
+
+        public SymbolTable getSymbols() {
+            return symbols;
+        }
+
+        public void addEdge(String caller, String callee) {
+            addEdge(symbols.intern(caller), symbols.intern(callee));
+        }
+
+        public void addEdge(int caller, int callee) {
+            edges.add(((long) caller << 32) | callee);
+        }
+
+        /** Vrai si une partie des arcs a été déversée sur disque (budget mémoire atteint). */
+        public boolean hasSpilled() {
+            return edges.hasSpilled();
+        }
+
+        /**
+         * Ajoute tous les arcs d'un autre builder (avec sa propre table de symboles).
+         * Ses symboles sont réinternés dans l'ordre de leurs identifiants : ajouter dans l'ordre
+         * les builders de paquets consécutifs donne les mêmes identifiants qu'un builder unique.
+         */
+        public void append(Builder other) {
+            int[] remap = new int[other.symbols.size()];
+            for (int id = 0; id < remap.length; id++) {
+                remap[id] = symbols.intern(other.symbols.nameOf(id));
+            }
+            other.edges.forEach(edge -> addEdge(remap[(int) (edge >>> 32)], remap[(int) edge]));
+        }
+
+        /** Construit le CSR en deux parcours de la suite triée des arcs : comptage par ligne, puis remplissage. */
+        public CompactCallGraph build() {
+            int nodeCount = symbols.size();
+            int[] offsets = new int[nodeCount + 1];
+            int unique = 0;
+            try (ExternalLongSorter.LongCursor cursor = edges.sorted()) {
+                while (cursor.next()) {
+                    offsets[(int) (cursor.value() >>> 32) + 1]++;
+                    unique++;
+                }
+            }
+            int[] targets = new int[unique];
+            int index = 0;
+            try (ExternalLongSorter.LongCursor cursor = edges.sorted()) {
+                while (cursor.next()) {
+                    targets[index++] = (int) cursor.value();
+                }
+            }
+            for (int id = 0; id < nodeCount; id++) {
+                offsets[id + 1] += offsets[id];
+            }
+            return new CompactCallGraph(symbols, nodeCount, offsets, targets);
+        }
+
+        @Override
+        public void close() {
+            edges.close();
+        }
+    }
+}
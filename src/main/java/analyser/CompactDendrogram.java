@@ -0,0 +1,206 @@
+package analyser;
+
+import java.util.*;
+
+/**
+ * Dendrogramme en tableaux primitifs : un noeud est un entier, ses fils, son couplage et sa
+ * taille sont lus dans des tableaux parallèles. Mémoire linéaire en nombre de classes, là où
+ * les MergedNode gardent chacun une copie des classes de leur sous-arbre (O(n²) au total).
+ *
+ * Les classes sont numérotées dans l'ordre des feuilles (parcours gauche d'abord) : chaque
+ * noeud couvre un intervalle [start, start + size) de numéros, et ses classes sont une vue sur
+ * cet intervalle, sans copie. Les feuilles sont les noeuds 0..n-1 (feuille i = classe i), les
+ * fusions les noeuds n..2n-2 dans l'ordre où elles ont eu lieu : la racine est le dernier noeud.
+ * Les fils d'un noeud ont toujours un numéro plus petit que lui.
+ *
+ * Chaque noeud garde aussi son couplage interne (somme des couplages entre ses classes, noté
+ * à la fusion) : la cohésion moyenne d'un noeud se lit en O(1). Non modifiable.
+ */
+public class CompactDendrogram {
+
+    private final String[] classNames;
+    private final SymbolTable classIds = new SymbolTable();
+    /** Par noeud : fils gauche et droit (-1 pour une feuille), couplage, premier numéro de classe et taille. */
+    private final int[] left;
+    private final int[] right;
+    private final double[] coupling;
+    private final double[] internalCoupling;
+    private final int[] start;
+    private final int[] size;
+
+    /**
+     * @param leaves      classe de chaque feuille, dans l'ordre des noeuds 0..n-1 avant renumérotation
+     * @param mergeLeft   fils gauche de la fusion k (noeud n + k)
+     * @param mergeRight  fils droit de la fusion k
+     * @param mergeCoupling couplage de la fusion k
+     * @param mergeInternal couplage interne du cluster obtenu par la fusion k
+     */
+    CompactDendrogram(List<String> leaves, int[] mergeLeft, int[] mergeRight, double[] mergeCoupling, double[] mergeInternal) {
+        int leafCount = leaves.size();
+        if (leafCount == 0 || mergeLeft.length != leafCount - 1) {
+            throw new IllegalArgumentException("Dendrogramme incomplet: " + leafCount + " feuilles, " + mergeLeft.length + " fusions");
+        }
+        int nodeCount = 2 * leafCount - 1;
+        left = new int[nodeCount];
+        right = new int[nodeCount];
+        coupling = new double[nodeCount];
+        internalCoupling = new double[nodeCount];
+        start = new int[nodeCount];
+        size = new int[nodeCount];
+        Arrays.fill(left, 0, leafCount, -1);
+        Arrays.fill(right, 0, leafCount, -1);
+        Arrays.fill(size, 0, leafCount, 1);
+        System.arraycopy(mergeLeft, 0, left, leafCount, mergeLeft.length);
+        System.arraycopy(mergeRight, 0, right, leafCount, mergeRight.length);
+        System.arraycopy(mergeCoupling, 0, coupling, leafCount, mergeCoupling.length);
+        System.arraycopy(mergeInternal, 0, internalCoupling, leafCount, mergeInternal.length);
+
+        // Tailles de bas en haut, puis intervalles de haut en bas : pas de récursion sur un arbre profond
+        for (int node = leafCount; node < nodeCount; node++) {
+            size[node] = size[left[node]] + size[right[node]];
+        }
+        for (int node = nodeCount - 1; node >= leafCount; node--) {
+            start[left[node]] = start[node];
+            start[right[node]] = start[node] + size[left[node]];
+        }
+
+        // Feuille i -> classe start[i] : les feuilles prennent le numéro de leur classe
+        classNames = new String[leafCount];
+        for (int leaf = 0; leaf < leafCount; leaf++) {
+            classNames[start[leaf]] = leaves.get(leaf);
+        }
+        for (int node = leafCount; node < nodeCount; node++) {
+            if (left[node] < leafCount) left[node] = start[left[node]];
+            if (right[node] < leafCount) right[node] = start[right[node]];
+        }
+        for (int leaf = 0; leaf < leafCount; leaf++) {
+            start[leaf] = leaf;
+        }
+        for (String className : classNames) {
+            classIds.intern(className);
+        }
+    }
+
+    public int getClassCount() {
+        return classNames.length;
+    }
+
+    public int getNodeCount() {
+        return left.length;
+    }
+
+    public int getRoot() {
+        return left.length - 1;
+    }
+
+    public boolean isLeaf(int node) {
+        return left[node] < 0;
+    }
+
+    public int getLeft(int node) {
+        return left[node];
+    }
+
+    public int getRight(int node) {
+        return right[node];
+    }
+
+    /** Couplage de la fusion (0 pour une feuille). */
+    public double getCoupling(int node) {
+        return coupling[node];
+    }
+
+    /** Somme des couplages entre les classes du noeud (0 pour une feuille). */
+    public double getInternalCoupling(int node) {
+        return internalCoupling[node];
+    }
+
+    /** Nombre de paires de classes du noeud : size(size - 1) / 2. */
+    public long getInternalPairCount(int node) {
+        return (long) size[node] * (size[node] - 1) / 2;
+    }
+
+    /** Couplage interne moyen par paire de classes ; Double.MAX_VALUE pour une feuille, parfaitement cohérente. */
+    public double getAverageInternalCoupling(int node) {
+        return isLeaf(node) ? Double.MAX_VALUE : internalCoupling[node] / getInternalPairCount(node);
+    }
+
+    /** Nombre de classes du noeud. */
+    public int size(int node) {
+        return size[node];
+    }
+
+    /** Premier numéro de classe du noeud : ses classes sont start(node) .. start(node) + size(node) - 1. */
+    public int start(int node) {
+        return start[node];
+    }
+
+    public String getClassName(int classId) {
+        return classNames[classId];
+    }
+
+    /** Numéro de la classe (= sa feuille), ou -1 si elle n'est pas dans le dendrogramme. */
+    public int classIdOf(String className) {
+        return classIds.idOf(className);
+    }
+
+    /** Classes du noeud : vue en lecture seule sur son intervalle, contains en O(1). */
+    public Set<String> getClasses(int node) {
+        return new ClassRange(start[node], size[node]);
+    }
+
+    /**
+     * Même dendrogramme en LeafNode / MergedNode. Les MergedNode calculent leurs classes à la
+     * demande et les gardent : à réserver aux petits dendrogrammes.
+     */
+    public HierarchicalClustering.DendrogramNode toTree() {
+        HierarchicalClustering.DendrogramNode[] nodes = new HierarchicalClustering.DendrogramNode[left.length];
+        for (int node = 0; node < nodes.length; node++) {
+            nodes[node] = isLeaf(node)
+                    ? new HierarchicalClustering.LeafNode(classNames[node])
+                    : new HierarchicalClustering.MergedNode(nodes[left[node]], nodes[right[node]], coupling[node], internalCoupling[node]);
+        }
+        return nodes[getRoot()];
+    }
+
+    /** Vue sur les classes first .. first + count - 1. */
+    private final class ClassRange extends AbstractSet<String> {
+        private final int first;
+        private final int count;
+
+        ClassRange(int first, int count) {
+            this.first = first;
+            this.count = count;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof String)) return false;
+            int id = classIds.idOf((String) o);
+            return id >= first && id < first + count;
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return new Iterator<>() {
+                private int next = first;
+
+                @Override
+                public boolean hasNext() {
+                    return next < first + count;
+                }
+
+                @Override
+                public String next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    return classNames[next++];
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
+    }
+}
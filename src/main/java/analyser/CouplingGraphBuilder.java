@@ -10,44 +10,131 @@ public class CouplingGraphBuilder {
 
     private final Map<String, Set<String>> callGraph; // méthode → méthodes appelées
     private final Map<String, Map<String, Double>> couplingGraph = new HashMap<>();
+    private MemoryBudget budget = MemoryBudget.UNLIMITED;
+    private CouplingHotspotIndex hotspotIndex;
 
     public CouplingGraphBuilder(Map<String, Set<String>> callGraph) {
         this.callGraph = callGraph;
     }
 
+    /** Budget mémoire du comptage des paires de classes (graphe compact) : au-delà, tri externe sur disque. */
+    public void setMemoryBudget(MemoryBudget budget) {
+        this.budget = budget;
+    }
+
     /** ---------- Construit le graphe de couplage entre classes. ---------- */
     public void buildCouplingGraph() {
-        Map<String, Integer> classCallCount = new HashMap<>();
+        hotspotIndex = null;
+        CompactCallGraph compact = CompactCallGraph.unwrap(callGraph);
+        if (compact != null && budget.isLimited()) {
+            buildFromCompactSorted(compact);
+            return;
+        }
+        ClassPairCounts counts = countClassPairs(callGraph);
+
+        /** "Normalisation" des valeurs pour obtenir un poids (couplage) **/
+        /* poids =  nmb d'appels de la ClasseA vers la ClasseB / nmb total d'appels entre toutes les classes du projet */
+        counts.pairs().forEach((pair, count) -> addWeight(counts.classes(), pair, (double) count / counts.total()));
+    }
+
+    /** Comptes bruts des appels entre classes : classes internées, clé (classe A << 32 | classe B) -> nombre d'appels. */
+    record ClassPairCounts(SymbolTable classes, LongIntCounter pairs, int total) {
+    }
+
+    /** Compte les appels entre classes différentes d'un graphe d'appel, en une passe sur les arcs. */
+    static ClassPairCounts countClassPairs(Map<String, Set<String>> callGraph) {
+        CompactCallGraph compact = CompactCallGraph.unwrap(callGraph);
+        SymbolTable classes = new SymbolTable();
+        LongIntCounter classCallCount;
         int totalRelations = 0;
 
-        /* Compter les appels entre classes (A -> B) */
-        for (Map.Entry<String, Set<String>> entry : callGraph.entrySet()) {
-            String caller = entry.getKey();
-            String callerClass = extractClassName(caller);
+        /* Compter les appels entre classes (A -> B) : une clé (classe appelante << 32 | classe appelée) par paire */
+        if (compact != null) {
+            int[] classOf = classIds(compact.getSymbols(), compact.getNodeCount(), classes);
+            classCallCount = new LongIntCounter(classes.size());
+            for (int caller = 0; caller < classOf.length; caller++) {
+                int callerClass = classOf[caller];
+                for (int i = compact.rowStart(caller); i < compact.rowStart(caller + 1); i++) {
+                    int calleeClass = classOf[compact.target(i)];
+                    if (callerClass != calleeClass) { // on ignore les appels internes
+                        classCallCount.increment(pairKey(callerClass, calleeClass));
+                        totalRelations++;
+                    }
+                }
+            }
+        } else {
+            // La classe d'une méthode est calculée une fois par méthode distincte, et non par arc
+            MethodClasses methodClasses = new MethodClasses(classes);
+            classCallCount = new LongIntCounter(callGraph.size());
+            for (Map.Entry<String, Set<String>> entry : callGraph.entrySet()) {
+                int callerClass = methodClasses.classOf(entry.getKey());
 
-            for (String callee : entry.getValue()) {
-                String calleeClass = extractClassName(callee);
+                for (String callee : entry.getValue()) {
+                    int calleeClass = methodClasses.classOf(callee);
 
-                if (!callerClass.equals(calleeClass)) { // on ignore les appels internes
-                    String key = callerClass + "->" + calleeClass;
-                    classCallCount.put(key, classCallCount.getOrDefault(key, 0) + 1);
-                    totalRelations++;
+                    if (callerClass != calleeClass) { // on ignore les appels internes
+                        classCallCount.increment(pairKey(callerClass, calleeClass));
+                        totalRelations++;
+                    }
                 }
             }
         }
+        return new ClassPairCounts(classes, classCallCount, totalRelations);
+    }
 
-        /** "Normalisation" des valeurs pour obtenir un poids (couplage) **/
-        for (String key : classCallCount.keySet()) {
-            String[] parts = key.split("->");
-            String classA = parts[0];
-            String classB = parts[1];
+    /**
+     * Même calcul sur un graphe compact avec un budget mémoire : les paires de classes sont
+     * triées (tri externe si le budget est dépassé) puis comptées par plage.
+     */
+    private void buildFromCompactSorted(CompactCallGraph graph) {
+        SymbolTable classes = new SymbolTable();
+        int[] classOf = classIds(graph.getSymbols(), graph.getNodeCount(), classes);
+
+        int totalRelations = 0;
+        try (ExternalLongSorter pairs = new ExternalLongSorter(budget, false, graph.getEdgeCount())) {
+            for (int caller = 0; caller < classOf.length; caller++) {
+                int callerClass = classOf[caller];
+                for (int i = graph.rowStart(caller); i < graph.rowStart(caller + 1); i++) {
+                    int calleeClass = classOf[graph.target(i)];
+                    if (callerClass != calleeClass) { // on ignore les appels internes
+                        pairs.add(pairKey(callerClass, calleeClass));
+                        totalRelations++;
+                    }
+                }
+            }
 
-            /* poids =  nmb d'appels de la ClasseA vers la ClasseB / nmb total d'appels entre toutes les classes du projet */
-            double weight = (double) classCallCount.get(key) / totalRelations;
+            try (ExternalLongSorter.LongCursor cursor = pairs.sorted()) {
+                boolean hasPair = cursor.next();
+                while (hasPair) {
+                    long pair = cursor.value();
+                    int count = 0;
+                    do {
+                        count++;
+                        hasPair = cursor.next();
+                    } while (hasPair && cursor.value() == pair);
+                    addWeight(classes, pair, (double) count / totalRelations);
+                }
+            }
+        }
+    }
 
-            couplingGraph.putIfAbsent(classA, new HashMap<>());
-            couplingGraph.get(classA).put(classB, weight);
+    /** Classe de chaque symbole du graphe compact : un appel à extractClassName par symbole. */
+    private static int[] classIds(SymbolTable methods, int nodeCount, SymbolTable classes) {
+        int[] classOf = new int[nodeCount];
+        for (int id = 0; id < nodeCount; id++) {
+            classOf[id] = classes.intern(extractClassName(methods.nameOf(id)));
         }
+        return classOf;
+    }
+
+    static long pairKey(int classA, int classB) {
+        return ((long) classA << 32) | classB;
+    }
+
+    private void addWeight(SymbolTable classes, long pair, double weight) {
+        String classA = classes.nameOf((int) (pair >>> 32));
+        String classB = classes.nameOf((int) pair);
+        couplingGraph.computeIfAbsent(classA, k -> new HashMap<>()).put(classB, weight);
     }
 
     /** Renvoie le graphe de couplage. */
@@ -55,6 +142,14 @@ public class CouplingGraphBuilder {
         return couplingGraph;
     }
 
+    /** Index des points chauds (top-K, fan-in / fan-out, filtres par poids), construit au premier appel. */
+    public CouplingHotspotIndex getHotspotIndex() {
+        if (hotspotIndex == null) {
+            hotspotIndex = CouplingHotspotIndex.of(couplingGraph);
+        }
+        return hotspotIndex;
+    }
+
     /** Affiche le graphe de couplage. */
     public void printCouplingGraph() {
         System.out.println("===== Graphe de couplage entre classes =====");
@@ -66,8 +161,30 @@ public class CouplingGraphBuilder {
         System.out.println("============================================");
     }
 
+    /** Classe de chaque méthode rencontrée, calculée à sa première apparition. */
+    static final class MethodClasses {
+        private final SymbolTable methods = new SymbolTable();
+        private final SymbolTable classes;
+        private int[] classOf = new int[64];
+
+        MethodClasses(SymbolTable classes) {
+            this.classes = classes;
+        }
+
+        int classOf(String method) {
+            int known = methods.size();
+            int id = methods.intern(method);
+            if (id < known) return classOf[id];
+            if (id == classOf.length) {
+                classOf = Arrays.copyOf(classOf, id * 2);
+            }
+            classOf[id] = classes.intern(extractClassName(method));
+            return classOf[id];
+        }
+    }
+
     /** Extrait le nom de la classe à partir d'une signature "Classe.méthode".*/
-    private String extractClassName(String methodSignature) {
+    private static String extractClassName(String methodSignature) {
         int dot = methodSignature.indexOf('.');
         if (dot != -1) {
             return methodSignature.substring(0, dot);
@@ -0,0 +1,274 @@
+package analyser;
+
+import java.util.*;
+
+/**
+ * Index des points chauds d'un graphe de couplage : paires de classes les plus couplées,
+ * classes de plus fort fan-out / fan-in, paires dont le poids est dans un intervalle.
+ *
+ * Construit une fois à partir du graphe terminé : les arcs sont rangés dans des tableaux
+ * primitifs triés par poids décroissant (à poids égal, par noms de classes), si bien que
+ * top-K coûte O(K) et un filtre par poids deux recherches dichotomiques. Les classes sont
+ * classées par un tas borné à K éléments (O(n log K)). Les requêtes ne modifient rien :
+ * l'index peut être interrogé depuis plusieurs threads.
+ */
+public class CouplingHotspotIndex {
+
+    /** Arc du graphe de couplage. */
+    public record CouplingPair(String from, String to, double weight) {
+    }
+
+    /** Couplage d'une classe : nombre de classes couplées et somme des poids des arcs. */
+    public record ClassCoupling(String className, int degree, double totalWeight) {
+    }
+
+    /** Noms des classes triés : l'identifiant d'une classe est son rang. */
+    private final String[] names;
+    /** Arcs triés par poids décroissant, puis par classe source et classe cible. */
+    private final int[] from;
+    private final int[] to;
+    private final double[] weight;
+    private final int[] outDegree;
+    private final int[] inDegree;
+    private final double[] outWeight;
+    private final double[] inWeight;
+
+    private CouplingHotspotIndex(String[] names, int[] from, int[] to, double[] weight) {
+        this.names = names;
+        this.from = from;
+        this.to = to;
+        this.weight = weight;
+        outDegree = new int[names.length];
+        inDegree = new int[names.length];
+        outWeight = new double[names.length];
+        inWeight = new double[names.length];
+        for (int i = 0; i < weight.length; i++) {
+            outDegree[from[i]]++;
+            outWeight[from[i]] += weight[i];
+            inDegree[to[i]]++;
+            inWeight[to[i]] += weight[i];
+        }
+    }
+
+    /** Index d'un graphe de couplage (classe A -> classe B -> poids). */
+    public static CouplingHotspotIndex of(Map<String, Map<String, Double>> couplingGraph) {
+        Set<String> classes = new HashSet<>(couplingGraph.keySet());
+        int edgeCount = 0;
+        for (Map<String, Double> targets : couplingGraph.values()) {
+            classes.addAll(targets.keySet());
+            edgeCount += targets.size();
+        }
+        String[] names = classes.toArray(new String[0]);
+        Arrays.sort(names);
+        SymbolTable ids = new SymbolTable();
+        for (String name : names) {
+            ids.intern(name);
+        }
+
+        int[] from = new int[edgeCount];
+        int[] to = new int[edgeCount];
+        double[] weight = new double[edgeCount];
+        int edge = 0;
+        for (Map.Entry<String, Map<String, Double>> entry : couplingGraph.entrySet()) {
+            int source = ids.idOf(entry.getKey());
+            for (Map.Entry<String, Double> target : entry.getValue().entrySet()) {
+                from[edge] = source;
+                to[edge] = ids.idOf(target.getKey());
+                weight[edge] = target.getValue();
+                edge++;
+            }
+        }
+
+        int[] order = new int[edgeCount];
+        for (int i = 0; i < edgeCount; i++) order[i] = i;
+        sortEdges(order, new int[edgeCount], 0, edgeCount, from, to, weight);
+        int[] sortedFrom = new int[edgeCount];
+        int[] sortedTo = new int[edgeCount];
+        double[] sortedWeight = new double[edgeCount];
+        for (int i = 0; i < edgeCount; i++) {
+            sortedFrom[i] = from[order[i]];
+            sortedTo[i] = to[order[i]];
+            sortedWeight[i] = weight[order[i]];
+        }
+        return new CouplingHotspotIndex(names, sortedFrom, sortedTo, sortedWeight);
+    }
+
+    public int getClassCount() {
+        return names.length;
+    }
+
+    public int getPairCount() {
+        return weight.length;
+    }
+
+    /** Les k paires les plus couplées, par poids décroissant. */
+    public List<CouplingPair> topPairs(int k) {
+        return pairs(0, Math.min(Math.max(k, 0), weight.length));
+    }
+
+    /** Paires dont le poids est compris entre min et max (inclus), par poids décroissant. */
+    public List<CouplingPair> pairsInRange(double min, double max) {
+        return pairs(firstAtMost(max), firstBelow(min));
+    }
+
+    /** Nombre de paires dont le poids est compris entre min et max (inclus). */
+    public int countInRange(double min, double max) {
+        return Math.max(0, firstBelow(min) - firstAtMost(max));
+    }
+
+    /** Les k classes couplées au plus grand nombre de classes qu'elles appellent. */
+    public List<ClassCoupling> topFanOut(int k) {
+        return topClasses(k, outDegree, outWeight);
+    }
+
+    /** Les k classes appelées par le plus grand nombre de classes. */
+    public List<ClassCoupling> topFanIn(int k) {
+        return topClasses(k, inDegree, inWeight);
+    }
+
+    /** Fan-out de la classe (degré 0 si elle est absente du graphe). */
+    public ClassCoupling fanOut(String className) {
+        int id = Arrays.binarySearch(names, className);
+        return id < 0 ? new ClassCoupling(className, 0, 0.0) : new ClassCoupling(className, outDegree[id], outWeight[id]);
+    }
+
+    public ClassCoupling fanIn(String className) {
+        int id = Arrays.binarySearch(names, className);
+        return id < 0 ? new ClassCoupling(className, 0, 0.0) : new ClassCoupling(className, inDegree[id], inWeight[id]);
+    }
+
+    /* ---------------------------- Recherche ---------------------------- */
+
+    private List<CouplingPair> pairs(int start, int end) {
+        List<CouplingPair> result = new ArrayList<>(Math.max(0, end - start));
+        for (int i = start; i < end; i++) {
+            result.add(new CouplingPair(names[from[i]], names[to[i]], weight[i]));
+        }
+        return result;
+    }
+
+    /** Premier arc de poids <= value (les poids sont décroissants). */
+    private int firstAtMost(double value) {
+        int low = 0;
+        int high = weight.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (weight[mid] > value) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    /** Premier arc de poids < value. */
+    private int firstBelow(double value) {
+        int low = 0;
+        int high = weight.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (weight[mid] >= value) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * Tas min borné à k classes : la racine est la moins bonne des k meilleures, remplacée dès
+     * qu'une classe la dépasse. Ordre : degré décroissant, puis poids décroissant, puis nom.
+     */
+    private List<ClassCoupling> topClasses(int k, int[] degree, double[] totalWeight) {
+        int size = Math.min(Math.max(k, 0), names.length);
+        int[] heap = new int[size];
+        int heapSize = 0;
+        for (int id = 0; id < names.length && size > 0; id++) {
+            if (degree[id] == 0) continue;
+            if (heapSize < size) {
+                heap[heapSize] = id;
+                siftUp(heap, heapSize++, degree, totalWeight);
+            } else if (better(id, heap[0], degree, totalWeight)) {
+                heap[0] = id;
+                siftDown(heap, heapSize, degree, totalWeight);
+            }
+        }
+        // Vider le tas donne les classes de la moins bonne à la meilleure
+        ClassCoupling[] result = new ClassCoupling[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            int id = heap[0];
+            result[i] = new ClassCoupling(names[id], degree[id], totalWeight[id]);
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize, degree, totalWeight);
+        }
+        return Arrays.asList(result);
+    }
+
+    private static boolean better(int a, int b, int[] degree, double[] totalWeight) {
+        if (degree[a] != degree[b]) return degree[a] > degree[b];
+        if (totalWeight[a] != totalWeight[b]) return totalWeight[a] > totalWeight[b];
+        return a < b;
+    }
+
+    private static void siftUp(int[] heap, int index, int[] degree, double[] totalWeight) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!better(heap[parent], heap[index], degree, totalWeight)) return;
+            int tmp = heap[parent];
+            heap[parent] = heap[index];
+            heap[index] = tmp;
+            index = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int heapSize, int[] degree, double[] totalWeight) {
+        int index = 0;
+        while (true) {
+            int worst = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < heapSize && better(heap[worst], heap[left], degree, totalWeight)) worst = left;
+            if (right < heapSize && better(heap[worst], heap[right], degree, totalWeight)) worst = right;
+            if (worst == index) return;
+            int tmp = heap[index];
+            heap[index] = heap[worst];
+            heap[worst] = tmp;
+            index = worst;
+        }
+    }
+
+    /* ---------------------------- Tri des arcs ---------------------------- */
+
+    /** Tri fusion des indices d'arcs (sur int[] : pas d'objet par arc pour des millions d'arcs). */
+    private static void sortEdges(int[] order, int[] tmp, int start, int end, int[] from, int[] to, double[] weight) {
+        if (end - start < 16) {
+            for (int i = start + 1; i < end; i++) {
+                int value = order[i];
+                int j = i - 1;
+                while (j >= start && compareEdges(order[j], value, from, to, weight) > 0) {
+                    order[j + 1] = order[j];
+                    j--;
+                }
+                order[j + 1] = value;
+            }
+            return;
+        }
+        int mid = (start + end) >>> 1;
+        sortEdges(order, tmp, start, mid, from, to, weight);
+        sortEdges(order, tmp, mid, end, from, to, weight);
+        if (compareEdges(order[mid - 1], order[mid], from, to, weight) <= 0) return;
+        System.arraycopy(order, start, tmp, start, end - start);
+        int i = start;
+        int j = mid;
+        int k = start;
+        while (i < mid && j < end) {
+            order[k++] = compareEdges(tmp[i], tmp[j], from, to, weight) <= 0 ? tmp[i++] : tmp[j++];
+        }
+        while (i < mid) order[k++] = tmp[i++];
+        while (j < end) order[k++] = tmp[j++];
+    }
+
+    /** Poids décroissant, puis classe source et classe cible (rangs des noms) croissantes. */
+    private static int compareEdges(int a, int b, int[] from, int[] to, double[] weight) {
+        int byWeight = Double.compare(weight[b], weight[a]);
+        if (byWeight != 0) return byWeight;
+        if (from[a] != from[b]) return Integer.compare(from[a], from[b]);
+        return Integer.compare(to[a], to[b]);
+    }
+}
@@ -0,0 +1,34 @@
+package analyser;
+
+import java.util.Locale;
+
+/** Granularité du graphe de couplage : classes, packages, ou préfixes de package (ex: "com.acme"). */
+public enum CouplingLevel {
+    CLASS("Classes"),
+    PACKAGE("Packages"),
+    PREFIX("Préfixes de package");
+
+    private final String label;
+
+    CouplingLevel(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+
+    /** Niveau à partir de son nom ("class", "package", "prefix"), sans tenir compte de la casse. */
+    public static CouplingLevel parse(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Niveau de couplage inconnu: " + name + " (class, package ou prefix)");
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package analyser;
+
+/**
+ * Somme de doubles en double-double (hi + lo, environ 106 bits) : le résultat ne dépend pas de
+ * l'ordre des additions tant que la somme exacte tient dans cette précision, ce qui est le cas
+ * des couplages (quelques dizaines de bits d'écart entre le plus petit et le plus grand poids).
+ * Deux sommes égales mathématiquement ont alors la même représentation et se comparent égales,
+ * quel que soit l'ordre dans lequel leurs termes ont été ajoutés. Les sommes sont gardées dans
+ * deux tableaux parallèles (his / los) pour ne pas créer d'objet par somme.
+ */
+final class ExactSum {
+
+    private ExactSum() {
+    }
+
+    /** Compare deux sommes normalisées (hi, lo) ; 0.0 et -0.0 sont égaux. */
+    static int compare(double hiA, double loA, double hiB, double loB) {
+        if (hiA != hiB) return hiA < hiB ? -1 : 1;
+        if (loA != loB) return loA < loB ? -1 : 1;
+        return 0;
+    }
+
+    /** Ajoute (valueHi + valueLo) à la case index des tableaux his / los (sans objet intermédiaire). */
+    static void addTo(double[] his, double[] los, int index, double valueHi, double valueLo) {
+        double hi = his[index];
+        double s = hi + valueHi;
+        double b = s - hi;
+        double e = (hi - (s - b)) + (valueHi - b);
+        e += los[index] + valueLo;
+        double sum = s + e;
+        his[index] = sum;
+        los[index] = e - (sum - s);
+    }
+}
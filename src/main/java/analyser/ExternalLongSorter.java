@@ -0,0 +1,332 @@
+package analyser;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+/**
+ * Tri externe de valeurs long (arcs "appelant << 32 | appelé", paires de classes...).
+ * Les valeurs s'accumulent dans un tampon dont la place est réservée sur le MemoryBudget (commun
+ * à tous les tampons) ; quand il est plein et ne peut plus grandir, il est trié (et dédoublonné si distinct) puis écrit dans un fichier temporaire ("run").
+ * sorted() renvoie la suite triée : directement le tampon s'il n'y a pas eu de déversement,
+ * sinon une fusion k-aire des runs. Les runs sont supprimés par close(), y compris après une
+ * erreur d'écriture : pas de deleteOnExit, qui garderait chaque chemin en mémoire jusqu'à l'arrêt
+ * de la JVM. Non thread-safe.
+ */
+final class ExternalLongSorter implements AutoCloseable {
+
+    /** Nombre maximal de runs fusionnés à la fois (au-delà, fusions intermédiaires). */
+    private static final int MAX_FAN_IN = 64;
+    private static final int IO_BUFFER_BYTES = 1 << 16;
+
+    /** Parcours d'une suite triée. */
+    interface LongCursor extends AutoCloseable {
+        boolean next();
+
+        long value();
+
+        @Override
+        void close();
+    }
+
+    private final MemoryBudget budget;
+    private final boolean distinct;
+    private final int capacity;
+    private long[] buffer = new long[0];
+    /** Octets réservés sur le budget pour le tampon (rendus par close()). */
+    private long reserved;
+    private int count;
+    private boolean sorted = true;
+    private final List<Path> runs = new ArrayList<>();
+
+    ExternalLongSorter(MemoryBudget budget, boolean distinct, int expectedSize) {
+        this.budget = budget;
+        this.distinct = distinct;
+        this.capacity = budget.maxBufferedValues();
+        int length = Math.max(16, Math.min(expectedSize, capacity));
+        if (!resize(length)) {
+            resize(Math.min(length, MemoryBudget.MIN_BUFFERED_VALUES));
+        }
+    }
+
+    void add(long value) {
+        if (count == buffer.length) {
+            boolean grown = buffer.length < capacity
+                    && resize((int) Math.min(capacity, Math.max(16, (long) buffer.length * 2)));
+            if (!grown) {
+                spill();
+            }
+        }
+        buffer[count++] = value;
+        sorted = false;
+    }
+
+    boolean hasSpilled() {
+        return !runs.isEmpty();
+    }
+
+    /** Toutes les valeurs, dans un ordre quelconque (tampon puis runs), sans les trier. */
+    void forEach(LongConsumer consumer) {
+        for (int i = 0; i < count; i++) {
+            consumer.accept(buffer[i]);
+        }
+        for (Path run : runs) {
+            try (DataInputStream in = open(run)) {
+                long values = Files.size(run) / Long.BYTES;
+                for (long i = 0; i < values; i++) {
+                    consumer.accept(in.readLong());
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Lecture du fichier temporaire " + run + " impossible", e);
+            }
+        }
+    }
+
+    /**
+     * Suite triée de toutes les valeurs (sans doublon si distinct). Peut être appelée plusieurs fois.
+     * Après un déversement, le reste du tampon est déversé aussi et le tampon est libéré.
+     */
+    LongCursor sorted() {
+        if (runs.isEmpty()) {
+            sortBuffer();
+            return new ArrayCursor(buffer, count);
+        }
+        if (count > 0) {
+            spill();
+        }
+        resize(16);
+        while (runs.size() > MAX_FAN_IN) {
+            mergeFirstRuns();
+        }
+        return new MergeCursor(runs, distinct);
+    }
+
+    /** Supprime les fichiers temporaires et rend au budget la place du tampon. */
+    @Override
+    public void close() {
+        budget.release(reserved);
+        reserved = 0;
+        buffer = new long[0];
+        count = 0;
+        sorted = true;
+        for (Path run : runs) {
+            try {
+                Files.deleteIfExists(run);
+            } catch (IOException e) {
+                System.err.println("Fichier temporaire non supprimé: " + run);
+            }
+        }
+        runs.clear();
+    }
+
+    /**
+     * Redimensionne le tampon (count valeurs conservées) en ajustant sa réservation sur le budget.
+     * Un agrandissement au-delà du tampon minimal est refusé (false) si le budget commun est épuisé.
+     */
+    private boolean resize(int length) {
+        long bytes = (long) length * Long.BYTES;
+        long extra = bytes - reserved;
+        if (extra > 0) {
+            if (length <= MemoryBudget.MIN_BUFFERED_VALUES) {
+                budget.reserve(extra);
+            } else if (!budget.tryReserve(extra)) {
+                return false;
+            }
+        } else {
+            budget.release(-extra);
+        }
+        reserved = bytes;
+        buffer = Arrays.copyOf(buffer, length);
+        return true;
+    }
+
+    private void sortBuffer() {
+        if (sorted) return;
+        Arrays.sort(buffer, 0, count);
+        if (distinct) {
+            int unique = 0;
+            for (int i = 0; i < count; i++) {
+                if (unique == 0 || buffer[i] != buffer[unique - 1]) {
+                    buffer[unique++] = buffer[i];
+                }
+            }
+            count = unique;
+        }
+        sorted = true;
+    }
+
+    private void spill() {
+        sortBuffer();
+        try {
+            Files.createDirectories(budget.getSpillDirectory());
+            Path run = Files.createTempFile(budget.getSpillDirectory(), "ast-spill-", ".run");
+            // Suivi dès sa création : close() le supprime même si l'écriture échoue
+            runs.add(run);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), IO_BUFFER_BYTES))) {
+                for (int i = 0; i < count; i++) {
+                    out.writeLong(buffer[i]);
+                }
+            }
+            budget.recordSpill((long) count * Long.BYTES);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Écriture d'un fichier temporaire impossible dans " + budget.getSpillDirectory(), e);
+        }
+        count = 0;
+        sorted = true;
+    }
+
+    /** Fusionne les MAX_FAN_IN premiers runs en un seul. */
+    private void mergeFirstRuns() {
+        List<Path> group = new ArrayList<>(runs.subList(0, MAX_FAN_IN));
+        try {
+            Path merged = Files.createTempFile(budget.getSpillDirectory(), "ast-spill-", ".run");
+            runs.add(merged);
+            try (MergeCursor cursor = new MergeCursor(group, distinct);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(merged), IO_BUFFER_BYTES))) {
+                while (cursor.next()) {
+                    out.writeLong(cursor.value());
+                }
+            }
+            for (Path run : group) {
+                Files.deleteIfExists(run);
+            }
+            runs.subList(0, MAX_FAN_IN).clear();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Fusion des fichiers temporaires impossible", e);
+        }
+    }
+
+    private static DataInputStream open(Path run) throws IOException {
+        return new DataInputStream(new BufferedInputStream(Files.newInputStream(run), IO_BUFFER_BYTES));
+    }
+
+    /* ---------------------------- Curseurs ---------------------------- */
+
+    private static final class ArrayCursor implements LongCursor {
+        private final long[] values;
+        private final int count;
+        private int index = -1;
+
+        ArrayCursor(long[] values, int count) {
+            this.values = values;
+            this.count = count;
+        }
+
+        @Override
+        public boolean next() {
+            return ++index < count;
+        }
+
+        @Override
+        public long value() {
+            return values[index];
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /** Fusion k-aire : tas binaire des runs, ordonné par leur valeur courante. */
+    private static final class MergeCursor implements LongCursor {
+        private final DataInputStream[] inputs;
+        private final long[] remaining;
+        private final long[] heads;
+        private final int[] heap;
+        private final boolean distinct;
+        private int heapSize;
+        private long current;
+        private boolean started;
+
+        MergeCursor(List<Path> runs, boolean distinct) {
+            this.distinct = distinct;
+            inputs = new DataInputStream[runs.size()];
+            remaining = new long[runs.size()];
+            heads = new long[runs.size()];
+            heap = new int[runs.size()];
+            try {
+                for (int i = 0; i < inputs.length; i++) {
+                    inputs[i] = open(runs.get(i));
+                    remaining[i] = Files.size(runs.get(i)) / Long.BYTES;
+                    if (advance(i)) {
+                        heap[heapSize++] = i;
+                    }
+                }
+            } catch (IOException e) {
+                close();
+                throw new UncheckedIOException("Lecture des fichiers temporaires impossible", e);
+            }
+            for (int i = heapSize / 2 - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+        }
+
+        @Override
+        public boolean next() {
+            while (heapSize > 0) {
+                int run = heap[0];
+                long value = heads[run];
+                if (advance(run)) {
+                    siftDown(0);
+                } else {
+                    heap[0] = heap[--heapSize];
+                    siftDown(0);
+                }
+                if (distinct && started && value == current) continue;
+                current = value;
+                started = true;
+                return true;
+            }
+            close();
+            return false;
+        }
+
+        @Override
+        public long value() {
+            return current;
+        }
+
+        @Override
+        public void close() {
+            for (DataInputStream input : inputs) {
+                if (input == null) continue;
+                try {
+                    input.close();
+                } catch (IOException ignored) {
+                    // lecture terminée, rien à récupérer
+                }
+            }
+        }
+
+        /** Lit la valeur suivante du run, renvoie false s'il est épuisé. */
+        private boolean advance(int run) {
+            if (remaining[run] == 0) return false;
+            try {
+                heads[run] = inputs[run].readLong();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Lecture d'un fichier temporaire impossible", e);
+            }
+            remaining[run]--;
+            return true;
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int smallest = index;
+                int left = 2 * index + 1;
+                int right = left + 1;
+                if (left < heapSize && heads[heap[left]] < heads[heap[smallest]]) smallest = left;
+                if (right < heapSize && heads[heap[right]] < heads[heap[smallest]]) smallest = right;
+                if (smallest == index) return;
+                int tmp = heap[index];
+                heap[index] = heap[smallest];
+                heap[smallest] = tmp;
+                index = smallest;
+            }
+        }
+    }
+}
@@ -35,12 +35,21 @@ public class HierarchicalClustering {
         private final DendrogramNode left;
         private final DendrogramNode right;
         private final double coupling;
+        private final int size;
+        /** Couplage interne noté à la fusion, NaN s'il est inconnu (recalculé à partir des classes). */
+        private final double internalCoupling;
         private Set<String> classesCache;
 
         public MergedNode(DendrogramNode left, DendrogramNode right, double coupling) {
+            this(left, right, coupling, Double.NaN);
+        }
+
+        MergedNode(DendrogramNode left, DendrogramNode right, double coupling, double internalCoupling) {
             this.left = left;
             this.right = right;
             this.coupling = coupling;
+            this.size = left.size() + right.size(); // pas de récursion sur un arbre profond
+            this.internalCoupling = internalCoupling;
         }
 
         @Override
@@ -54,7 +63,7 @@ public class HierarchicalClustering {
 
         @Override
         public int size() {
-            return left.size() + right.size();
+            return size;
         }
 
         public DendrogramNode getLeft() { return left; }
@@ -72,14 +81,50 @@ public class HierarchicalClustering {
         this.symmetricCouplingGraph = buildSymmetricCoupling(couplingGraph);
     }
 
+    /** Regroupement au niveau donné : les feuilles sont des packages ou des préfixes au lieu de classes. */
+    public HierarchicalClustering(MultiLevelCoupling coupling, CouplingLevel level) {
+        this(coupling.getCouplingGraph(level));
+    }
+
+    /**
+     * Dendrogramme du couplage : à chaque étape, fusion des deux clusters les plus couplés.
+     * Calculé par PriorityQueueClustering (tas de paires et mise à jour des lignes de couplage).
+     *
+     * Changement de comportement par rapport à clusterExhaustive() : les couplages entre clusters
+     * sont comparés sur leur somme exacte, et deux couplages mathématiquement égaux sont départagés
+     * par le numéro des clusters (le plus ancien d'abord). La version d'origine somme en double dans
+     * l'ordre d'itération des ensembles de classes : l'arrondi peut effacer un écart minime
+     * (1 + 2^-53 == 1) ou en créer un entre deux sommes égales, et changer l'ordre des fusions.
+     * Quand les sommes sont exactes en double (poids dyadiques), les deux ordres sont identiques.
+     */
     public DendrogramNode cluster() {
-        /* La liste des clusters est initialisée avec chaque classe dans un LeafNode */
-        List<DendrogramNode> currentClusters = new ArrayList<>();
+        return clusterCompact().toTree();
+    }
+
+    /** Même dendrogramme que cluster(), en tableaux primitifs (mémoire linéaire, classes en vues). */
+    public CompactDendrogram clusterCompact() {
+        return new PriorityQueueClustering(new ArrayList<>(collectClasses()), symmetricCouplingGraph).run();
+    }
+
+    /** Classes du graphe de couplage (appelantes et appelées) : leur ordre est l'ordre de départ des clusters. */
+    Set<String> collectClasses() {
         Set<String> classes = new HashSet<>();
         originalCouplingGraph.forEach((key, value) -> {
             classes.add(key);
             value.keySet().forEach(classes::add);
         });
+        return classes;
+    }
+
+    /**
+     * Version d'origine, par recherche exhaustive : toutes les paires de clusters sont comparées
+     * à chaque fusion, et leur couplage est recalculé à partir des classes (au moins O(n³)).
+     * Gardée telle quelle comme référence de cluster(), arrondis des sommes compris.
+     */
+    public DendrogramNode clusterExhaustive() {
+        /* La liste des clusters est initialisée avec chaque classe dans un LeafNode */
+        List<DendrogramNode> currentClusters = new ArrayList<>();
+        Set<String> classes = collectClasses();
 
         for (String className : classes) {
             currentClusters.add(new LeafNode(className));
@@ -133,16 +178,47 @@ public class HierarchicalClustering {
                 modules.add(node.getClasses());
                 continue;
             }
-            /* Calcul de la cohésion interne du noeud */
-            double averageCoupling = calculateAverageInternalCoupling(node.getClasses());
+            /* Cohésion interne du noeud : notée à la fusion si le dendrogramme vient de cluster() */
+            MergedNode merged = (MergedNode) node;
+            double averageCoupling = Double.isNaN(merged.internalCoupling)
+                    ? calculateAverageInternalCoupling(node.getClasses())
+                    : merged.internalCoupling / ((long) merged.size * (merged.size - 1) / 2);
             /* Si cohésion est suffisante, on valide le module et on n'explore pas ses enfants */
             if (averageCoupling > couplingThresholdCP) {
                 modules.add(node.getClasses());
             } else {
                 /* Sinon, on explore ses enfants à la file pour les évaluer */
-                MergedNode mergedNode = (MergedNode) node;
-                queue.add(mergedNode.getLeft());
-                queue.add(mergedNode.getRight());
+                queue.add(merged.getLeft());
+                queue.add(merged.getRight());
+            }
+        }
+        if (modules.size() > M / 2) {
+            System.out.println("Le nombre de modules (" + modules.size() + ") dépasse M/2 (" + (M/2) + "). Essayez d'augmenter le seuil CP.");
+        }
+        return modules;
+    }
+
+    /**
+     * Même parcours que identifyModules(DendrogramNode, double) sur un dendrogramme compact :
+     * la cohésion de chaque noeud est lue dans le dendrogramme (O(1)), le parcours est linéaire,
+     * et les modules sont des vues sur les classes des noeuds retenus.
+     */
+    public List<Set<String>> identifyModules(CompactDendrogram dendrogram, double couplingThresholdCP) {
+        List<Set<String>> modules = new ArrayList<>();
+        int[] queue = new int[dendrogram.getNodeCount()];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = dendrogram.getRoot();
+        int M = dendrogram.getClassCount();
+
+        while (head < tail) {
+            int node = queue[head++];
+            /* Une feuille est toujours un module, quel que soit CP (Infinity, NaN...) */
+            if (dendrogram.isLeaf(node) || dendrogram.getAverageInternalCoupling(node) > couplingThresholdCP) {
+                modules.add(dendrogram.getClasses(node));
+            } else {
+                queue[tail++] = dendrogram.getLeft(node);
+                queue[tail++] = dendrogram.getRight(node);
             }
         }
         if (modules.size() > M / 2) {
@@ -0,0 +1,120 @@
+package analyser;
+
+import java.util.*;
+
+/**
+ * Graphe de couplage maintenu à partir des variations du graphe d'appel (mode surveillance).
+ * On garde les comptes bruts (nombre d'appels de la classe A vers la classe B) et leur total :
+ * ajouter ou retirer un arc d'appel coûte O(1), quelle que soit la taille du graphe.
+ * Les poids normalisés (compte / total) ne sont calculés qu'à la lecture ; la Map renvoyée par
+ * getCouplingGraph() est gardée tant qu'aucun arc ne change.
+ *
+ * Le résultat est le même que CouplingGraphBuilder sur le graphe d'appel courant, à condition
+ * de ne pas ajouter deux fois le même arc (le graphe d'appel est un ensemble d'arcs). Non thread-safe.
+ */
+public class IncrementalCouplingModel {
+
+    private final SymbolTable classes = new SymbolTable();
+    private final CouplingGraphBuilder.MethodClasses methodClasses = new CouplingGraphBuilder.MethodClasses(classes);
+    private final LongIntCounter pairCounts = new LongIntCounter(64);
+    private int totalRelations;
+    private Map<String, Map<String, Double>> couplingGraph;
+
+    /** Modèle initialisé avec tous les arcs d'un graphe d'appel. */
+    public static IncrementalCouplingModel of(Map<String, Set<String>> callGraph) {
+        IncrementalCouplingModel model = new IncrementalCouplingModel();
+        callGraph.forEach((caller, callees) -> model.addCalls(caller, callees));
+        return model;
+    }
+
+    /** Ajoute l'arc d'appel caller -> callee (signatures "Classe.méthode"). */
+    public void addCall(String caller, String callee) {
+        updatePair(caller, callee, 1);
+    }
+
+    /** Retire un arc ajouté auparavant. */
+    public void removeCall(String caller, String callee) {
+        updatePair(caller, callee, -1);
+    }
+
+    public void addCalls(String caller, Collection<String> callees) {
+        for (String callee : callees) {
+            addCall(caller, callee);
+        }
+    }
+
+    public void removeCalls(String caller, Collection<String> callees) {
+        for (String callee : callees) {
+            removeCall(caller, callee);
+        }
+    }
+
+    /**
+     * Remplace les arcs sortants d'un appelant : seuls les arcs qui diffèrent entre les deux
+     * ensembles sont retirés ou ajoutés.
+     */
+    public void replaceCalls(String caller, Set<String> oldCallees, Set<String> newCallees) {
+        for (String callee : oldCallees) {
+            if (!newCallees.contains(callee)) removeCall(caller, callee);
+        }
+        for (String callee : newCallees) {
+            if (!oldCallees.contains(callee)) addCall(caller, callee);
+        }
+    }
+
+    /** Nombre d'appels de la classe A vers la classe B. */
+    public int getCallCount(String classA, String classB) {
+        int a = classes.idOf(classA);
+        int b = classes.idOf(classB);
+        return a < 0 || b < 0 ? 0 : pairCounts.get(pairKey(a, b));
+    }
+
+    /** Nombre total d'appels entre classes différentes (dénominateur des poids). */
+    public int getTotalRelations() {
+        return totalRelations;
+    }
+
+    /** Nombre de paires de classes couplées. */
+    public int getPairCount() {
+        return pairCounts.size();
+    }
+
+    /** Poids du couplage de A vers B, calculé à la demande. */
+    public double getWeight(String classA, String classB) {
+        int count = getCallCount(classA, classB);
+        return count == 0 ? 0.0 : (double) count / totalRelations;
+    }
+
+    /**
+     * Graphe de couplage normalisé (même forme que CouplingGraphBuilder.getCouplingGraph()).
+     * Reconstruit en O(paires de classes) après une modification, sinon renvoyé tel quel.
+     * La Map renvoyée n'est plus modifiée par le modèle : elle peut être partagée.
+     */
+    public Map<String, Map<String, Double>> getCouplingGraph() {
+        if (couplingGraph == null) {
+            Map<String, Map<String, Double>> graph = new HashMap<>();
+            pairCounts.forEach((pair, count) -> graph
+                    .computeIfAbsent(classes.nameOf((int) (pair >>> 32)), k -> new HashMap<>())
+                    .put(classes.nameOf((int) pair), (double) count / totalRelations));
+            couplingGraph = graph;
+        }
+        return couplingGraph;
+    }
+
+    private void updatePair(String caller, String callee, int delta) {
+        int callerClass = methodClasses.classOf(caller);
+        int calleeClass = methodClasses.classOf(callee);
+        if (callerClass == calleeClass) return; // on ignore les appels internes
+        try {
+            pairCounts.add(pairKey(callerClass, calleeClass), delta);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Appel inconnu du modèle de couplage: " + caller + " -> " + callee);
+        }
+        totalRelations += delta;
+        couplingGraph = null;
+    }
+
+    private static long pairKey(int classA, int classB) {
+        return ((long) classA << 32) | classB;
+    }
+}
@@ -0,0 +1,134 @@
+package analyser;
+
+/**
+ * Compteur d'occurrences de clés long (paires "classe A << 32 | classe B"...).
+ * Hachage ouvert à sondage linéaire sur deux tableaux primitifs : ni objet par entrée ni
+ * boxing. Un compte nul marque une case vide : une clé dont le compte retombe à 0 est retirée.
+ * Non thread-safe.
+ */
+final class LongIntCounter {
+
+    /** Reçoit chaque clé distincte et son nombre d'occurrences. */
+    interface Consumer {
+        void accept(long key, int count);
+    }
+
+    private long[] keys;
+    private int[] counts;
+    private int size;
+
+    LongIntCounter(int expectedKeys) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedKeys) * 2 - 1) << 1;
+        keys = new long[capacity];
+        counts = new int[capacity];
+    }
+
+    /** Ajoute une occurrence de la clé. */
+    void increment(long key) {
+        add(key, 1);
+    }
+
+    /**
+     * Ajoute delta (éventuellement négatif) au compte de la clé et renvoie le nouveau compte.
+     * Une clé dont le compte retombe à 0 est retirée de la table.
+     */
+    int add(long key, int delta) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (counts[slot] != 0) {
+            if (keys[slot] == key) {
+                int count = counts[slot] + delta;
+                if (count < 0) {
+                    throw new IllegalArgumentException("Compte négatif pour la clé " + key);
+                }
+                if (count == 0) {
+                    removeSlot(slot);
+                } else {
+                    counts[slot] = count;
+                }
+                return count;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (delta < 0) {
+            throw new IllegalArgumentException("Compte négatif pour la clé " + key);
+        }
+        if (delta == 0) return 0;
+        keys[slot] = key;
+        counts[slot] = delta;
+        if (++size * 2 > keys.length) {
+            rehash();
+        }
+        return delta;
+    }
+
+    /** Nombre d'occurrences de la clé (0 si absente). */
+    int get(long key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (counts[slot] != 0) {
+            if (keys[slot] == key) return counts[slot];
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    /** Nombre de clés distinctes. */
+    int size() {
+        return size;
+    }
+
+    /** Parcourt les clés distinctes, dans l'ordre de la table. */
+    void forEach(Consumer consumer) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (counts[slot] != 0) {
+                consumer.accept(keys[slot], counts[slot]);
+            }
+        }
+    }
+
+    /**
+     * Vide une case en recollant la suite de la chaîne de sondage (suppression par décalage
+     * arrière) : les clés suivantes restent accessibles sans marqueur de suppression.
+     */
+    private void removeSlot(int slot) {
+        int mask = keys.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (counts[next] != 0) {
+            int ideal = mix(keys[next]) & mask;
+            // La clé peut remonter dans le trou si celui-ci ne précède pas sa case idéale
+            if (((next - ideal) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                counts[hole] = counts[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        counts[hole] = 0;
+        size--;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new long[oldKeys.length * 2];
+        counts = new int[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldCounts[i] == 0) continue;
+            int slot = mix(oldKeys[i]) & mask;
+            while (counts[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            counts[slot] = oldCounts[i];
+        }
+    }
+
+    /** Disperse les bits : les deux moitiés d'une paire d'identifiants denses sont petites. */
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
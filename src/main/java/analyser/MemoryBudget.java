@@ -0,0 +1,138 @@
+package analyser;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Budget mémoire de la construction des graphes. Il borne la somme des tampons d'arcs (ou de
+ * paires de classes) de tous les builders qui le partagent : chaque tampon réserve sa place sur
+ * un compteur commun avant de grandir, et s'il ne le peut pas il est trié et déversé dans un
+ * fichier temporaire ; les fichiers sont fusionnés (fusion k-aire) à la construction. Seul un
+ * tampon minimal par builder (MIN_BUFFERED_VALUES valeurs) est accordé hors budget.
+ *
+ * Le budget ne couvre que ces copies de travail : les résultats (CSR, 4 octets par arc), les
+ * tables de symboles et les faits extraits restent sur le tas en plus. report() affiche donc le
+ * tas réellement utilisé à côté des tampons réservés.
+ *
+ * UNLIMITED garde tout en mémoire (comportement par défaut).
+ */
+public class MemoryBudget {
+
+    public static final MemoryBudget UNLIMITED = new MemoryBudget(Long.MAX_VALUE, null);
+
+    /** Plus petit tampon accepté (en nombre de valeurs), pour ne pas déverser des fichiers minuscules. */
+    static final int MIN_BUFFERED_VALUES = 1024;
+
+    private final long maxBytes;
+    private final Path spillDirectory;
+    private final AtomicLong spilledBytes = new AtomicLong();
+    private final AtomicLong spillCount = new AtomicLong();
+    private final AtomicLong reservedBytes = new AtomicLong();
+    private final AtomicLong peakReservedBytes = new AtomicLong();
+
+    /**
+     * @param maxBytes       taille maximale de l'ensemble des tampons des builders, en octets
+     * @param spillDirectory dossier des fichiers temporaires (null = java.io.tmpdir)
+     */
+    public MemoryBudget(long maxBytes, Path spillDirectory) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Budget mémoire invalide: " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+        this.spillDirectory = spillDirectory;
+    }
+
+    public static MemoryBudget megabytes(long megabytes) {
+        return new MemoryBudget(megabytes * 1024 * 1024, null);
+    }
+
+    public boolean isLimited() {
+        return maxBytes != Long.MAX_VALUE;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public Path getSpillDirectory() {
+        return spillDirectory != null ? spillDirectory : Path.of(System.getProperty("java.io.tmpdir"));
+    }
+
+    /** Nombre de valeurs long qu'un tampon peut contenir au plus, s'il est seul à utiliser le budget. */
+    int maxBufferedValues() {
+        return (int) Math.max(MIN_BUFFERED_VALUES, Math.min(Integer.MAX_VALUE - 8, maxBytes / Long.BYTES));
+    }
+
+    /** Réserve bytes si la somme des tampons réservés reste dans le budget ; sinon ne réserve rien. */
+    boolean tryReserve(long bytes) {
+        if (!isLimited()) return true;
+        long current;
+        do {
+            current = reservedBytes.get();
+            if (current + bytes > maxBytes) return false;
+        } while (!reservedBytes.compareAndSet(current, current + bytes));
+        peakReservedBytes.accumulateAndGet(current + bytes, Math::max);
+        return true;
+    }
+
+    /** Réserve bytes sans condition (tampon minimal d'un builder). */
+    void reserve(long bytes) {
+        if (!isLimited()) return;
+        peakReservedBytes.accumulateAndGet(reservedBytes.addAndGet(bytes), Math::max);
+    }
+
+    void release(long bytes) {
+        if (!isLimited()) return;
+        reservedBytes.addAndGet(-bytes);
+    }
+
+    /** Octets réservés actuellement par les tampons de tous les builders. */
+    public long getReservedBytes() {
+        return reservedBytes.get();
+    }
+
+    /** Plus forte réservation simultanée depuis la création du budget. */
+    public long getPeakReservedBytes() {
+        return peakReservedBytes.get();
+    }
+
+    void recordSpill(long bytes) {
+        spilledBytes.addAndGet(bytes);
+        spillCount.incrementAndGet();
+    }
+
+    /** Total écrit sur disque depuis la création du budget (tous builders confondus). */
+    public long getSpilledBytes() {
+        return spilledBytes.get();
+    }
+
+    public long getSpillCount() {
+        return spillCount.get();
+    }
+
+    /** Mémoire du tas occupée actuellement. */
+    public static long usedHeapBytes() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Ligne de rapport : tas utilisé / tas maximal (tout compris : graphes figés, symboles, faits),
+     * puis la part sous budget (tampons réservés, pic) et le volume déversé sur disque.
+     */
+    public String report(String step) {
+        long mb = 1024 * 1024;
+        String line = String.format("[mémoire] %s: tas utilisé %d Mo / %d Mo", step,
+                usedHeapBytes() / mb, Runtime.getRuntime().maxMemory() / mb);
+        if (isLimited()) {
+            line += String.format(" (budget des tampons %s : réservé %s, pic %s ; déversé %s en %d fichiers)",
+                    formatSize(maxBytes), formatSize(getReservedBytes()), formatSize(getPeakReservedBytes()),
+                    formatSize(getSpilledBytes()), getSpillCount());
+        }
+        return line;
+    }
+
+    private static String formatSize(long bytes) {
+        return bytes >= 1024 * 1024 ? bytes / (1024 * 1024) + " Mo" : bytes / 1024 + " Ko";
+    }
+}
@@ -0,0 +1,227 @@
+package analyser;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Découverte des modules d'un projet Maven / Gradle (multi-modules ou non).
+ * Un module est un dossier qui contient un pom.xml, un build.gradle ou un build.gradle.kts.
+ * Pour chaque module on retient ses dossiers source : src/main/java (ou src si le module n'a ni
+ * src/main ni src/test : les tests n'entrent jamais dans l'analyse), target/generated-sources/&lt;générateur&gt; (Maven)
+ * et build/generated/sources/&lt;générateur&gt;/java/main (Gradle).
+ * Sans fichier de build, la racine est traitée comme un module unique.
+ *
+ * Les dépendances entre modules sont lues dans les fichiers de build : dépendances d'un pom.xml
+ * dont le groupId / artifactId est celui d'un autre module, références project(':a:b') d'un
+ * build Gradle (chemin du projet = dossier relatif à la racine).
+ */
+public class ModuleDiscovery {
+
+    private static final Set<String> BUILD_FILES = Set.of("pom.xml", "build.gradle", "build.gradle.kts");
+    private static final Set<String> SKIPPED_DIRS = Set.of(".git", ".idea", ".gradle", "node_modules",
+            "target", "build", "out", "bin", ".ast-cache");
+
+    /** project(':a:b') ou project(path: ':a:b') dans un build Gradle. */
+    private static final Pattern GRADLE_PROJECT = Pattern.compile(
+            "project\\s*\\(\\s*(?:path\\s*[:=]\\s*)?[\"']([^\"']+)[\"']");
+
+    /**
+     * Module découvert : nom (chemin relatif à la racine), dossier, dossiers source et noms des
+     * modules dont il dépend directement (déclarés dans son fichier de build).
+     */
+    public record ProjectModule(String name, Path directory, List<Path> sourceRoots, List<String> dependencies) {
+        public ProjectModule {
+            sourceRoots = List.copyOf(sourceRoots);
+            dependencies = List.copyOf(dependencies);
+        }
+
+        public ProjectModule(String name, Path directory, List<Path> sourceRoots) {
+            this(name, directory, sourceRoots, List.of());
+        }
+    }
+
+    /** Coordonnées Maven d'un module (null hors Maven ou si le pom est illisible). */
+    private record Coordinates(String groupId, String artifactId) {
+    }
+
+    /** Renvoie les modules du projet qui ont au moins un dossier source, triés par nom. */
+    public List<ProjectModule> discover(Path projectRoot) throws IOException {
+        Path root = projectRoot.toAbsolutePath().normalize();
+        List<Path> moduleDirs = new ArrayList<>();
+
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                if (!dir.equals(root) && SKIPPED_DIRS.contains(dir.getFileName().toString())) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                // src/ ne contient pas de sous-modules
+                if (dir.getFileName() != null && dir.getFileName().toString().equals("src")) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                for (String buildFile : BUILD_FILES) {
+                    if (Files.isRegularFile(dir.resolve(buildFile))) {
+                        moduleDirs.add(dir);
+                        break;
+                    }
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        if (moduleDirs.isEmpty()) {
+            moduleDirs.add(root);
+        }
+
+        Map<Path, String> names = new HashMap<>();
+        Map<Path, Element> poms = new HashMap<>();
+        Map<Coordinates, String> byCoordinates = new HashMap<>();
+        for (Path dir : moduleDirs) {
+            String name = dir.equals(root) ? dir.getFileName().toString() : root.relativize(dir).toString();
+            names.put(dir, name);
+            Element pom = readPom(dir);
+            poms.put(dir, pom);
+            Coordinates coordinates = coordinatesOf(pom);
+            if (coordinates != null) byCoordinates.put(coordinates, name);
+        }
+
+        List<ProjectModule> modules = new ArrayList<>();
+        for (Path dir : moduleDirs) {
+            List<Path> sourceRoots = sourceRootsOf(dir);
+            if (!sourceRoots.isEmpty()) {
+                String name = names.get(dir);
+                Set<String> dependencies = new TreeSet<>();
+                dependencies.addAll(mavenDependencies(poms.get(dir), byCoordinates));
+                dependencies.addAll(gradleDependencies(root, dir, names));
+                dependencies.remove(name);
+                modules.add(new ProjectModule(name, dir, sourceRoots, new ArrayList<>(dependencies)));
+            }
+        }
+        modules.sort(Comparator.comparing(ProjectModule::name));
+        return modules;
+    }
+
+    /** Modules du projet désignés par les balises dependency du pom.xml. */
+    private static List<String> mavenDependencies(Element project, Map<Coordinates, String> byCoordinates) {
+        Coordinates self = coordinatesOf(project);
+        List<String> dependencies = new ArrayList<>();
+        Element dependencyList = child(project, "dependencies");
+        if (dependencyList == null) return dependencies;
+        for (Node node = dependencyList.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (node instanceof Element dependency && dependency.getTagName().equals("dependency")) {
+                String groupId = text(dependency, "groupId");
+                if (groupId != null && groupId.equals("${project.groupId}") && self != null) {
+                    groupId = self.groupId();
+                }
+                String module = byCoordinates.get(new Coordinates(groupId, text(dependency, "artifactId")));
+                if (module != null) dependencies.add(module);
+            }
+        }
+        return dependencies;
+    }
+
+    /** Modules du projet désignés par project(':a:b') dans build.gradle / build.gradle.kts. */
+    private static List<String> gradleDependencies(Path root, Path moduleDir, Map<Path, String> names) throws IOException {
+        List<String> dependencies = new ArrayList<>();
+        for (String buildFile : List.of("build.gradle", "build.gradle.kts")) {
+            Path file = moduleDir.resolve(buildFile);
+            if (!Files.isRegularFile(file)) continue;
+            Matcher matcher = GRADLE_PROJECT.matcher(Files.readString(file));
+            while (matcher.find()) {
+                Path dir = root;
+                for (String segment : matcher.group(1).split(":")) {
+                    if (!segment.isEmpty()) dir = dir.resolve(segment);
+                }
+                String module = names.get(dir);
+                if (module != null) dependencies.add(module);
+            }
+        }
+        return dependencies;
+    }
+
+    /** Élément project du pom.xml du module, ou null sans pom lisible. */
+    private static Element readPom(Path moduleDir) {
+        Path pom = moduleDir.resolve("pom.xml");
+        if (!Files.isRegularFile(pom)) return null;
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            Document document = factory.newDocumentBuilder().parse(pom.toFile());
+            return document.getDocumentElement();
+        } catch (ParserConfigurationException | SAXException | IOException e) {
+            System.err.println("pom.xml illisible, dépendances ignorées: " + pom + " (" + e.getMessage() + ")");
+            return null;
+        }
+    }
+
+    /** groupId (hérité du parent à défaut) et artifactId du projet. */
+    private static Coordinates coordinatesOf(Element project) {
+        if (project == null) return null;
+        String artifactId = text(project, "artifactId");
+        String groupId = text(project, "groupId");
+        if (groupId == null) groupId = text(child(project, "parent"), "groupId");
+        return artifactId != null ? new Coordinates(groupId, artifactId) : null;
+    }
+
+    private static Element child(Element parent, String tag) {
+        if (parent == null) return null;
+        for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (node instanceof Element element && element.getTagName().equals(tag)) return element;
+        }
+        return null;
+    }
+
+    private static String text(Element parent, String tag) {
+        Element element = child(parent, tag);
+        return element != null ? element.getTextContent().trim() : null;
+    }
+
+    private static List<Path> sourceRootsOf(Path moduleDir) throws IOException {
+        List<Path> roots = new ArrayList<>();
+        Path mainJava = moduleDir.resolve("src/main/java");
+        Path src = moduleDir.resolve("src");
+        boolean standardLayout = Files.isDirectory(src.resolve("main")) || Files.isDirectory(src.resolve("test"));
+        if (Files.isDirectory(mainJava)) {
+            roots.add(mainJava);
+        } else if (Files.isDirectory(src) && !standardLayout) {
+            // Pas de disposition Maven/Gradle : tout src est source. Sinon (tests seuls, sources
+            // principales en Kotlin...), src ne doit pas faire entrer les tests dans l'analyse
+            roots.add(src);
+        }
+
+        // Sources générées Maven : target/generated-sources/<générateur>
+        addSubDirectories(moduleDir.resolve("target/generated-sources"), roots);
+
+        // Sources générées Gradle : build/generated/sources/<générateur>/java/main
+        Path gradleGenerated = moduleDir.resolve("build/generated/sources");
+        if (Files.isDirectory(gradleGenerated)) {
+            try (DirectoryStream<Path> generators = Files.newDirectoryStream(gradleGenerated)) {
+                for (Path generator : generators) {
+                    Path javaMain = generator.resolve("java/main");
+                    if (Files.isDirectory(javaMain)) roots.add(javaMain);
+                }
+            }
+        }
+        return roots;
+    }
+
+    private static void addSubDirectories(Path dir, List<Path> roots) throws IOException {
+        if (!Files.isDirectory(dir)) return;
+        List<Path> subDirs = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, Files::isDirectory)) {
+            stream.forEach(subDirs::add);
+        }
+        Collections.sort(subDirs);
+        roots.addAll(subDirs);
+    }
+}
@@ -0,0 +1,127 @@
+package analyser;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Graphe de couplage à plusieurs granularités (voir CouplingLevel), calculé à partir d'une seule
+ * passe sur les arcs du graphe d'appel : les appels entre classes sont comptés une fois, puis
+ * regroupés par package ou par préfixe de package. Chaque niveau est normalisé comme
+ * CouplingGraphBuilder (appels entre deux unités différentes / total de ces appels) ; le niveau
+ * CLASS donne exactement le même graphe que CouplingGraphBuilder.
+ *
+ * Les niveaux sont calculés à la demande ou tous en parallèle (computeAll), puis gardés en cache :
+ * passer d'un niveau à l'autre ne refait aucun calcul. Les classes qui ne sont pas déclarées dans
+ * le projet (Object, String...) gardent leur nom à tous les niveaux.
+ */
+public class MultiLevelCoupling {
+
+    /** Nombre de segments gardés par défaut au niveau PREFIX ("com.acme.core.util" -> "com.acme"). */
+    public static final int DEFAULT_PREFIX_DEPTH = 2;
+
+    private final CouplingGraphBuilder.ClassPairCounts classCounts;
+    private final ClassPackageIndex packages;
+    private final int prefixDepth;
+    private final Map<CouplingLevel, Map<String, Map<String, Double>>> cache = new EnumMap<>(CouplingLevel.class);
+
+    public MultiLevelCoupling(Map<String, Set<String>> callGraph, ClassPackageIndex packages) {
+        this(callGraph, packages, DEFAULT_PREFIX_DEPTH);
+    }
+
+    public MultiLevelCoupling(Map<String, Set<String>> callGraph, ClassPackageIndex packages, int prefixDepth) {
+        if (prefixDepth < 1) {
+            throw new IllegalArgumentException("Profondeur de préfixe invalide: " + prefixDepth);
+        }
+        this.classCounts = CouplingGraphBuilder.countClassPairs(callGraph);
+        this.packages = packages;
+        this.prefixDepth = prefixDepth;
+    }
+
+    public int getPrefixDepth() {
+        return prefixDepth;
+    }
+
+    /** Graphe de couplage du niveau, calculé au premier appel puis renvoyé depuis le cache. */
+    public Map<String, Map<String, Double>> getCouplingGraph(CouplingLevel level) {
+        synchronized (cache) {
+            Map<String, Map<String, Double>> cached = cache.get(level);
+            if (cached != null) return cached;
+        }
+        Map<String, Map<String, Double>> graph = rollUp(level);
+        synchronized (cache) {
+            return cache.computeIfAbsent(level, k -> graph);
+        }
+    }
+
+    public boolean isComputed(CouplingLevel level) {
+        synchronized (cache) {
+            return cache.containsKey(level);
+        }
+    }
+
+    /** Calcule tous les niveaux en parallèle (un niveau par tâche) et les met en cache. */
+    public void computeAll(int threads) {
+        CouplingLevel[] levels = CouplingLevel.values();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, levels.length)));
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (CouplingLevel level : levels) {
+                tasks.add(pool.submit(() -> getCouplingGraph(level)));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Calcul du couplage interrompu", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Erreur lors du calcul du couplage", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /** Unité (classe, package ou préfixe) à laquelle une classe est rattachée au niveau donné. */
+    public String unitOf(String className, CouplingLevel level) {
+        if (level == CouplingLevel.CLASS) return className;
+        String packageName = packages.packageOf(className);
+        if (packageName == null) return className; // classe hors projet
+        if (level == CouplingLevel.PACKAGE || packageName.equals(ClassPackageIndex.DEFAULT_PACKAGE)) return packageName;
+        int end = -1;
+        for (int segment = 0; segment < prefixDepth; segment++) {
+            end = packageName.indexOf('.', end + 1);
+            if (end < 0) return packageName;
+        }
+        return packageName.substring(0, end);
+    }
+
+    /** Regroupe les comptes entre classes en comptes entre unités du niveau, puis normalise. */
+    private Map<String, Map<String, Double>> rollUp(CouplingLevel level) {
+        SymbolTable classes = classCounts.classes();
+        SymbolTable units = new SymbolTable();
+        int[] unitOf = new int[classes.size()];
+        for (int id = 0; id < unitOf.length; id++) {
+            unitOf[id] = units.intern(unitOf(classes.nameOf(id), level));
+        }
+
+        LongIntCounter unitPairs = new LongIntCounter(classCounts.pairs().size());
+        int[] total = new int[1];
+        classCounts.pairs().forEach((pair, count) -> {
+            int unitA = unitOf[(int) (pair >>> 32)];
+            int unitB = unitOf[(int) pair];
+            if (unitA != unitB) { // appels internes à l'unité ignorés
+                unitPairs.add(CouplingGraphBuilder.pairKey(unitA, unitB), count);
+                total[0] += count;
+            }
+        });
+
+        Map<String, Map<String, Double>> graph = new HashMap<>();
+        unitPairs.forEach((pair, count) -> graph
+                .computeIfAbsent(units.nameOf((int) (pair >>> 32)), k -> new HashMap<>())
+                .put(units.nameOf((int) pair), (double) count / total[0]));
+        return graph;
+    }
+}
@@ -0,0 +1,278 @@
+package analyser;
+
+import analyser.ModuleDiscovery.ProjectModule;
+import analyser.facts.AnalysisMode;
+import analyser.facts.AnalysisPipeline;
+import analyser.facts.FileFacts;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Analyse d'un projet multi-modules : chaque module est une unité de travail indépendante
+ * (son propre Parser et son propre source path) exécutée sur un pool de threads. Les sources
+ * des modules dont il dépend (dépendances déclarées, transitivement) ne servent qu'à la
+ * résolution des bindings, elles ne sont pas reparsées.
+ * Les graphes d'appel des modules sont ensuite fusionnés en un graphe global, et les appels
+ * entre modules donnent un graphe de couplage au niveau module. Un appel est attribué au module
+ * qui déclare sa classe cible (nom qualifié) ; si plusieurs modules visibles la déclarent, il
+ * est compté comme ambigu et n'entre pas dans le couplage.
+ */
+public class MultiModuleAnalyzer {
+
+    private final int moduleThreads;
+    private final List<Path> classpath;
+    private ClasspathIndex classpathIndex;
+    private AnalysisMode mode = AnalysisMode.FULL;
+    private ClassHierarchyIndex.Dispatch dispatch = ClassHierarchyIndex.Dispatch.CHA;
+    private MemoryBudget budget = MemoryBudget.UNLIMITED;
+    private final List<String> includes = new ArrayList<>();
+    private final List<String> excludes = new ArrayList<>();
+    private int ambiguousCallCount;
+
+    /** Résultat de l'analyse d'un module. */
+    public static class ModuleResult {
+        private final ProjectModule module;
+        private final StatisticsCollector stats = new StatisticsCollector();
+        private final CallGraphBuilder callGraphBuilder = new CallGraphBuilder();
+        private final Set<String> classes = new HashSet<>();
+        /** Nom qualifié de la classe appelée -> nombre d'arcs d'appel vers elle. */
+        private final Map<String, Integer> callsByClass = new HashMap<>();
+        private int fileCount;
+
+        ModuleResult(ProjectModule module) {
+            this.module = module;
+        }
+
+        void addFacts(FileFacts facts) {
+            stats.addFacts(facts);
+            callGraphBuilder.addFacts(facts);
+            String prefix = facts.packageName() == null || facts.packageName().isEmpty() ? "" : facts.packageName() + ".";
+            for (FileFacts.ClassFacts clazz : facts.classes()) {
+                classes.add(prefix + clazz.name());
+            }
+            for (FileFacts.CallEdge edge : facts.calls()) {
+                String calleeClass = edge.calleeClass();
+                if (calleeClass != null) callsByClass.merge(calleeClass, 1, Integer::sum);
+            }
+        }
+
+        public ProjectModule getModule() { return module; }
+        public StatisticsCollector getStatistics() { return stats; }
+        public Map<String, Set<String>> getCallGraph() { return callGraphBuilder.getCallGraph(); }
+        /** Noms qualifiés des classes déclarées dans le module. */
+        public Set<String> getClasses() { return classes; }
+        public int getFileCount() { return fileCount; }
+    }
+
+    private final List<ModuleResult> results = new ArrayList<>();
+    private final CallGraphBuilder globalCallGraph = new CallGraphBuilder();
+    private final Map<String, Map<String, Double>> moduleCouplingGraph = new HashMap<>();
+
+    /** @param moduleThreads nombre total de threads, partagés entre modules et parsing de chaque module */
+    public MultiModuleAnalyzer(int moduleThreads, List<Path> classpath) {
+        this.moduleThreads = moduleThreads;
+        this.classpath = classpath;
+    }
+
+    /** Mode d'analyse des modules (FAST : statistiques seules, sans graphe d'appel). */
+    public void setMode(AnalysisMode mode) {
+        this.mode = mode;
+    }
+
+    /** Résolution des appels virtuels des graphes d'appel (par module et global). */
+    public void setDispatch(ClassHierarchyIndex.Dispatch dispatch) {
+        this.dispatch = dispatch;
+        globalCallGraph.setDispatch(dispatch);
+    }
+
+    /**
+     * Budget mémoire des tampons d'arcs d'appel : un seul compteur pour les builders de tous les
+     * modules et le graphe global, analysés en parallèle ou non. Les graphes figés et les tables
+     * de symboles n'en font pas partie.
+     */
+    public void setMemoryBudget(MemoryBudget budget) {
+        this.budget = budget;
+        globalCallGraph.setMemoryBudget(budget);
+    }
+
+    /**
+     * Globs d'inclusion / d'exclusion (voir SourceScanner) appliqués au scanner de chaque module,
+     * relatifs à chacun de ses dossiers source.
+     */
+    public void setSourceFilters(List<String> includes, List<String> excludes) {
+        this.includes.clear();
+        this.includes.addAll(includes);
+        this.excludes.clear();
+        this.excludes.addAll(excludes);
+    }
+
+    /**
+     * Découvre les modules du projet, les analyse en parallèle puis fusionne les résultats.
+     */
+    public void analyze(Path projectRoot) throws IOException {
+        List<ProjectModule> modules = new ModuleDiscovery().discover(projectRoot);
+        results.clear();
+        // Un seul index du classpath, partagé (en lecture) par tous les modules
+        classpathIndex = classpath.isEmpty() ? null : ClasspathIndex.open(projectRoot, classpath);
+        for (ProjectModule module : modules) {
+            results.add(new ModuleResult(module));
+        }
+        Map<String, Set<String>> visible = visibleModules(modules);
+
+        // Les threads sont répartis entre les modules analysés en même temps : un projet d'un seul
+        // module parse avec tous les threads, comme hors --modules
+        int activeModules = Math.max(1, Math.min(moduleThreads, results.size()));
+        int workersPerModule = Math.max(1, moduleThreads / activeModules);
+        ExecutorService pool = Executors.newFixedThreadPool(activeModules);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (ModuleResult result : results) {
+                futures.add(pool.submit(() -> {
+                    analyzeModule(result, visible.get(result.getModule().name()), workersPerModule);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Analyse des modules interrompue", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Erreur lors de l'analyse d'un module", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // Fusion dans l'ordre des modules (résultat déterministe) ; les hiérarchies sont fusionnées
+        // aussi, pour étendre les appels vers une interface d'un module implémentée dans un autre
+        for (ModuleResult result : results) {
+            globalCallGraph.merge(result.callGraphBuilder);
+        }
+        buildModuleCoupling(visible);
+    }
+
+    /** Par module, les modules dont il dépend directement ou transitivement. */
+    private static Map<String, Set<String>> visibleModules(List<ProjectModule> modules) {
+        Map<String, ProjectModule> byName = new HashMap<>();
+        for (ProjectModule module : modules) {
+            byName.put(module.name(), module);
+        }
+        Map<String, Set<String>> visible = new HashMap<>();
+        for (ProjectModule module : modules) {
+            Set<String> closure = new LinkedHashSet<>();
+            Deque<String> pending = new ArrayDeque<>(module.dependencies());
+            while (!pending.isEmpty()) {
+                String name = pending.poll();
+                ProjectModule dependency = byName.get(name);
+                if (dependency != null && !name.equals(module.name()) && closure.add(name)) {
+                    pending.addAll(dependency.dependencies());
+                }
+            }
+            visible.put(module.name(), closure);
+        }
+        return visible;
+    }
+
+    /** Un module = un Parser sur ses propres dossiers source, parsés par workers threads. */
+    private void analyzeModule(ModuleResult result, Set<String> dependencies, int workers) {
+        ProjectModule module = result.getModule();
+        Parser parser = new Parser(module.directory().toString(), module.sourceRoots());
+        parser.getScanner().quiet(true);
+        includes.forEach(parser.getScanner()::include);
+        excludes.forEach(parser.getScanner()::exclude);
+        parser.setParallelism(workers, 64, 2 * workers);
+        // Seules les sources des modules dont il dépend servent à résoudre ses appels inter-modules
+        for (ModuleResult other : results) {
+            if (dependencies.contains(other.getModule().name())) {
+                parser.addResolutionSourceRoots(other.getModule().sourceRoots());
+            }
+        }
+        parser.setClasspathIndex(classpathIndex);
+        result.callGraphBuilder.setDispatch(dispatch);
+        result.callGraphBuilder.setMemoryBudget(budget);
+        result.fileCount = new AnalysisPipeline(parser, mode).addSink(result::addFacts).run();
+    }
+
+    /**
+     * Couplage entre modules : nombre d'appels d'un module vers un autre / nombre total
+     * d'appels inter-modules (même normalisation que CouplingGraphBuilder). Les appels sont
+     * comptés sur leur classe cible déclarée, avant extension par la hiérarchie.
+     */
+    private void buildModuleCoupling(Map<String, Set<String>> visible) {
+        Map<String, List<String>> modulesOfClass = new HashMap<>();
+        for (ModuleResult result : results) {
+            for (String className : result.getClasses()) {
+                modulesOfClass.computeIfAbsent(className, k -> new ArrayList<>()).add(result.getModule().name());
+            }
+        }
+
+        Map<String, Map<String, Integer>> counts = new HashMap<>();
+        int totalRelations = 0;
+        ambiguousCallCount = 0;
+        for (ModuleResult result : results) {
+            String callerModule = result.getModule().name();
+            for (Map.Entry<String, Integer> call : result.callsByClass.entrySet()) {
+                List<String> candidates = modulesOfClass.get(call.getKey());
+                // Classe externe au projet, ou déclarée dans le module appelant
+                if (candidates == null || candidates.contains(callerModule)) continue;
+                String calleeModule = moduleOf(candidates, visible.get(callerModule));
+                if (calleeModule == null) {
+                    ambiguousCallCount += call.getValue();
+                    continue;
+                }
+                counts.computeIfAbsent(callerModule, k -> new HashMap<>()).merge(calleeModule, call.getValue(), Integer::sum);
+                totalRelations += call.getValue();
+            }
+        }
+
+        moduleCouplingGraph.clear();
+        for (Map.Entry<String, Map<String, Integer>> entry : counts.entrySet()) {
+            for (Map.Entry<String, Integer> target : entry.getValue().entrySet()) {
+                moduleCouplingGraph.computeIfAbsent(entry.getKey(), k -> new HashMap<>())
+                        .put(target.getKey(), (double) target.getValue() / totalRelations);
+            }
+        }
+    }
+
+    /** Module cible d'un appel : l'unique module visible qui déclare la classe, à défaut l'unique module qui la déclare. */
+    private static String moduleOf(List<String> candidates, Set<String> visible) {
+        List<String> visibleCandidates = new ArrayList<>();
+        for (String candidate : candidates) {
+            if (visible.contains(candidate)) visibleCandidates.add(candidate);
+        }
+        List<String> chosen = visibleCandidates.isEmpty() ? candidates : visibleCandidates;
+        return chosen.size() == 1 ? chosen.get(0) : null;
+    }
+
+    /** Appels entre modules écartés du couplage : classe cible déclarée dans plusieurs modules candidats. */
+    public int getAmbiguousCallCount() {
+        return ambiguousCallCount;
+    }
+
+    public List<ModuleResult> getResults() {
+        return results;
+    }
+
+    /** Graphe d'appel global (fusion des graphes des modules). */
+    public Map<String, Set<String>> getCallGraph() {
+        return globalCallGraph.getCallGraph();
+    }
+
+    /** Graphe de couplage entre modules. */
+    public Map<String, Map<String, Double>> getModuleCouplingGraph() {
+        return moduleCouplingGraph;
+    }
+
+    /** Statistiques globales (toutes les classes de tous les modules). */
+    public StatisticsCollector getGlobalStatistics() {
+        StatisticsCollector global = new StatisticsCollector();
+        for (ModuleResult result : results) {
+            global.merge(result.getStatistics());
+        }
+        return global;
+    }
+}
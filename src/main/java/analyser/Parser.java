@@ -4,37 +4,321 @@ import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.dom.AST;
 import org.eclipse.jdt.core.dom.ASTParser;
 import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.FileASTRequestor;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 
 /**
  * Classe utilitaire pour parser un projet Java en ASTs avec Eclipse JDT.
  */
 public class Parser {
 
-    private final String sourcePath;
+    private final String projectPath;
+    private final List<String> sourceRoots;
+    private final List<String> resolutionRoots = new ArrayList<>();
+    private ClasspathIndex classpathIndex;
+    /** Jars nécessaires aux sources du projet (fermé), calculé au premier parsing puis étendu. */
+    private BitSet projectJars;
+    private double lastFilesPerSecond;
+    private final SourceScanner scanner = new SourceScanner();
+    private boolean resolveBindings = true;
+
+    /* Configuration du parsing parallèle */
+    private int workerCount = Runtime.getRuntime().availableProcessors();
+    private int chunkSize = 64;
+    private int maxChunksInFlight = 2 * workerCount;
 
     public Parser(String projectPath) {
-        
+        this.projectPath = projectPath;
         File mainJava = new File(projectPath, "src/main/java");
         File src = new File(projectPath, "src");
         
         if (mainJava.exists()) {
-            this.sourcePath = mainJava.getAbsolutePath();
+            this.sourceRoots = List.of(mainJava.getAbsolutePath());
         } else {
-            this.sourcePath = src.getAbsolutePath();
+            this.sourceRoots = List.of(src.getAbsolutePath());
         }
     }
 
+    /**
+     * Parser d'un module dont les dossiers source sont déjà connus (voir ModuleDiscovery).
+     * Tous les dossiers forment le source path de l'environnement de résolution.
+     */
+    public Parser(String projectPath, List<Path> sourceRoots) {
+        this.projectPath = projectPath;
+        List<String> roots = new ArrayList<>();
+        for (Path root : sourceRoots) {
+            roots.add(root.toAbsolutePath().toString());
+        }
+        this.sourceRoots = List.copyOf(roots);
+    }
+
     /**
      * Parse tout le projet et renvoie une liste de CompilationUnit (AST par fichier Java).
+     * Tous les fichiers passent par une seule session ASTParser.createASTs : l'environnement
+     * de résolution et les caches de bindings sont partagés pour tout le run.
      */
     
     public List<CompilationUnit> parseProject() throws IOException {
-        List<File> javaFiles = listJavaFiles(new File(sourcePath));
+        return parseFiles(listSourceFiles());
+    }
+
+    /**
+     * Parse une liste de fichiers en mode batch (un seul ASTParser pour tous les fichiers).
+     * L'ordre de la liste renvoyée suit celui de la liste de fichiers.
+     */
+    public List<CompilationUnit> parseFiles(List<File> javaFiles) {
+        List<CompilationUnit> units = new ArrayList<>();
+        for (CompilationUnit unit : mapFiles(javaFiles, (file, unit) -> unit)) {
+            if (unit != null && !isEmpty(unit)) {
+                units.add(unit);
+            }
+        }
+        return units;
+    }
+
+    /**
+     * Parse une liste de fichiers en mode batch et applique le mapper à chaque AST dès sa création.
+     * Seul le résultat du mapper est conservé : l'AST peut être libéré avant le fichier suivant.
+     * Le résultat est aligné sur la liste de fichiers (le mapper reçoit aussi les fichiers vides,
+     * et null si JDT n'a produit aucun AST).
+     */
+    public <T> List<T> mapFiles(List<File> javaFiles, BiFunction<File, CompilationUnit, T> mapper) {
+        long start = System.nanoTime();
+        List<T> results = parseBatch(javaFiles, mapper, classpathFor(javaFiles));
+        recordThroughput(javaFiles.size(), start);
+        return results;
+    }
+
+    /** Dossier source principal analysé (src/main/java ou src). */
+    public String getSourcePath() {
+        return sourceRoots.get(0);
+    }
+
+    /**
+     * Ajoute des dossiers source utilisés seulement pour résoudre les bindings (ex: les autres
+     * modules du projet) : leurs fichiers ne sont pas parsés par ce Parser.
+     */
+    public synchronized void addResolutionSourceRoots(List<Path> roots) {
+        for (Path root : roots) {
+            String path = root.toAbsolutePath().toString();
+            if (!sourceRoots.contains(path) && !resolutionRoots.contains(path)) {
+                resolutionRoots.add(path);
+                projectJars = null; // leurs sources peuvent nommer d'autres jars
+            }
+        }
+    }
+
+    /** Tous les dossiers source analysés. */
+    public List<String> getSourceRoots() {
+        return sourceRoots;
+    }
+
+    /**
+     * Liste les fichiers .java des dossiers source du projet.
+     */
+    public List<File> listSourceFiles() {
+        if (sourceRoots.size() == 1) {
+            return listJavaFiles(new File(sourceRoots.get(0)));
+        }
+        List<File> javaFiles = new ArrayList<>();
+        for (String root : sourceRoots) {
+            javaFiles.addAll(listJavaFiles(new File(root)));
+        }
+        return javaFiles;
+    }
+
+    /**
+     * Parse le projet en parallèle (voir {@link #mapFilesParallel}).
+     */
+    public List<CompilationUnit> parseProjectParallel() throws IOException {
+        List<CompilationUnit> units = new ArrayList<>();
+        parseFilesParallel(listSourceFiles(), units::add);
+        return units;
+    }
+
+    /**
+     * Parse les fichiers en parallèle et transmet les CompilationUnit non vides au consumer,
+     * dans l'ordre de la liste.
+     */
+    public void parseFilesParallel(List<File> javaFiles, Consumer<CompilationUnit> consumer) {
+        mapFilesParallel(javaFiles, (file, unit) -> unit, unit -> {
+            if (unit != null && !isEmpty(unit)) {
+                consumer.accept(unit);
+            }
+        });
+    }
+
+    /**
+     * Découpe la liste en paquets de chunkSize fichiers, chaque paquet étant parsé par son propre
+     * ASTParser sur un pool de workerCount threads. Le mapper est appliqué dans le thread worker
+     * dès que l'AST est produit, et ses résultats sont transmis au consumer dans l'ordre de la liste
+     * (sortie déterministe), depuis le thread appelant. Au plus maxChunksInFlight paquets sont soumis
+     * sans avoir été consommés, ce qui borne la mémoire utilisée en même temps.
+     */
+    public <T> void mapFilesParallel(List<File> javaFiles, BiFunction<File, CompilationUnit, T> mapper,
+                                     Consumer<T> consumer) {
+        long start = System.nanoTime();
+        List<List<File>> chunks = new ArrayList<>();
+        for (int i = 0; i < javaFiles.size(); i += chunkSize) {
+            chunks.add(javaFiles.subList(i, Math.min(i + chunkSize, javaFiles.size())));
+        }
+
+        String[] classpath = classpathFor(javaFiles);
+        ExecutorService pool = Executors.newFixedThreadPool(workerCount);
+        try {
+            List<Future<List<T>>> pending = new ArrayList<>();
+            int submitted = 0;
+            for (int consumed = 0; consumed < chunks.size(); consumed++) {
+                while (submitted < chunks.size() && submitted - consumed < maxChunksInFlight) {
+                    List<File> chunk = chunks.get(submitted++);
+                    pending.add(pool.submit(() -> parseBatch(chunk, mapper, classpath)));
+                }
+                List<T> results = pending.get(consumed).get();
+                pending.set(consumed, null); // libère le paquet dès qu'il est consommé
+                results.forEach(consumer);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Parsing parallèle interrompu", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Erreur lors du parsing parallèle", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        recordThroughput(javaFiles.size(), start);
+    }
+
+    /**
+     * Configure le parsing parallèle : nombre de threads, taille des paquets
+     * et nombre maximal de paquets en vol.
+     */
+    public void setParallelism(int workerCount, int chunkSize, int maxChunksInFlight) {
+        if (workerCount < 1 || chunkSize < 1 || maxChunksInFlight < 1) {
+            throw new IllegalArgumentException("Les paramètres de parallélisme doivent être >= 1");
+        }
+        this.workerCount = workerCount;
+        this.chunkSize = chunkSize;
+        this.maxChunksInFlight = maxChunksInFlight;
+    }
+
+    public int getWorkerCount() {
+        return workerCount;
+    }
+
+    /**
+     * Active ou non la résolution des bindings. Sans bindings, le parsing est purement
+     * syntaxique (beaucoup plus rapide) mais les appels ne peuvent plus être résolus.
+     */
+    public void setResolveBindings(boolean resolveBindings) {
+        this.resolveBindings = resolveBindings;
+    }
+
+    public boolean isResolveBindings() {
+        return resolveBindings;
+    }
+
+    /**
+     * Déclare les jars de dépendances. Ils sont indexés une fois (voir ClasspathIndex) et le
+     * parsing ne reçoit que les jars nommés par les sources du projet.
+     */
+    public void setClasspath(List<Path> jars) throws IOException {
+        setClasspathIndex(jars.isEmpty() ? null : ClasspathIndex.open(Path.of(projectPath), jars));
+    }
+
+    /** Réutilise un index déjà ouvert (ex: partagé entre les modules d'un projet). */
+    public synchronized void setClasspathIndex(ClasspathIndex classpathIndex) {
+        this.classpathIndex = classpathIndex;
+        this.projectJars = null;
+    }
+
+    public ClasspathIndex getClasspathIndex() {
+        return classpathIndex;
+    }
+
+    /**
+     * Classpath commun à tous les paquets d'un parsing. Au premier appel, les jars sont relevés sur
+     * toutes les sources du projet et des dossiers de résolution : une source parsée peut atteindre
+     * un type de jar à travers une autre (valeur de retour, super-type...), le résultat ne dépend
+     * donc pas du découpage en paquets. Ensuite, seuls les fichiers à parser sont relus (ils ont pu
+     * changer, ex: mode surveillance) et l'ensemble ne fait que grandir : un jar devenu inutile
+     * reste, ce qui ne change aucune résolution.
+     */
+    private synchronized String[] classpathFor(List<File> javaFiles) {
+        if (classpathIndex == null) return new String[0];
+        if (projectJars == null) {
+            projectJars = new BitSet();
+            List<File> sources = new ArrayList<>();
+            for (String root : sourceRoots) {
+                sources.addAll(scanner.scan(Path.of(root), Path.of(root)));
+            }
+            for (String root : resolutionRoots) {
+                sources.addAll(scanner.scan(Path.of(root), Path.of(root)));
+            }
+            Set<File> scanned = new HashSet<>(sources);
+            for (File file : javaFiles) {
+                if (!scanned.contains(file)) sources.add(file);
+            }
+            classpathIndex.addNeededJars(sources, projectJars);
+        } else {
+            classpathIndex.addNeededJars(javaFiles, projectJars);
+        }
+        return classpathIndex.classpathOf(projectJars);
+    }
+
+    /**
+     * Parse un paquet de fichiers avec un seul ASTParser (createASTs) et applique le mapper
+     * dans le FileASTRequestor. Le résultat est aligné sur la liste de fichiers.
+     */
+    private <T> List<T> parseBatch(List<File> javaFiles, BiFunction<File, CompilationUnit, T> mapper, String[] classpath) {
+        String[] paths = new String[javaFiles.size()];
+        String[] encodings = new String[javaFiles.size()];
+        Map<String, Integer> indexByPath = new HashMap<>();
+        for (int i = 0; i < paths.length; i++) {
+            paths[i] = javaFiles.get(i).getAbsolutePath();
+            encodings[i] = "UTF-8";
+            indexByPath.put(paths[i], i);
+        }
+
+        List<T> results = new ArrayList<>(Collections.nCopies(paths.length, null));
+        boolean[] accepted = new boolean[paths.length];
+        if (paths.length > 0) {
+            ASTParser parser = newParser(classpath);
+            parser.createASTs(paths, encodings, new String[0], new FileASTRequestor() {
+                @Override
+                public void acceptAST(String sourceFilePath, CompilationUnit ast) {
+                    int index = indexByPath.get(sourceFilePath);
+                    accepted[index] = true;
+                    results.set(index, mapper.apply(javaFiles.get(index), ast));
+                }
+            }, null);
+        }
+
+        for (int i = 0; i < paths.length; i++) {
+            if (!accepted[i]) {
+                results.set(i, mapper.apply(javaFiles.get(i), null));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Ancien chemin : un ASTParser (et un setEnvironment) par fichier.
+     * Conservé pour comparer le débit avec le mode batch.
+     */
+    public List<CompilationUnit> parseProjectPerFile() throws IOException {
+        long start = System.nanoTime();
+        List<File> javaFiles = listSourceFiles();
         List<CompilationUnit> units = new ArrayList<>();
 
         for (File file : javaFiles) {
@@ -43,67 +327,94 @@ public class Parser {
             CompilationUnit unit = parse(content.toCharArray());
             units.add(unit);
         }
+        recordThroughput(javaFiles.size(), start);
         return units;
     }
 
+    /** Débit (fichiers par seconde) du dernier parsing effectué. */
+    public double getLastFilesPerSecond() {
+        return lastFilesPerSecond;
+    }
+
+    private void recordThroughput(int fileCount, long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        lastFilesPerSecond = seconds > 0 ? fileCount / seconds : 0;
+    }
+
+    /** Un fichier vide (ou ne contenant que des commentaires) ne produit ni package, ni import, ni type. */
+    private static boolean isEmpty(CompilationUnit unit) {
+        return unit.getPackage() == null && unit.imports().isEmpty() && unit.types().isEmpty();
+    }
+
     /**
-     * Liste récursivement tous les fichiers .java d’un dossier.
+     * Liste récursivement tous les fichiers .java d’un dossier (voir SourceScanner).
      */
     private List<File> listJavaFiles(File folder) {
-        List<File> javaFiles = new ArrayList<>();
-        if (folder.exists() && folder.isDirectory()) {
-            File[] files = folder.listFiles();
-            if (files != null) {
-                for (File entry : files) {
-                    if (entry.isDirectory()) {
-                        javaFiles.addAll(listJavaFiles(entry));
-                    } else if (entry.getName().endsWith(".java")) {
-                        System.out.println("Fichier trouvé: " + entry.getAbsolutePath());
-                        javaFiles.add(entry);
-                    }
-                }
-            }
-        } else {
-            System.out.println("Dossier introuvable: " + folder.getAbsolutePath());
-        }
-        return javaFiles;
+        return scanner.scan(folder.toPath());
+    }
+
+    /**
+     * Scanner utilisé pour découvrir les fichiers source (globs d'inclusion / d'exclusion).
+     */
+    public SourceScanner getScanner() {
+        return scanner;
     }
 
     /**
      * Construit un AST (CompilationUnit) pour une classe donnée.
      */
     private CompilationUnit parse(char[] source) {
-    	ASTParser parser = ASTParser.newParser(AST.getJLSLatest());;
+        ASTParser parser = newParser(classpathIndex != null ? classpathIndex.allJars() : new String[0]);
+        parser.setUnitName(""); // nécessaire pour setEnvironment
+        parser.setSource(source);
+
+        return (CompilationUnit) parser.createAST(null);
+    }
+
+    /**
+     * Crée un ASTParser configuré (bindings + environnement du projet + jars donnés).
+     */
+    private ASTParser newParser(String[] classpath) {
+    	ASTParser parser = ASTParser.newParser(AST.getJLSLatest());
         parser.setKind(ASTParser.K_COMPILATION_UNIT);
-        parser.setResolveBindings(true);
-        parser.setBindingsRecovery(true);
+        parser.setResolveBindings(resolveBindings);
+        parser.setBindingsRecovery(resolveBindings);
 
         @SuppressWarnings("rawtypes")
         Map options = JavaCore.getOptions();
+        // Niveau de langage le plus récent : sinon records, switch avec flèches... sont des erreurs de syntaxe
+        JavaCore.setComplianceOptions(JavaCore.latestSupportedJavaVersion(), options);
         parser.setCompilerOptions(options);
 
-        parser.setUnitName(""); // nécessaire pour setEnvironment
-        String[] sources = { sourcePath };
-        String[] classpath = {};
-
-        parser.setEnvironment(classpath, sources, new String[] { "UTF-8" }, true);
-        parser.setSource(source);
+        List<String> environmentRoots = new ArrayList<>(sourceRoots);
+        environmentRoots.addAll(resolutionRoots);
+        String[] sources = environmentRoots.toArray(new String[0]);
+        String[] sourceEncodings = new String[sources.length];
+        Arrays.fill(sourceEncodings, "UTF-8");
 
-        return (CompilationUnit) parser.createAST(null);
+        parser.setEnvironment(classpath, sources, sourceEncodings, true);
+        return parser;
     }
 
     // === Méthode main pour tester le Parser seul ===
     
     public static void main(String[] args) throws IOException {
         if (args.length == 0) {
-            System.err.println("Usage: java Parser <chemin_projet>");
+            System.err.println("Usage: java Parser <chemin_projet> [--per-file|--parallel]");
             System.exit(1);
         }
         String path = args[0];
+        String mode = args.length > 1 ? args[1] : "--batch";
         Parser parser = new Parser(path);
-        List<CompilationUnit> units = parser.parseProject();
+        List<CompilationUnit> units;
+        switch (mode) {
+            case "--per-file" -> units = parser.parseProjectPerFile();
+            case "--parallel" -> units = parser.parseProjectParallel();
+            default -> units = parser.parseProject();
+        }
 
         System.out.println("Projet analysé: " + path);
         System.out.println("Fichiers parsés: " + units.size());
+        System.out.printf("Débit (%s): %.1f fichiers/s%n", mode.substring(2), parser.getLastFilesPerSecond());
     }
 }
@@ -0,0 +1,354 @@
+package analyser;
+
+import java.util.*;
+
+/**
+ * Moteur du regroupement hiérarchique : même règle de fusion que la recherche exhaustive de
+ * HierarchicalClustering, sans recalculer le couplage des clusters à partir de leurs classes.
+ *
+ * Chaque cluster a un numéro : les classes 0..n-1 dans l'ordre de départ, puis n, n+1... pour
+ * les fusions, dans l'ordre où elles ont lieu. C'est l'ordre de la liste de la version exhaustive,
+ * qui garde la première paire trouvée à couplage égal : on fusionne donc la paire de plus fort
+ * couplage, puis de plus petit premier numéro, puis de plus petit second numéro.
+ *
+ * Le couplage entre clusters est une somme sur les paires de classes : la ligne du cluster
+ * fusionné est la somme des lignes des deux clusters (mise à jour de Lance–Williams avec
+ * α = 1, β = γ = 0). La plus petite ligne est ajoutée à la plus grande, qui devient celle du
+ * cluster fusionné : seuls les voisins du plus petit cluster sont touchés. Les sommes sont en
+ * double-double (ExactSum) : deux couplages égaux le restent quel que soit l'ordre des
+ * additions, et c'est la règle des numéros qui départage. La version exhaustive somme en double
+ * et peut, à arrondi près, départager autrement (voir HierarchicalClustering.cluster).
+ *
+ * Les paires de couplage positif attendent dans un tas. Une entrée est ignorée si un de ses
+ * clusters a disparu ou si le couplage a changé depuis (une entrée plus récente existe) ; si
+ * seul un numéro a changé (le cluster a absorbé un voisin sans changer ce couplage), elle est
+ * remise dans le tas avec les bons numéros : un numéro ne fait qu'augmenter, donc une entrée
+ * n'est jamais sortie trop tard. Quand le tas est vide, les clusters restants sont fusionnés
+ * deux à deux par numéro croissant, avec un couplage nul, comme dans la version exhaustive.
+ *
+ * Le couplage interne d'un cluster (somme sur ses paires de classes) est noté à la fusion :
+ * interne(a ∪ b) = interne(a) + interne(b) + couplage(a, b), en double-double lui aussi.
+ */
+final class PriorityQueueClustering {
+
+    /** Ligne de couplage d'un cluster : voisin -> couplage (hi + lo), hachage ouvert. */
+    private static final class Row {
+        private static final int EMPTY = -1;
+
+        int[] keys;
+        double[] his;
+        double[] los;
+        int size;
+
+        Row(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(4, expected) * 2 - 1) << 1;
+            keys = new int[capacity];
+            Arrays.fill(keys, EMPTY);
+            his = new double[capacity];
+            los = new double[capacity];
+        }
+
+        /** Case de la clé, ou -1 si elle est absente. */
+        int find(int key) {
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] != EMPTY) {
+                if (keys[slot] == key) return slot;
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        /** Ajoute (hi + lo) au couplage du voisin et renvoie sa case. */
+        int add(int key, double hi, double lo) {
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] != EMPTY) {
+                if (keys[slot] == key) {
+                    ExactSum.addTo(his, los, slot, hi, lo);
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            his[slot] = hi;
+            los[slot] = lo;
+            if (++size * 2 > keys.length) {
+                rehash();
+                return find(key);
+            }
+            return slot;
+        }
+
+        /** Retire le voisin (suppression par décalage arrière, sans marqueur). */
+        void remove(int key) {
+            int hole = find(key);
+            if (hole < 0) return;
+            int mask = keys.length - 1;
+            int next = (hole + 1) & mask;
+            while (keys[next] != EMPTY) {
+                int ideal = mix(keys[next]) & mask;
+                if (((next - ideal) & mask) >= ((next - hole) & mask)) {
+                    keys[hole] = keys[next];
+                    his[hole] = his[next];
+                    los[hole] = los[next];
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+            keys[hole] = EMPTY;
+            size--;
+        }
+
+        private void rehash() {
+            int[] oldKeys = keys;
+            double[] oldHis = his;
+            double[] oldLos = los;
+            keys = new int[oldKeys.length * 2];
+            Arrays.fill(keys, EMPTY);
+            his = new double[keys.length];
+            los = new double[keys.length];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] == EMPTY) continue;
+                int slot = mix(oldKeys[i]) & mask;
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                his[slot] = oldHis[i];
+                los[slot] = oldLos[i];
+            }
+        }
+
+        private static int mix(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+
+    private final List<String> classes;
+    private final int leafCount;
+    /** Par emplacement (0..n-1) : numéro courant et ligne du cluster qui l'occupe (null s'il a été absorbé). */
+    private final int[] sequence;
+    private final Row[] rows;
+    private int nextSequence;
+    /** Fusion k = noeud n + k du dendrogramme : fils (numéros de clusters) et couplage. */
+    private final int[] mergeLeft;
+    private final int[] mergeRight;
+    private final double[] mergeCoupling;
+    /** Couplage interne de chaque cluster, par numéro (0 pour une classe seule). */
+    private final double[] internalHi;
+    private final double[] internalLo;
+
+    /* Tas des paires candidates (la meilleure à la racine) : couplage, numéros, emplacements */
+    private double[] heapHi = new double[64];
+    private double[] heapLo = new double[64];
+    private int[] heapLowSeq = new int[64];
+    private int[] heapHighSeq = new int[64];
+    private int[] heapSlotA = new int[64];
+    private int[] heapSlotB = new int[64];
+    private int heapSize;
+
+    /**
+     * @param classes   classes dans l'ordre de départ (numéros 0..n-1)
+     * @param symmetric couplage symétrique entre classes
+     */
+    PriorityQueueClustering(List<String> classes, Map<String, Map<String, Double>> symmetric) {
+        this.classes = classes;
+        leafCount = classes.size();
+        sequence = new int[leafCount];
+        rows = new Row[leafCount];
+        mergeLeft = new int[Math.max(0, leafCount - 1)];
+        mergeRight = new int[mergeLeft.length];
+        mergeCoupling = new double[mergeLeft.length];
+        internalHi = new double[leafCount + mergeLeft.length];
+        internalLo = new double[internalHi.length];
+
+        SymbolTable ids = new SymbolTable();
+        for (String className : classes) {
+            ids.intern(className);
+        }
+        for (int id = 0; id < leafCount; id++) {
+            sequence[id] = id;
+        }
+        for (int id = 0; id < leafCount; id++) {
+            Map<String, Double> neighbours = symmetric.getOrDefault(ids.nameOf(id), Collections.emptyMap());
+            rows[id] = new Row(neighbours.size());
+            for (Map.Entry<String, Double> entry : neighbours.entrySet()) {
+                int other = ids.idOf(entry.getKey());
+                if (other < 0 || other == id) continue; // appels d'une classe vers elle-même : jamais entre deux clusters
+                rows[id].add(other, entry.getValue(), 0.0);
+                if (other > id && entry.getValue() > 0) {
+                    push(entry.getValue(), 0.0, id, other);
+                }
+            }
+        }
+        nextSequence = leafCount;
+    }
+
+    /** Fusionne jusqu'à obtenir un seul cluster ; le numéro d'un cluster est son noeud dans le dendrogramme. */
+    CompactDendrogram run() {
+        if (leafCount == 0) {
+            throw new IllegalStateException("Aucune classe à regrouper");
+        }
+        while (heapSize > 0) {
+            double hi = heapHi[0];
+            double lo = heapLo[0];
+            int lowSeq = heapLowSeq[0];
+            int highSeq = heapHighSeq[0];
+            int a = heapSlotA[0];
+            int b = heapSlotB[0];
+            pop();
+            if (rows[a] == null || rows[b] == null) continue; // cluster déjà absorbé
+            int slot = rows[a].find(b);
+            if (slot < 0 || ExactSum.compare(rows[a].his[slot], rows[a].los[slot], hi, lo) != 0) continue; // couplage périmé
+            if (Math.min(sequence[a], sequence[b]) != lowSeq || Math.max(sequence[a], sequence[b]) != highSeq) {
+                push(hi, lo, a, b); // même couplage, numéros à jour
+                continue;
+            }
+            merge(a, b, hi, lo);
+        }
+
+        // Plus aucun couplage positif : les deux plus petits numéros, tant qu'il reste deux clusters
+        long[] remaining = new long[leafCount];
+        int count = 0;
+        for (int slot = 0; slot < leafCount; slot++) {
+            if (rows[slot] != null) remaining[count++] = ((long) sequence[slot] << 32) | slot;
+        }
+        Arrays.sort(remaining, 0, count);
+        // File des numéros : un nouveau cluster a le plus grand numéro, il va en fin de file
+        int[] queue = new int[2 * count];
+        int head = 0;
+        int tail = 0;
+        for (int i = 0; i < count; i++) {
+            queue[tail++] = (int) (remaining[i] >>> 32);
+        }
+        while (tail - head > 1) {
+            int first = queue[head++];
+            int second = queue[head++];
+            queue[tail++] = record(first, second, 0.0, 0.0);
+        }
+        return new CompactDendrogram(classes, mergeLeft, mergeRight, mergeCoupling,
+                Arrays.copyOfRange(internalHi, leafCount, internalHi.length));
+    }
+
+    /**
+     * Enregistre la fusion des clusters first (fils gauche) et second, de couplage (hi + lo),
+     * et renvoie le numéro du nouveau cluster.
+     */
+    private int record(int first, int second, double hi, double lo) {
+        int merged = nextSequence++;
+        int merge = merged - leafCount;
+        mergeLeft[merge] = first;
+        mergeRight[merge] = second;
+        mergeCoupling[merge] = hi;
+        internalHi[merged] = internalHi[first];
+        internalLo[merged] = internalLo[first];
+        ExactSum.addTo(internalHi, internalLo, merged, internalHi[second], internalLo[second]);
+        ExactSum.addTo(internalHi, internalLo, merged, hi, lo);
+        return merged;
+    }
+
+    /** Fusionne les clusters des emplacements a et b ; le cluster obtenu garde la plus grande ligne. */
+    private void merge(int a, int b, double couplingHi, double couplingLo) {
+        int large = rows[a].size >= rows[b].size ? a : b;
+        int small = large == a ? b : a;
+        Row largeRow = rows[large];
+        Row smallRow = rows[small];
+        largeRow.remove(small);
+        sequence[large] = record(Math.min(sequence[a], sequence[b]), Math.max(sequence[a], sequence[b]), couplingHi, couplingLo); // plus petit numéro : fils gauche
+        rows[small] = null;
+
+        for (int i = 0; i < smallRow.keys.length; i++) {
+            int other = smallRow.keys[i];
+            if (other == Row.EMPTY || other == large) continue;
+            double hi = smallRow.his[i];
+            double lo = smallRow.los[i];
+            int slot = largeRow.add(other, hi, lo);
+            Row otherRow = rows[other];
+            otherRow.remove(small);
+            otherRow.add(large, hi, lo);
+            if (largeRow.his[slot] > 0) {
+                push(largeRow.his[slot], largeRow.los[slot], other, large);
+            }
+        }
+    }
+
+    /* ---------------------------- Tas ---------------------------- */
+
+    /** Vrai si l'entrée a passe avant b : couplage décroissant, puis numéros croissants. */
+    private boolean before(int a, int b) {
+        int byCoupling = ExactSum.compare(heapHi[a], heapLo[a], heapHi[b], heapLo[b]);
+        if (byCoupling != 0) return byCoupling > 0;
+        if (heapLowSeq[a] != heapLowSeq[b]) return heapLowSeq[a] < heapLowSeq[b];
+        return heapHighSeq[a] < heapHighSeq[b];
+    }
+
+    private void push(double hi, double lo, int slotA, int slotB) {
+        if (heapSize == heapHi.length) {
+            int capacity = heapSize * 2;
+            heapHi = Arrays.copyOf(heapHi, capacity);
+            heapLo = Arrays.copyOf(heapLo, capacity);
+            heapLowSeq = Arrays.copyOf(heapLowSeq, capacity);
+            heapHighSeq = Arrays.copyOf(heapHighSeq, capacity);
+            heapSlotA = Arrays.copyOf(heapSlotA, capacity);
+            heapSlotB = Arrays.copyOf(heapSlotB, capacity);
+        }
+        int index = heapSize++;
+        heapHi[index] = hi;
+        heapLo[index] = lo;
+        heapLowSeq[index] = Math.min(sequence[slotA], sequence[slotB]);
+        heapHighSeq[index] = Math.max(sequence[slotA], sequence[slotB]);
+        heapSlotA[index] = slotA;
+        heapSlotB[index] = slotB;
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!before(index, parent)) break;
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void pop() {
+        heapSize--;
+        if (heapSize == 0) return;
+        move(heapSize, 0);
+        int index = 0;
+        while (true) {
+            int best = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < heapSize && before(left, best)) best = left;
+            if (right < heapSize && before(right, best)) best = right;
+            if (best == index) return;
+            swap(index, best);
+            index = best;
+        }
+    }
+
+    private void move(int from, int to) {
+        heapHi[to] = heapHi[from];
+        heapLo[to] = heapLo[from];
+        heapLowSeq[to] = heapLowSeq[from];
+        heapHighSeq[to] = heapHighSeq[from];
+        heapSlotA[to] = heapSlotA[from];
+        heapSlotB[to] = heapSlotB[from];
+    }
+
+    private void swap(int a, int b) {
+        double hi = heapHi[a];
+        double lo = heapLo[a];
+        int lowSeq = heapLowSeq[a];
+        int highSeq = heapHighSeq[a];
+        int slotA = heapSlotA[a];
+        int slotB = heapSlotB[a];
+        move(b, a);
+        heapHi[b] = hi;
+        heapLo[b] = lo;
+        heapLowSeq[b] = lowSeq;
+        heapHighSeq[b] = highSeq;
+        heapSlotA[b] = slotA;
+        heapSlotB[b] = slotB;
+    }
+}
@@ -0,0 +1,457 @@
+package analyser;
+
+import analyser.facts.FactExtractor;
+import analyser.facts.FileFacts;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Mode surveillance : garde le graphe d'appel, le graphe de couplage et les statistiques en mémoire
+ * et les met à jour à chaque modification des sources (java.nio.file.WatchService).
+ * Seuls les fichiers touchés sont reparsés ; leurs arcs d'appel sont retirés puis remplacés,
+ * sans recalculer les autres fichiers. Le couplage suit les arcs ajoutés et retirés
+ * (IncrementalCouplingModel) tant que les supertypes ne changent pas : une méthode ajoutée ou
+ * retirée ne recalcule que les appelants des méthodes de ce nom ; les statistiques et
+ * l'index des packages retirent les faits de l'ancienne version du fichier et ajoutent ceux de la
+ * nouvelle. Les getters renvoient des copies : un listener ne demande que ce qu'il affiche.
+ * Les listeners sont prévenus après chaque mise à jour.
+ *
+ * Les fichiers suivis sont ceux que retient le SourceScanner du Parser (mêmes globs d'inclusion /
+ * d'exclusion qu'une analyse normale). Si des événements ont été perdus (OVERFLOW), tous les
+ * fichiers sont relus. Une erreur pendant une mise à jour est signalée sans arrêter la surveillance.
+ */
+public class ProjectWatcher implements AutoCloseable {
+
+    /** Délai pendant lequel on regroupe les événements d'une même sauvegarde. */
+    private static final long DEBOUNCE_MILLIS = 150;
+
+    private final Parser parser;
+    private final List<Path> sourceRoots = new ArrayList<>();
+    private final Map<File, FileFacts> factsByFile = new HashMap<>();
+    private final Map<String, Set<File>> filesByCaller = new HashMap<>();
+    private final Map<String, Set<String>> callGraph = new HashMap<>();
+    /** Graphe d'appel avec les appels virtuels étendus (CHA par défaut) : seuls les appelants touchés sont recalculés. */
+    private final Map<String, Set<String>> dispatchedGraph = new HashMap<>();
+    /** Appelants par nom de méthode appelée ("m" pour "T.m") : ceux à recalculer quand les déclarations de m changent. */
+    private final Map<String, Set<String>> callersByMethod = new HashMap<>();
+    private int hierarchyRebuilds;
+    private ClassHierarchyIndex hierarchyIndex;
+    private ClassHierarchyIndex.Dispatch dispatch = ClassHierarchyIndex.Dispatch.CHA;
+    private IncrementalCouplingModel couplingModel = new IncrementalCouplingModel();
+    private final List<Consumer<ProjectWatcher>> listeners = new CopyOnWriteArrayList<>();
+
+    private final StatisticsCollector stats = new StatisticsCollector();
+    private final ClassPackageIndex packages = new ClassPackageIndex();
+    private WatchService watchService;
+    private Thread watchThread;
+    private long lastUpdateMillis;
+
+    public ProjectWatcher(Parser parser) {
+        this.parser = parser;
+        for (String root : parser.getSourceRoots()) {
+            sourceRoots.add(Path.of(root));
+        }
+    }
+
+    /** Résolution des appels virtuels (NONE, CHA ou RTA), à choisir avant start(). */
+    public void setDispatch(ClassHierarchyIndex.Dispatch dispatch) {
+        this.dispatch = dispatch;
+    }
+
+    /** Abonne un listener, appelé (depuis le thread de surveillance) après chaque mise à jour. */
+    public void addListener(Consumer<ProjectWatcher> listener) {
+        listeners.add(listener);
+    }
+
+    /** Analyse initiale complète puis démarrage de la surveillance en tâche de fond. */
+    public void start() throws IOException {
+        List<File> files = parser.listSourceFiles();
+        Map<File, FileFacts> initial = new HashMap<>();
+        parser.mapFilesParallel(files, (file, unit) -> Map.entry(file, FactExtractor.extract(unit)),
+                entry -> initial.put(entry.getKey(), entry.getValue()));
+        synchronized (this) {
+            Set<String> callers = new HashSet<>();
+            initial.forEach((file, facts) -> callers.addAll(addFile(file, facts)));
+            rebuildCallers(callers);
+            rebuildDispatched();
+        }
+
+        watchService = FileSystems.getDefault().newWatchService();
+        for (Path root : sourceRoots) {
+            registerAll(root);
+        }
+        watchThread = new Thread(this::watchLoop, "project-watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (watchThread != null) {
+            watchThread.interrupt();
+        }
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    /**
+     * Applique la modification d'un ensemble de fichiers : ceux qui existent encore sont reparsés,
+     * les autres sont retirés. Renvoie le temps de mise à jour en millisecondes.
+     */
+    public long applyChanges(Collection<File> changedFiles) {
+        long start = System.nanoTime();
+        List<File> existing = new ArrayList<>();
+        for (File file : changedFiles) {
+            if (file.isFile()) existing.add(file);
+        }
+        List<FileFacts> parsed = parser.mapFiles(existing, (file, unit) -> FactExtractor.extract(unit));
+
+        synchronized (this) {
+            boolean hierarchyChanged = hierarchyIndex == null;
+            Set<String> changedMethods = new HashSet<>();
+            for (int i = 0; i < existing.size(); i++) {
+                FileFacts old = factsByFile.get(existing.get(i));
+                hierarchyChanged |= hierarchyDiffers(old, parsed.get(i));
+                collectChangedMethods(old, parsed.get(i), changedMethods);
+            }
+            Set<String> touchedCallers = new HashSet<>();
+            for (File file : changedFiles) {
+                FileFacts old = factsByFile.get(file);
+                if (old != null && !existing.contains(file)) {
+                    hierarchyChanged |= hierarchyDiffers(old, null);
+                }
+                touchedCallers.addAll(removeFile(file));
+            }
+            for (int i = 0; i < existing.size(); i++) {
+                touchedCallers.addAll(addFile(existing.get(i), parsed.get(i)));
+            }
+            rebuildCallers(touchedCallers);
+            if (hierarchyChanged) {
+                rebuildDispatched();
+            } else {
+                if (!changedMethods.isEmpty()) {
+                    // Mêmes supertypes : seules les redéfinitions de ces noms changent, et les appels qui les visent
+                    hierarchyIndex = hierarchyIndex.withDeclarations(factsByFile.values());
+                    for (String method : changedMethods) {
+                        touchedCallers.addAll(callersByMethod.getOrDefault(method, Set.of()));
+                    }
+                }
+                updateDispatched(touchedCallers);
+            }
+            lastUpdateMillis = (System.nanoTime() - start) / 1_000_000;
+        }
+        for (Consumer<ProjectWatcher> listener : listeners) {
+            listener.accept(this);
+        }
+        return lastUpdateMillis;
+    }
+
+    /* ---------------------------- Accès aux résultats (copies) ---------------------------- */
+
+    public synchronized Map<String, Set<String>> getCallGraph() {
+        Map<String, Set<String>> copy = new HashMap<>();
+        dispatchedGraph.forEach((caller, callees) -> copy.put(caller, new HashSet<>(callees)));
+        return copy;
+    }
+
+    public synchronized Map<String, Map<String, Double>> getCouplingGraph() {
+        return couplingModel.getCouplingGraph();
+    }
+
+    /** Package de chaque classe du projet, d'après les faits courants (pour le couplage par package). */
+    public synchronized ClassPackageIndex getClassPackages() {
+        return packages.copy();
+    }
+
+    public synchronized StatisticsCollector getStatistics() {
+        return stats.copy();
+    }
+
+    /** Résumé des statistiques, en O(1) (totaux tenus à jour). */
+    public synchronized Map<String, Integer> getStatsMap() {
+        return stats.getStatsMap();
+    }
+
+    public synchronized int getFileCount() {
+        return factsByFile.size();
+    }
+
+    public synchronized long getLastUpdateMillis() {
+        return lastUpdateMillis;
+    }
+
+    /** Nombre de reconstructions complètes (index, graphe étendu, couplage) depuis la création. */
+    synchronized int getHierarchyRebuildCount() {
+        return hierarchyRebuilds;
+    }
+
+    /* ---------------------------- Mise à jour incrémentale ---------------------------- */
+
+    /** Enregistre les faits d'un fichier, renvoie les méthodes appelantes concernées. */
+    private Set<String> addFile(File file, FileFacts facts) {
+        factsByFile.put(file, facts);
+        stats.addFacts(facts);
+        packages.addFacts(facts);
+        Set<String> callers = new HashSet<>();
+        for (FileFacts.CallEdge edge : facts.calls()) {
+            callers.add(edge.caller());
+            filesByCaller.computeIfAbsent(edge.caller(), k -> new HashSet<>()).add(file);
+        }
+        return callers;
+    }
+
+    /** Oublie les faits d'un fichier, renvoie les méthodes appelantes concernées. */
+    private Set<String> removeFile(File file) {
+        FileFacts old = factsByFile.remove(file);
+        if (old == null) return Set.of();
+        stats.removeFacts(old);
+        packages.removeFacts(old);
+        Set<String> callers = new HashSet<>();
+        for (FileFacts.CallEdge edge : old.calls()) {
+            callers.add(edge.caller());
+            Set<File> files = filesByCaller.get(edge.caller());
+            if (files != null) {
+                files.remove(file);
+                if (files.isEmpty()) filesByCaller.remove(edge.caller());
+            }
+        }
+        return callers;
+    }
+
+    /** Recalcule les arcs sortants des appelants touchés à partir des fichiers qui les déclarent encore. */
+    private void rebuildCallers(Set<String> callers) {
+        for (String caller : callers) {
+            indexCallers(caller, callGraph.remove(caller), false);
+            for (File file : filesByCaller.getOrDefault(caller, Set.of())) {
+                for (FileFacts.CallEdge edge : factsByFile.get(file).calls()) {
+                    if (edge.caller().equals(caller)) {
+                        callGraph.computeIfAbsent(caller, k -> new HashSet<>()).add(edge.callee());
+                    }
+                }
+            }
+            indexCallers(caller, callGraph.get(caller), true);
+        }
+    }
+
+    /** Ajoute (ou retire) l'appelant de callersByMethod pour le nom de méthode de chacun de ses appelés. */
+    private void indexCallers(String caller, Set<String> callees, boolean add) {
+        if (callees == null) return;
+        for (String callee : callees) {
+            String method = callee.substring(callee.lastIndexOf('.') + 1);
+            if (add) {
+                callersByMethod.computeIfAbsent(method, k -> new HashSet<>()).add(caller);
+            } else {
+                Set<String> callers = callersByMethod.get(method);
+                if (callers != null) {
+                    callers.remove(caller);
+                    if (callers.isEmpty()) callersByMethod.remove(method);
+                }
+            }
+        }
+    }
+
+    /**
+     * Supertypes modifiés (ou types ajoutés / retirés) : l'index est reconstruit à partir des faits
+     * (les sous-types de n'importe quel type peuvent changer), puis le graphe étendu et le couplage
+     * sont recalculés en entier.
+     */
+    private void rebuildDispatched() {
+        hierarchyRebuilds++;
+        hierarchyIndex = ClassHierarchyIndex.of(factsByFile.values());
+        dispatchedGraph.clear();
+        hierarchyIndex.expand(callGraph, dispatch)
+                .forEach((caller, callees) -> dispatchedGraph.put(caller, new HashSet<>(callees)));
+        couplingModel = IncrementalCouplingModel.of(dispatchedGraph);
+    }
+
+    /** Supertypes inchangés : seuls les arcs des appelants touchés changent, le couplage suit leur différence. */
+    private void updateDispatched(Set<String> callers) {
+        for (String caller : callers) {
+            Set<String> oldCallees = dispatchedGraph.getOrDefault(caller, Set.of());
+            Set<String> newCallees = new HashSet<>();
+            for (String callee : callGraph.getOrDefault(caller, Set.of())) {
+                newCallees.add(callee);
+                newCallees.addAll(hierarchyIndex.dispatchTargets(callee, dispatch));
+            }
+            couplingModel.replaceCalls(caller, oldCallees, newCallees);
+            if (newCallees.isEmpty()) {
+                dispatchedGraph.remove(caller);
+            } else {
+                dispatchedGraph.put(caller, newCallees);
+            }
+        }
+    }
+
+    /**
+     * Vrai si les types déclarés ou leurs supertypes diffèrent entre deux versions d'un fichier : les
+     * sous-types changent, l'index est à reconstruire. Les méthodes ne comptent pas (collectChangedMethods).
+     * En RTA, les types instanciés comptent aussi.
+     */
+    private boolean hierarchyDiffers(FileFacts before, FileFacts after) {
+        if (!supertypesOf(before).equals(supertypesOf(after))) return true;
+        if (dispatch != ClassHierarchyIndex.Dispatch.RTA) return false;
+        List<String> instantiatedBefore = before != null ? before.instantiatedTypes() : List.of();
+        List<String> instantiatedAfter = after != null ? after.instantiatedTypes() : List.of();
+        return !new HashSet<>(instantiatedBefore).equals(new HashSet<>(instantiatedAfter));
+    }
+
+    /** (nom, superclasse, interfaces) de chaque type déclaré, dans l'ordre du fichier. */
+    private static List<List<Object>> supertypesOf(FileFacts facts) {
+        List<List<Object>> result = new ArrayList<>();
+        if (facts == null) return result;
+        for (FileFacts.TypeFacts type : facts.types()) {
+            result.add(Arrays.asList(type.name(), type.superclass(), type.interfaces()));
+        }
+        return result;
+    }
+
+    /** Ajoute à changed les noms des méthodes déclarées par un type d'une version du fichier et pas de l'autre. */
+    private static void collectChangedMethods(FileFacts before, FileFacts after, Set<String> changed) {
+        Map<String, Set<String>> methodsBefore = methodsByType(before);
+        Map<String, Set<String>> methodsAfter = methodsByType(after);
+        Set<String> typeNames = new HashSet<>(methodsBefore.keySet());
+        typeNames.addAll(methodsAfter.keySet());
+        for (String type : typeNames) {
+            Set<String> old = methodsBefore.getOrDefault(type, Set.of());
+            Set<String> current = methodsAfter.getOrDefault(type, Set.of());
+            for (String method : old) {
+                if (!current.contains(method)) changed.add(method);
+            }
+            for (String method : current) {
+                if (!old.contains(method)) changed.add(method);
+            }
+        }
+    }
+
+    private static Map<String, Set<String>> methodsByType(FileFacts facts) {
+        Map<String, Set<String>> methods = new HashMap<>();
+        if (facts == null) return methods;
+        for (FileFacts.TypeFacts type : facts.types()) {
+            methods.computeIfAbsent(type.name(), k -> new HashSet<>()).addAll(type.methods());
+        }
+        return methods;
+    }
+
+    /* ---------------------------- WatchService ---------------------------- */
+
+    private synchronized List<File> knownFiles() {
+        return new ArrayList<>(factsByFile.keySet());
+    }
+
+    private synchronized List<File> knownFilesUnder(Path dir) {
+        List<File> files = new ArrayList<>();
+        for (File file : factsByFile.keySet()) {
+            if (file.toPath().startsWith(dir)) files.add(file);
+        }
+        return files;
+    }
+
+    /** Dossier source qui contient le chemin, ou null. */
+    private Path sourceRootOf(Path path) {
+        for (Path root : sourceRoots) {
+            if (path.startsWith(root)) return root;
+        }
+        return null;
+    }
+
+    /**
+     * Enregistre dir et ses sous-dossiers, sauf ceux que le scanner exclut. Les liens symboliques
+     * sont suivis comme dans SourceScanner ; un cycle ou une entrée illisible est ignoré.
+     */
+    private void registerAll(Path dir) throws IOException {
+        Path root = sourceRootOf(dir);
+        if (root == null || !Files.isDirectory(dir)) return;
+        SourceScanner scanner = parser.getScanner();
+        Files.walkFileTree(dir, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path current, BasicFileAttributes attrs) throws IOException {
+                if (scanner.isExcludedDirectory(root, current)) return FileVisitResult.SKIP_SUBTREE;
+                current.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void watchLoop() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.take();
+                Set<File> changed = new LinkedHashSet<>();
+                List<Path> newDirs = new ArrayList<>();
+                boolean overflow = collectEvents(key, changed, newDirs);
+
+                // Regrouper les événements arrivés juste après (une sauvegarde en génère plusieurs)
+                WatchKey next;
+                while ((next = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    overflow |= collectEvents(next, changed, newDirs);
+                }
+                try {
+                    if (overflow) {
+                        // Événements perdus : on relit tout (fichiers connus + fichiers présents)
+                        System.out.println("Événements perdus, relecture de tous les fichiers");
+                        for (Path root : sourceRoots) {
+                            registerAll(root);
+                        }
+                        changed.addAll(knownFiles());
+                        changed.addAll(parser.listSourceFiles());
+                    }
+                    for (Path dir : newDirs) {
+                        registerAll(dir);
+                        Path root = sourceRootOf(dir);
+                        if (root != null) changed.addAll(parser.getScanner().scan(root, dir));
+                    }
+                    if (!changed.isEmpty()) {
+                        long millis = applyChanges(changed);
+                        System.out.println("Mise à jour: " + changed.size() + " fichier(s) en " + millis + " ms");
+                    }
+                } catch (IOException | RuntimeException e) {
+                    // Un lot en échec n'arrête pas la surveillance
+                    System.err.println("Mise à jour impossible (" + changed.size() + " fichier(s)): " + e);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Arrêt demandé
+        }
+    }
+
+    /**
+     * Ajoute à changed les fichiers retenus par le scanner qui ont changé, et à newDirs les dossiers
+     * créés. Renvoie vrai si des événements ont été perdus (OVERFLOW).
+     */
+    private boolean collectEvents(WatchKey key, Set<File> changed, List<Path> newDirs) {
+        Path dir = (Path) key.watchable();
+        Path root = sourceRootOf(dir);
+        boolean overflow = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                overflow = true;
+                continue;
+            }
+            Path path = dir.resolve((Path) event.context());
+            if (event.kind() == ENTRY_CREATE && Files.isDirectory(path)) {
+                newDirs.add(path);
+            } else if (event.kind() == ENTRY_DELETE) {
+                changed.addAll(knownFilesUnder(path)); // fichier ou dossier supprimé : ses fichiers disparaissent
+            } else if (root != null && parser.getScanner().accepts(root, path)) {
+                changed.add(path.toFile());
+            }
+        }
+        key.reset();
+        return overflow;
+    }
+}
@@ -0,0 +1,205 @@
+package analyser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Découverte des fichiers source avec java.nio.file.
+ * Les sous-dossiers sont parcourus en parallèle (ForkJoin), les chemins sont filtrés par des
+ * globs d'inclusion / d'exclusion appliqués au chemin relatif à la racine scannée, c'est-à-dire
+ * au dossier source (src/main/java ou src) : "com/acme/generated/**", "**Test.java".
+ * Un dossier exclu n'est pas parcouru. Les liens symboliques (fichiers et dossiers) sont suivis ;
+ * un lien qui ramène à un dossier en cours de parcours (cycle) est ignoré. Une entrée illisible
+ * (lien cassé, droits) est signalée et ignorée sans arrêter le parcours de son dossier.
+ * La console n'affiche qu'un compteur de progression, pas chaque fichier trouvé.
+ */
+public class SourceScanner {
+
+    private static final int PROGRESS_STEP = 5000;
+
+    private final List<PathMatcher> includes = new ArrayList<>();
+    private final List<PathMatcher> excludes = new ArrayList<>();
+    private final List<String> includePatterns = new ArrayList<>();
+    private final List<String> excludePatterns = new ArrayList<>();
+    private boolean quiet;
+
+    /** Ajoute un glob d'inclusion. Sans inclusion explicite, tous les fichiers .java sont retenus. */
+    public SourceScanner include(String glob) {
+        includes.add(FileSystems.getDefault().getPathMatcher("glob:" + glob));
+        includePatterns.add(glob);
+        return this;
+    }
+
+    /** Ajoute un glob d'exclusion (fichiers ou dossiers). */
+    public SourceScanner exclude(String glob) {
+        excludes.add(FileSystems.getDefault().getPathMatcher("glob:" + glob));
+        excludePatterns.add(glob);
+        return this;
+    }
+
+    /** Désactive le compteur de progression. */
+    public SourceScanner quiet(boolean quiet) {
+        this.quiet = quiet;
+        return this;
+    }
+
+    public List<String> getIncludePatterns() {
+        return Collections.unmodifiableList(includePatterns);
+    }
+
+    public List<String> getExcludePatterns() {
+        return Collections.unmodifiableList(excludePatterns);
+    }
+
+    /**
+     * Liste les fichiers .java retenus sous root, triés par chemin (ordre déterministe).
+     */
+    public List<File> scan(Path root) {
+        if (!Files.isDirectory(root)) {
+            System.out.println("Dossier introuvable: " + root.toAbsolutePath());
+            return new ArrayList<>();
+        }
+        List<File> files = scan(root, root);
+        if (!quiet) {
+            System.out.println("Fichiers .java trouvés: " + files.size());
+        }
+        return files;
+    }
+
+    /**
+     * Fichiers .java retenus sous dir, un dossier de root : les globs restent relatifs à root
+     * (nouveau dossier apparu pendant la surveillance...). Sans message.
+     */
+    public List<File> scan(Path root, Path dir) {
+        if (!Files.isDirectory(dir) || isExcludedDirectory(root, dir)) {
+            return new ArrayList<>();
+        }
+        AtomicInteger found = new AtomicInteger();
+        Set<Path> ancestors;
+        try {
+            ancestors = Set.of(dir.toRealPath());
+        } catch (IOException e) {
+            System.err.println("Dossier illisible ignoré: " + dir + " (" + e.getMessage() + ")");
+            return new ArrayList<>();
+        }
+        List<Path> paths = ForkJoinPool.commonPool().invoke(new DirectoryTask(root, dir, ancestors, found));
+
+        paths.sort(Comparator.naturalOrder());
+        List<File> files = new ArrayList<>(paths.size());
+        for (Path path : paths) {
+            files.add(path.toFile());
+        }
+        return files;
+    }
+
+    /** Vrai si le fichier (sous root) serait retenu par scan(root). */
+    public boolean accepts(Path root, Path file) {
+        return file.startsWith(root) && accepts(root.relativize(file)) && !isExcludedDirectory(root, file.getParent());
+    }
+
+    /** Vrai si le dossier (sous root), ou un de ses parents, n'est pas parcouru par scan(root). */
+    public boolean isExcludedDirectory(Path root, Path dir) {
+        for (Path current = dir; current != null && !current.equals(root) && current.startsWith(root); current = current.getParent()) {
+            if (isExcludedDirectory(root.relativize(current))) return true;
+        }
+        return false;
+    }
+
+    private boolean accepts(Path relative) {
+        if (!relative.toString().endsWith(".java") || isExcluded(relative)) {
+            return false;
+        }
+        if (includes.isEmpty()) {
+            return true;
+        }
+        for (PathMatcher matcher : includes) {
+            if (matcher.matches(relative)) return true;
+        }
+        return false;
+    }
+
+    private boolean isExcluded(Path relative) {
+        for (PathMatcher matcher : excludes) {
+            if (matcher.matches(relative)) return true;
+        }
+        return false;
+    }
+
+    /** Un dossier est exclu si le glob le désigne lui-même ou tout son contenu ("dir/**"). */
+    private boolean isExcludedDirectory(Path relative) {
+        return isExcluded(relative) || isExcluded(relative.resolve("_"));
+    }
+
+    private void reportProgress(AtomicInteger found) {
+        int count = found.incrementAndGet();
+        if (!quiet && count % PROGRESS_STEP == 0) {
+            System.out.println("... " + count + " fichiers .java trouvés");
+        }
+    }
+
+    /** Parcours d'un dossier : les fichiers sont filtrés ici, les sous-dossiers forkés. */
+    private class DirectoryTask extends RecursiveTask<List<Path>> {
+        private static final long serialVersionUID = 1L;
+
+        private final Path root;
+        private final Path dir;
+        /** Chemins réels de ce dossier et de ses parents parcourus : un lien vers l'un d'eux est un cycle. */
+        private final Set<Path> ancestors;
+        private final AtomicInteger found;
+
+        DirectoryTask(Path root, Path dir, Set<Path> ancestors, AtomicInteger found) {
+            this.root = root;
+            this.dir = dir;
+            this.ancestors = ancestors;
+            this.found = found;
+        }
+
+        @Override
+        protected List<Path> compute() {
+            List<Path> files = new ArrayList<>();
+            List<DirectoryTask> subTasks = new ArrayList<>();
+
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path entry : stream) {
+                    BasicFileAttributes attrs;
+                    Path realDir = null;
+                    try {
+                        attrs = Files.readAttributes(entry, BasicFileAttributes.class);
+                        if (attrs.isDirectory()) realDir = entry.toRealPath();
+                    } catch (IOException e) {
+                        System.err.println("Entrée illisible ignorée: " + entry + " (" + e.getMessage() + ")");
+                        continue;
+                    }
+                    Path relative = root.relativize(entry);
+                    if (attrs.isDirectory()) {
+                        if (ancestors.contains(realDir)) {
+                            System.err.println("Lien symbolique circulaire ignoré: " + entry);
+                        } else if (!isExcludedDirectory(relative)) {
+                            Set<Path> subAncestors = new HashSet<>(ancestors);
+                            subAncestors.add(realDir);
+                            DirectoryTask task = new DirectoryTask(root, entry, subAncestors, found);
+                            task.fork();
+                            subTasks.add(task);
+                        }
+                    } else if (attrs.isRegularFile() && accepts(relative)) {
+                        files.add(entry);
+                        reportProgress(found);
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("Dossier illisible ignoré: " + dir + " (" + e.getMessage() + ")");
+            }
+
+            for (DirectoryTask task : subTasks) {
+                files.addAll(task.join());
+            }
+            return files;
+        }
+    }
+}
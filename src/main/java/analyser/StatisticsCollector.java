@@ -1,8 +1,7 @@
 package analyser;
 
-import analyser.visitors.MethodDeclarationVisitor;
-import analyser.visitors.TypeDeclarationVisitor;
-import analyser.visitors.FieldDeclarationVisitor;
+import analyser.facts.FactExtractor;
+import analyser.facts.FileFacts;
 import org.eclipse.jdt.core.dom.*;
 
 import java.util.*;
@@ -14,66 +13,136 @@ public class StatisticsCollector {
 
     private final List<CompilationUnit> units;
     private final Map<String, ClassStats> classes = new HashMap<>();
+    /** Déclarations masquées d'une classe déclarée dans plusieurs fichiers (la dernière ajoutée est dans classes). */
+    private final Map<String, List<ClassStats>> shadowed = new HashMap<>();
     private final Set<String> packages = new HashSet<>();
+    /** Nombre de fichiers de chaque package : un package disparaît avec son dernier fichier. */
+    private final Map<String, Integer> packageFileCounts = new HashMap<>();
+    /** Totaux des classes retenues, tenus à jour à chaque ajout / retrait. */
+    private int totalMethods;
+    private int totalAttributes;
+    private int totalLines;
 
     public StatisticsCollector(List<CompilationUnit> units) {
         this.units = units;
     }
 
+    /** Collecteur alimenté uniquement par des faits (voir {@link #addFacts}). **/
+    public StatisticsCollector() {
+        this(List.of());
+    }
+
     /** Lance l’analyse et remplit la map "classes" + liste des packages **/
     
     public void collect() {
         for (CompilationUnit unit : units) {
+            addFacts(FactExtractor.extractStatistics(unit));
+        }
+    }
 
-            // Enregistrer les packages rencontrés
-        	
-            PackageDeclaration pkg = unit.getPackage();
-            if (pkg != null) {
-                packages.add(pkg.getName().getFullyQualifiedName());
+    /** Ajoute les statistiques d'un fichier déjà extraites (AST ou cache). **/
+    
+    public void addFacts(FileFacts facts) {
+
+        // Enregistrer les packages rencontrés
+        if (facts.packageName() != null) {
+            packages.add(facts.packageName());
+            packageFileCounts.merge(facts.packageName(), 1, Integer::sum);
+        }
+
+        for (FileFacts.ClassFacts clazz : facts.classes()) {
+            ClassStats stats = new ClassStats(clazz.name());
+            for (FileFacts.MethodFacts method : clazz.methods()) {
+                stats.methodCount++;
+                stats.methods.add(new MethodStats(method.name(), method.lineCount(), method.parameterCount()));
             }
+            stats.attributeCount = clazz.attributeCount();
+            stats.lineCount = clazz.lineCount();
+            putClass(stats);
+        }
+    }
+
+    /**
+     * Retire les statistiques d'un fichier ajoutées auparavant par addFacts (mode surveillance) :
+     * coût proportionnel au fichier, pas au projet. Si une autre déclaration de la même classe
+     * avait été masquée, elle redevient visible.
+     **/
+    
+    public void removeFacts(FileFacts facts) {
+        String packageName = facts.packageName();
+        if (packageName != null && packageFileCounts.containsKey(packageName)
+                && packageFileCounts.merge(packageName, -1, Integer::sum) == 0) {
+            packageFileCounts.remove(packageName);
+            packages.remove(packageName);
+        }
 
-            // Visiteur de classes
-            TypeDeclarationVisitor typeVisitor = new TypeDeclarationVisitor();
-            unit.accept(typeVisitor);
-
-            for (TypeDeclaration clazz : typeVisitor.getClasses()) {
-                String className = clazz.getName().toString();
-                ClassStats stats = new ClassStats(className);
-
-                // Compter les méthodes
-                MethodDeclarationVisitor methodVisitor = new MethodDeclarationVisitor();
-                clazz.accept(methodVisitor);
-                for (MethodDeclaration method : methodVisitor.getMethods()) {
-                    stats.methodCount++;
-                    stats.methods.add(new MethodStats(
-                            method.getName().toString(),
-                            unit.getLineNumber(method.getStartPosition() + method.getLength()) -
-                                    unit.getLineNumber(method.getStartPosition()),
-                            method.parameters().size()
-                    ));
+        for (FileFacts.ClassFacts clazz : facts.classes()) {
+            ClassStats current = classes.get(clazz.name());
+            List<ClassStats> hidden = shadowed.get(clazz.name());
+            if (current != null && current.matches(clazz)) {
+                count(current, -1);
+                if (hidden == null) {
+                    classes.remove(clazz.name());
+                } else {
+                    ClassStats restored = hidden.remove(hidden.size() - 1);
+                    classes.put(clazz.name(), restored);
+                    count(restored, 1);
                 }
+            } else if (hidden != null) {
+                for (int i = hidden.size() - 1; i >= 0; i--) {
+                    if (hidden.get(i).matches(clazz)) {
+                        hidden.remove(i);
+                        break;
+                    }
+                }
+            }
+            if (hidden != null && hidden.isEmpty()) {
+                shadowed.remove(clazz.name());
+            }
+        }
+    }
 
-                // Compter les attributs
-                FieldDeclarationVisitor fieldVisitor = new FieldDeclarationVisitor();
-                clazz.accept(fieldVisitor);
-                stats.attributeCount = fieldVisitor.getFields().size();
+    /** Fusionne les statistiques d'un autre collecteur (ex: celui d'un module). **/
+    
+    public void merge(StatisticsCollector other) {
+        other.classes.values().forEach(this::putClass);
+        packages.addAll(other.packages);
+        other.packageFileCounts.forEach((packageName, count) -> packageFileCounts.merge(packageName, count, Integer::sum));
+    }
 
-                // Compter les lignes de la classe
-                int start = unit.getLineNumber(clazz.getStartPosition());
-                int end = unit.getLineNumber(clazz.getStartPosition() + clazz.getLength());
-                stats.lineCount = end - start + 1;
-                classes.put(className, stats);
-            }
+    /** Copie indépendante : les ajouts et retraits suivants sur l'un ne touchent pas l'autre. **/
+    
+    public StatisticsCollector copy() {
+        StatisticsCollector copy = new StatisticsCollector();
+        copy.classes.putAll(classes);
+        shadowed.forEach((name, hidden) -> copy.shadowed.put(name, new ArrayList<>(hidden)));
+        copy.packages.addAll(packages);
+        copy.packageFileCounts.putAll(packageFileCounts);
+        copy.totalMethods = totalMethods;
+        copy.totalAttributes = totalAttributes;
+        copy.totalLines = totalLines;
+        return copy;
+    }
+
+    /** La dernière déclaration ajoutée d'une classe est retenue, les précédentes sont masquées. */
+    private void putClass(ClassStats stats) {
+        ClassStats previous = classes.put(stats.name, stats);
+        if (previous != null) {
+            shadowed.computeIfAbsent(stats.name, k -> new ArrayList<>()).add(previous);
+            count(previous, -1);
         }
+        count(stats, 1);
+    }
+
+    private void count(ClassStats stats, int sign) {
+        totalMethods += sign * stats.methodCount;
+        totalAttributes += sign * stats.attributeCount;
+        totalLines += sign * stats.lineCount;
     }
 
     /** ---------------------------- GÉNÉRATION D'UN RAPPORT TEXTUEL ---------------------------- **/
     
     public String generateReport() {
-        int totalMethods = classes.values().stream().mapToInt(c -> c.methodCount).sum();
-        int totalLines = classes.values().stream().mapToInt(c -> c.lineCount).sum();
-        int totalAttributes = classes.values().stream().mapToInt(c -> c.attributeCount).sum();
-
         StringBuilder sb = new StringBuilder();
         sb.append("===== Rapport d'analyse =====\n");
         sb.append("Nombre de classes : ").append(classes.size()).append("\n");
@@ -172,6 +241,29 @@ public class StatisticsCollector {
         List<MethodStats> methods = new ArrayList<>();
 
         public ClassStats(String name) { this.name = name; }
+
+        public String getName() { return name; }
+        public int getMethodCount() { return methodCount; }
+        public int getAttributeCount() { return attributeCount; }
+        public int getLineCount() { return lineCount; }
+        public List<MethodStats> getMethods() { return methods; }
+
+        /** Vrai si ces statistiques sont celles de la classe décrite par les faits. */
+        boolean matches(FileFacts.ClassFacts clazz) {
+            if (!name.equals(clazz.name()) || attributeCount != clazz.attributeCount()
+                    || lineCount != clazz.lineCount() || methods.size() != clazz.methods().size()) {
+                return false;
+            }
+            for (int i = 0; i < methods.size(); i++) {
+                MethodStats method = methods.get(i);
+                FileFacts.MethodFacts facts = clazz.methods().get(i);
+                if (!method.name.equals(facts.name()) || method.lineCount != facts.lineCount()
+                        || method.parameterCount != facts.parameterCount()) {
+                    return false;
+                }
+            }
+            return true;
+        }
     }
 
     public static class MethodStats {
@@ -184,6 +276,10 @@ public class StatisticsCollector {
             this.lineCount = lineCount;
             this.parameterCount = parameterCount;
         }
+
+        public String getName() { return name; }
+        public int getLineCount() { return lineCount; }
+        public int getParameterCount() { return parameterCount; }
     }
 
     public Map<String, Integer> getStatsMap() {
@@ -191,9 +287,6 @@ public class StatisticsCollector {
     Map<String, Integer> stats = new LinkedHashMap<>();
     stats.put("Nombre de classes", classes.size());
     stats.put("Nombre de packages", packages.size());
-    int totalMethods = classes.values().stream().mapToInt(c -> c.methodCount).sum();
-    int totalAttributes = classes.values().stream().mapToInt(c -> c.attributeCount).sum();
-    int totalLines = classes.values().stream().mapToInt(c -> c.lineCount).sum();
     stats.put("Nombre total de méthodes", totalMethods);
     stats.put("Nombre total d'attributs", totalAttributes);
     stats.put("Nombre total de lignes", totalLines);
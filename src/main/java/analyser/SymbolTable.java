@@ -0,0 +1,79 @@
+package analyser;
+
+import java.util.Arrays;
+
+/**
+ * Table de symboles : chaque nom distinct ("Classe.méthode", nom de classe...) reçoit un
+ * identifiant entier dense (0, 1, 2... dans l'ordre d'arrivée) et n'est stocké qu'une fois.
+ * Hachage ouvert sur un tableau d'int, sans objet par entrée. Non thread-safe.
+ */
+public class SymbolTable {
+
+    private String[] names = new String[16];
+    /** Cases de la table de hachage : id + 1, 0 = case vide. */
+    private int[] slots = new int[32];
+    private int size;
+
+    /** Identifiant du nom, créé s'il n'existe pas encore. */
+    public int intern(String name) {
+        int mask = slots.length - 1;
+        int slot = mix(name.hashCode()) & mask;
+        while (slots[slot] != 0) {
+            int id = slots[slot] - 1;
+            if (names[id].equals(name)) return id;
+            slot = (slot + 1) & mask;
+        }
+        int id = size++;
+        if (id == names.length) {
+            names = Arrays.copyOf(names, id * 2);
+        }
+        names[id] = name;
+        slots[slot] = id + 1;
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    /** Identifiant du nom, ou -1 s'il est inconnu. */
+    public int idOf(String name) {
+        int mask = slots.length - 1;
+        int slot = mix(name.hashCode()) & mask;
+        while (slots[slot] != 0) {
+            int id = slots[slot] - 1;
+            if (names[id].equals(name)) return id;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    public String nameOf(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("Symbole inconnu: " + id);
+        }
+        return names[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void rehash() {
+        int[] newSlots = new int[slots.length * 2];
+        int mask = newSlots.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = mix(names[id].hashCode()) & mask;
+            while (newSlots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newSlots[slot] = id + 1;
+        }
+        slots = newSlots;
+    }
+
+    /** Disperse les bits du hashCode (les noms proches ont des hashCode proches). */
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
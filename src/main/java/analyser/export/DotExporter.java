@@ -0,0 +1,118 @@
+package analyser.export;
+
+import analyser.StatisticsCollector;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Export DOT (Graphviz). Les statistiques sont un sommet par classe avec ses mesures
+ * en étiquette ; les modules sont des sous-graphes "cluster_N".
+ */
+public class DotExporter implements ResultExporter {
+
+    @Override
+    public ExportFormat getFormat() {
+        return ExportFormat.DOT;
+    }
+
+    @Override
+    public void writeStatistics(StatisticsCollector stats, Writer out) throws IOException {
+        out.write("digraph statistics {\n  node [shape=record];\n");
+        for (StatisticsCollector.ClassStats clazz : stats.getClasses().values()) {
+            out.write("  ");
+            writeId(clazz.getName(), out);
+            // Les \l (fin de ligne alignée à gauche) sont écrits tels quels, seul le nom est échappé
+            out.write(" [label=\"{" + escapeRecordField(clazz.getName()) + "|méthodes: " + clazz.getMethodCount()
+                    + "\\lattributs: " + clazz.getAttributeCount() + "\\llignes: " + clazz.getLineCount() + "\\l}\"];\n");
+        }
+        out.write("}\n");
+    }
+
+    @Override
+    public void writeCallGraph(Map<String, Set<String>> callGraph, Writer out) throws IOException {
+        out.write("digraph callgraph {\n");
+        for (Map.Entry<String, Set<String>> entry : callGraph.entrySet()) {
+            for (String callee : entry.getValue()) {
+                out.write("  ");
+                writeId(entry.getKey(), out);
+                out.write(" -> ");
+                writeId(callee, out);
+                out.write(";\n");
+            }
+        }
+        out.write("}\n");
+    }
+
+    @Override
+    public void writeCouplingGraph(Map<String, Map<String, Double>> couplingGraph, Writer out) throws IOException {
+        out.write("digraph coupling {\n");
+        for (Map.Entry<String, Map<String, Double>> entry : couplingGraph.entrySet()) {
+            for (Map.Entry<String, Double> target : entry.getValue().entrySet()) {
+                out.write("  ");
+                writeId(entry.getKey(), out);
+                out.write(" -> ");
+                writeId(target.getKey(), out);
+                out.write(" [weight=" + target.getValue() + ", label=\"" + target.getValue() + "\"];\n");
+            }
+        }
+        out.write("}\n");
+    }
+
+    @Override
+    public void writeModules(List<Set<String>> modules, Writer out) throws IOException {
+        out.write("graph modules {\n");
+        for (int i = 0; i < modules.size(); i++) {
+            out.write("  subgraph cluster_" + (i + 1) + " {\n    label=\"Module " + (i + 1) + "\";\n");
+            for (String className : modules.get(i)) {
+                out.write("    ");
+                writeId(className, out);
+                out.write(";\n");
+            }
+            out.write("  }\n");
+        }
+        out.write("}\n");
+    }
+
+    /** Identifiant DOT entre guillemets (les noms "Classe.méthode" contiennent des points). */
+    private static void writeId(String id, Writer out) throws IOException {
+        out.write('"');
+        out.write(escape(id));
+        out.write('"');
+    }
+
+    /** Contenu d'une chaîne DOT entre guillemets : \, " et fin de ligne échappés. */
+    static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\') {
+                escaped.append("\\\\");
+            } else if (c == '"') {
+                escaped.append("\\\"");
+            } else if (c == '\n') {
+                escaped.append("\\n");
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    /** Champ d'une étiquette record : en plus, { } | < > sont des séparateurs et doivent être échappés. */
+    static String escapeRecordField(String text) {
+        StringBuilder escaped = new StringBuilder();
+        String quoted = escape(text);
+        for (int i = 0; i < quoted.length(); i++) {
+            char c = quoted.charAt(i);
+            if ("{}|<>".indexOf(c) >= 0) {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,38 @@
+package analyser.export;
+
+import java.util.Locale;
+
+/** Formats d'export des résultats d'analyse. */
+public enum ExportFormat {
+    JSON("json"),
+    GRAPHML("graphml"),
+    DOT("dot");
+
+    private final String extension;
+
+    ExportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /** Exporteur correspondant au format. */
+    public ResultExporter createExporter() {
+        return switch (this) {
+            case JSON -> new JsonExporter();
+            case GRAPHML -> new GraphMLExporter();
+            case DOT -> new DotExporter();
+        };
+    }
+
+    /** Format à partir de son nom ("json", "graphml", "dot"), sans tenir compte de la casse. */
+    public static ExportFormat parse(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Format d'export inconnu: " + name + " (json, graphml ou dot)");
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package analyser.export;
+
+import analyser.StatisticsCollector;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Export GraphML (lisible par yEd, Gephi, networkx...).
+ * Les statistiques et les modules sont des graphes sans arc : un sommet par classe,
+ * avec ses mesures (ou son numéro de module) en attributs.
+ */
+public class GraphMLExporter implements ResultExporter {
+
+    @Override
+    public ExportFormat getFormat() {
+        return ExportFormat.GRAPHML;
+    }
+
+    @Override
+    public void writeStatistics(StatisticsCollector stats, Writer out) throws IOException {
+        writeHeader(out);
+        writeKey(out, "methods", "node", "int");
+        writeKey(out, "attributes", "node", "int");
+        writeKey(out, "lines", "node", "int");
+        out.write("  <graph id=\"statistics\" edgedefault=\"directed\">\n");
+        for (StatisticsCollector.ClassStats clazz : stats.getClasses().values()) {
+            writeNodeStart(clazz.getName(), out);
+            writeData("methods", Integer.toString(clazz.getMethodCount()), out);
+            writeData("attributes", Integer.toString(clazz.getAttributeCount()), out);
+            writeData("lines", Integer.toString(clazz.getLineCount()), out);
+            out.write("    </node>\n");
+        }
+        writeFooter(out);
+    }
+
+    @Override
+    public void writeCallGraph(Map<String, Set<String>> callGraph, Writer out) throws IOException {
+        writeHeader(out);
+        out.write("  <graph id=\"callgraph\" edgedefault=\"directed\">\n");
+        for (String node : GraphNodes.ofCallGraph(callGraph)) {
+            writeNode(node, out);
+        }
+        for (Map.Entry<String, Set<String>> entry : callGraph.entrySet()) {
+            for (String callee : entry.getValue()) {
+                writeEdgeStart(entry.getKey(), callee, out);
+                out.write("/>\n");
+            }
+        }
+        writeFooter(out);
+    }
+
+    @Override
+    public void writeCouplingGraph(Map<String, Map<String, Double>> couplingGraph, Writer out) throws IOException {
+        writeHeader(out);
+        writeKey(out, "weight", "edge", "double");
+        out.write("  <graph id=\"coupling\" edgedefault=\"directed\">\n");
+        for (String node : GraphNodes.ofCouplingGraph(couplingGraph)) {
+            writeNode(node, out);
+        }
+        for (Map.Entry<String, Map<String, Double>> entry : couplingGraph.entrySet()) {
+            for (Map.Entry<String, Double> target : entry.getValue().entrySet()) {
+                writeEdgeStart(entry.getKey(), target.getKey(), out);
+                out.write(">\n");
+                writeData("weight", Double.toString(target.getValue()), out);
+                out.write("    </edge>\n");
+            }
+        }
+        writeFooter(out);
+    }
+
+    @Override
+    public void writeModules(List<Set<String>> modules, Writer out) throws IOException {
+        writeHeader(out);
+        writeKey(out, "module", "node", "int");
+        out.write("  <graph id=\"modules\" edgedefault=\"undirected\">\n");
+        for (int i = 0; i < modules.size(); i++) {
+            for (String className : modules.get(i)) {
+                writeNodeStart(className, out);
+                writeData("module", Integer.toString(i + 1), out);
+                out.write("    </node>\n");
+            }
+        }
+        writeFooter(out);
+    }
+
+    private static void writeHeader(Writer out) throws IOException {
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        out.write("<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">\n");
+    }
+
+    private static void writeFooter(Writer out) throws IOException {
+        out.write("  </graph>\n</graphml>\n");
+    }
+
+    private static void writeKey(Writer out, String name, String target, String type) throws IOException {
+        out.write("  <key id=\"" + name + "\" for=\"" + target + "\" attr.name=\"" + name + "\" attr.type=\"" + type + "\"/>\n");
+    }
+
+    private static void writeNode(String id, Writer out) throws IOException {
+        out.write("    <node id=\"");
+        writeEscaped(id, out);
+        out.write("\"/>\n");
+    }
+
+    private static void writeNodeStart(String id, Writer out) throws IOException {
+        out.write("    <node id=\"");
+        writeEscaped(id, out);
+        out.write("\">\n");
+    }
+
+    private static void writeEdgeStart(String source, String target, Writer out) throws IOException {
+        out.write("    <edge source=\"");
+        writeEscaped(source, out);
+        out.write("\" target=\"");
+        writeEscaped(target, out);
+        out.write('"');
+    }
+
+    private static void writeData(String key, String value, Writer out) throws IOException {
+        out.write("      <data key=\"" + key + "\">" + value + "</data>\n");
+    }
+
+    /** Texte XML échappé (valeur d'attribut). */
+    private static void writeEscaped(String value, Writer out) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&' -> out.write("&amp;");
+                case '<' -> out.write("&lt;");
+                case '>' -> out.write("&gt;");
+                case '"' -> out.write("&quot;");
+                case '\'' -> out.write("&apos;");
+                default -> out.write(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package analyser.export;
+
+import analyser.CompactCallGraph;
+
+import java.util.*;
+
+/** Ensemble des sommets d'un graphe (appelants et appelés), pour les formats qui les déclarent à part. */
+final class GraphNodes {
+
+    private GraphNodes() {
+    }
+
+    static Collection<String> ofCallGraph(Map<String, Set<String>> callGraph) {
+        CompactCallGraph compact = CompactCallGraph.unwrap(callGraph);
+        if (compact != null) {
+            // Graphe compact : les sommets sont déjà numérotés dans la table des symboles
+            return new AbstractList<>() {
+                @Override
+                public String get(int index) {
+                    return compact.getSymbols().nameOf(index);
+                }
+
+                @Override
+                public int size() {
+                    return compact.getNodeCount();
+                }
+            };
+        }
+        Set<String> nodes = new LinkedHashSet<>(callGraph.keySet());
+        callGraph.values().forEach(nodes::addAll);
+        return nodes;
+    }
+
+    static Collection<String> ofCouplingGraph(Map<String, Map<String, Double>> couplingGraph) {
+        Set<String> nodes = new LinkedHashSet<>(couplingGraph.keySet());
+        couplingGraph.values().forEach(targets -> nodes.addAll(targets.keySet()));
+        return nodes;
+    }
+}
@@ -0,0 +1,142 @@
+package analyser.export;
+
+import analyser.StatisticsCollector;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Export JSON :
+ *   statistiques : {"summary": {...}, "packages": [...], "classes": [{"name", "methods", "attributes", "lines", "methodDetails"}]}
+ *   graphe d'appel : {"Classe.méthode": ["Autre.méthode", ...], ...}
+ *   couplage : {"ClasseA": {"ClasseB": poids, ...}, ...}
+ *   modules : [{"id": 1, "classes": [...]}, ...]
+ */
+public class JsonExporter implements ResultExporter {
+
+    @Override
+    public ExportFormat getFormat() {
+        return ExportFormat.JSON;
+    }
+
+    @Override
+    public void writeStatistics(StatisticsCollector stats, Writer out) throws IOException {
+        out.write("{\n  \"summary\": {");
+        boolean first = true;
+        for (Map.Entry<String, Integer> entry : stats.getStatsMap().entrySet()) {
+            out.write(first ? "\n    " : ",\n    ");
+            first = false;
+            writeString(entry.getKey(), out);
+            out.write(": ");
+            out.write(Integer.toString(entry.getValue()));
+        }
+        out.write("\n  },\n  \"packages\": ");
+        writeStringArray(stats.getPackages(), out);
+        out.write(",\n  \"classes\": [");
+        first = true;
+        for (StatisticsCollector.ClassStats clazz : stats.getClasses().values()) {
+            out.write(first ? "\n    {\"name\": " : ",\n    {\"name\": ");
+            first = false;
+            writeString(clazz.getName(), out);
+            out.write(", \"methods\": " + clazz.getMethodCount());
+            out.write(", \"attributes\": " + clazz.getAttributeCount());
+            out.write(", \"lines\": " + clazz.getLineCount());
+            out.write(", \"methodDetails\": [");
+            boolean firstMethod = true;
+            for (StatisticsCollector.MethodStats method : clazz.getMethods()) {
+                out.write(firstMethod ? "{\"name\": " : ", {\"name\": ");
+                firstMethod = false;
+                writeString(method.getName(), out);
+                out.write(", \"lines\": " + method.getLineCount() + ", \"parameters\": " + method.getParameterCount() + "}");
+            }
+            out.write("]}");
+        }
+        out.write("\n  ]\n}\n");
+    }
+
+    @Override
+    public void writeCallGraph(Map<String, Set<String>> callGraph, Writer out) throws IOException {
+        out.write('{');
+        boolean first = true;
+        for (Map.Entry<String, Set<String>> entry : callGraph.entrySet()) {
+            out.write(first ? "\n  " : ",\n  ");
+            first = false;
+            writeString(entry.getKey(), out);
+            out.write(": ");
+            writeStringArray(entry.getValue(), out);
+        }
+        out.write("\n}\n");
+    }
+
+    @Override
+    public void writeCouplingGraph(Map<String, Map<String, Double>> couplingGraph, Writer out) throws IOException {
+        out.write('{');
+        boolean first = true;
+        for (Map.Entry<String, Map<String, Double>> entry : couplingGraph.entrySet()) {
+            out.write(first ? "\n  " : ",\n  ");
+            first = false;
+            writeString(entry.getKey(), out);
+            out.write(": {");
+            boolean firstTarget = true;
+            for (Map.Entry<String, Double> target : entry.getValue().entrySet()) {
+                if (!firstTarget) out.write(", ");
+                firstTarget = false;
+                writeString(target.getKey(), out);
+                out.write(": ");
+                out.write(Double.toString(target.getValue()));
+            }
+            out.write('}');
+        }
+        out.write("\n}\n");
+    }
+
+    @Override
+    public void writeModules(List<Set<String>> modules, Writer out) throws IOException {
+        out.write('[');
+        for (int i = 0; i < modules.size(); i++) {
+            out.write(i == 0 ? "\n  {\"id\": " : ",\n  {\"id\": ");
+            out.write(Integer.toString(i + 1));
+            out.write(", \"classes\": ");
+            writeStringArray(modules.get(i), out);
+            out.write('}');
+        }
+        out.write("\n]\n");
+    }
+
+    private static void writeStringArray(Iterable<String> values, Writer out) throws IOException {
+        out.write('[');
+        boolean first = true;
+        for (String value : values) {
+            if (!first) out.write(", ");
+            first = false;
+            writeString(value, out);
+        }
+        out.write(']');
+    }
+
+    /** Chaîne JSON échappée (guillemets, antislash et caractères de contrôle). */
+    static void writeString(String value, Writer out) throws IOException {
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.write("\\\"");
+                case '\\' -> out.write("\\\\");
+                case '\n' -> out.write("\\n");
+                case '\r' -> out.write("\\r");
+                case '\t' -> out.write("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+                }
+            }
+        }
+        out.write('"');
+    }
+}
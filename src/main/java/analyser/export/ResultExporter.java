@@ -0,0 +1,31 @@
+package analyser.export;
+
+import analyser.StatisticsCollector;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Écrit les résultats d'une analyse dans un format donné.
+ * Les écritures se font au fil de l'eau dans le Writer (aucun document construit en mémoire) :
+ * passer un Writer bufferisé.
+ */
+public interface ResultExporter {
+
+    ExportFormat getFormat();
+
+    /** Statistiques globales et détail par classe. */
+    void writeStatistics(StatisticsCollector stats, Writer out) throws IOException;
+
+    /** Graphe d'appel ("Classe.méthode" -> méthodes appelées). */
+    void writeCallGraph(Map<String, Set<String>> callGraph, Writer out) throws IOException;
+
+    /** Graphe de couplage (classe -> classe -> poids). */
+    void writeCouplingGraph(Map<String, Map<String, Double>> couplingGraph, Writer out) throws IOException;
+
+    /** Modules identifiés par le clustering (numérotés à partir de 1). */
+    void writeModules(List<Set<String>> modules, Writer out) throws IOException;
+}
@@ -0,0 +1,209 @@
+package analyser.facts;
+
+import analyser.Parser;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Cache d'analyse incrémental stocké dans ".ast-cache/" du projet analysé.
+ * Associe chaque fichier (chemin relatif) au hash SHA-256 de son contenu et aux faits
+ * qui en ont été extraits. Un nouveau run ne reparse que les fichiers nouveaux ou modifiés,
+ * oublie les fichiers supprimés et réutilise le reste.
+ *
+ * L'en-tête retient l'empreinte du classpath (voir ClasspathIndex.fingerprint) : si des jars
+ * sont ajoutés, retirés ou modifiés, les faits avec arcs d'appel, qui dépendent des bindings,
+ * sont recalculés. Ceux du mode rapide (sans bindings) restent valables.
+ *
+ * Limite : les arcs d'appel d'un fichier inchangé sont réutilisés même si une classe qu'il
+ * appelle a été modifiée ailleurs (les noms de classes déclarantes sont figés au moment de l'extraction).
+ */
+public class AnalysisCache {
+
+    public static final String CACHE_DIR = ".ast-cache";
+    private static final String CACHE_FILE = "facts.bin";
+    private static final int MAGIC = 0x41535443; // "ASTC"
+    private static final int VERSION = 5;
+    /** Empreinte d'un projet analysé sans classpath. */
+    private static final String NO_CLASSPATH = "";
+    /** Hash d'une entrée à ne pas réutiliser : aucun SHA-256 n'a cette longueur. */
+    private static final byte[] NO_HASH = new byte[0];
+
+    private final Path projectRoot;
+    private final Path cacheFile;
+    private final Map<String, Entry> entries = new HashMap<>();
+    /** Empreinte du classpath avec lequel les entrées ont été extraites. */
+    private String classpath = NO_CLASSPATH;
+    private int lastReparsedCount;
+    private int lastRemovedCount;
+
+    /** Entrée du cache : empreinte du fichier + faits extraits (avec ou sans arcs d'appel). */
+    private record Entry(long size, long lastModified, byte[] hash, boolean withCalls, FileFacts facts) {
+
+        /** Une entrée issue du mode rapide ne suffit pas pour une analyse complète. */
+        boolean covers(AnalysisMode mode) {
+            return withCalls || mode == AnalysisMode.FAST;
+        }
+    }
+
+    public AnalysisCache(Path projectRoot) {
+        this.projectRoot = projectRoot.toAbsolutePath().normalize();
+        this.cacheFile = this.projectRoot.resolve(CACHE_DIR).resolve(CACHE_FILE);
+    }
+
+    /**
+     * Charge le cache depuis le disque. Un cache absent, corrompu ou d'une autre version est ignoré.
+     */
+    public void load() {
+        entries.clear();
+        if (!Files.isRegularFile(cacheFile)) return;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return;
+            classpath = in.readUTF();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String path = in.readUTF();
+                long size = in.readLong();
+                long lastModified = in.readLong();
+                byte[] hash = new byte[in.readUnsignedByte()];
+                in.readFully(hash);
+                boolean withCalls = in.readBoolean();
+                entries.put(path, new Entry(size, lastModified, hash, withCalls, FileFacts.readFrom(in)));
+            }
+        } catch (IOException e) {
+            System.err.println("Cache d'analyse illisible, il sera reconstruit: " + e.getMessage());
+            entries.clear();
+        }
+    }
+
+    /** Écrit le cache sur le disque. */
+    public void save() throws IOException {
+        Files.createDirectories(cacheFile.getParent());
+        Path tmp = cacheFile.resolveSibling(CACHE_FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(classpath);
+            out.writeInt(entries.size());
+            for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                Entry entry = e.getValue();
+                out.writeUTF(e.getKey());
+                out.writeLong(entry.size());
+                out.writeLong(entry.lastModified());
+                out.writeByte(entry.hash().length);
+                out.write(entry.hash());
+                out.writeBoolean(entry.withCalls());
+                entry.facts().writeTo(out);
+            }
+        }
+        Files.move(tmp, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Met le cache à jour pour la liste de fichiers donnée et renvoie les faits de chaque fichier,
+     * dans l'ordre de la liste. Seuls les fichiers nouveaux ou modifiés sont parsés.
+     */
+    public List<FileFacts> refresh(Parser parser, List<File> javaFiles) throws IOException {
+        return refresh(parser, javaFiles, AnalysisMode.FULL);
+    }
+
+    /**
+     * Comme {@link #refresh(Parser, List)} ; en mode FULL, les entrées produites par le mode
+     * rapide (sans arcs d'appel) sont reparsées.
+     */
+    public List<FileFacts> refresh(Parser parser, List<File> javaFiles, AnalysisMode mode) throws IOException {
+        String currentClasspath = parser.getClasspathIndex() != null ? parser.getClasspathIndex().fingerprint() : NO_CLASSPATH;
+        if (!currentClasspath.equals(classpath)) {
+            // Les bindings ne sont plus les mêmes : arcs d'appel à recalculer
+            entries.values().removeIf(Entry::withCalls);
+            classpath = currentClasspath;
+        }
+        Map<String, Entry> fresh = new HashMap<>();
+        List<File> stale = new ArrayList<>();
+        // Taille, date et hash relevés avant le parsing (facts = null en attendant)
+        Map<File, Entry> pending = new HashMap<>();
+
+        for (File file : javaFiles) {
+            String key = keyOf(file);
+            Entry cached = entries.get(key);
+            long size = file.length();
+            long lastModified = file.lastModified();
+
+            // Raccourci : taille + date identiques => pas besoin de relire le fichier
+            if (cached != null && !cached.covers(mode)) {
+                cached = null;
+            }
+            if (cached != null && cached.size() == size && cached.lastModified() == lastModified) {
+                fresh.put(key, cached);
+                continue;
+            }
+            byte[] hash = hash(file);
+            if (cached != null && Arrays.equals(cached.hash(), hash)) {
+                fresh.put(key, new Entry(size, lastModified, hash, cached.withCalls(), cached.facts()));
+            } else {
+                stale.add(file);
+                pending.put(file, new Entry(size, lastModified, hash, false, null));
+            }
+        }
+
+        // Les ASTs des fichiers reparsés ne sont pas conservés : seuls leurs faits remontent
+        boolean withCalls = mode == AnalysisMode.FULL;
+        parser.setResolveBindings(mode.resolvesBindings());
+        parser.mapFilesParallel(stale,
+                (file, unit) -> Map.entry(keyOf(file), parsedEntry(file, pending.get(file), withCalls, FactExtractor.extract(unit, mode))),
+                entry -> fresh.put(entry.getKey(), entry.getValue()));
+
+        lastReparsedCount = stale.size();
+        lastRemovedCount = (int) entries.keySet().stream().filter(k -> !fresh.containsKey(k)).count();
+        entries.clear();
+        entries.putAll(fresh);
+
+        List<FileFacts> facts = new ArrayList<>(javaFiles.size());
+        for (File file : javaFiles) {
+            facts.add(entries.get(keyOf(file)).facts());
+        }
+        return facts;
+    }
+
+    /**
+     * Entrée d'un fichier reparsé. Si le fichier a changé depuis le relevé de sa taille, de sa date
+     * et de son hash, les faits ne correspondent peut-être plus à ce hash : ils servent à ce run mais
+     * l'entrée ne sera jamais réutilisée (taille et hash invalides), le fichier sera reparsé au suivant.
+     */
+    private static Entry parsedEntry(File file, Entry before, boolean withCalls, FileFacts facts) {
+        if (file.length() != before.size() || file.lastModified() != before.lastModified()) {
+            return new Entry(-1, -1, NO_HASH, withCalls, facts);
+        }
+        return new Entry(before.size(), before.lastModified(), before.hash(), withCalls, facts);
+    }
+
+    /** Nombre de fichiers reparsés lors du dernier refresh. */
+    public int getLastReparsedCount() {
+        return lastReparsedCount;
+    }
+
+    /** Nombre de fichiers supprimés du projet depuis le run précédent. */
+    public int getLastRemovedCount() {
+        return lastRemovedCount;
+    }
+
+    private String keyOf(File file) {
+        Path path = file.toPath().toAbsolutePath().normalize();
+        return path.startsWith(projectRoot) ? projectRoot.relativize(path).toString() : path.toString();
+    }
+
+    private static byte[] hash(File file) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return digest.digest(Files.readAllBytes(file.toPath()));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package analyser.facts;
+
+/**
+ * Mode d'analyse.
+ * FULL : bindings résolus, statistiques + arcs d'appel (graphe d'appel, couplage, modules).
+ * FAST : parsing purement syntaxique (sans bindings), statistiques seules.
+ */
+public enum AnalysisMode {
+    FULL,
+    FAST;
+
+    public boolean resolvesBindings() {
+        return this == FULL;
+    }
+}
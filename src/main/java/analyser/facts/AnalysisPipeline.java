@@ -0,0 +1,52 @@
+package analyser.facts;
+
+import analyser.Parser;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Pipeline d'analyse en streaming : chaque fichier est parsé, tous les extracteurs tournent
+ * sur son AST, puis seuls les faits (FileFacts) sont transmis aux consommateurs.
+ * Aucune CompilationUnit n'est conservée : le pic mémoire dépend du plus gros fichier
+ * (et des paquets en vol du Parser), pas de la taille du projet.
+ */
+public class AnalysisPipeline {
+
+    private final Parser parser;
+    private final AnalysisMode mode;
+    private final List<Consumer<FileFacts>> sinks = new ArrayList<>();
+
+    public AnalysisPipeline(Parser parser) {
+        this(parser, AnalysisMode.FULL);
+    }
+
+    /** En mode FAST, le parser est configuré sans bindings et seules les statistiques sont extraites. */
+    public AnalysisPipeline(Parser parser, AnalysisMode mode) {
+        this.parser = parser;
+        this.mode = mode;
+    }
+
+    /** Enregistre un consommateur de faits (ex: StatisticsCollector::addFacts). */
+    public AnalysisPipeline addSink(Consumer<FileFacts> sink) {
+        sinks.add(sink);
+        return this;
+    }
+
+    /** Analyse tous les fichiers source du projet et renvoie le nombre de fichiers traités. */
+    public int run() {
+        return run(parser.listSourceFiles());
+    }
+
+    public int run(List<File> javaFiles) {
+        parser.setResolveBindings(mode.resolvesBindings());
+        parser.mapFilesParallel(javaFiles, (file, unit) -> FactExtractor.extract(unit, mode), facts -> {
+            for (Consumer<FileFacts> sink : sinks) {
+                sink.accept(facts);
+            }
+        });
+        return javaFiles.size();
+    }
+}
@@ -0,0 +1,72 @@
+package analyser.facts;
+
+import analyser.facts.FileFacts.CallEdge;
+import analyser.visitors.MethodInvocationVisitor;
+import analyser.visitors.NodeExtractor;
+import analyser.visitors.VisitContext;
+import org.eclipse.jdt.core.dom.*;
+
+import java.util.*;
+
+/**
+ * Arcs d'appel en un seul parcours. Une méthode déclarée directement dans une
+ * classe, interface, enum ou record ouvre un appelant "Classe.méthode" ; chaque invocation rencontrée
+ * compte pour tous les appelants ouverts (un appel dans une classe locale compte
+ * aussi pour la méthode englobante), comme un MethodInvocationVisitor par méthode.
+ */
+public class CallEdgeExtractor implements NodeExtractor {
+
+    private static final class Caller {
+        final String className;
+        final String name;
+        /** Méthode appelée -> package de sa classe. */
+        final Map<String, String> callees = new LinkedHashMap<>();
+
+        Caller(String className, String name) {
+            this.className = className;
+            this.name = name;
+        }
+    }
+
+    /** Appelants dans l'ordre de rencontre. */
+    private final List<Caller> callers = new ArrayList<>();
+    private final Deque<Caller> open = new ArrayDeque<>();
+
+    @Override
+    public void enter(ASTNode node, VisitContext context) {
+        if (node instanceof MethodDeclaration method && method.getParent() instanceof AbstractTypeDeclaration type) {
+            String className = type.getName().toString();
+            Caller caller = new Caller(className, className + "." + method.getName());
+            callers.add(caller);
+            open.push(caller);
+        } else if (node instanceof MethodInvocation invocation) {
+            for (Caller caller : open) {
+                String callee = MethodInvocationVisitor.calleeOf(invocation, caller.className);
+                if (callee != null) {
+                    // Sans binding, l'appel est attribué à la classe courante : même package que l'unité
+                    String calleePackage = MethodInvocationVisitor.calleePackageOf(invocation);
+                    caller.callees.putIfAbsent(callee, calleePackage != null ? calleePackage : packageOf(context.getUnit()));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void exit(ASTNode node, VisitContext context) {
+        if (node instanceof MethodDeclaration method && method.getParent() instanceof AbstractTypeDeclaration) {
+            open.pop();
+        }
+    }
+
+    private static String packageOf(CompilationUnit unit) {
+        return unit.getPackage() != null ? unit.getPackage().getName().getFullyQualifiedName() : "";
+    }
+
+    public List<CallEdge> getCalls() {
+        List<CallEdge> calls = new ArrayList<>();
+        for (Caller caller : callers) {
+            caller.callees.forEach((callee, calleePackage) -> calls.add(new CallEdge(caller.name, callee, calleePackage)));
+        }
+        return calls;
+    }
+}
@@ -0,0 +1,72 @@
+package analyser.facts;
+
+import analyser.facts.FileFacts.ClassFacts;
+import analyser.facts.FileFacts.MethodFacts;
+import analyser.visitors.NodeExtractor;
+import analyser.visitors.VisitContext;
+import org.eclipse.jdt.core.dom.*;
+
+import java.util.*;
+
+/**
+ * Statistiques des classes (méthodes, attributs, lignes) en un seul parcours.
+ * Comme avec les visiteurs séparés, une méthode ou un attribut compte pour toutes
+ * les TypeDeclaration qui l'englobent (classes imbriquées comprises).
+ */
+public class ClassFactsExtractor implements NodeExtractor {
+
+    private static final class ClassBuilder {
+        final String name;
+        final int lineCount;
+        final List<MethodFacts> methods = new ArrayList<>();
+        int fieldCount;
+
+        ClassBuilder(String name, int lineCount) {
+            this.name = name;
+            this.lineCount = lineCount;
+        }
+    }
+
+    /** Classes dans l'ordre de rencontre (ordre de TypeDeclarationVisitor). */
+    private final List<ClassBuilder> classes = new ArrayList<>();
+    private final Deque<ClassBuilder> open = new ArrayDeque<>();
+
+    @Override
+    public void enter(ASTNode node, VisitContext context) {
+        if (node instanceof TypeDeclaration type) {
+            int start = context.lineOf(type.getStartPosition());
+            int end = context.lineOf(type.getStartPosition() + type.getLength());
+            ClassBuilder builder = new ClassBuilder(type.getName().toString(), end - start + 1);
+            classes.add(builder);
+            open.push(builder);
+        } else if (node instanceof MethodDeclaration method && !open.isEmpty()) {
+            MethodFacts facts = new MethodFacts(
+                    method.getName().toString(),
+                    context.lineOf(method.getStartPosition() + method.getLength()) -
+                            context.lineOf(method.getStartPosition()),
+                    method.parameters().size());
+            for (ClassBuilder builder : open) {
+                builder.methods.add(facts);
+            }
+        } else if (node instanceof FieldDeclaration) {
+            for (ClassBuilder builder : open) {
+                builder.fieldCount++;
+            }
+        }
+    }
+
+    @Override
+    public void exit(ASTNode node, VisitContext context) {
+        if (node instanceof TypeDeclaration) {
+            open.pop();
+        }
+    }
+
+    public List<ClassFacts> getClasses() {
+        List<ClassFacts> result = new ArrayList<>(classes.size());
+        for (ClassBuilder builder : classes) {
+            result.add(new ClassFacts(builder.name, builder.fieldCount, builder.lineCount, builder.methods));
+        }
+        return result;
+    }
+}
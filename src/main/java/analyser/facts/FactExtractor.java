@@ -0,0 +1,77 @@
+package analyser.facts;
+
+import analyser.facts.FileFacts.CallEdge;
+import analyser.facts.FileFacts.ClassFacts;
+import analyser.visitors.CompositeVisitor;
+import org.eclipse.jdt.core.dom.*;
+
+import java.util.*;
+
+/**
+ * Extrait les faits (FileFacts) d'une CompilationUnit.
+ * C'est la seule implémentation des règles de comptage : StatisticsCollector et
+ * CallGraphBuilder passent par ici, qu'ils travaillent sur des ASTs ou sur le cache.
+ * Les règles sont portées par des extracteurs (NodeExtractor) enregistrés sur un
+ * CompositeVisitor : une unité n'est parcourue qu'une fois, quel que soit leur nombre.
+ */
+public final class FactExtractor {
+
+    private FactExtractor() {
+    }
+
+    /** Extrait tous les faits (statistiques + appels + hiérarchie) d'une unité, en un seul parcours. */
+    public static FileFacts extract(CompilationUnit unit) {
+        if (unit == null) {
+            return FileFacts.EMPTY;
+        }
+        ClassFactsExtractor classes = new ClassFactsExtractor();
+        CallEdgeExtractor calls = new CallEdgeExtractor();
+        TypeHierarchyExtractor types = new TypeHierarchyExtractor();
+        new CompositeVisitor().register(classes).register(calls).register(types).run(unit);
+        return new FileFacts(packageName(unit), classes.getClasses(), calls.getCalls(),
+                types.getTypes(), types.getInstantiatedTypes());
+    }
+
+    /** Faits utiles au graphe d'appel seul : arcs et hiérarchie de types, sans statistiques. */
+    public static FileFacts extractCallFacts(CompilationUnit unit) {
+        if (unit == null) {
+            return FileFacts.EMPTY;
+        }
+        CallEdgeExtractor calls = new CallEdgeExtractor();
+        TypeHierarchyExtractor types = new TypeHierarchyExtractor();
+        new CompositeVisitor().register(calls).register(types).run(unit);
+        return new FileFacts(packageName(unit), List.of(), calls.getCalls(), types.getTypes(), types.getInstantiatedTypes());
+    }
+
+    /** Extrait uniquement les statistiques (mode rapide, aucun binding nécessaire). */
+    public static FileFacts extractStatistics(CompilationUnit unit) {
+        if (unit == null) {
+            return FileFacts.EMPTY;
+        }
+        return new FileFacts(packageName(unit), extractClasses(unit), List.of());
+    }
+
+    /** Extrait les faits nécessaires au mode d'analyse donné. */
+    public static FileFacts extract(CompilationUnit unit, AnalysisMode mode) {
+        return mode == AnalysisMode.FULL ? extract(unit) : extractStatistics(unit);
+    }
+
+    public static String packageName(CompilationUnit unit) {
+        PackageDeclaration pkg = unit.getPackage();
+        return pkg != null ? pkg.getName().getFullyQualifiedName() : null;
+    }
+
+    /** Statistiques de chaque classe de l'unité (méthodes, attributs, lignes). */
+    public static List<ClassFacts> extractClasses(CompilationUnit unit) {
+        ClassFactsExtractor classes = new ClassFactsExtractor();
+        new CompositeVisitor().register(classes).run(unit);
+        return classes.getClasses();
+    }
+
+    /** Arcs d'appel sortants des méthodes déclarées dans l'unité. */
+    public static List<CallEdge> extractCalls(CompilationUnit unit) {
+        CallEdgeExtractor calls = new CallEdgeExtractor();
+        new CompositeVisitor().register(calls).run(unit);
+        return calls.getCalls();
+    }
+}
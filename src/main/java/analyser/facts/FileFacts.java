@@ -0,0 +1,163 @@
+package analyser.facts;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Faits compacts extraits d'un fichier Java : package, statistiques des classes
+ * et des méthodes, arcs d'appel sortants, et pour la résolution des appels virtuels
+ * (ClassHierarchyIndex) les supertypes des classes et les types instanciés.
+ * Immuable, indépendant de l'AST.
+ */
+public record FileFacts(String packageName, List<ClassFacts> classes, List<CallEdge> calls,
+                        List<TypeFacts> types, List<String> instantiatedTypes) {
+
+    public static final FileFacts EMPTY = new FileFacts(null, List.of(), List.of());
+
+    public FileFacts {
+        classes = List.copyOf(classes);
+        calls = List.copyOf(calls);
+        types = List.copyOf(types);
+        instantiatedTypes = List.copyOf(instantiatedTypes);
+    }
+
+    /** Faits sans hiérarchie de types (mode rapide, statistiques seules...). */
+    public FileFacts(String packageName, List<ClassFacts> classes, List<CallEdge> calls) {
+        this(packageName, classes, calls, List.of(), List.of());
+    }
+
+    /** Statistiques d'une classe (TypeDeclaration). */
+    public record ClassFacts(String name, int attributeCount, int lineCount, List<MethodFacts> methods) {
+        public ClassFacts {
+            methods = List.copyOf(methods);
+        }
+    }
+
+    /** Statistiques d'une méthode. */
+    public record MethodFacts(String name, int lineCount, int parameterCount) {
+    }
+
+    /**
+     * Arc du graphe d'appel "Classe.méthode" -> "Classe.méthode". Les noms de classes sont simples ;
+     * calleePackage est le package de la classe appelée ("" pour le package par défaut, null s'il
+     * n'est pas connu) et permet de distinguer deux classes de même nom.
+     */
+    public record CallEdge(String caller, String callee, String calleePackage) {
+
+        public CallEdge(String caller, String callee) {
+            this(caller, callee, null);
+        }
+
+        /** Nom qualifié de la classe appelée ("pkg.Classe"), ou null si son package n'est pas connu. */
+        public String calleeClass() {
+            if (calleePackage == null) return null;
+            int dot = callee.indexOf('.');
+            String className = dot != -1 ? callee.substring(0, dot) : callee;
+            return calleePackage.isEmpty() ? className : calleePackage + "." + className;
+        }
+    }
+
+    /**
+     * Place d'une classe ou interface dans la hiérarchie : superclasse déclarée (null si aucune,
+     * Object implicite non compris), interfaces, et méthodes qui ont un corps (celles qui peuvent
+     * être la cible d'un appel virtuel). Noms simples, sans arguments de type.
+     */
+    public record TypeFacts(String name, String superclass, List<String> interfaces, List<String> methods) {
+        public TypeFacts {
+            interfaces = List.copyOf(interfaces);
+            methods = List.copyOf(methods);
+        }
+    }
+
+    /* ---------------------------- Sérialisation binaire (cache) ---------------------------- */
+
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeBoolean(packageName != null);
+        if (packageName != null) {
+            out.writeUTF(packageName);
+        }
+        out.writeInt(classes.size());
+        for (ClassFacts clazz : classes) {
+            out.writeUTF(clazz.name());
+            out.writeInt(clazz.attributeCount());
+            out.writeInt(clazz.lineCount());
+            out.writeInt(clazz.methods().size());
+            for (MethodFacts method : clazz.methods()) {
+                out.writeUTF(method.name());
+                out.writeInt(method.lineCount());
+                out.writeInt(method.parameterCount());
+            }
+        }
+        out.writeInt(calls.size());
+        for (CallEdge edge : calls) {
+            out.writeUTF(edge.caller());
+            out.writeUTF(edge.callee());
+            out.writeBoolean(edge.calleePackage() != null);
+            if (edge.calleePackage() != null) {
+                out.writeUTF(edge.calleePackage());
+            }
+        }
+        out.writeInt(types.size());
+        for (TypeFacts type : types) {
+            out.writeUTF(type.name());
+            out.writeBoolean(type.superclass() != null);
+            if (type.superclass() != null) {
+                out.writeUTF(type.superclass());
+            }
+            writeStrings(type.interfaces(), out);
+            writeStrings(type.methods(), out);
+        }
+        writeStrings(instantiatedTypes, out);
+    }
+
+    public static FileFacts readFrom(DataInput in) throws IOException {
+        String packageName = in.readBoolean() ? in.readUTF() : null;
+        int classCount = in.readInt();
+        List<ClassFacts> classes = new ArrayList<>(classCount);
+        for (int i = 0; i < classCount; i++) {
+            String name = in.readUTF();
+            int attributeCount = in.readInt();
+            int lineCount = in.readInt();
+            int methodCount = in.readInt();
+            List<MethodFacts> methods = new ArrayList<>(methodCount);
+            for (int j = 0; j < methodCount; j++) {
+                methods.add(new MethodFacts(in.readUTF(), in.readInt(), in.readInt()));
+            }
+            classes.add(new ClassFacts(name, attributeCount, lineCount, methods));
+        }
+        int callCount = in.readInt();
+        List<CallEdge> calls = new ArrayList<>(callCount);
+        for (int i = 0; i < callCount; i++) {
+            String caller = in.readUTF();
+            String callee = in.readUTF();
+            calls.add(new CallEdge(caller, callee, in.readBoolean() ? in.readUTF() : null));
+        }
+        int typeCount = in.readInt();
+        List<TypeFacts> types = new ArrayList<>(typeCount);
+        for (int i = 0; i < typeCount; i++) {
+            String name = in.readUTF();
+            String superclass = in.readBoolean() ? in.readUTF() : null;
+            types.add(new TypeFacts(name, superclass, readStrings(in), readStrings(in)));
+        }
+        return new FileFacts(packageName, classes, calls, types, readStrings(in));
+    }
+
+    private static void writeStrings(List<String> values, DataOutput out) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static List<String> readStrings(DataInput in) throws IOException {
+        int count = in.readInt();
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(in.readUTF());
+        }
+        return values;
+    }
+}
@@ -0,0 +1,170 @@
+package analyser.facts;
+
+import analyser.facts.FileFacts.TypeFacts;
+import analyser.visitors.NodeExtractor;
+import analyser.visitors.VisitContext;
+import org.eclipse.jdt.core.dom.*;
+
+import java.util.*;
+
+/**
+ * Supertypes et méthodes concrètes de chaque type déclaré (classe, interface, enum, record,
+ * classe anonyme), et types instanciés (new X(...), constantes d'enum, classes anonymes) :
+ * les faits dont ClassHierarchyIndex a besoin pour étendre les appels virtuels (CHA / RTA).
+ * Les noms sont résolus par binding quand c'est possible, sinon pris dans la syntaxe ; dans
+ * les deux cas sans package ni arguments de type, comme les noms de classes du graphe d'appel.
+ * Une classe anonyme prend son nom binaire sans package ("Outer$1").
+ */
+public class TypeHierarchyExtractor implements NodeExtractor {
+
+    private static final class TypeBuilder {
+        final String name;
+        final String superclass;
+        final List<String> interfaces;
+        final Set<String> methods = new LinkedHashSet<>();
+
+        TypeBuilder(String name, String superclass, List<String> interfaces) {
+            this.name = name;
+            this.superclass = superclass;
+            this.interfaces = interfaces;
+        }
+    }
+
+    private final List<TypeBuilder> types = new ArrayList<>();
+    private final Deque<TypeBuilder> open = new ArrayDeque<>();
+    private final Set<String> instantiated = new LinkedHashSet<>();
+    /** Classes anonymes sans binding : numérotées dans l'ordre de rencontre. */
+    private int anonymousCount;
+
+    @Override
+    public void enter(ASTNode node, VisitContext context) {
+        if (node instanceof TypeDeclaration type) {
+            open(new TypeBuilder(type.getName().getIdentifier(), superclassOf(type), interfacesOf(type.superInterfaceTypes())));
+        } else if (node instanceof EnumDeclaration enumeration) {
+            // Superclasse implicite Enum, non retenue comme Object ; les constantes sont des instances
+            String name = enumeration.getName().getIdentifier();
+            open(new TypeBuilder(name, null, interfacesOf(enumeration.superInterfaceTypes())));
+            if (!enumeration.enumConstants().isEmpty()) {
+                instantiated.add(name);
+            }
+        } else if (node instanceof RecordDeclaration record) {
+            TypeBuilder builder = new TypeBuilder(record.getName().getIdentifier(), null, interfacesOf(record.superInterfaceTypes()));
+            // Accesseurs implicites des composants : ils peuvent implémenter une méthode d'interface
+            for (Object component : record.recordComponents()) {
+                builder.methods.add(((SingleVariableDeclaration) component).getName().getIdentifier());
+            }
+            open(builder);
+        } else if (node instanceof AnonymousClassDeclaration anonymous) {
+            TypeBuilder builder = anonymousType(anonymous);
+            instantiated.add(builder.name);
+            open(builder);
+        } else if (node instanceof MethodDeclaration method && isTypeBody(method.getParent())
+                && !open.isEmpty() && isOverridable(method)) {
+            open.peek().methods.add(method.getName().getIdentifier());
+        } else if (node instanceof ClassInstanceCreation creation && creation.getAnonymousClassDeclaration() == null) {
+            ITypeBinding binding = creation.resolveTypeBinding();
+            instantiated.add(binding != null ? binding.getErasure().getName() : simpleName(creation.getType()));
+        }
+    }
+
+    @Override
+    public void exit(ASTNode node, VisitContext context) {
+        if (isTypeBody(node)) {
+            open.pop();
+        }
+    }
+
+    private void open(TypeBuilder builder) {
+        types.add(builder);
+        open.push(builder);
+    }
+
+    /** Noeuds qui ouvrent un type (les annotations, sans méthodes à corps, sont ignorées). */
+    private static boolean isTypeBody(ASTNode node) {
+        return node instanceof TypeDeclaration || node instanceof EnumDeclaration
+                || node instanceof RecordDeclaration || node instanceof AnonymousClassDeclaration;
+    }
+
+    /**
+     * Classe anonyme : supertypes lus dans son binding ; sans binding, le type après new
+     * (classe ou interface, on ne sait pas : il est pris comme superclasse) ou l'enum de la constante.
+     */
+    private TypeBuilder anonymousType(AnonymousClassDeclaration anonymous) {
+        ITypeBinding binding = anonymous.resolveBinding();
+        if (binding != null && binding.getBinaryName() != null) {
+            String binaryName = binding.getBinaryName();
+            IPackageBinding pkg = binding.getPackage();
+            String name = pkg == null || pkg.isUnnamed() ? binaryName : binaryName.substring(pkg.getName().length() + 1);
+            ITypeBinding superclass = binding.getSuperclass();
+            String superclassName = superclass == null || superclass.getErasure().getQualifiedName().equals("java.lang.Object")
+                    ? null : superclass.getErasure().getName();
+            List<String> interfaces = new ArrayList<>();
+            for (ITypeBinding superInterface : binding.getInterfaces()) {
+                interfaces.add(superInterface.getErasure().getName());
+            }
+            return new TypeBuilder(name, superclassName, interfaces);
+        }
+        String enclosing = open.isEmpty() ? "" : open.peek().name;
+        String name = enclosing + "$" + (++anonymousCount);
+        ASTNode parent = anonymous.getParent();
+        if (parent instanceof ClassInstanceCreation creation) {
+            return new TypeBuilder(name, simpleName(creation.getType()), List.of());
+        }
+        if (parent instanceof EnumConstantDeclaration && parent.getParent() instanceof EnumDeclaration enumeration) {
+            return new TypeBuilder(name, enumeration.getName().getIdentifier(), List.of());
+        }
+        return new TypeBuilder(name, null, List.of());
+    }
+
+    public List<TypeFacts> getTypes() {
+        List<TypeFacts> result = new ArrayList<>(types.size());
+        for (TypeBuilder builder : types) {
+            result.add(new TypeFacts(builder.name, builder.superclass, builder.interfaces, new ArrayList<>(builder.methods)));
+        }
+        return result;
+    }
+
+    public List<String> getInstantiatedTypes() {
+        return new ArrayList<>(instantiated);
+    }
+
+    /** Méthode d'instance avec un corps, qui peut être choisie par un appel virtuel (ni static ni private). */
+    private static boolean isOverridable(MethodDeclaration method) {
+        int modifiers = method.getModifiers();
+        return method.getBody() != null && !method.isConstructor()
+                && !Modifier.isStatic(modifiers) && !Modifier.isPrivate(modifiers);
+    }
+
+    /** Superclasse écrite dans la déclaration (l'Object implicite n'est pas retenu). */
+    private static String superclassOf(TypeDeclaration type) {
+        if (type.isInterface() || type.getSuperclassType() == null) return null;
+        ITypeBinding binding = type.getSuperclassType().resolveBinding();
+        return binding != null && !binding.isRecovered() ? binding.getErasure().getName() : simpleName(type.getSuperclassType());
+    }
+
+    /** Interfaces implémentées (classe, enum, record) ou étendues (interface). */
+    private static List<String> interfacesOf(List<?> superInterfaceTypes) {
+        List<String> interfaces = new ArrayList<>();
+        for (Object o : superInterfaceTypes) {
+            Type superInterface = (Type) o;
+            ITypeBinding binding = superInterface.resolveBinding();
+            interfaces.add(binding != null && !binding.isRecovered() ? binding.getErasure().getName() : simpleName(superInterface));
+        }
+        return interfaces;
+    }
+
+    /** Nom simple d'un type écrit dans le source : "java.util.List<String>" -> "List". */
+    static String simpleName(Type type) {
+        if (type instanceof ParameterizedType parameterized) {
+            return simpleName(parameterized.getType());
+        }
+        if (type instanceof SimpleType simple) {
+            Name name = simple.getName();
+            return name instanceof QualifiedName qualified ? qualified.getName().getIdentifier() : name.getFullyQualifiedName();
+        }
+        if (type instanceof QualifiedType qualified) {
+            return qualified.getName().getIdentifier();
+        }
+        return type.toString();
+    }
+}
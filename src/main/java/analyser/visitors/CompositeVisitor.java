@@ -0,0 +1,49 @@
+package analyser.visitors;
+
+import org.eclipse.jdt.core.dom.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parcourt une CompilationUnit une seule fois et transmet chaque noeud à tous les
+ * extracteurs enregistrés. Ajouter une métrique = enregistrer un extracteur de plus,
+ * sans nouveau parcours de l'arbre.
+ */
+public class CompositeVisitor extends ASTVisitor {
+
+    private final List<NodeExtractor> extractors = new ArrayList<>();
+    private final VisitContext context = new VisitContext();
+
+    public CompositeVisitor register(NodeExtractor extractor) {
+        extractors.add(extractor);
+        return this;
+    }
+
+    /** Visite l'unité en un seul parcours. */
+    public void run(CompilationUnit unit) {
+        context.reset(unit);
+        unit.accept(this);
+    }
+
+    @Override
+    public boolean preVisit2(ASTNode node) {
+        if (node instanceof TypeDeclaration type) {
+            context.pushType(type);
+        }
+        for (NodeExtractor extractor : extractors) {
+            extractor.enter(node, context);
+        }
+        return true;
+    }
+
+    @Override
+    public void postVisit(ASTNode node) {
+        for (int i = extractors.size() - 1; i >= 0; i--) {
+            extractors.get(i).exit(node, context);
+        }
+        if (node instanceof TypeDeclaration) {
+            context.popType();
+        }
+    }
+}
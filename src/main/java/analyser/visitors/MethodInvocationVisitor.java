@@ -13,25 +13,48 @@ public class MethodInvocationVisitor extends ASTVisitor {
 
     @Override
     public boolean visit(MethodInvocation node) {
+        String callee = calleeOf(node, currentClassName);
+        if (callee != null) {
+            calledMethods.add(callee);
+        }
+        return super.visit(node);
+    }
+
+    /**
+     * Méthode appelée sous la forme "Classe.méthode", ou null si elle n'est pas résolue.
+     * currentClassName sert quand le binding échoue sur un appel sans receveur.
+     */
+    public static String calleeOf(MethodInvocation node, String currentClassName) {
         IMethodBinding methodBinding = node.resolveMethodBinding();
 
         if (methodBinding != null) {
             ITypeBinding declaringClass = methodBinding.getDeclaringClass();
             if (declaringClass != null) {
                 // On prend le nom de la classe qui déclare la méthode
-                calledMethods.add(declaringClass.getName() + "." + node.getName().getIdentifier());
+                return declaringClass.getName() + "." + node.getName().getIdentifier();
             }
         } else {
             // Si le binding échoue, on tente une résolution manuelle simple.
             Expression expression = node.getExpression();
             if (expression == null) {
                 // Appel à une méthode de la même classe (this.method() ou method())
-                calledMethods.add(currentClassName + "." + node.getName().getIdentifier());
+                return currentClassName + "." + node.getName().getIdentifier();
             }
             // Les autres cas (appels sur des variables, etc.) sont plus complexes
             // et sont ignorés pour l'instant si le binding échoue.
         }
-        return super.visit(node);
+        return null;
+    }
+
+    /**
+     * Package de la classe qui déclare la méthode appelée ("" pour le package par défaut),
+     * ou null sans binding.
+     */
+    public static String calleePackageOf(MethodInvocation node) {
+        IMethodBinding methodBinding = node.resolveMethodBinding();
+        if (methodBinding == null || methodBinding.getDeclaringClass() == null) return null;
+        IPackageBinding pkg = methodBinding.getDeclaringClass().getErasure().getPackage();
+        return pkg == null || pkg.isUnnamed() ? "" : pkg.getName();
     }
 
     public Set<String> getCalledMethods() {
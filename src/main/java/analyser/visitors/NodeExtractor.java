@@ -0,0 +1,19 @@
+package analyser.visitors;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+
+/**
+ * Extracteur branché sur un CompositeVisitor : il est prévenu à l'entrée et à la sortie
+ * de chaque noeud et ne garde que ce qui l'intéresse. Plusieurs extracteurs partagent
+ * ainsi un seul parcours de l'AST.
+ */
+public interface NodeExtractor {
+
+    /** Appelé avant la visite des enfants du noeud. */
+    default void enter(ASTNode node, VisitContext context) {
+    }
+
+    /** Appelé après la visite des enfants du noeud. */
+    default void exit(ASTNode node, VisitContext context) {
+    }
+}
@@ -0,0 +1,44 @@
+package analyser.visitors;
+
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * État du parcours partagé par les extracteurs : l'unité visitée et
+ * les TypeDeclaration englobant le noeud courant (la plus interne en tête).
+ */
+public class VisitContext {
+
+    private CompilationUnit unit;
+    private final Deque<TypeDeclaration> enclosingTypes = new ArrayDeque<>();
+
+    void reset(CompilationUnit unit) {
+        this.unit = unit;
+        enclosingTypes.clear();
+    }
+
+    void pushType(TypeDeclaration type) {
+        enclosingTypes.push(type);
+    }
+
+    void popType() {
+        enclosingTypes.pop();
+    }
+
+    public CompilationUnit getUnit() {
+        return unit;
+    }
+
+    /** TypeDeclaration englobantes, de la plus interne à la plus externe (inclut le noeud s'il en est une). */
+    public Deque<TypeDeclaration> getEnclosingTypes() {
+        return enclosingTypes;
+    }
+
+    /** Numéro de ligne d'une position dans l'unité. */
+    public int lineOf(int position) {
+        return unit.getLineNumber(position);
+    }
+}
@@ -0,0 +1,264 @@
+package cli;
+
+import analyser.CallGraphBuilder;
+import analyser.CallGraphQuery;
+import analyser.ClassHierarchyIndex;
+import analyser.ClassPackageIndex;
+import analyser.CouplingGraphBuilder;
+import analyser.CouplingHotspotIndex;
+import analyser.CouplingLevel;
+import analyser.HierarchicalClustering;
+import analyser.MemoryBudget;
+import analyser.MultiLevelCoupling;
+import analyser.Parser;
+import analyser.StatisticsCollector;
+import analyser.export.ExportFormat;
+import analyser.export.ResultExporter;
+import analyser.facts.AnalysisMode;
+import analyser.facts.AnalysisPipeline;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Point d'entrée en ligne de commande, sans interface graphique (aucune classe JavaFX n'est chargée) :
+ * analyse un projet et écrit les résultats dans un dossier, au format choisi.
+ *
+ * Fichiers produits : statistics.EXT, et en mode complet callgraph.EXT, coupling.EXT et modules.EXT
+ * (couplage et modules au niveau choisi par --level : classes par défaut, packages ou préfixes de package).
+ * Les requêtes sur le graphe d'appel (--reachable, --callers, --recursion, --dead-from) sont affichées.
+ * Code de sortie : 0 si tout s'est bien passé, 1 pour une erreur d'usage, 2 pour une erreur d'analyse.
+ */
+public class BatchMain {
+
+    private static final String USAGE = "Usage: java cli.BatchMain <chemin_projet> [--out DOSSIER] [--format json|graphml|dot] "
+            + "[--threads N] [--fast] [--dispatch none|cha|rta] [--memory-budget MO] [--spill-dir DOSSIER] [--level class|package|prefix] [--prefix-depth N] [--top K] [--reachable METHODE]... [--callers METHODE]... [--recursion] [--dead-from METHODE]... [--cp SEUIL] [--no-modules] [--classpath JARS] [--include GLOB]... [--exclude GLOB]...";
+
+    public static void main(String[] args) {
+        if (args.length == 0 || args[0].startsWith("--")) {
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+        try {
+            System.exit(run(args));
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+        } catch (Exception e) {
+            System.err.println("Erreur lors de l'analyse de " + args[0] + ": " + e);
+            System.exit(2);
+        }
+    }
+
+    static int run(String[] args) throws IOException {
+        String projectPath = args[0];
+        Parser parser = new Parser(projectPath);
+        Path outDir = Path.of("analyse");
+        ExportFormat format = ExportFormat.JSON;
+        int threads = Runtime.getRuntime().availableProcessors();
+        AnalysisMode mode = AnalysisMode.FULL;
+        double cp = 0.05;
+        boolean modules = true;
+        ClassHierarchyIndex.Dispatch dispatch = ClassHierarchyIndex.Dispatch.CHA;
+        long budgetMegabytes = 0;
+        Path spillDir = null;
+        CouplingLevel level = CouplingLevel.CLASS;
+        int prefixDepth = MultiLevelCoupling.DEFAULT_PREFIX_DEPTH;
+        int top = 0;
+        List<String> reachableFrom = new ArrayList<>();
+        List<String> callersOf = new ArrayList<>();
+        List<String> deadRoots = new ArrayList<>();
+        boolean recursion = false;
+        for (int i = 1; i < args.length; i++) {
+            String option = args[i];
+            boolean hasValue = i + 1 < args.length;
+            if (option.equals("--out") && hasValue) {
+                outDir = Path.of(args[++i]);
+            } else if (option.equals("--format") && hasValue) {
+                format = ExportFormat.parse(args[++i]);
+            } else if (option.equals("--threads") && hasValue) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (option.equals("--cp") && hasValue) {
+                cp = Double.parseDouble(args[++i]);
+            } else if (option.equals("--dispatch") && hasValue) {
+                dispatch = parseDispatch(args[++i]);
+            } else if (option.equals("--memory-budget") && hasValue) {
+                budgetMegabytes = Long.parseLong(args[++i]);
+            } else if (option.equals("--spill-dir") && hasValue) {
+                spillDir = Path.of(args[++i]);
+            } else if (option.equals("--level") && hasValue) {
+                level = CouplingLevel.parse(args[++i]);
+            } else if (option.equals("--prefix-depth") && hasValue) {
+                prefixDepth = Integer.parseInt(args[++i]);
+            } else if (option.equals("--top") && hasValue) {
+                top = Integer.parseInt(args[++i]);
+            } else if (option.equals("--reachable") && hasValue) {
+                reachableFrom.add(args[++i]);
+            } else if (option.equals("--callers") && hasValue) {
+                callersOf.add(args[++i]);
+            } else if (option.equals("--dead-from") && hasValue) {
+                deadRoots.add(args[++i]);
+            } else if (option.equals("--recursion")) {
+                recursion = true;
+            } else if (option.equals("--fast")) {
+                mode = AnalysisMode.FAST;
+            } else if (option.equals("--no-modules")) {
+                modules = false;
+            } else if (option.equals("--classpath") && hasValue) {
+                List<Path> jars = new ArrayList<>();
+                for (String jar : args[++i].split(File.pathSeparator)) {
+                    if (!jar.isBlank()) jars.add(Path.of(jar));
+                }
+                parser.setClasspath(jars);
+            } else if (option.equals("--include") && hasValue) {
+                parser.getScanner().include(args[++i]);
+            } else if (option.equals("--exclude") && hasValue) {
+                parser.getScanner().exclude(args[++i]);
+            } else {
+                throw new IllegalArgumentException("Option inconnue ou incomplète: " + option);
+            }
+        }
+        parser.setParallelism(threads, 64, 2 * threads);
+        Files.createDirectories(outDir);
+        ResultExporter exporter = format.createExporter();
+        MemoryBudget budget = budgetMegabytes > 0 ? new MemoryBudget(budgetMegabytes * 1024 * 1024, spillDir) : MemoryBudget.UNLIMITED;
+        long start = System.nanoTime();
+
+        // ANALYSE (streaming : les ASTs sont libérés au fil de l'eau)
+        StatisticsCollector stats = new StatisticsCollector();
+        CallGraphBuilder builder = new CallGraphBuilder();
+        builder.setDispatch(dispatch);
+        builder.setMemoryBudget(budget);
+        ClassPackageIndex packages = new ClassPackageIndex();
+        AnalysisPipeline pipeline = new AnalysisPipeline(parser, mode).addSink(stats::addFacts);
+        if (mode == AnalysisMode.FULL) {
+            pipeline.addSink(builder::addFacts);
+            if (level != CouplingLevel.CLASS) {
+                pipeline.addSink(packages::addFacts);
+            }
+        }
+        int fileCount = pipeline.run();
+        System.out.printf("%s: %d fichiers analysés en %d ms%n", projectPath, fileCount, elapsedMillis(start));
+        System.out.println(budget.report("analyse"));
+
+        Path statsFile = outDir.resolve("statistics." + format.getExtension());
+        try (Writer out = Files.newBufferedWriter(statsFile, StandardCharsets.UTF_8)) {
+            exporter.writeStatistics(stats, out);
+        }
+        System.out.println("Écrit: " + statsFile);
+        if (mode == AnalysisMode.FAST) {
+            return 0;
+        }
+
+        Map<String, Set<String>> callGraph = builder.getCallGraph();
+        System.out.println(budget.report("graphe d'appel"));
+        Path callFile = outDir.resolve("callgraph." + format.getExtension());
+        try (Writer out = Files.newBufferedWriter(callFile, StandardCharsets.UTF_8)) {
+            exporter.writeCallGraph(callGraph, out);
+        }
+        System.out.println("Écrit: " + callFile);
+        if (recursion || !reachableFrom.isEmpty() || !callersOf.isEmpty() || !deadRoots.isEmpty()) {
+            printQueries(builder.query(), reachableFrom, callersOf, recursion, deadRoots);
+        }
+
+        Map<String, Map<String, Double>> couplingGraph;
+        if (level == CouplingLevel.CLASS) {
+            CouplingGraphBuilder couplingBuilder = new CouplingGraphBuilder(callGraph);
+            couplingBuilder.setMemoryBudget(budget);
+            couplingBuilder.buildCouplingGraph();
+            couplingGraph = couplingBuilder.getCouplingGraph();
+        } else {
+            String ambiguity = packages.describeAmbiguousClasses(10);
+            if (!ambiguity.isEmpty()) {
+                System.out.println(ambiguity);
+            }
+            couplingGraph = new MultiLevelCoupling(callGraph, packages, prefixDepth).getCouplingGraph(level);
+        }
+        System.out.println(budget.report("graphe de couplage (" + level.getLabel() + ")"));
+        Path couplingFile = outDir.resolve("coupling." + format.getExtension());
+        try (Writer out = Files.newBufferedWriter(couplingFile, StandardCharsets.UTF_8)) {
+            exporter.writeCouplingGraph(couplingGraph, out);
+        }
+        System.out.println("Écrit: " + couplingFile);
+        if (top > 0) {
+            printHotspots(CouplingHotspotIndex.of(couplingGraph), top);
+        }
+
+        if (modules && !couplingGraph.isEmpty()) {
+            HierarchicalClustering clustering = new HierarchicalClustering(couplingGraph);
+            List<Set<String>> identified = clustering.identifyModules(clustering.clusterCompact(), cp);
+            Path modulesFile = outDir.resolve("modules." + format.getExtension());
+            try (Writer out = Files.newBufferedWriter(modulesFile, StandardCharsets.UTF_8)) {
+                exporter.writeModules(identified, out);
+            }
+            System.out.println("Écrit: " + modulesFile + " (" + identified.size() + " modules, " + level.getLabel() + ", CP = " + cp + ")");
+            System.out.println(budget.report("modules"));
+        }
+        System.out.printf("Terminé en %d ms%n", elapsedMillis(start));
+        return 0;
+    }
+
+    /** Points chauds du couplage : paires les plus couplées, classes de plus fort fan-out et fan-in. */
+    private static void printHotspots(CouplingHotspotIndex index, int top) {
+        System.out.println("===== " + top + " couplages les plus forts =====");
+        for (CouplingHotspotIndex.CouplingPair pair : index.topPairs(top)) {
+            System.out.println(pair.from() + " -> " + pair.to() + " (poids = " + pair.weight() + ")");
+        }
+        System.out.println("===== Fan-out =====");
+        for (CouplingHotspotIndex.ClassCoupling coupling : index.topFanOut(top)) {
+            System.out.println(coupling.className() + ": " + coupling.degree() + " classes (poids total = " + coupling.totalWeight() + ")");
+        }
+        System.out.println("===== Fan-in =====");
+        for (CouplingHotspotIndex.ClassCoupling coupling : index.topFanIn(top)) {
+            System.out.println(coupling.className() + ": " + coupling.degree() + " classes (poids total = " + coupling.totalWeight() + ")");
+        }
+    }
+
+    /** Requêtes sur le graphe d'appel : accessibles, appelants transitifs, récursions, méthodes mortes. */
+    private static void printQueries(CallGraphQuery query, List<String> reachableFrom, List<String> callersOf,
+                                     boolean recursion, List<String> deadRoots) {
+        for (String method : reachableFrom) {
+            Set<String> reachable = query.reachableFrom(method);
+            System.out.println("===== Appelées depuis " + method + " (" + reachable.size() + ") =====");
+            reachable.forEach(System.out::println);
+        }
+        for (String method : callersOf) {
+            Set<String> callers = query.callersOf(method);
+            System.out.println("===== Appelants de " + method + " (" + callers.size() + ") =====");
+            callers.forEach(System.out::println);
+        }
+        if (recursion) {
+            List<Set<String>> components = query.recursiveComponents();
+            System.out.println("===== Récursions (" + components.size() + ") =====");
+            components.forEach(System.out::println);
+        }
+        if (!deadRoots.isEmpty()) {
+            Set<String> dead = query.deadMethods(deadRoots);
+            System.out.println("===== Méthodes inaccessibles depuis " + deadRoots + " (" + dead.size() + ") =====");
+            dead.forEach(System.out::println);
+        }
+    }
+
+    /** Mode de résolution des appels virtuels lu en ligne de commande (none, cha ou rta, sans casse). */
+    public static ClassHierarchyIndex.Dispatch parseDispatch(String name) {
+        try {
+            return ClassHierarchyIndex.Dispatch.valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Résolution des appels virtuels inconnue: " + name + " (none, cha ou rta)");
+        }
+    }
+
+    private static long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
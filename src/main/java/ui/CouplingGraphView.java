@@ -15,10 +15,34 @@ import java.util.*;
  */
 public class CouplingGraphView {
 
+    private static Stage openStage; // dernière fenêtre ouverte, mise à jour par refresh()
+
     public static void showCouplingGraph(Map<String, Map<String, Double>> couplingGraph) {
         Stage stage = new Stage();
         stage.setTitle("Graphe de couplage entre classes");
+        stage.setScene(new Scene(buildPane(couplingGraph), 1000, 800));
+        stage.setOnHidden(ev -> {
+            if (openStage == stage) openStage = null;
+        });
+        openStage = stage;
+        stage.show();
+    }
+
+    /** Vrai si une fenêtre de couplage est ouverte (sinon inutile de copier le graphe pour refresh). */
+    public static boolean isOpen() {
+        return openStage != null;
+    }
 
+    /** Redessine la fenêtre ouverte avec un nouveau graphe (mode surveillance). */
+    public static void refresh(Map<String, Map<String, Double>> couplingGraph) {
+        Stage stage = openStage;
+        if (stage != null) {
+            javafx.application.Platform.runLater(() ->
+                    stage.setScene(new Scene(buildPane(couplingGraph), stage.getWidth(), stage.getHeight())));
+        }
+    }
+
+    private static ScrollPane buildPane(Map<String, Map<String, Double>> couplingGraph) {
         Pane pane = new Pane();
         ScrollPane scroll = new ScrollPane(pane);
         scroll.setPannable(true);
@@ -79,8 +103,6 @@ public class CouplingGraphView {
             }
         }
 
-        Scene scene = new Scene(scroll, 1000, 800);
-        stage.setScene(scene);
-        stage.show();
+        return scroll;
     }
 }
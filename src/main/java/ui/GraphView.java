@@ -18,6 +18,7 @@ import java.util.Set;
 public class GraphView extends Application {
 
     private static Map<String, Set<String>> callGraph;
+    private static Graph openGraph; // dernier graphe affiché, mis à jour par refresh()
 
     public static void showGraph(Map<String, Set<String>> graphData) {
         callGraph = graphData;
@@ -28,6 +29,26 @@ public class GraphView extends Application {
         }
     }
 
+    /**
+     * Remplace le contenu du graphe affiché (mode surveillance). Sans fenêtre ouverte,
+     * les données sont seulement mémorisées pour le prochain affichage.
+     */
+    /** Vrai si une fenêtre du graphe d'appel est ouverte (sinon inutile de copier le graphe pour refresh). */
+    public static boolean isOpen() {
+        return openGraph != null;
+    }
+
+    public static void refresh(Map<String, Set<String>> graphData) {
+        callGraph = graphData;
+        Graph graph = openGraph;
+        if (graph != null) {
+            javafx.application.Platform.runLater(() -> {
+                graph.clear();
+                populate(graph, graphData);
+            });
+        }
+    }
+
     @Override
     public void start(Stage stage) {
         showGraphStage(stage);
@@ -45,6 +66,27 @@ public class GraphView extends Application {
         
         Graph graph = new SingleGraph("CallGraph");
 
+        populate(graph, callGraph);
+        openGraph = graph;
+
+        /* Création du viewer JavaFX */
+        
+        FxViewer viewer = new FxViewer(graph, FxViewer.ThreadingModel.GRAPH_IN_GUI_THREAD);
+        viewer.enableAutoLayout();
+        FxViewPanel panel = (FxViewPanel) viewer.addDefaultView(false);
+
+        BorderPane root = new BorderPane(panel);
+        Scene scene = new Scene(root, 900, 700);
+        stage.setScene(scene);
+        stage.setOnHidden(ev -> {
+            if (openGraph == graph) openGraph = null;
+        });
+        stage.show();
+    }
+
+    /** Style + nœuds et arêtes à partir de la map du graphe d'appel. */
+    private static void populate(Graph graph, Map<String, Set<String>> data) {
+
         /* Style CSS intégré */
         
         graph.setAttribute("ui.stylesheet",
@@ -55,11 +97,11 @@ public class GraphView extends Application {
 
         /* Construction du graphe à partir de la map callGraph */
         
-        for (String caller : callGraph.keySet()) {
+        for (String caller : data.keySet()) {
             if (graph.getNode(caller) == null)
                 graph.addNode(caller).setAttribute("ui.label", caller);
 
-            for (String callee : callGraph.get(caller)) {
+            for (String callee : data.get(caller)) {
                 if (graph.getNode(callee) == null)
                     graph.addNode(callee).setAttribute("ui.label", callee);
 
@@ -68,16 +110,5 @@ public class GraphView extends Application {
                     graph.addEdge(edgeId, caller, callee, true);
             }
         }
-
-        /* Création du viewer JavaFX */
-        
-        FxViewer viewer = new FxViewer(graph, FxViewer.ThreadingModel.GRAPH_IN_GUI_THREAD);
-        viewer.enableAutoLayout();
-        FxViewPanel panel = (FxViewPanel) viewer.addDefaultView(false);
-
-        BorderPane root = new BorderPane(panel);
-        Scene scene = new Scene(root, 900, 700);
-        stage.setScene(scene);
-        stage.show();
     }
 }
\ No newline at end of file
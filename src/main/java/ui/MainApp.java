@@ -1,10 +1,20 @@
 package ui;
 
+import analyser.AnalysisSnapshot;
 import analyser.CouplingGraphBuilder;
+import analyser.MemoryBudget;
 import analyser.Parser;
+import analyser.ProjectWatcher;
 import analyser.StatisticsCollector;
 import analyser.CallGraphBuilder;
-import org.eclipse.jdt.core.dom.CompilationUnit;
+import analyser.ClassHierarchyIndex;
+import analyser.MultiModuleAnalyzer;
+import analyser.facts.AnalysisMode;
+import analyser.facts.AnalysisPipeline;
+import cli.BatchMain;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -12,33 +22,148 @@ import java.util.Set;
 public class MainApp {
     public static void main(String[] args) throws Exception {
         if (args.length == 0) {
-            System.err.println("Usage: java MainApp <chemin_projet>");
+            System.err.println("Usage: java MainApp <chemin_projet> [--threads N] [--fast] [--dispatch none|cha|rta] [--memory-budget MO] [--watch] [--modules] [--classpath JARS] [--include GLOB]... [--exclude GLOB]... [--save-snapshot FICHIER]\n       java MainApp --load-snapshot FICHIER");
+            return;
+        }
+
+        // OUVERTURE D'UN SNAPSHOT : pas de parsing, les graphes sont lus dans le fichier projeté en mémoire
+        if (args[0].equals("--load-snapshot") && args.length > 1) {
+            long start = System.nanoTime();
+            AnalysisSnapshot snapshot = AnalysisSnapshot.open(Path.of(args[1]));
+            System.out.printf("Snapshot %s ouvert en %d ms (%d méthodes, %d appels, %d arcs de couplage)%n", args[1],
+                    (System.nanoTime() - start) / 1_000_000, snapshot.getMethodCount(),
+                    snapshot.getCallEdgeCount(), snapshot.getCouplingEdgeCount());
+            System.out.println(snapshot.getStatistics().generateReport());
+            ui.GraphView.showGraph(snapshot.getCallGraph());
             return;
         }
 
         String projectPath = args[0];
+        Parser parser = new Parser(projectPath);
+        int threads = Runtime.getRuntime().availableProcessors();
+        AnalysisMode mode = AnalysisMode.FULL;
+        boolean watch = false;
+        boolean modules = false;
+        Path snapshotFile = null;
+        ClassHierarchyIndex.Dispatch dispatch = ClassHierarchyIndex.Dispatch.CHA;
+        MemoryBudget budget = MemoryBudget.UNLIMITED;
+        List<Path> jars = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--threads") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--classpath") && i + 1 < args.length) {
+                for (String jar : args[++i].split(File.pathSeparator)) {
+                    if (!jar.isBlank()) jars.add(Path.of(jar));
+                }
+                parser.setClasspath(jars);
+            } else if (args[i].equals("--save-snapshot") && i + 1 < args.length) {
+                snapshotFile = Path.of(args[++i]);
+            } else if (args[i].equals("--modules")) {
+                modules = true;
+            } else if (args[i].equals("--watch")) {
+                watch = true;
+            } else if (args[i].equals("--dispatch") && i + 1 < args.length) {
+                dispatch = BatchMain.parseDispatch(args[++i]);
+            } else if (args[i].equals("--memory-budget") && i + 1 < args.length) {
+                budget = MemoryBudget.megabytes(Long.parseLong(args[++i]));
+            } else if (args[i].equals("--fast")) {
+                mode = AnalysisMode.FAST;
+            } else if (args[i].equals("--include") && i + 1 < args.length) {
+                parser.getScanner().include(args[++i]);
+            } else if (args[i].equals("--exclude") && i + 1 < args.length) {
+                parser.getScanner().exclude(args[++i]);
+            }
+        }
         System.out.println("Projet analysé: " + projectPath);
+        parser.setParallelism(threads, 64, 2 * threads);
 
-        Parser parser = new Parser(projectPath);
-        List<CompilationUnit> units = parser.parseProject();
-        System.out.println("Fichiers parsés: " + units.size());
+        // MODE SURVEILLANCE : les résultats restent en mémoire et sont mis à jour à chaque modification
+        if (watch) {
+            ProjectWatcher watcher = new ProjectWatcher(parser);
+            watcher.setDispatch(dispatch);
+            watcher.addListener(w -> System.out.println(w.getStatistics().generateReport()));
+            watcher.start();
+            System.out.println(watcher.getStatistics().generateReport());
+            System.out.println("Surveillance de " + parser.getSourcePath() + " (Ctrl+C pour arrêter)");
+            Thread.currentThread().join();
+        }
 
-        // LANCEMENT DE L'ANALYSE
-        StatisticsCollector stats = new StatisticsCollector(units);
-        stats.collect();
-        System.out.println(stats.generateReport());
+        Map<String, Set<String>> callGraph;
+        StatisticsCollector stats;
+        if (modules) {
+            // PROJET MULTI-MODULES : un module = une unité d'analyse parallèle
+            MultiModuleAnalyzer analyzer = new MultiModuleAnalyzer(threads, jars);
+            analyzer.setMode(mode);
+            analyzer.setDispatch(dispatch);
+            analyzer.setMemoryBudget(budget);
+            analyzer.setSourceFilters(parser.getScanner().getIncludePatterns(), parser.getScanner().getExcludePatterns());
+            analyzer.analyze(Path.of(projectPath));
+            for (MultiModuleAnalyzer.ModuleResult result : analyzer.getResults()) {
+                System.out.println("Module " + result.getModule().name() + ": " + result.getFileCount()
+                        + " fichiers, " + result.getClasses().size() + " classes, sources " + result.getModule().sourceRoots()
+                        + ", dépend de " + result.getModule().dependencies());
+            }
+            stats = analyzer.getGlobalStatistics();
+            System.out.println(stats.generateReport());
 
-        // GRAPHE D'APPEL
-        CallGraphBuilder builder = new CallGraphBuilder();
-        builder.build(units);
-        Map<String, Set<String>> callGraph = builder.getCallGraph();
+            // Mode rapide : statistiques seules, pas de graphe d'appel ni de couplage
+            if (mode == AnalysisMode.FAST) {
+                if (snapshotFile != null) {
+                    AnalysisSnapshot.write(snapshotFile, null, null, stats);
+                    System.out.println("Snapshot écrit: " + snapshotFile);
+                }
+                return;
+            }
+
+            System.out.println("===== Couplage entre modules =====");
+            analyzer.getModuleCouplingGraph().forEach((from, targets) -> targets.forEach((to, weight) ->
+                    System.out.println(from + " -> " + to + " (poids = " + weight + ")")));
+            if (analyzer.getAmbiguousCallCount() > 0) {
+                System.out.println(analyzer.getAmbiguousCallCount() + " appels ambigus (classe cible déclarée dans plusieurs modules) ignorés");
+            }
+            callGraph = analyzer.getCallGraph();
+            System.out.println(budget.report("graphe d'appel"));
+        } else {
+            // LANCEMENT DE L'ANALYSE (streaming : les ASTs sont libérés au fil de l'eau)
+            stats = new StatisticsCollector();
+            CallGraphBuilder builder = new CallGraphBuilder();
+            builder.setDispatch(dispatch);
+            builder.setMemoryBudget(budget);
+            int fileCount = new AnalysisPipeline(parser, mode)
+                    .addSink(stats::addFacts)
+                    .addSink(builder::addFacts)
+                    .run();
+            System.out.println("Fichiers parsés: " + fileCount);
+            System.out.printf("Débit: %.1f fichiers/s%n", parser.getLastFilesPerSecond());
+            System.out.println(stats.generateReport());
+
+            // Mode rapide : statistiques seules, pas de graphe d'appel ni de couplage
+            if (mode == AnalysisMode.FAST) {
+                if (snapshotFile != null) {
+                    AnalysisSnapshot.write(snapshotFile, null, null, stats);
+                    System.out.println("Snapshot écrit: " + snapshotFile);
+                }
+                return;
+            }
+
+            // GRAPHE D'APPEL
+            callGraph = builder.getCallGraph();
+            System.out.println(budget.report("graphe d'appel"));
+        }
 
         // AFFICHAGE GRAPHIQUE
         ui.GraphView.showGraph(callGraph);
 
         // TP2: couplage des classes
         CouplingGraphBuilder couplingBuilder = new CouplingGraphBuilder(callGraph);
+        couplingBuilder.setMemoryBudget(budget);
         couplingBuilder.buildCouplingGraph();
+        System.out.println(budget.report("graphe de couplage"));
         couplingBuilder.printCouplingGraph();
+
+        if (snapshotFile != null) {
+            AnalysisSnapshot.write(snapshotFile, callGraph, couplingBuilder.getCouplingGraph(), stats);
+            System.out.println("Snapshot écrit: " + snapshotFile);
+        }
     }
 }
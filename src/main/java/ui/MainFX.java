@@ -1,19 +1,29 @@
 package ui;
 
+import analyser.AnalysisSnapshot;
+import analyser.ClassPackageIndex;
+import analyser.CouplingLevel;
 import analyser.HierarchicalClustering;
+import analyser.MultiLevelCoupling;
 import analyser.Parser;
+import analyser.ProjectWatcher;
 import analyser.StatisticsCollector;
 import analyser.CallGraphBuilder;
-import org.eclipse.jdt.core.dom.CompilationUnit;
-import analyser.CouplingGraphBuilder;
+import analyser.facts.AnalysisCache;
+import analyser.facts.AnalysisMode;
+import analyser.facts.FileFacts;
 
 import javafx.application.Application;
 import javafx.stage.Stage;
 import javafx.stage.DirectoryChooser;
+import javafx.stage.FileChooser;
 import javafx.scene.Scene;
 import javafx.scene.layout.VBox;
 import javafx.scene.layout.HBox;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.ToggleButton;
 import javafx.scene.control.TextArea;
 import javafx.scene.control.Label;
 import javafx.scene.control.ProgressIndicator;
@@ -42,6 +52,14 @@ public class MainFX extends Application {
     private TableView<StatRow> statsTable;
     private Map<String, Map<String, Double>> currentCouplingGraph;
     private TextField cpThresholdField;
+    private ProjectWatcher watcher;
+    private StatisticsCollector currentStats;
+    /** Packages des classes analysées (null pour un snapshot) et couplage multi-niveaux, calculé à la demande. */
+    private ClassPackageIndex currentPackages;
+    private MultiLevelCoupling currentLevels;
+    /** Le watcher a changé depuis la dernière lecture : graphes, packages et statistiques sont relus à la demande. */
+    private boolean watcherResultsStale;
+    private ComboBox<CouplingLevel> levelBox;
 
     public static void main(String[] args) {
         launch(args);
@@ -69,10 +87,20 @@ public class MainFX extends Application {
         Button graphBtn = new Button("Afficher le graphe");
         Button couplingBtn = new Button("Afficher le graphe de couplage");
         Button clusteringBtn = new Button("Identifier les Modules");
+        ToggleButton watchBtn = new ToggleButton("Surveiller");
+        Button saveSnapshotBtn = new Button("Enregistrer snapshot");
+        Button openSnapshotBtn = new Button("Ouvrir snapshot");
+        saveSnapshotBtn.setDisable(true);
+        watchBtn.setDisable(true);
+
+        CheckBox fastModeBox = new CheckBox("Mode rapide (statistiques seules)");
 
         cpThresholdField = new TextField("0.05");
         cpThresholdField.setPrefWidth(60);
 
+        levelBox = new ComboBox<>(FXCollections.observableArrayList(CouplingLevel.values()));
+        levelBox.setValue(CouplingLevel.CLASS);
+
         analyzeBtn.setDisable(true);
         graphBtn.setDisable(true);
         couplingBtn.setDisable(true);
@@ -88,9 +116,12 @@ public class MainFX extends Application {
             dc.setTitle("Sélectionner un projet");
             File dir = dc.showDialog(stage);
             if (dir != null) {
+                stopWatcher();
+                watchBtn.setSelected(false);
                 selectedDir = dir;
                 folderLabel.setText("Dossier: " + dir.getAbsolutePath());
                 analyzeBtn.setDisable(false);
+                watchBtn.setDisable(false);
                 graphBtn.setDisable(true);
                 outputArea.clear();
             }
@@ -107,37 +138,59 @@ public class MainFX extends Application {
             clusteringBtn.setDisable(true);
             cpThresholdField.setDisable(true);
             statsTable.getItems().clear();
+            AnalysisMode mode = fastModeBox.isSelected() ? AnalysisMode.FAST : AnalysisMode.FULL;
 
             javafx.concurrent.Task<Void> task = new javafx.concurrent.Task<>() {
                 @Override
                 protected Void call() {
                     try {
                         Parser parser = new Parser(selectedDir.getAbsolutePath());
-                        List<CompilationUnit> units = parser.parseProject();
 
-                        StatisticsCollector stats = new StatisticsCollector(units);
-                        stats.collect();
+                        /* Cache incrémental : seuls les fichiers nouveaux ou modifiés sont reparsés */
+                        AnalysisCache cache = new AnalysisCache(selectedDir.toPath());
+                        cache.load();
+                        List<FileFacts> facts = cache.refresh(parser, parser.listSourceFiles(), mode);
+                        cache.save();
+
+                        StatisticsCollector stats = new StatisticsCollector();
+                        facts.forEach(stats::addFacts);
+                        currentStats = stats;
                         Map<String, Integer> statMap = stats.getStatsMap();
                         ObservableList<StatRow> statRows = FXCollections.observableArrayList();
                         statMap.forEach((k, v) -> statRows.add(new StatRow(k, v)));
 
-                        CallGraphBuilder builder = new CallGraphBuilder();
-                        builder.build(units);
-                        currentGraph = builder.getCallGraph();
-
-                        CouplingGraphBuilder couplingBuilder = new CouplingGraphBuilder(currentGraph);
-                        couplingBuilder.buildCouplingGraph();
-                        currentCouplingGraph = couplingBuilder.getCouplingGraph();
+                        /* Le graphe d'appel et le couplage ne sont disponibles qu'en mode complet */
+                        boolean full = mode == AnalysisMode.FULL;
+                        if (full) {
+                            CallGraphBuilder builder = new CallGraphBuilder();
+                            facts.forEach(builder::addFacts);
+                            currentGraph = builder.getCallGraph();
+
+                            /* Tous les niveaux (classes, packages, préfixes) en parallèle : changer de niveau est ensuite immédiat */
+                            currentPackages = ClassPackageIndex.of(facts);
+                            currentLevels = new MultiLevelCoupling(currentGraph, currentPackages);
+                            currentLevels.computeAll(Runtime.getRuntime().availableProcessors());
+                            currentCouplingGraph = currentLevels.getCouplingGraph(CouplingLevel.CLASS);
+                        } else {
+                            currentGraph = null;
+                            currentCouplingGraph = null;
+                            currentPackages = null;
+                            currentLevels = null;
+                        }
 
                         // ... (rest of the analysis text generation) ...
+                        String cacheInfo = "Fichiers: " + facts.size() + " (reparsés: " + cache.getLastReparsedCount()
+                                + ", supprimés: " + cache.getLastRemovedCount() + ")\n";
 
                         javafx.application.Platform.runLater(() -> {
                             statsTable.setItems(statRows);
+                            outputArea.setText(cacheInfo);
                             // outputArea.setText(finalText);
-                            graphBtn.setDisable(false);
-                            couplingBtn.setDisable(false);
-                            clusteringBtn.setDisable(false);
-                            cpThresholdField.setDisable(false);
+                            graphBtn.setDisable(!full);
+                            couplingBtn.setDisable(!full);
+                            clusteringBtn.setDisable(!full);
+                            cpThresholdField.setDisable(!full);
+                            saveSnapshotBtn.setDisable(false);
                         });
 
                     } catch (Exception ex) {
@@ -157,6 +210,7 @@ public class MainFX extends Application {
         });
 
         graphBtn.setOnAction(ev -> {
+            syncWithWatcher();
             if (currentGraph != null && !currentGraph.isEmpty()) {
                 javafx.application.Platform.runLater(() -> GraphView.showGraph(currentGraph));
             } else {
@@ -165,9 +219,11 @@ public class MainFX extends Application {
         });
 
         couplingBtn.setOnAction(ev -> {
-            if (currentCouplingGraph != null && !currentCouplingGraph.isEmpty()) {
+            syncWithWatcher();
+            Map<String, Map<String, Double>> coupling = selectedCouplingGraph();
+            if (coupling != null && !coupling.isEmpty()) {
                 javafx.application.Platform.runLater(() ->
-                        CouplingGraphView.showCouplingGraph(currentCouplingGraph)
+                        CouplingGraphView.showCouplingGraph(coupling)
                 );
             } else {
                 outputArea.appendText("\nAucun graphe de couplage à afficher.\n");
@@ -175,17 +231,18 @@ public class MainFX extends Application {
         });
 
         clusteringBtn.setOnAction(ev -> {
-            if (currentCouplingGraph == null || currentCouplingGraph.isEmpty()) {
+            syncWithWatcher();
+            Map<String, Map<String, Double>> coupling = selectedCouplingGraph();
+            if (coupling == null || coupling.isEmpty()) {
                 outputArea.appendText("\nAucun graphe de couplage disponible. Lancez d'abord l'analyse.\n");
                 return;
             }
             try {
                 double cp = Double.parseDouble(cpThresholdField.getText());
-                outputArea.appendText("\n\n--- Identification des modules (CP = " + cp + ") ---\n");
+                outputArea.appendText("\n\n--- Identification des modules (" + levelBox.getValue() + ", CP = " + cp + ") ---\n");
 
-                HierarchicalClustering clustering = new HierarchicalClustering(currentCouplingGraph);
-                HierarchicalClustering.DendrogramNode root = clustering.cluster();
-                List<Set<String>> modules = clustering.identifyModules(root, cp);
+                HierarchicalClustering clustering = new HierarchicalClustering(coupling);
+                List<Set<String>> modules = clustering.identifyModules(clustering.clusterCompact(), cp);
 
                 StringBuilder result = new StringBuilder();
                 result.append("Nombre de modules identifiés: ").append(modules.size()).append("\n");
@@ -200,9 +257,105 @@ public class MainFX extends Application {
             }
         });
 
+        /* Snapshot : les résultats sont enregistrés dans un fichier binaire rouvert sans réanalyse */
+        saveSnapshotBtn.setOnAction(ev -> {
+            FileChooser fc = new FileChooser();
+            fc.setTitle("Enregistrer le snapshot");
+            fc.setInitialFileName("analyse.snapshot");
+            File file = fc.showSaveDialog(stage);
+            if (file == null) return;
+            syncWithWatcher();
+            try {
+                AnalysisSnapshot.write(file.toPath(), currentGraph, currentCouplingGraph, currentStats);
+                outputArea.appendText("\nSnapshot enregistré: " + file.getAbsolutePath() + "\n");
+            } catch (java.io.IOException e) {
+                outputArea.appendText("\nErreur à l'écriture du snapshot: " + e.getMessage() + "\n");
+            }
+        });
+
+        openSnapshotBtn.setOnAction(ev -> {
+            FileChooser fc = new FileChooser();
+            fc.setTitle("Ouvrir un snapshot");
+            File file = fc.showOpenDialog(stage);
+            if (file == null) return;
+            try {
+                long start = System.nanoTime();
+                AnalysisSnapshot snapshot = AnalysisSnapshot.open(file.toPath());
+                stopWatcher();
+                watchBtn.setSelected(false);
+                currentStats = snapshot.getStatistics();
+                applyWatcherResults(snapshot.getCallGraph(), snapshot.getCouplingGraph(), null, currentStats.getStatsMap());
+                folderLabel.setText("Snapshot: " + file.getAbsolutePath());
+                outputArea.setText("Snapshot ouvert en " + (System.nanoTime() - start) / 1_000_000 + " ms ("
+                        + snapshot.getMethodCount() + " méthodes, " + snapshot.getCallEdgeCount() + " appels, "
+                        + snapshot.getCouplingEdgeCount() + " arcs de couplage)\n");
+                graphBtn.setDisable(false);
+                couplingBtn.setDisable(false);
+                clusteringBtn.setDisable(false);
+                cpThresholdField.setDisable(false);
+                saveSnapshotBtn.setDisable(false);
+            } catch (Exception e) {
+                outputArea.setText("Erreur à l'ouverture du snapshot: " + e.getMessage());
+            }
+        });
+
+        /* Mode surveillance : les graphes et statistiques restent à jour à chaque sauvegarde */
+        watchBtn.setOnAction(ev -> {
+            if (!watchBtn.isSelected()) {
+                stopWatcher();
+                outputArea.appendText("\nSurveillance arrêtée.\n");
+                return;
+            }
+            if (selectedDir == null) return;
+            ProjectWatcher newWatcher = new ProjectWatcher(new Parser(selectedDir.getAbsolutePath()));
+            // Seul le résumé des statistiques est lu à chaque mise à jour ; les graphes ne sont copiés
+            // que pour une fenêtre ouverte, ou au prochain usage (syncWithWatcher)
+            newWatcher.addListener(w -> {
+                Map<String, Integer> statMap = w.getStatsMap();
+                long millis = w.getLastUpdateMillis();
+                javafx.application.Platform.runLater(() -> {
+                    watcherResultsStale = true;
+                    showStats(statMap);
+                    outputArea.appendText("Mise à jour en " + millis + " ms\n");
+                });
+                if (GraphView.isOpen()) {
+                    GraphView.refresh(w.getCallGraph());
+                }
+                if (CouplingGraphView.isOpen()) {
+                    CouplingGraphView.refresh(w.getCouplingGraph());
+                }
+            });
+            outputArea.appendText("\nDémarrage de la surveillance...\n");
+            progress.setVisible(true);
+            new Thread(() -> {
+                try {
+                    newWatcher.start();
+                    Map<String, Integer> statMap = newWatcher.getStatsMap();
+                    javafx.application.Platform.runLater(() -> {
+                        watcher = newWatcher;
+                        watcherResultsStale = true;
+                        showStats(statMap);
+                        outputArea.appendText("Surveillance active (" + newWatcher.getFileCount() + " fichiers).\n");
+                        graphBtn.setDisable(false);
+                        couplingBtn.setDisable(false);
+                        clusteringBtn.setDisable(false);
+                        cpThresholdField.setDisable(false);
+                        saveSnapshotBtn.setDisable(false);
+                    });
+                } catch (Exception ex) {
+                    javafx.application.Platform.runLater(() -> {
+                        watchBtn.setSelected(false);
+                        outputArea.appendText("Erreur de surveillance: " + ex.getMessage() + "\n");
+                    });
+                } finally {
+                    javafx.application.Platform.runLater(() -> progress.setVisible(false));
+                }
+            }).start();
+        });
+
         Label statsLabel = new Label("Statistiques globales");
         Label advancedLabel = new Label("Analyses avancées");
-        HBox controls = new HBox(10, chooseBtn, analyzeBtn, graphBtn, couplingBtn, new Label("CP:"), cpThresholdField, clusteringBtn, progress);
+        HBox controls = new HBox(10, chooseBtn, analyzeBtn, fastModeBox, graphBtn, couplingBtn, new Label("Niveau:"), levelBox, new Label("CP:"), cpThresholdField, clusteringBtn, watchBtn, saveSnapshotBtn, openSnapshotBtn, progress);
         controls.setAlignment(Pos.CENTER_LEFT);
 
         VBox root = new VBox(10, folderLabel, controls, new Separator(), statsLabel, statsTable, new Separator(), advancedLabel, outputArea);
@@ -212,6 +365,71 @@ public class MainFX extends Application {
         stage.show();
     }
 
+    @Override
+    public void stop() {
+        stopWatcher();
+    }
+
+    private void stopWatcher() {
+        if (watcher != null) {
+            try {
+                watcher.close();
+            } catch (java.io.IOException e) {
+                System.err.println("Erreur à l'arrêt de la surveillance: " + e.getMessage());
+            }
+            watcher = null;
+        }
+        watcherResultsStale = false;
+    }
+
+    /** Relit les résultats du watcher s'ils ont changé depuis la dernière lecture (thread JavaFX). */
+    private void syncWithWatcher() {
+        if (!watcherResultsStale || watcher == null) return;
+        currentStats = watcher.getStatistics();
+        applyWatcherResults(watcher.getCallGraph(), watcher.getCouplingGraph(), watcher.getClassPackages(), currentStats.getStatsMap());
+    }
+
+    /**
+     * Graphe de couplage au niveau choisi dans la liste. Les niveaux package et préfixe sont calculés
+     * au premier usage puis gardés jusqu'à la prochaine analyse ; ils demandent les packages des classes
+     * (absents d'un snapshot).
+     */
+    private Map<String, Map<String, Double>> selectedCouplingGraph() {
+        CouplingLevel level = levelBox.getValue();
+        if (level == CouplingLevel.CLASS || currentGraph == null) {
+            return currentCouplingGraph;
+        }
+        if (currentPackages == null) {
+            outputArea.appendText("\nNiveau " + level + " indisponible : les packages ne sont pas enregistrés dans le snapshot.\n");
+            return null;
+        }
+        if (currentLevels == null) {
+            currentLevels = new MultiLevelCoupling(currentGraph, currentPackages);
+        }
+        String ambiguity = currentPackages.describeAmbiguousClasses(10);
+        if (!ambiguity.isEmpty()) {
+            outputArea.appendText("\n" + ambiguity + "\n");
+        }
+        return currentLevels.getCouplingGraph(level);
+    }
+
+    /** Met à jour les résultats affichés à partir de l'état du ProjectWatcher (thread JavaFX). */
+    private void applyWatcherResults(Map<String, Set<String>> graph, Map<String, Map<String, Double>> coupling,
+                                     ClassPackageIndex packages, Map<String, Integer> statMap) {
+        currentGraph = graph;
+        currentCouplingGraph = coupling;
+        currentPackages = packages;
+        currentLevels = null;
+        watcherResultsStale = false;
+        showStats(statMap);
+    }
+
+    private void showStats(Map<String, Integer> statMap) {
+        ObservableList<StatRow> statRows = FXCollections.observableArrayList();
+        statMap.forEach((k, v) -> statRows.add(new StatRow(k, v)));
+        statsTable.setItems(statRows);
+    }
+
     public static class StatRow {
         private final String name;
         private final Integer value;
@@ -0,0 +1,174 @@
+package analyser;
+
+import analyser.facts.FileFacts;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalysisSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    /** Noms non ASCII : "Ａ" (U+FF21) précède "😀" en UTF-16 mais le suit en UTF-8, ordre de la table. */
+    private static final String CAFE = "Café";
+    private static final String WIDE = "Ａ";
+    private static final String EMOJI = "😀";
+
+    private static Map<String, Set<String>> callGraph() {
+        Map<String, Set<String>> graph = new HashMap<>();
+        graph.put("A.a", Set.of("B.b", CAFE + ".thé", "A.helper"));
+        graph.put(CAFE + ".thé", Set.of(WIDE + ".x", EMOJI + ".y"));
+        graph.put(EMOJI + ".y", Set.of("A.a"));
+        graph.put("B.b", Set.of("B.c"));
+        return graph;
+    }
+
+    private static Map<String, Map<String, Double>> couplingGraph() {
+        Map<String, Map<String, Double>> graph = new HashMap<>();
+        graph.put("A", Map.of("B", 0.25, CAFE, 0.125));
+        graph.put(CAFE, Map.of(WIDE, 1.0 / 3, EMOJI, 0.1, "A", 0.125));
+        graph.put(EMOJI, Map.of(CAFE, 0.1));
+        return graph;
+    }
+
+    private static StatisticsCollector statistics() {
+        StatisticsCollector stats = new StatisticsCollector();
+        stats.addFacts(new FileFacts("p", List.of(
+                new FileFacts.ClassFacts("A", 2, 40, List.of(new FileFacts.MethodFacts("a", 12, 1), new FileFacts.MethodFacts("helper", 3, 0))),
+                new FileFacts.ClassFacts("B", 0, 15, List.of(new FileFacts.MethodFacts("b", 5, 2)))), List.of()));
+        stats.addFacts(new FileFacts("ç.ü", List.of(
+                new FileFacts.ClassFacts(CAFE, 1, 9, List.of(new FileFacts.MethodFacts("thé", 4, 3)))), List.of()));
+        return stats;
+    }
+
+    private Path writeSnapshot() throws IOException {
+        Path file = dir.resolve("analyse.snapshot");
+        AnalysisSnapshot.write(file, callGraph(), couplingGraph(), statistics());
+        return file;
+    }
+
+    @Test
+    void roundTripPreservesGraphsAndStatistics() throws IOException {
+        AnalysisSnapshot snapshot = AnalysisSnapshot.open(writeSnapshot());
+
+        Map<String, Set<String>> calls = snapshot.getCallGraph();
+        // Dans les deux sens : get / contains de la vue, puis son parcours
+        assertEquals(callGraph(), calls);
+        assertEquals(calls, callGraph());
+        assertEquals(4, calls.size());
+        assertEquals(7, snapshot.getMethodCount());
+        assertEquals(7, snapshot.getCallEdgeCount());
+
+        Map<String, Map<String, Double>> coupling = snapshot.getCouplingGraph();
+        assertEquals(couplingGraph(), coupling);
+        assertEquals(coupling, couplingGraph());
+        assertEquals(3, coupling.size());
+        assertEquals(6, snapshot.getCouplingEdgeCount());
+        assertEquals(1.0 / 3, coupling.get(CAFE).get(WIDE));
+
+        assertEquals(statistics().generateReport(), snapshot.getStatistics().generateReport());
+        assertEquals(statistics().getStatsMap(), snapshot.getStatistics().getStatsMap());
+    }
+
+    @Test
+    void missingKeysAreAbsent() throws IOException {
+        AnalysisSnapshot snapshot = AnalysisSnapshot.open(writeSnapshot());
+        Map<String, Set<String>> calls = snapshot.getCallGraph();
+        assertNull(calls.get("Inconnu.m"));
+        assertFalse(calls.containsKey("Inconnu.m"));
+        // Méthode connue mais sans appel sortant : pas une clé
+        assertNull(calls.get("B.c"));
+        assertFalse(calls.containsKey(WIDE + ".x"));
+        // Nom de classe du couplage, pas une méthode
+        assertNull(calls.get(CAFE));
+        assertNull(calls.get(42));
+        assertTrue(calls.get("A.a").contains("A.helper"));
+        assertFalse(calls.get("A.a").contains("B.c"));
+        assertFalse(calls.get("A.a").contains("Inconnu.m"));
+        assertFalse(calls.get("A.a").contains(null));
+
+        Map<String, Map<String, Double>> coupling = snapshot.getCouplingGraph();
+        assertNull(coupling.get("Inconnu"));
+        assertFalse(coupling.containsKey("A.a"));
+        // Classe seulement appelée : pas de ligne
+        assertNull(coupling.get("B"));
+        assertNull(coupling.get("A").get(EMOJI));
+        assertNull(coupling.get("A").get("Inconnu"));
+        assertFalse(coupling.get("A").containsKey("A"));
+        assertTrue(coupling.get("A").containsKey(CAFE));
+    }
+
+    @Test
+    void compactCallGraphIsWrittenAsIs() throws IOException {
+        CallGraphBuilder builder = new CallGraphBuilder();
+        builder.merge(callGraph());
+        Path file = dir.resolve("compact.snapshot");
+        AnalysisSnapshot.write(file, builder.getCallGraph(), null, null);
+
+        AnalysisSnapshot snapshot = AnalysisSnapshot.open(file);
+        assertEquals(callGraph(), snapshot.getCallGraph());
+        assertEquals(builder.getCompactGraph().getNodeCount(), snapshot.getMethodCount());
+        assertTrue(snapshot.getCouplingGraph().isEmpty());
+    }
+
+    @Test
+    void nullAndEmptyPartsGiveEmptySnapshots() throws IOException {
+        Path nulls = dir.resolve("null.snapshot");
+        AnalysisSnapshot.write(nulls, null, null, null);
+        Path empty = dir.resolve("vide.snapshot");
+        AnalysisSnapshot.write(empty, Map.of(), Map.of(), new StatisticsCollector());
+
+        for (Path file : List.of(nulls, empty)) {
+            AnalysisSnapshot snapshot = AnalysisSnapshot.open(file);
+            assertTrue(snapshot.getCallGraph().isEmpty());
+            assertNull(snapshot.getCallGraph().get("A.a"));
+            assertTrue(snapshot.getCouplingGraph().isEmpty());
+            assertNull(snapshot.getCouplingGraph().get("A"));
+            assertEquals(0, snapshot.getMethodCount());
+            assertEquals(0, snapshot.getCouplingEdgeCount());
+            assertEquals(new StatisticsCollector().generateReport(), snapshot.getStatistics().generateReport());
+        }
+    }
+
+    @Test
+    void badMagicAndVersionAreRejected() throws IOException {
+        byte[] bytes = Files.readAllBytes(writeSnapshot());
+
+        byte[] otherMagic = bytes.clone();
+        otherMagic[0] ^= 1;
+        Path notSnapshot = dir.resolve("autre.bin");
+        Files.write(notSnapshot, otherMagic);
+        IOException magic = assertThrows(IOException.class, () -> AnalysisSnapshot.open(notSnapshot));
+        assertEquals("Ce fichier n'est pas un snapshot d'analyse", magic.getMessage());
+
+        byte[] otherVersion = bytes.clone();
+        ByteBuffer.wrap(otherVersion).putInt(4, 99);
+        Path newer = dir.resolve("v99.snapshot");
+        Files.write(newer, otherVersion);
+        IOException version = assertThrows(IOException.class, () -> AnalysisSnapshot.open(newer));
+        assertEquals("Version de snapshot non supportée: 99", version.getMessage());
+    }
+
+    @Test
+    void truncatedFilesAreRejectedWhereverTheyAreCut() throws IOException {
+        byte[] bytes = Files.readAllBytes(writeSnapshot());
+        Path truncated = dir.resolve("tronque.snapshot");
+        for (int length = 0; length < bytes.length; length++) {
+            Files.write(truncated, Arrays.copyOf(bytes, length));
+            IOException error = assertThrows(IOException.class, () -> AnalysisSnapshot.open(truncated), "longueur " + length);
+            assertTrue(error.getMessage().startsWith("Snapshot tronqué"), "longueur " + length + ": " + error.getMessage());
+        }
+    }
+}
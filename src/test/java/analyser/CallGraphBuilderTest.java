@@ -0,0 +1,90 @@
+package analyser;
+
+import analyser.facts.AnalysisPipeline;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CallGraphBuilderTest {
+
+    @TempDir
+    Path project;
+
+    /** Classes C0..C(n-1) : chaque méthode appelle les deux classes suivantes et sa propre classe. */
+    private void writeProject(int classCount) throws IOException {
+        Path dir = project.resolve("src/main/java/p");
+        Files.createDirectories(dir);
+        for (int i = 0; i < classCount; i++) {
+            int next = (i + 1) % classCount;
+            int after = (i + 2) % classCount;
+            Files.writeString(dir.resolve("C" + i + ".java"), "package p; public class C" + i + " {"
+                    + " public void a() { new C" + next + "().b(); helper(); }"
+                    + " public void b() { new C" + after + "().a(); }"
+                    + " void helper() {} }");
+        }
+    }
+
+    @Test
+    void parallelPipelineMatchesSequentialBuild() throws IOException {
+        writeProject(40);
+
+        Parser sequentialParser = new Parser(project.toString());
+        sequentialParser.getScanner().quiet(true);
+        CallGraphBuilder sequential = new CallGraphBuilder();
+        sequential.build(sequentialParser.parseProject());
+
+        // Paquets d'un fichier sur quatre threads : les faits arrivent dans l'ordre des fichiers
+        Parser parallelParser = new Parser(project.toString());
+        parallelParser.getScanner().quiet(true);
+        parallelParser.setParallelism(4, 1, 8);
+        CallGraphBuilder parallel = new CallGraphBuilder();
+        new AnalysisPipeline(parallelParser).addSink(parallel::addFacts).run();
+
+        assertSameCsr(sequential.getRawGraph(), parallel.getRawGraph());
+        assertSameCsr(sequential.getCompactGraph(), parallel.getCompactGraph());
+        assertEquals(40 * 3, sequential.getRawGraph().getEdgeCount());
+    }
+
+    @Test
+    void parallelBuildMatchesSequentialBuild() throws IOException {
+        writeProject(40);
+        Parser parser = new Parser(project.toString());
+        parser.getScanner().quiet(true);
+        List<CompilationUnit> units = parser.parseProject();
+
+        CallGraphBuilder sequential = new CallGraphBuilder();
+        sequential.build(units);
+
+        // 40 unités sur 4 threads : 16 paquets, fusionnés dans l'ordre
+        CallGraphBuilder parallel = new CallGraphBuilder();
+        parallel.build(units, 4);
+
+        assertSameCsr(sequential.getRawGraph(), parallel.getRawGraph());
+        assertSameCsr(sequential.getCompactGraph(), parallel.getCompactGraph());
+
+        // Une seconde construction s'ajoute au graphe existant, comme build(units)
+        sequential.build(units.subList(0, 5));
+        parallel.build(units.subList(0, 5), 4);
+        assertSameCsr(sequential.getRawGraph(), parallel.getRawGraph());
+    }
+
+    private static void assertSameCsr(CompactCallGraph expected, CompactCallGraph actual) {
+        assertEquals(expected.getNodeCount(), actual.getNodeCount());
+        assertEquals(expected.getEdgeCount(), actual.getEdgeCount());
+        for (int id = 0; id < expected.getNodeCount(); id++) {
+            assertEquals(expected.getSymbols().nameOf(id), actual.getSymbols().nameOf(id), "symbole " + id);
+            assertEquals(expected.rowStart(id), actual.rowStart(id), "début de ligne " + id);
+            assertEquals(expected.outDegree(id), actual.outDegree(id), "degré " + id);
+        }
+        for (int index = 0; index < expected.getEdgeCount(); index++) {
+            assertEquals(expected.target(index), actual.target(index), "cible " + index);
+        }
+    }
+}
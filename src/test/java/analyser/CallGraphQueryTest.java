@@ -0,0 +1,96 @@
+package analyser;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CallGraphQueryTest {
+
+    /**
+     * A.a -> B.b -> C.c -> A.a (cycle), C.c -> D.d, D.d -> D.d (récursion directe),
+     * D.d -> Lib.call (bibliothèque), E.e -> F.f, F.unused n'est appelée par personne.
+     */
+    private static Map<String, Set<String>> graph() {
+        Map<String, Set<String>> graph = new LinkedHashMap<>();
+        graph.put("A.a", Set.of("B.b"));
+        graph.put("B.b", Set.of("C.c"));
+        graph.put("C.c", new LinkedHashSet<>(List.of("A.a", "D.d")));
+        graph.put("D.d", new LinkedHashSet<>(List.of("D.d", "Lib.call")));
+        graph.put("E.e", Set.of("F.f"));
+        graph.put("F.unused", Set.of("F.f"));
+        return graph;
+    }
+
+    private static CallGraphBuilder builder() {
+        CallGraphBuilder builder = new CallGraphBuilder();
+        builder.merge(graph());
+        return builder;
+    }
+
+    @Test
+    void reachabilityThroughCycles() {
+        CallGraphQuery query = CallGraphQuery.of(graph());
+        assertEquals(Set.of("A.a", "B.b", "C.c", "D.d", "Lib.call"), query.reachableFrom("A.a"));
+        assertEquals(Set.of("D.d", "Lib.call"), query.reachableFrom("D.d"));
+        // Non récursive : E.e n'est pas dans ses propres accessibles
+        assertEquals(Set.of("F.f"), query.reachableFrom("E.e"));
+        assertEquals(Set.of(), query.reachableFrom("Lib.call"));
+        assertEquals(Set.of(), query.reachableFrom("Inconnue.m"));
+        assertEquals(5, query.countReachableFrom("B.b"));
+        assertEquals(1, query.countReachableFrom("E.e"));
+
+        assertTrue(query.reaches("B.b", "A.a"));
+        assertTrue(query.reaches("A.a", "A.a"));
+        assertTrue(query.reaches("D.d", "D.d"));
+        assertFalse(query.reaches("E.e", "E.e"));
+        assertFalse(query.reaches("D.d", "A.a"));
+        assertFalse(query.reaches("A.a", "F.f"));
+    }
+
+    @Test
+    void transitiveCallers() {
+        CallGraphQuery query = CallGraphQuery.of(graph());
+        assertEquals(Set.of("A.a", "B.b", "C.c", "D.d"), query.callersOf("Lib.call"));
+        assertEquals(Set.of("A.a", "B.b", "C.c"), query.callersOf("A.a"));
+        assertEquals(Set.of("E.e", "F.unused"), query.callersOf("F.f"));
+        assertEquals(Set.of(), query.callersOf("E.e"));
+    }
+
+    @Test
+    void stronglyConnectedComponents() {
+        CallGraphQuery query = CallGraphQuery.of(graph());
+        List<Set<String>> recursive = query.recursiveComponents();
+        assertEquals(2, recursive.size());
+        assertTrue(recursive.contains(Set.of("A.a", "B.b", "C.c")));
+        assertTrue(recursive.contains(Set.of("D.d")));
+
+        assertTrue(query.sameComponent("A.a", "C.c"));
+        assertFalse(query.sameComponent("A.a", "D.d"));
+        // {A,B,C}, {D}, Lib.call, E.e, F.f, F.unused
+        assertEquals(6, query.getComponentCount());
+    }
+
+    @Test
+    void entryPointsAndDeadMethods() {
+        CallGraphQuery query = builder().query();
+        assertEquals(Set.of("E.e", "F.unused"), new HashSet<>(query.entryPoints()));
+        // Lib.call n'est pas du projet (Lib ne déclare aucun appelant) : jamais morte
+        assertEquals(Set.of("E.e", "F.f", "F.unused"), query.deadMethods(List.of("A.a")));
+        assertEquals(Set.of("F.unused"), query.deadMethods(List.of("A.a", "E.e")));
+    }
+
+    @Test
+    void evictedCacheGivesSameAnswers() {
+        CallGraphBuilder builder = builder();
+        CallGraphQuery cached = new CallGraphQuery(builder.getCompactGraph());
+        // Budget nul : chaque BitSet est évincé dès le suivant
+        CallGraphQuery evicting = new CallGraphQuery(builder.getCompactGraph(), 0);
+        for (String method : List.of("A.a", "B.b", "C.c", "D.d", "E.e", "F.unused", "F.f", "Lib.call")) {
+            assertEquals(cached.reachableFrom(method), evicting.reachableFrom(method), method);
+            assertEquals(cached.callersOf(method), evicting.callersOf(method), method);
+            assertEquals(cached.reachableFrom(method), evicting.reachableFrom(method), method);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package analyser;
+
+import analyser.facts.FileFacts;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClassPackageIndexTest {
+
+    private static FileFacts file(String packageName, String... classNames) {
+        List<FileFacts.ClassFacts> classes = new java.util.ArrayList<>();
+        List<FileFacts.TypeFacts> types = new java.util.ArrayList<>();
+        for (String name : classNames) {
+            classes.add(new FileFacts.ClassFacts(name, 0, 1, List.of()));
+            types.add(new FileFacts.TypeFacts(name, null, List.of(), List.of()));
+        }
+        return new FileFacts(packageName, classes, List.of(), types, List.of());
+    }
+
+    @Test
+    void reportsNamesDeclaredInSeveralPackages() {
+        ClassPackageIndex index = ClassPackageIndex.of(List.of(
+                file("p", "Util", "A"), file("q", "Util"), file("p", "A"), file(null, "Util")));
+
+        assertEquals("p", index.packageOf("Util"));
+        // A est déclarée deux fois, mais dans le même package : pas d'ambiguïté
+        assertEquals(Map.of("Util", Set.of("p", "q", ClassPackageIndex.DEFAULT_PACKAGE)), index.getAmbiguousClasses());
+        assertTrue(index.describeAmbiguousClasses(10).contains("Util"));
+        assertEquals("", ClassPackageIndex.of(List.of(file("p", "A"))).describeAmbiguousClasses(10));
+    }
+
+    @Test
+    void removingTheRetainedDeclarationPromotesTheNextOne() {
+        FileFacts first = file("p", "Util");
+        FileFacts second = file("q", "Util");
+        ClassPackageIndex index = ClassPackageIndex.of(List.of(first, second));
+
+        index.removeFacts(first);
+        assertEquals("q", index.packageOf("Util"));
+        assertTrue(index.getAmbiguousClasses().isEmpty());
+
+        index.removeFacts(second);
+        assertNull(index.packageOf("Util"));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void removingAnOtherDeclarationKeepsTheRetainedOne() {
+        FileFacts first = file("p", "Util");
+        FileFacts second = file("q", "Util");
+        ClassPackageIndex index = ClassPackageIndex.of(List.of(first, second));
+        ClassPackageIndex copy = index.copy();
+
+        index.removeFacts(second);
+        assertEquals("p", index.packageOf("Util"));
+        assertTrue(index.getAmbiguousClasses().isEmpty());
+        assertEquals(Set.of("p", "q"), copy.getAmbiguousClasses().get("Util"));
+    }
+}
@@ -0,0 +1,122 @@
+package analyser;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import analyser.facts.FactExtractor;
+import analyser.facts.FileFacts;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClasspathIndexTest {
+
+    @TempDir
+    Path dir;
+
+    private Path baseJar;
+    private Path apiJar;
+    private Path otherJar;
+
+    @BeforeEach
+    void buildJars() throws IOException {
+        baseJar = TestJars.build(dir, "base.jar", Map.of(
+                "lib/base/Base.java", "package lib.base; public class Base { public void run() {} }",
+                "lib/base/Param.java", "package lib.base; public class Param {}"));
+        // Service hérite de Base et la nomme dans ses signatures : api.jar dépend de base.jar
+        apiJar = TestJars.build(dir, "api.jar", Map.of(
+                "lib/api/Service.java", "package lib.api; public class Service extends lib.base.Base { public void use(lib.base.Param p) {} }"),
+                baseJar);
+        otherJar = TestJars.build(dir, "other.jar", Map.of(
+                "lib/other/Unused.java", "package lib.other; public class Unused {}"));
+    }
+
+    private ClasspathIndex open() throws IOException {
+        return ClasspathIndex.open(dir, List.of(otherJar, baseJar, apiJar));
+    }
+
+    private File source(String name, String content) throws IOException {
+        Path file = dir.resolve(name);
+        Files.writeString(file, content);
+        return file.toFile();
+    }
+
+    @Test
+    void indexesTypesAndJarDependencies() throws IOException {
+        ClasspathIndex index = open();
+        assertEquals(apiJar.toString(), index.jarOfType("lib.api.Service"));
+        assertEquals(baseJar.toString(), index.jarOfType("lib.base.Base"));
+        assertNull(index.jarOfType("lib.missing.Type"));
+        assertEquals(List.of(baseJar.toString()), List.copyOf(index.dependenciesOf(apiJar.toString())));
+        assertTrue(index.dependenciesOf(baseJar.toString()).isEmpty());
+    }
+
+    @Test
+    void importedTypeBringsItsSupertypeJar() throws IOException {
+        File client = source("Client.java", "package app; import lib.api.Service; class Client { void m() { new Service().run(); } }");
+        assertArrayEquals(new String[]{baseJar.toString(), apiJar.toString()}, open().classpathFor(List.of(client)));
+    }
+
+    @Test
+    void qualifiedNameWithoutImportIsResolved() throws IOException {
+        File client = source("Client.java", "package app; class Client { void m() { new lib.api.Service().run(); } }");
+        assertArrayEquals(new String[]{baseJar.toString(), apiJar.toString()}, open().classpathFor(List.of(client)));
+    }
+
+    @Test
+    void unrelatedSourceGetsNoJar() throws IOException {
+        File client = source("Client.java", "package app; import java.util.List; class Client { List<String> names; }");
+        assertEquals(0, open().classpathFor(List.of(client)).length);
+    }
+
+    @Test
+    void fingerprintChangesWithTheJarList() throws IOException {
+        String all = open().fingerprint();
+        assertEquals(all, open().fingerprint());
+        assertNotEquals(all, ClasspathIndex.open(dir, List.of(baseJar, apiJar)).fingerprint());
+    }
+
+    /** Appels de A.m quand le projet est parsé par paquets de chunkSize fichiers. */
+    private List<String> callsOfAm(Path project, Path jar, int chunkSize) throws IOException {
+        Parser parser = new Parser(project.toString());
+        parser.getScanner().quiet(true);
+        parser.setClasspath(List.of(jar));
+        parser.setParallelism(2, chunkSize, 4);
+        List<String> callees = new ArrayList<>();
+        parser.mapFilesParallel(parser.listSourceFiles(), (file, unit) -> FactExtractor.extract(unit), facts -> {
+            for (FileFacts.CallEdge edge : facts.calls()) {
+                if (edge.caller().equals("A.m")) callees.add(edge.callee());
+            }
+        });
+        callees.sort(null);
+        return callees;
+    }
+
+    @Test
+    void typeReachedThroughAnotherSourceIsResolvedWhateverTheChunkSize() throws IOException {
+        Path jar = TestJars.build(dir, "lib.jar", Map.of(
+                "lib/Logger.java", "package lib; public class Logger { public void info() {} }"));
+        Path project = dir.resolve("project");
+        Path sources = project.resolve("src/main/java/app");
+        Files.createDirectories(sources);
+        // A n'importe pas Logger : seul B nomme le jar
+        Files.writeString(sources.resolve("A.java"), "package app; class A { void m() { new B().logger().info(); } }");
+        Files.writeString(sources.resolve("B.java"), "package app; import lib.Logger; class B { Logger logger() { return new Logger(); } }");
+        for (int i = 0; i < 6; i++) {
+            Files.writeString(sources.resolve("C" + i + ".java"), "package app; class C" + i + " { void c() {} }");
+        }
+
+        List<String> expected = List.of("B.logger", "Logger.info");
+        assertEquals(expected, callsOfAm(project, jar, 64));
+        assertEquals(expected, callsOfAm(project, jar, 1));
+        assertEquals(expected, callsOfAm(project, jar, 3));
+    }
+}
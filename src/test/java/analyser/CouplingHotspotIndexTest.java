@@ -0,0 +1,139 @@
+package analyser;
+
+import analyser.CouplingHotspotIndex.ClassCoupling;
+import analyser.CouplingHotspotIndex.CouplingPair;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CouplingHotspotIndexTest {
+
+    /**
+     * A -> B 0.5, A -> C 0.25, B -> C 0.25, C -> A 0.25, D -> A 0.125 :
+     * trois paires à 0.25, départagées par classe source puis classe cible.
+     */
+    private static CouplingHotspotIndex sample() {
+        Map<String, Map<String, Double>> graph = new HashMap<>();
+        graph.put("D", Map.of("A", 0.125));
+        graph.put("C", Map.of("A", 0.25));
+        graph.put("B", Map.of("C", 0.25));
+        graph.put("A", Map.of("C", 0.25, "B", 0.5));
+        return CouplingHotspotIndex.of(graph);
+    }
+
+    @Test
+    void topPairsBreakTiesByClassNames() {
+        CouplingHotspotIndex index = sample();
+        assertEquals(4, index.getClassCount());
+        assertEquals(5, index.getPairCount());
+        assertEquals(List.of(
+                new CouplingPair("A", "B", 0.5),
+                new CouplingPair("A", "C", 0.25),
+                new CouplingPair("B", "C", 0.25),
+                new CouplingPair("C", "A", 0.25),
+                new CouplingPair("D", "A", 0.125)), index.topPairs(10));
+        assertEquals(index.topPairs(10).subList(0, 3), index.topPairs(3));
+        assertEquals(List.of(), index.topPairs(0));
+        assertEquals(List.of(), index.topPairs(-1));
+    }
+
+    @Test
+    void rangesIncludeTheirBounds() {
+        CouplingHotspotIndex index = sample();
+        assertEquals(index.topPairs(4).subList(1, 4), index.pairsInRange(0.25, 0.25));
+        assertEquals(3, index.countInRange(0.25, 0.25));
+        assertEquals(index.topPairs(5).subList(1, 5), index.pairsInRange(0.125, 0.25));
+        assertEquals(4, index.countInRange(0.125, 0.25));
+        assertEquals(index.topPairs(5), index.pairsInRange(0.125, 0.5));
+        assertEquals(5, index.countInRange(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY));
+        // Aucun poids entre les deux bornes, ou bornes inversées
+        assertEquals(List.of(), index.pairsInRange(0.3, 0.4));
+        assertEquals(0, index.countInRange(0.3, 0.4));
+        assertEquals(List.of(), index.pairsInRange(0.5, 0.125));
+        assertEquals(0, index.countInRange(0.5, 0.125));
+    }
+
+    @Test
+    void topClassesAreBoundedByTheClassCount() {
+        CouplingHotspotIndex index = sample();
+        assertEquals(List.of(
+                new ClassCoupling("A", 2, 0.75),
+                new ClassCoupling("B", 1, 0.25),
+                new ClassCoupling("C", 1, 0.25),
+                new ClassCoupling("D", 1, 0.125)), index.topFanOut(100));
+        // À degré égal, le plus fort poids total passe devant
+        assertEquals(List.of(
+                new ClassCoupling("C", 2, 0.5),
+                new ClassCoupling("A", 2, 0.375),
+                new ClassCoupling("B", 1, 0.5)), index.topFanIn(100));
+        assertEquals(index.topFanOut(100).subList(0, 2), index.topFanOut(2));
+        assertEquals(List.of(), index.topFanOut(0));
+        assertEquals(List.of(), index.topFanIn(-3));
+    }
+
+    @Test
+    void unknownClassHasNoCoupling() {
+        CouplingHotspotIndex index = sample();
+        assertEquals(new ClassCoupling("Z", 0, 0.0), index.fanOut("Z"));
+        assertEquals(new ClassCoupling("Z", 0, 0.0), index.fanIn("Z"));
+        // Classe seulement appelée / seulement appelante
+        assertEquals(new ClassCoupling("D", 0, 0.0), index.fanIn("D"));
+        assertEquals(new ClassCoupling("A", 2, 0.75), index.fanOut("A"));
+
+        CouplingHotspotIndex empty = CouplingHotspotIndex.of(Map.of());
+        assertEquals(List.of(), empty.topPairs(5));
+        assertEquals(List.of(), empty.topFanIn(5));
+        assertEquals(0, empty.countInRange(0, 1));
+        assertEquals(new ClassCoupling("A", 0, 0.0), empty.fanOut("A"));
+    }
+
+    @Test
+    void matchesABruteForceReference() {
+        Random random = new Random(7);
+        for (int round = 0; round < 20; round++) {
+            // Peu de poids distincts : beaucoup d'égalités, et assez d'arcs pour le tri fusion
+            Map<String, Map<String, Double>> graph = new TreeMap<>();
+            int classes = 2 + random.nextInt(30);
+            for (int i = 0; i < classes * 3; i++) {
+                String from = "C" + random.nextInt(classes);
+                String to = "C" + random.nextInt(classes);
+                if (!from.equals(to)) {
+                    graph.computeIfAbsent(from, k -> new HashMap<>()).put(to, (1 + random.nextInt(4)) / 8.0);
+                }
+            }
+            CouplingHotspotIndex index = CouplingHotspotIndex.of(graph);
+
+            List<CouplingPair> expected = new ArrayList<>();
+            graph.forEach((from, targets) -> targets.forEach((to, weight) -> expected.add(new CouplingPair(from, to, weight))));
+            expected.sort(Comparator.comparingDouble(CouplingPair::weight).reversed()
+                    .thenComparing(CouplingPair::from).thenComparing(CouplingPair::to));
+            assertEquals(expected, index.topPairs(expected.size() + 1));
+
+            double min = (1 + random.nextInt(4)) / 8.0;
+            double max = (1 + random.nextInt(4)) / 8.0;
+            List<CouplingPair> inRange = expected.stream().filter(p -> p.weight() >= min && p.weight() <= max).toList();
+            assertEquals(inRange, index.pairsInRange(min, max));
+            assertEquals(inRange.size(), index.countInRange(min, max));
+
+            Map<String, ClassCoupling> fanOut = new TreeMap<>();
+            for (CouplingPair pair : expected) {
+                ClassCoupling old = fanOut.getOrDefault(pair.from(), new ClassCoupling(pair.from(), 0, 0.0));
+                fanOut.put(pair.from(), new ClassCoupling(pair.from(), old.degree() + 1, old.totalWeight() + pair.weight()));
+            }
+            List<ClassCoupling> expectedFanOut = new ArrayList<>(fanOut.values());
+            expectedFanOut.sort(Comparator.comparingInt(ClassCoupling::degree).reversed()
+                    .thenComparing(Comparator.comparingDouble(ClassCoupling::totalWeight).reversed())
+                    .thenComparing(ClassCoupling::className));
+            int k = 1 + random.nextInt(classes);
+            assertEquals(expectedFanOut.subList(0, Math.min(k, expectedFanOut.size())), index.topFanOut(k));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package analyser;
+
+import analyser.facts.FileFacts;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExternalLongSorterTest {
+
+    @TempDir
+    Path spillDir;
+
+    private long spillFileCount() throws IOException {
+        try (Stream<Path> files = Files.list(spillDir)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    void mergesSpilledRunsAndDeletesThemOnClose() throws IOException {
+        // Tampon minimal (1024 valeurs) : 100 runs, donc une fusion intermédiaire (plus de 64 runs)
+        MemoryBudget budget = new MemoryBudget(1, spillDir);
+        Random random = new Random(42);
+        TreeSet<Long> expected = new TreeSet<>();
+        try (ExternalLongSorter sorter = new ExternalLongSorter(budget, true, 16)) {
+            for (int i = 0; i < 100 * 1024; i++) {
+                long value = random.nextInt(50_000);
+                sorter.add(value);
+                expected.add(value);
+            }
+            assertTrue(spillFileCount() > 1);
+            try (ExternalLongSorter.LongCursor cursor = sorter.sorted()) {
+                for (long value : expected) {
+                    assertTrue(cursor.next());
+                    assertEquals(value, cursor.value());
+                }
+                assertFalse(cursor.next());
+            }
+        }
+        assertEquals(0, spillFileCount());
+    }
+
+    @Test
+    void callGraphBuilderRemovesItsRuns() throws IOException {
+        CallGraphBuilder builder = new CallGraphBuilder();
+        builder.setMemoryBudget(new MemoryBudget(1, spillDir));
+        for (int i = 0; i < 5000; i++) {
+            builder.addFacts(new FileFacts("p", List.of(), List.of(new FileFacts.CallEdge("A.m" + i, "B.m" + (i % 7)))));
+        }
+        assertEquals(5000, builder.getRawGraph().getEdgeCount());
+        assertEquals(0, spillFileCount());
+    }
+
+    @Test
+    void buffersShareOneBudget() throws IOException {
+        // 2048 valeurs en tout : le premier tampon les prend, le second reste au tampon minimal
+        MemoryBudget budget = new MemoryBudget(2048 * Long.BYTES, spillDir);
+        try (ExternalLongSorter first = new ExternalLongSorter(budget, true, 16)) {
+            for (int i = 0; i < 2048; i++) {
+                first.add(i);
+            }
+            assertFalse(first.hasSpilled());
+            assertEquals(2048L * Long.BYTES, budget.getReservedBytes());
+
+            ExternalLongSorter second = new ExternalLongSorter(budget, true, 16);
+            for (int i = 0; i < 1500; i++) {
+                second.add(i);
+            }
+            assertTrue(second.hasSpilled());
+            assertEquals((2048L + 1024) * Long.BYTES, budget.getReservedBytes());
+            try (ExternalLongSorter.LongCursor cursor = second.sorted()) {
+                for (int i = 0; i < 1500; i++) {
+                    assertTrue(cursor.next());
+                    assertEquals(i, cursor.value());
+                }
+                assertFalse(cursor.next());
+            }
+            second.close();
+        }
+        assertEquals(0, budget.getReservedBytes());
+        assertEquals((2048L + 1024) * Long.BYTES, budget.getPeakReservedBytes());
+        assertEquals(0, spillFileCount());
+    }
+}
@@ -0,0 +1,180 @@
+package analyser;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchicalClusteringTest {
+
+    /** Graphe aléatoire aux poids dyadiques (k / 8) : toute somme est exacte en double, quel que soit l'ordre. */
+    private static Map<String, Map<String, Double>> dyadicGraph(Random random) {
+        int classCount = 2 + random.nextInt(25);
+        double density = 0.1 + random.nextDouble() * 0.5;
+        Map<String, Map<String, Double>> graph = new HashMap<>();
+        for (int a = 0; a < classCount; a++) {
+            graph.computeIfAbsent("C" + a, k -> new HashMap<>());
+            for (int b = a + 1; b < classCount; b++) {
+                if (random.nextDouble() < density) {
+                    graph.get("C" + a).put("C" + b, (1 + random.nextInt(4)) / 8.0);
+                }
+            }
+        }
+        return graph;
+    }
+
+    /** Couplage de CouplingGraphBuilder sur un graphe d'appel aléatoire (poids appels / total, non dyadiques). */
+    private static Map<String, Map<String, Double>> builderGraph(Random random) {
+        int classCount = 3 + random.nextInt(25);
+        Map<String, Set<String>> callGraph = new HashMap<>();
+        int calls = classCount * (1 + random.nextInt(6));
+        for (int i = 0; i < calls; i++) {
+            String caller = "C" + random.nextInt(classCount) + ".m" + random.nextInt(3);
+            String callee = "C" + random.nextInt(classCount) + ".m" + random.nextInt(3);
+            callGraph.computeIfAbsent(caller, k -> new HashSet<>()).add(callee);
+        }
+        CouplingGraphBuilder builder = new CouplingGraphBuilder(callGraph);
+        builder.buildCouplingGraph();
+        return builder.getCouplingGraph();
+    }
+
+    /**
+     * Référence : recherche exhaustive de la version d'origine, mais avec des sommes exactes
+     * (BigDecimal). Renvoie les fusions dans l'ordre, chacune décrite par describeMerge.
+     */
+    private static List<String> exactReference(HierarchicalClustering clustering, Map<String, Map<String, Double>> graph) {
+        Map<String, Map<String, Double>> symmetric = new HashMap<>();
+        graph.forEach((a, row) -> row.forEach((b, weight) -> {
+            symmetric.computeIfAbsent(a, k -> new HashMap<>()).merge(b, weight, Double::sum);
+            symmetric.computeIfAbsent(b, k -> new HashMap<>()).merge(a, weight, Double::sum);
+        }));
+        List<List<String>> clusters = new ArrayList<>();
+        for (String className : clustering.collectClasses()) {
+            clusters.add(List.of(className));
+        }
+        List<String> merges = new ArrayList<>();
+        while (clusters.size() > 1) {
+            BigDecimal max = null;
+            int bestA = -1;
+            int bestB = -1;
+            for (int i = 0; i < clusters.size(); i++) {
+                for (int j = i + 1; j < clusters.size(); j++) {
+                    BigDecimal coupling = BigDecimal.ZERO;
+                    for (String a : clusters.get(i)) {
+                        for (String b : clusters.get(j)) {
+                            coupling = coupling.add(new BigDecimal(symmetric.getOrDefault(a, Map.of()).getOrDefault(b, 0.0)));
+                        }
+                    }
+                    if (max == null || coupling.compareTo(max) > 0) {
+                        max = coupling;
+                        bestA = i;
+                        bestB = j;
+                    }
+                }
+            }
+            List<String> left = clusters.get(bestA);
+            List<String> right = clusters.get(bestB);
+            merges.add(describeMerge(left, right, max.doubleValue()));
+            List<String> merged = new ArrayList<>(left);
+            merged.addAll(right);
+            clusters.remove(bestB);
+            clusters.remove(bestA);
+            clusters.add(merged);
+        }
+        return merges;
+    }
+
+    private static String describeMerge(Collection<String> left, Collection<String> right, double coupling) {
+        return new TreeSet<>(left) + " + " + new TreeSet<>(right) + " : " + coupling;
+    }
+
+    /** Fusions du dendrogramme compact : les noeuds n..2n-2 sont dans l'ordre des fusions. */
+    private static List<String> mergeOrder(CompactDendrogram dendrogram) {
+        List<String> merges = new ArrayList<>();
+        for (int node = dendrogram.getClassCount(); node < dendrogram.getNodeCount(); node++) {
+            merges.add(describeMerge(dendrogram.getClasses(dendrogram.getLeft(node)),
+                    dendrogram.getClasses(dendrogram.getRight(node)), dendrogram.getCoupling(node)));
+        }
+        return merges;
+    }
+
+    /** Arbre sous forme de texte : fils gauche et droit, couplage de chaque fusion. */
+    private static String describeTree(HierarchicalClustering.DendrogramNode node) {
+        if (node instanceof HierarchicalClustering.LeafNode leaf) {
+            return leaf.getClassName();
+        }
+        HierarchicalClustering.MergedNode merged = (HierarchicalClustering.MergedNode) node;
+        return "(" + describeTree(merged.getLeft()) + ", " + describeTree(merged.getRight()) + " : " + merged.getCoupling() + ")";
+    }
+
+    @Test
+    void dyadicWeightsGiveTheOriginalMergeOrder() {
+        Random random = new Random(23);
+        for (int graphIndex = 0; graphIndex < 300; graphIndex++) {
+            Map<String, Map<String, Double>> graph = dyadicGraph(random);
+            HierarchicalClustering clustering = new HierarchicalClustering(graph);
+            String original = describeTree(clustering.clusterExhaustive());
+
+            assertEquals(original, describeTree(clustering.cluster()), "graphe " + graphIndex);
+            CompactDendrogram compact = clustering.clusterCompact();
+            assertEquals(original, describeTree(compact.toTree()), "graphe " + graphIndex);
+            assertEquals(exactReference(clustering, graph), mergeOrder(compact), "graphe " + graphIndex);
+        }
+    }
+
+    @Test
+    void builderWeightsFollowExactSums() {
+        Random random = new Random(2023);
+        for (int graphIndex = 0; graphIndex < 100; graphIndex++) {
+            Map<String, Map<String, Double>> graph = builderGraph(random);
+            HierarchicalClustering clustering = new HierarchicalClustering(graph);
+            List<String> reference = exactReference(clustering, graph);
+
+            assertEquals(reference, mergeOrder(clustering.clusterCompact()), "graphe " + graphIndex);
+            assertEquals(describeTree(clustering.clusterCompact().toTree()), describeTree(clustering.cluster()), "graphe " + graphIndex);
+        }
+    }
+
+    /**
+     * 1 + 2^-53 arrondi vaut 1 : la version d'origine voit une égalité entre {C, D}-E et A-B et
+     * fusionne A-B (trouvée la première), cluster() voit l'écart exact et fusionne {C, D} et E.
+     */
+    @Test
+    void roundingNoLongerDecidesTheMergeOrder() {
+        Map<String, Map<String, Double>> graph = new HashMap<>();
+        graph.put("A", new HashMap<>(Map.of("B", 1.0)));
+        graph.put("C", new HashMap<>(Map.of("D", 4.0, "E", 1.0)));
+        graph.put("D", new HashMap<>(Map.of("E", Math.scalb(1.0, -53))));
+        HierarchicalClustering clustering = new HierarchicalClustering(graph);
+
+        HierarchicalClustering.MergedNode original = (HierarchicalClustering.MergedNode) clustering.clusterExhaustive();
+        assertEquals(Set.of("A", "B"), original.getLeft().getClasses());
+
+        CompactDendrogram compact = clustering.clusterCompact();
+        int secondMerge = compact.getClassCount() + 1;
+        assertEquals(Set.of("C", "D", "E"), compact.getClasses(secondMerge));
+        assertEquals(Set.of("C", "D", "E"), compact.getClasses(compact.getLeft(compact.getRoot())));
+        assertEquals(mergeOrder(compact), exactReference(clustering, graph));
+    }
+
+    /** Aucun noeud ne dépasse un CP infini, NaN ou maximal : chaque classe devient son propre module. */
+    @Test
+    void extremeThresholdsGiveSingletonModules() {
+        HierarchicalClustering clustering = new HierarchicalClustering(dyadicGraph(new Random(25)));
+        CompactDendrogram compact = clustering.clusterCompact();
+        HierarchicalClustering.DendrogramNode tree = compact.toTree();
+        for (double cp : new double[] {Double.POSITIVE_INFINITY, Double.NaN, Double.MAX_VALUE}) {
+            List<Set<String>> modules = clustering.identifyModules(compact, cp);
+            assertEquals(compact.getClassCount(), modules.size(), "CP = " + cp);
+            Set<String> classes = new HashSet<>();
+            for (Set<String> module : modules) {
+                assertEquals(1, module.size(), "CP = " + cp);
+                classes.addAll(module);
+            }
+            assertEquals(compact.getClasses(compact.getRoot()), classes, "CP = " + cp);
+            assertEquals(new HashSet<>(modules), new HashSet<>(clustering.identifyModules(tree, cp)), "CP = " + cp);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package analyser;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalCouplingModelTest {
+
+    private static Map<String, Map<String, Double>> rebuilt(Map<String, Set<String>> callGraph) {
+        CouplingGraphBuilder builder = new CouplingGraphBuilder(callGraph);
+        builder.buildCouplingGraph();
+        return builder.getCouplingGraph();
+    }
+
+    @Test
+    void incrementalUpdatesMatchAFullRebuild() {
+        Random random = new Random(11);
+        List<String> methods = new ArrayList<>();
+        for (int c = 0; c < 12; c++) {
+            for (int m = 0; m < 4; m++) {
+                methods.add("p.C" + c + ".m" + m);
+            }
+        }
+        Map<String, Set<String>> callGraph = new HashMap<>();
+        IncrementalCouplingModel model = new IncrementalCouplingModel();
+        for (int step = 0; step < 3000; step++) {
+            String caller = methods.get(random.nextInt(methods.size()));
+            Set<String> oldCallees = callGraph.getOrDefault(caller, Set.of());
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    String callee = methods.get(random.nextInt(methods.size()));
+                    if (oldCallees.contains(callee)) {
+                        model.removeCall(caller, callee);
+                        callGraph.get(caller).remove(callee);
+                    } else {
+                        model.addCall(caller, callee);
+                        callGraph.computeIfAbsent(caller, k -> new HashSet<>()).add(callee);
+                    }
+                }
+                case 1 -> {
+                    // Nouvel ensemble d'appelés qui recoupe en partie l'ancien
+                    Set<String> newCallees = new HashSet<>();
+                    for (String callee : oldCallees) {
+                        if (random.nextBoolean()) newCallees.add(callee);
+                    }
+                    for (int i = random.nextInt(4); i > 0; i--) {
+                        newCallees.add(methods.get(random.nextInt(methods.size())));
+                    }
+                    model.replaceCalls(caller, oldCallees, newCallees);
+                    callGraph.put(caller, newCallees);
+                }
+                default -> {
+                    model.removeCalls(caller, oldCallees);
+                    callGraph.remove(caller);
+                }
+            }
+            if (step % 50 == 0) {
+                assertEquals(rebuilt(callGraph), model.getCouplingGraph(), "étape " + step);
+                assertEquals(IncrementalCouplingModel.of(callGraph).getTotalRelations(), model.getTotalRelations());
+            }
+        }
+        Map<String, Map<String, Double>> expected = rebuilt(callGraph);
+        assertEquals(expected, model.getCouplingGraph());
+        assertEquals(expected.values().stream().mapToInt(Map::size).sum(), model.getPairCount());
+
+        // Tout retirer : le modèle redevient vide
+        callGraph.forEach(model::removeCalls);
+        assertEquals(0, model.getTotalRelations());
+        assertEquals(0, model.getPairCount());
+        assertEquals(Map.of(), model.getCouplingGraph());
+    }
+
+    @Test
+    void countsAndWeightsFollowTheCalls() {
+        IncrementalCouplingModel model = new IncrementalCouplingModel();
+        model.addCalls("A.a", List.of("B.b", "B.c", "A.b", "C.c"));
+        assertEquals(3, model.getTotalRelations());
+        assertEquals(2, model.getCallCount("A", "B"));
+        assertEquals(2.0 / 3, model.getWeight("A", "B"));
+        assertEquals(0.0, model.getWeight("A", "A"));
+        assertEquals(0.0, model.getWeight("A", "Inconnue"));
+
+        Map<String, Map<String, Double>> before = model.getCouplingGraph();
+        assertSame(before, model.getCouplingGraph());
+        model.removeCall("A.a", "B.c");
+        // La Map déjà renvoyée n'est pas modifiée
+        assertEquals(2.0 / 3, before.get("A").get("B"));
+        assertEquals(Map.of("A", Map.of("B", 0.5, "C", 0.5)), model.getCouplingGraph());
+
+        // Retirer un appel inconnu est une erreur, sans toucher aux comptes
+        assertThrows(IllegalStateException.class, () -> model.removeCall("A.a", "D.d"));
+        assertEquals(2, model.getTotalRelations());
+    }
+}
@@ -0,0 +1,73 @@
+package analyser;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongIntCounterTest {
+
+    private static Map<Long, Integer> contents(LongIntCounter counter) {
+        Map<Long, Integer> result = new HashMap<>();
+        counter.forEach((key, count) -> assertNull(result.put(key, count), "clé en double " + key));
+        return result;
+    }
+
+    @Test
+    void randomUpdatesMatchAHashMap() {
+        Random random = new Random(19);
+        for (int round = 0; round < 20; round++) {
+            // Peu de clés pour une petite table initiale : rehash au début, puis chaînes de sondage
+            // longues que les retraits (décalage arrière) doivent recoller, y compris en fin de table
+            LongIntCounter counter = new LongIntCounter(1 + random.nextInt(16));
+            Map<Long, Integer> expected = new HashMap<>();
+            int keyCount = 8 + random.nextInt(500);
+            for (int step = 0; step < 20_000; step++) {
+                long key = random.nextBoolean()
+                        ? random.nextInt(keyCount)
+                        : ((long) random.nextInt(keyCount) << 32) | random.nextInt(4);
+                int delta = random.nextInt(7) - 3;
+                int current = expected.getOrDefault(key, 0);
+                if (current + delta < 0) {
+                    assertThrows(IllegalArgumentException.class, () -> counter.add(key, delta));
+                } else {
+                    assertEquals(current + delta, counter.add(key, delta));
+                    if (current + delta == 0) expected.remove(key);
+                    else expected.put(key, current + delta);
+                }
+                assertEquals(expected.getOrDefault(key, 0), counter.get(key));
+                assertEquals(expected.size(), counter.size());
+                if (step % 1000 == 0) {
+                    assertEquals(expected, contents(counter));
+                }
+            }
+            assertEquals(expected, contents(counter));
+            for (Map.Entry<Long, Integer> entry : expected.entrySet()) {
+                assertEquals(entry.getValue(), counter.get(entry.getKey()));
+            }
+
+            // Tout retirer, dans l'ordre de la HashMap : la table redevient vide
+            for (Map.Entry<Long, Integer> entry : Map.copyOf(expected).entrySet()) {
+                assertEquals(0, counter.add(entry.getKey(), -entry.getValue()));
+            }
+            assertEquals(0, counter.size());
+            assertEquals(Map.of(), contents(counter));
+        }
+    }
+
+    @Test
+    void zeroAndNegativeDeltasOnAbsentKeys() {
+        LongIntCounter counter = new LongIntCounter(4);
+        assertEquals(0, counter.add(5, 0));
+        assertEquals(0, counter.size());
+        assertThrows(IllegalArgumentException.class, () -> counter.add(5, -1));
+        counter.increment(5);
+        counter.increment(5);
+        assertThrows(IllegalArgumentException.class, () -> counter.add(5, -3));
+        assertEquals(2, counter.get(5));
+        assertEquals(1, counter.size());
+    }
+}
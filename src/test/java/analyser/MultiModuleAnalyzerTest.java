@@ -0,0 +1,120 @@
+package analyser;
+
+import analyser.ModuleDiscovery.ProjectModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultiModuleAnalyzerTest {
+
+    @TempDir
+    Path root;
+
+    @BeforeEach
+    void createProject() throws IOException {
+        Files.writeString(root.resolve("pom.xml"), pom("parent", ""));
+        // base et zlib déclarent toutes deux une classe Helper
+        module("base", "", "base/Helper.java", "package base; public class Helper { public void help() {} }");
+        module("zlib", "", "zlib/Helper.java", "package zlib; public class Helper { public void help() {} }");
+        module("api", dependency("zlib"), "api/Service.java",
+                "package api; public class Service { public void serve() { new zlib.Helper().help(); } }");
+        module("app", dependency("api"), "app/Main.java",
+                "package app; public class Main { void run() { new api.Service().serve(); new zlib.Helper().help(); } }");
+        // Ne déclare pas zlib : ses appels vers zlib ne doivent pas être résolus
+        module("isolated", "", "isolated/Client.java",
+                "package isolated; public class Client { void run() { new zlib.Helper().help(); } }");
+    }
+
+    private static String pom(String artifactId, String dependencies) {
+        return "<project><modelVersion>4.0.0</modelVersion><groupId>g</groupId><artifactId>" + artifactId
+                + "</artifactId><version>1</version><dependencies>" + dependencies + "</dependencies></project>";
+    }
+
+    private static String dependency(String artifactId) {
+        return "<dependency><groupId>${project.groupId}</groupId><artifactId>" + artifactId + "</artifactId><version>1</version></dependency>";
+    }
+
+    private void module(String name, String dependencies, String source, String content) throws IOException {
+        Path dir = root.resolve(name);
+        Path file = dir.resolve("src/main/java").resolve(source);
+        Files.createDirectories(file.getParent());
+        Files.writeString(dir.resolve("pom.xml"), pom(name, dependencies));
+        Files.writeString(file, content);
+    }
+
+    @Test
+    void readsDeclaredDependencies() throws IOException {
+        List<ProjectModule> modules = new ModuleDiscovery().discover(root);
+        assertEquals(List.of("api", "app", "base", "isolated", "zlib"), modules.stream().map(ProjectModule::name).toList());
+        assertEquals(List.of("zlib"), modules.get(0).dependencies());
+        assertEquals(List.of("api"), modules.get(1).dependencies());
+        assertEquals(List.of(), modules.get(3).dependencies());
+    }
+
+    @Test
+    void readsGradleProjectDependencies() throws IOException {
+        Path gradleRoot = root.resolve("gradle");
+        for (String name : List.of("lib", "app")) {
+            Files.createDirectories(gradleRoot.resolve(name).resolve("src/main/java"));
+        }
+        Files.writeString(gradleRoot.resolve("lib/build.gradle"), "");
+        Files.writeString(gradleRoot.resolve("app/build.gradle"), "dependencies { implementation project(':lib') }");
+        List<ProjectModule> modules = new ModuleDiscovery().discover(gradleRoot);
+        assertEquals(List.of("lib"), modules.get(0).dependencies());
+        assertEquals(List.of(), modules.get(1).dependencies());
+    }
+
+    @Test
+    void testSourcesAreNeverASourceRoot() throws IOException {
+        Path layouts = root.resolve("layouts");
+        Files.createDirectories(layouts.resolve("testsonly/src/test/java"));
+        Files.createDirectories(layouts.resolve("kotlin/src/main/kotlin"));
+        Files.createDirectories(layouts.resolve("kotlin/src/test/java"));
+        Files.createDirectories(layouts.resolve("plain/src/p"));
+        for (String name : List.of("testsonly", "kotlin", "plain")) {
+            Files.writeString(layouts.resolve(name).resolve("build.gradle"), "");
+        }
+        Map<String, List<Path>> roots = new java.util.HashMap<>();
+        for (ProjectModule module : new ModuleDiscovery().discover(layouts)) {
+            roots.put(module.name(), module.sourceRoots());
+        }
+        // Sans dossier source, un module n'est pas retenu
+        assertEquals(Map.of("plain", List.of(layouts.resolve("plain/src"))), roots);
+    }
+
+    @Test
+    void couplesModulesThroughDeclaredDependenciesOnly() throws IOException {
+        MultiModuleAnalyzer analyzer = new MultiModuleAnalyzer(2, List.of());
+        analyzer.analyze(root);
+
+        Map<String, Map<String, Double>> coupling = analyzer.getModuleCouplingGraph();
+        // zlib.Helper est attribuée à zlib, pas à base (même nom simple) ; isolated ne résout rien
+        double third = 1.0 / 3;
+        assertEquals(Map.of("api", Map.of("zlib", third), "app", Map.of("api", third, "zlib", third)), coupling);
+        assertEquals(0, analyzer.getAmbiguousCallCount());
+    }
+
+    @Test
+    void sourceFiltersApplyToEveryModule() throws IOException {
+        for (String name : List.of("api", "app")) {
+            Path generated = root.resolve(name).resolve("src/main/java").resolve(name).resolve("generated");
+            Files.createDirectories(generated);
+            Files.writeString(generated.resolve("Stub.java"), "package " + name + ".generated; public class Stub {}");
+        }
+        MultiModuleAnalyzer analyzer = new MultiModuleAnalyzer(2, List.of());
+        analyzer.setSourceFilters(List.of(), List.of("*/generated/**"));
+        analyzer.analyze(root);
+
+        for (MultiModuleAnalyzer.ModuleResult result : analyzer.getResults()) {
+            assertEquals(1, result.getFileCount(), result.getModule().name());
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package analyser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectWatcherTest {
+
+    @TempDir
+    Path project;
+
+    private Path write(String relative, String source) throws IOException {
+        Path file = project.resolve("src/main/java").resolve(relative);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, source);
+        return file;
+    }
+
+    /** Watcher initialisé sans surveillance : applyChanges sur tous les fichiers. */
+    private ProjectWatcher load() {
+        Parser parser = new Parser(project.toString());
+        parser.getScanner().quiet(true);
+        ProjectWatcher watcher = new ProjectWatcher(parser);
+        watcher.applyChanges(parser.listSourceFiles());
+        return watcher;
+    }
+
+    @Test
+    void incrementalUpdateMatchesFullRebuild() throws IOException {
+        write("p/A.java", "package p; public class A { int x; void a() { new B().b(); } }");
+        Path b = write("p/B.java", "package p; public class B { void b() {} }");
+        Path c = write("q/C.java", "package q; public class C { int y; int z; void c() {} void d() {} }");
+        ProjectWatcher watcher = load();
+
+        write("p/B.java", "package p; public class B { int w; void b() { c(); } void c() {} }");
+        Files.delete(c);
+        Path d = write("r/D.java", "package r; public class D { void d() { new p.A().a(); } }");
+        watcher.applyChanges(List.of(b.toFile(), c.toFile(), d.toFile()));
+
+        ProjectWatcher rebuilt = load();
+        assertEquals(rebuilt.getStatsMap(), watcher.getStatsMap());
+        assertEquals(rebuilt.getStatistics().generateReport(), watcher.getStatistics().generateReport());
+        assertEquals(rebuilt.getCallGraph(), watcher.getCallGraph());
+        assertEquals(rebuilt.getCouplingGraph(), watcher.getCouplingGraph());
+        for (String className : List.of("A", "B", "C", "D")) {
+            assertEquals(rebuilt.getClassPackages().packageOf(className), watcher.getClassPackages().packageOf(className));
+        }
+        assertNull(watcher.getClassPackages().packageOf("C"));
+        assertEquals("r", watcher.getClassPackages().packageOf("D"));
+    }
+
+    @Test
+    void methodChangesUpdateOnlyTheirCallers() throws IOException {
+        write("p/I.java", "package p; public interface I { void run(); void stop(); }");
+        Path impl = write("p/Impl.java", "package p; public class Impl implements I { public void run() {} public void stop() {} }");
+        write("p/Other.java", "package p; public class Other extends Impl { }");
+        write("q/User.java", "package q; public class User { void use(p.I i) { i.run(); i.stop(); } }");
+        ProjectWatcher watcher = load();
+        int rebuilds = watcher.getHierarchyRebuildCount();
+
+        // Redéfinition ajoutée, méthode retirée, nouvelle méthode : mêmes supertypes
+        write("p/Impl.java", "package p; public class Impl implements I { public void run() {} public void halt() {} }");
+        Path other = write("p/Other.java", "package p; public class Other extends Impl { public void stop() {} }");
+        watcher.applyChanges(List.of(impl.toFile(), other.toFile()));
+        assertEquals(rebuilds, watcher.getHierarchyRebuildCount());
+
+        ProjectWatcher rebuilt = load();
+        assertEquals(rebuilt.getCallGraph(), watcher.getCallGraph());
+        assertEquals(rebuilt.getCouplingGraph(), watcher.getCouplingGraph());
+        assertTrue(watcher.getCallGraph().get("User.use").contains("Other.stop"));
+        assertFalse(watcher.getCallGraph().get("User.use").contains("Impl.stop"));
+
+        // Nouveau supertype : reconstruction complète
+        write("p/Other.java", "package p; public class Other extends Impl implements Runnable { public void stop() {} }");
+        watcher.applyChanges(List.of(other.toFile()));
+        assertEquals(rebuilds + 1, watcher.getHierarchyRebuildCount());
+        assertEquals(load().getCallGraph(), watcher.getCallGraph());
+    }
+
+    @Test
+    void gettersReturnCopies() throws IOException {
+        Path a = write("p/A.java", "package p; public class A { void a() {} }");
+        ProjectWatcher watcher = load();
+        StatisticsCollector stats = watcher.getStatistics();
+        ClassPackageIndex packages = watcher.getClassPackages();
+
+        Files.delete(a);
+        watcher.applyChanges(List.of(a.toFile()));
+
+        assertEquals(0, watcher.getStatsMap().get("Nombre de classes"));
+        assertEquals(1, stats.getStatsMap().get("Nombre de classes"));
+        assertEquals("p", packages.packageOf("A"));
+        assertNull(watcher.getClassPackages().packageOf("A"));
+    }
+}
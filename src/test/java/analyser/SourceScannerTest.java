@@ -0,0 +1,55 @@
+package analyser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SourceScannerTest {
+
+    @TempDir
+    Path dir;
+
+    private List<String> scan(Path root) {
+        List<String> relative = new ArrayList<>();
+        for (File file : new SourceScanner().quiet(true).scan(root)) {
+            relative.add(root.relativize(file.toPath()).toString().replace(File.separatorChar, '/'));
+        }
+        return relative;
+    }
+
+    @Test
+    void followsSymbolicLinksWithoutLoopingOnCycles() throws IOException {
+        Path root = dir.resolve("src");
+        Path outside = dir.resolve("shared/q");
+        Files.createDirectories(root.resolve("p"));
+        Files.createDirectories(outside);
+        Files.writeString(root.resolve("p/A.java"), "class A {}");
+        Files.writeString(outside.resolve("B.java"), "class B {}");
+        Files.writeString(dir.resolve("C.java"), "class C {}");
+
+        Files.createSymbolicLink(root.resolve("q"), outside);
+        Files.createSymbolicLink(root.resolve("p/C.java"), dir.resolve("C.java"));
+        Files.createSymbolicLink(root.resolve("p/loop"), root);
+
+        assertEquals(List.of("p/A.java", "p/C.java", "q/B.java"), scan(root));
+    }
+
+    @Test
+    void unreadableEntryDoesNotHideItsSiblings() throws IOException {
+        Path root = dir.resolve("src");
+        Files.createDirectories(root.resolve("p"));
+        Files.writeString(root.resolve("p/A.java"), "class A {}");
+        Files.writeString(root.resolve("p/Z.java"), "class Z {}");
+        Files.createSymbolicLink(root.resolve("p/M.java"), dir.resolve("missing.java"));
+
+        assertEquals(List.of("p/A.java", "p/Z.java"), scan(root));
+    }
+}
@@ -0,0 +1,88 @@
+package analyser;
+
+import analyser.facts.FileFacts;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatisticsCollectorTest {
+
+    private static FileFacts file(String packageName, FileFacts.ClassFacts... classes) {
+        return new FileFacts(packageName, List.of(classes), List.of());
+    }
+
+    private static FileFacts.ClassFacts clazz(String name, int attributes, int methods) {
+        List<FileFacts.MethodFacts> methodFacts = new java.util.ArrayList<>();
+        for (int i = 0; i < methods; i++) {
+            methodFacts.add(new FileFacts.MethodFacts("m" + i, 3, i));
+        }
+        return new FileFacts.ClassFacts(name, attributes, 10 * methods + 2, methodFacts);
+    }
+
+    private static StatisticsCollector rebuild(FileFacts... files) {
+        StatisticsCollector stats = new StatisticsCollector();
+        for (FileFacts facts : files) stats.addFacts(facts);
+        return stats;
+    }
+
+    @Test
+    void removeFactsUndoesAddFacts() {
+        FileFacts a = file("p", clazz("A", 2, 3), clazz("B", 0, 1));
+        FileFacts c = file("q", clazz("C", 1, 2));
+        StatisticsCollector stats = rebuild(a, c);
+
+        stats.removeFacts(c);
+        assertEquals(rebuild(a).getStatsMap(), stats.getStatsMap());
+        assertEquals(rebuild(a).generateReport(), stats.generateReport());
+
+        stats.removeFacts(a);
+        assertEquals(new StatisticsCollector().getStatsMap(), stats.getStatsMap());
+    }
+
+    @Test
+    void packageStaysWhileAFileDeclaresIt() {
+        FileFacts a = file("p", clazz("A", 0, 1));
+        FileFacts b = file("p", clazz("B", 0, 1));
+        StatisticsCollector stats = rebuild(a, b);
+
+        stats.removeFacts(a);
+        assertEquals(1, stats.getStatsMap().get("Nombre de packages"));
+        stats.removeFacts(b);
+        assertEquals(0, stats.getStatsMap().get("Nombre de packages"));
+    }
+
+    @Test
+    void removingTheVisibleDuplicateRestoresThePreviousOne() {
+        FileFacts first = file("p", clazz("A", 1, 2));
+        FileFacts second = file("q", clazz("A", 4, 5));
+        StatisticsCollector stats = rebuild(first, second);
+        assertEquals(rebuild(second).getStatsMap().get("Nombre total de méthodes"), stats.getStatsMap().get("Nombre total de méthodes"));
+
+        stats.removeFacts(second);
+        assertEquals(rebuild(first).getStatsMap(), stats.getStatsMap());
+        assertEquals(rebuild(first).generateReport(), stats.generateReport());
+    }
+
+    @Test
+    void removingAHiddenDuplicateKeepsTheVisibleOne() {
+        FileFacts first = file("p", clazz("A", 1, 2));
+        FileFacts second = file("q", clazz("A", 4, 5));
+        StatisticsCollector stats = rebuild(first, second);
+
+        stats.removeFacts(first);
+        assertEquals(rebuild(second).getStatsMap(), stats.getStatsMap());
+        assertEquals(rebuild(second).generateReport(), stats.generateReport());
+    }
+
+    @Test
+    void copyIsIndependent() {
+        FileFacts a = file("p", clazz("A", 2, 3));
+        StatisticsCollector stats = rebuild(a);
+        StatisticsCollector copy = stats.copy();
+
+        stats.removeFacts(a);
+        assertEquals(rebuild(a).getStatsMap(), copy.getStatsMap());
+    }
+}
@@ -0,0 +1,54 @@
+package analyser;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+/** Jars de test compilés à la volée (sources "chemin/Classe.java" -> contenu). */
+public final class TestJars {
+
+    private TestJars() {
+    }
+
+    /** Compile les sources avec le classpath donné et les range dans dir/name. */
+    public static Path build(Path dir, String name, Map<String, String> sources, Path... classpath) throws IOException {
+        Path work = Files.createTempDirectory(dir, name);
+        Path src = work.resolve("src");
+        Path classes = work.resolve("classes");
+        Files.createDirectories(classes);
+        List<String> args = new ArrayList<>(List.of("-d", classes.toString()));
+        if (classpath.length > 0) {
+            args.add("-classpath");
+            args.add(String.join(java.io.File.pathSeparator, Stream.of(classpath).map(Path::toString).toList()));
+        }
+        for (Map.Entry<String, String> source : sources.entrySet()) {
+            Path file = src.resolve(source.getKey());
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, source.getValue());
+            args.add(file.toString());
+        }
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler.run(null, null, null, args.toArray(new String[0])) != 0) {
+            throw new IllegalStateException("Compilation du jar de test impossible: " + name);
+        }
+
+        Path jar = dir.resolve(name);
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar));
+             Stream<Path> files = Files.walk(classes)) {
+            for (Path file : files.filter(Files::isRegularFile).toList()) {
+                out.putNextEntry(new JarEntry(classes.relativize(file).toString().replace('\\', '/')));
+                Files.copy(file, out);
+                out.closeEntry();
+            }
+        }
+        return jar;
+    }
+}
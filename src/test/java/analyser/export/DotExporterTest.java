@@ -0,0 +1,43 @@
+package analyser.export;
+
+import analyser.StatisticsCollector;
+import analyser.facts.FileFacts;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DotExporterTest {
+
+    private final DotExporter exporter = new DotExporter();
+
+    @Test
+    void escapesBackslashesAndQuotesInIds() throws IOException {
+        StringWriter out = new StringWriter();
+        exporter.writeCallGraph(Map.of("A.m", Set.of("Chemin\\\"x\\\".m")), out);
+        // Chemin\"x\".m : chaque \ est doublé, chaque " précédé d'un \
+        assertEquals("digraph callgraph {\n  \"A.m\" -> \"Chemin\\\\\\\"x\\\\\\\".m\";\n}\n", out.toString());
+    }
+
+    @Test
+    void keepsLeftAlignedLineBreaksInRecordLabels() throws IOException {
+        StatisticsCollector stats = new StatisticsCollector();
+        stats.addFacts(new FileFacts("p", List.of(new FileFacts.ClassFacts("A<T>", 2, 10, List.of())), List.of()));
+        StringWriter out = new StringWriter();
+        exporter.writeStatistics(stats, out);
+        assertTrue(out.toString().contains(
+                "\"A<T>\" [label=\"{A\\<T\\>|méthodes: 0\\lattributs: 2\\llignes: 10\\l}\"];"), out.toString());
+    }
+
+    @Test
+    void escapesRecordSeparators() {
+        assertEquals("a\\\\b", DotExporter.escape("a\\b"));
+        assertEquals("\\{a\\|b\\}", DotExporter.escapeRecordField("{a|b}"));
+        assertEquals("a\\\\b", DotExporter.escapeRecordField("a\\b"));
+    }
+}
@@ -0,0 +1,84 @@
+package analyser.facts;
+
+import analyser.Parser;
+import analyser.TestJars;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalysisCacheTest {
+
+    @TempDir
+    Path dir;
+
+    private List<FileFacts> analyse(Path project, List<Path> classpath, int expectedReparsed) throws IOException {
+        Parser parser = new Parser(project.toString());
+        parser.setClasspath(classpath);
+        AnalysisCache cache = new AnalysisCache(project);
+        cache.load();
+        List<FileFacts> facts = cache.refresh(parser, parser.listSourceFiles(), AnalysisMode.FULL);
+        cache.save();
+        assertEquals(expectedReparsed, cache.getLastReparsedCount());
+        return facts;
+    }
+
+    @Test
+    void changingTheClasspathInvalidatesCallEdges() throws IOException {
+        Path jar = TestJars.build(dir, "lib.jar", Map.of(
+                "lib/Base.java", "package lib; public class Base { public void run() {} }",
+                "lib/Service.java", "package lib; public class Service extends Base {}"));
+        Path project = dir.resolve("project");
+        Path source = project.resolve("src/main/java/app/Client.java");
+        Files.createDirectories(source.getParent());
+        Files.writeString(source, "package app; import lib.Service; class Client { void m() { new Service().run(); } }");
+
+        analyse(project, List.of(), 1);
+        analyse(project, List.of(), 0);
+        // Jar ajouté : le fichier n'a pas changé mais ses arcs doivent être recalculés avec les bindings
+        List<FileFacts> facts = analyse(project, List.of(jar), 1);
+        assertEquals(List.of(new FileFacts.CallEdge("Client.m", "Base.run", "lib")), facts.get(0).calls());
+        analyse(project, List.of(jar), 0);
+    }
+
+    @Test
+    void fileEditedDuringParsingIsNotCachedAsFresh() throws IOException {
+        Path project = dir.resolve("edited");
+        Path source = project.resolve("src/main/java/app/A.java");
+        Files.createDirectories(source.getParent());
+        Files.writeString(source, "package app; class A { void m() {} }");
+
+        // Le fichier est modifié entre le calcul de son hash et son parsing
+        Parser parser = new Parser(project.toString()) {
+            @Override
+            public <T> void mapFilesParallel(List<File> javaFiles, BiFunction<File, CompilationUnit, T> mapper, Consumer<T> consumer) {
+                try {
+                    Files.writeString(source, "package app; class A { void m() { n(); } void n() {} }");
+                    Files.setLastModifiedTime(source, java.nio.file.attribute.FileTime.fromMillis(Files.getLastModifiedTime(source).toMillis() + 5000));
+                } catch (IOException e) {
+                    throw new java.io.UncheckedIOException(e);
+                }
+                super.mapFilesParallel(javaFiles, mapper, consumer);
+            }
+        };
+        AnalysisCache cache = new AnalysisCache(project);
+        cache.load();
+        cache.refresh(parser, parser.listSourceFiles(), AnalysisMode.FULL);
+        cache.save();
+
+        // Le relevé d'avant le parsing ne correspond plus : le fichier est reparsé au run suivant
+        List<FileFacts> facts = analyse(project, List.of(), 1);
+        assertEquals(List.of(new FileFacts.CallEdge("A.m", "A.n", "app")), facts.get(0).calls());
+        analyse(project, List.of(), 0);
+    }
+}
@@ -0,0 +1,74 @@
+package analyser.facts;
+
+import analyser.CallGraphBuilder;
+import analyser.ClassHierarchyIndex;
+import analyser.Parser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TypeHierarchyExtractorTest {
+
+    @TempDir
+    Path project;
+
+    private List<FileFacts> analyse(String source) throws IOException {
+        Path file = project.resolve("src/main/java/p/Shapes.java");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, source);
+        Parser parser = new Parser(project.toString());
+        parser.getScanner().quiet(true);
+        List<FileFacts> facts = new ArrayList<>();
+        new AnalysisPipeline(parser).addSink(facts::add).run();
+        return facts;
+    }
+
+    private static final String SHAPES = """
+            package p;
+            interface Shape { double area(); }
+            enum Unit implements Shape {
+                ONE { public double area() { return 1; } },
+                TWO;
+                public double area() { return 2; }
+            }
+            record Square(double area) implements Shape {}
+            class Factory {
+                Shape make() { return new Shape() { public double area() { return 0; } }; }
+            }
+            class Client {
+                double use(Shape shape) { return shape.area(); }
+            }
+            """;
+
+    @Test
+    void indexesEnumsRecordsAndAnonymousClasses() throws IOException {
+        FileFacts facts = analyse(SHAPES).get(0);
+        Map<String, FileFacts.TypeFacts> types = new HashMap<>();
+        facts.types().forEach(type -> types.put(type.name(), type));
+
+        assertEquals(Set.of("Shape", "Unit", "Unit$1", "Square", "Factory", "Factory$1", "Client"), types.keySet());
+        assertEquals(new FileFacts.TypeFacts("Unit", null, List.of("Shape"), List.of("area")), types.get("Unit"));
+        assertEquals(new FileFacts.TypeFacts("Unit$1", "Unit", List.of(), List.of("area")), types.get("Unit$1"));
+        assertEquals(new FileFacts.TypeFacts("Square", null, List.of("Shape"), List.of("area")), types.get("Square"));
+        assertEquals(new FileFacts.TypeFacts("Factory$1", null, List.of("Shape"), List.of("area")), types.get("Factory$1"));
+        assertTrue(facts.instantiatedTypes().containsAll(List.of("Unit", "Unit$1", "Factory$1")));
+    }
+
+    @Test
+    void virtualCallsReachEnumRecordAndAnonymousImplementations() throws IOException {
+        CallGraphBuilder builder = new CallGraphBuilder();
+        analyse(SHAPES).forEach(builder::addFacts);
+        assertEquals(Set.of("Shape.area", "Unit.area", "Unit$1.area", "Square.area", "Factory$1.area"),
+                builder.getCallGraph().get("Client.use"));
+
+        ClassHierarchyIndex index = builder.getHierarchyIndex();
+        assertTrue(index.isSubtype("Unit$1", "Shape"));
+        assertTrue(index.isSubtype("Square", "Shape"));
+    }
+}